@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.MetacardType;
+
+/**
+ * Immutable set of {@link AttributeDescriptor}s indexed by attribute name.
+ * <p>
+ * Tables are interned: equal sets of descriptors share a single table, so every instance of a
+ * {@link MetacardType}, including deserialized copies, looks up its descriptors in the same
+ * index.
+ * <p>
+ * Each attribute name in the table has an ordinal between 0 and {@link #ordinals()}, which can be
+ * used to store the attributes of a metacard in an array instead of a map.
+ */
+public final class AttributeDescriptorTable {
+
+    private static final Interner<AttributeDescriptorTable> TABLES = Interners.newWeakInterner();
+
+    private final Set<AttributeDescriptor> descriptors;
+
+    private final AttributeDescriptor[] descriptorsByOrdinal;
+
+    private final Map<String, Integer> ordinals;
+
+    private final int hashCode;
+
+    private AttributeDescriptorTable(Collection<AttributeDescriptor> descriptors) {
+        Set<AttributeDescriptor> descriptorSet = new HashSet<>(descriptors.size() * 4 / 3 + 1);
+        descriptorSet.addAll(descriptors);
+        this.descriptors = Collections.unmodifiableSet(descriptorSet);
+        this.descriptorsByOrdinal = new AttributeDescriptor[descriptorSet.size()];
+        this.ordinals = new HashMap<>(descriptorSet.size() * 4 / 3 + 1);
+        int ordinal = 0;
+        for (AttributeDescriptor descriptor : descriptorSet) {
+            if (descriptor != null && !ordinals.containsKey(descriptor.getName())) {
+                descriptorsByOrdinal[ordinal] = descriptor;
+                ordinals.put(descriptor.getName(), ordinal++);
+            }
+        }
+        this.hashCode = descriptorSet.hashCode();
+    }
+
+    /**
+     * Returns the table of a set of descriptors.
+     *
+     * @param descriptors the descriptors, may be {@code null}
+     * @return the shared table holding the given descriptors
+     */
+    public static AttributeDescriptorTable of(Collection<AttributeDescriptor> descriptors) {
+        return TABLES.intern(new AttributeDescriptorTable(descriptors == null ?
+                Collections.emptySet() :
+                descriptors));
+    }
+
+    /**
+     * Returns the table of the descriptors of a {@link MetacardType}, reusing the table of a
+     * {@link MetacardTypeImpl}.
+     *
+     * @param metacardType the metacard type
+     * @return the shared table holding the descriptors of the metacard type
+     */
+    public static AttributeDescriptorTable of(MetacardType metacardType) {
+        if (metacardType instanceof MetacardTypeImpl) {
+            return ((MetacardTypeImpl) metacardType).getDescriptorTable();
+        }
+        return of(metacardType.getAttributeDescriptors());
+    }
+
+    /**
+     * @param attributeName the name of the attribute
+     * @return the descriptor of the attribute, or {@code null} if there is none
+     */
+    public AttributeDescriptor get(String attributeName) {
+        Integer ordinal = ordinals.get(attributeName);
+        return ordinal == null ? null : descriptorsByOrdinal[ordinal];
+    }
+
+    /**
+     * @param attributeName the name of the attribute
+     * @return the ordinal of the descriptor of the attribute, or -1 if there is none
+     */
+    public int ordinal(String attributeName) {
+        Integer ordinal = ordinals.get(attributeName);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return the number of ordinals in this table, one per attribute name
+     */
+    public int ordinals() {
+        return ordinals.size();
+    }
+
+    /**
+     * @return an unmodifiable set of the descriptors in this table
+     */
+    public Set<AttributeDescriptor> getAttributeDescriptors() {
+        return descriptors;
+    }
+
+    public int size() {
+        return descriptors.size();
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof AttributeDescriptorTable)) {
+            return false;
+        }
+        AttributeDescriptorTable other = (AttributeDescriptorTable) obj;
+        return hashCode == other.hashCode && descriptors.equals(other.descriptors);
+    }
+}
@@ -18,7 +18,9 @@
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import ddf.catalog.data.Attribute;
@@ -36,6 +38,10 @@
  * "http://docs.oracle.com/javase/6/docs/platform/serialization/spec/version.html#6678" >Sun's
  * Guidelines</a>.
  * </p>
+ * <p>
+ * Most attributes hold a single value, which is stored directly in the attribute. Multiple values
+ * are stored in an array. {@link #getValues()} returns a modifiable view of the values.
+ * </p>
  *
  * @author ddf.isgs@lmco.com
  */
@@ -50,7 +56,19 @@ public class AttributeImpl implements Attribute {
      */
     protected String name;
 
-    private transient List<Serializable> values;
+    private static final Serializable[] NO_VALUES = new Serializable[0];
+
+    /**
+     * The only value when {@link #values} is {@code null}.
+     */
+    private transient Serializable value;
+
+    /**
+     * The values when there are more than one, or {@code null}.
+     */
+    private transient Serializable[] values;
+
+    private transient int size;
 
     /**
      * Constructor
@@ -58,6 +76,7 @@ public class AttributeImpl implements Attribute {
      * @param name  - the name of this {@link Attribute}
      * @param value - the value of this {@link Attribute}
      */
+    @SuppressWarnings("unchecked")
     public AttributeImpl(String name, Serializable value) {
         /*
          * If any defensive logic is added to this constructor, then that logic should be reflected
@@ -66,7 +85,12 @@ public AttributeImpl(String name, Serializable value) {
          * constructor, the same check should be added in the readObject() method.
          */
         this.name = name;
-        this.values = createPopulatedList(value);
+        if (value instanceof List) {
+            setValues((List<Serializable>) value);
+        } else {
+            this.value = value;
+            this.size = 1;
+        }
     }
 
     /**
@@ -84,7 +108,7 @@ public AttributeImpl(String name, List<Serializable> values) {
          * constructor, the same check should be added in the readObject() method.
          */
         this.name = name;
-        this.values = new LinkedList<>(values);
+        setValues(values);
     }
 
     /**
@@ -108,26 +132,16 @@ public String getName() {
 
     @Override
     public Serializable getValue() {
-        if (!values.isEmpty()) {
-            return values.get(0);
-        } else {
-            return null;
-        }
-    }
-
-    private List<Serializable> createPopulatedList(Serializable value) {
-        List<Serializable> list = new LinkedList<>();
-        if (value instanceof List) {
-            list.addAll((List) value);
+        if (values == null) {
+            return value;
         } else {
-            list.add(value);
+            return values[0];
         }
-        return list;
     }
 
     @Override
     public List<Serializable> getValues() {
-        return values;
+        return new Values();
     }
 
     /**
@@ -136,14 +150,61 @@ public List<Serializable> getValues() {
      * @param value the value to add
      */
     public void addValue(Serializable value) {
-        values.add(value);
+        insertValue(size, value);
     }
 
     /**
      * Clears all {@link Attribute} values
      */
     public void clearValues() {
-        values.clear();
+        value = null;
+        values = null;
+        size = 0;
+    }
+
+    private void setValues(List<Serializable> list) {
+        if (list.size() > 1) {
+            values = list.toArray(new Serializable[list.size()]);
+            size = values.length;
+        } else if (list.size() == 1) {
+            value = list.get(0);
+            size = 1;
+        }
+    }
+
+    private Serializable valueAt(int index) {
+        return values == null ? value : values[index];
+    }
+
+    private void insertValue(int index, Serializable newValue) {
+        if (size == 0) {
+            value = newValue;
+        } else {
+            if (values == null) {
+                values = new Serializable[] {value, null};
+                value = null;
+            } else if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = newValue;
+        }
+        size++;
+    }
+
+    private Serializable removeValue(int index) {
+        Serializable removed = valueAt(index);
+        if (size == 1) {
+            value = null;
+        } else if (size == 2) {
+            value = values[1 - index];
+            values = null;
+        } else {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            values[size - 1] = null;
+        }
+        size--;
+        return removed;
     }
 
     /**
@@ -164,10 +225,10 @@ private void writeObject(ObjectOutputStream s) throws IOException {
          */
         s.defaultWriteObject();
 
-        s.writeInt(values.size());
+        s.writeInt(size);
 
-        for (Serializable ser : values) {
-            s.writeObject(ser);
+        for (int i = 0; i < size; i++) {
+            s.writeObject(valueAt(i));
         }
     }
 
@@ -190,9 +251,9 @@ private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundEx
 
         validateNonEmpty(numElements);
 
-        values = new LinkedList<Serializable>();
+        clearValues();
         for (int i = 0; i < numElements; i++) {
-            values.add((Serializable) s.readObject());
+            addValue((Serializable) s.readObject());
         }
 
         validateUntampered(numElements);
@@ -202,7 +263,7 @@ private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundEx
     private void validateUntampered(int numElements) throws InvalidObjectException {
         // Invariant: When the object was serialized, the integer written to
         // disk matched the number of value objects written to disk.
-        if (values.size() != numElements) {
+        if (size != numElements) {
             throw new InvalidObjectException(
                     "Corrupt object: written number of values does not match actual number of values.");
         }
@@ -219,6 +280,68 @@ private void validateNonEmpty(int numElements) throws InvalidObjectException {
 
     @Override
     public String toString() {
-        return getClass().getName() + " {name=" + this.name + ", values=" + this.values + "}";
+        return getClass().getName() + " {name=" + this.name + ", values=" + getValues() + "}";
+    }
+
+    /**
+     * Modifiable view of the values of this {@link Attribute}. Serialized as a copy of the
+     * values, like the list previously returned by {@link #getValues()}.
+     */
+    private class Values extends AbstractList<Serializable> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Serializable get(int index) {
+            checkIndex(index, size);
+            return valueAt(index);
+        }
+
+        @Override
+        public Serializable set(int index, Serializable element) {
+            checkIndex(index, size);
+            Serializable previous = valueAt(index);
+            if (values == null) {
+                value = element;
+            } else {
+                values[index] = element;
+            }
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Serializable element) {
+            checkIndex(index, size + 1);
+            insertValue(index, element);
+            modCount++;
+        }
+
+        @Override
+        public Serializable remove(int index) {
+            checkIndex(index, size);
+            modCount++;
+            return removeValue(index);
+        }
+
+        @Override
+        public void clear() {
+            clearValues();
+            modCount++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private Object writeReplace() {
+            return new ArrayList<>(this);
+        }
+
+        private void checkIndex(int index, int bound) {
+            if (index < 0 || index >= bound) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
     }
 }
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.MetacardType;
+
+/**
+ * The attributes of a {@link MetacardImpl}, stored in an array indexed by the ordinals of the
+ * {@link AttributeDescriptorTable} of its {@link MetacardType}. Attributes that the type does not
+ * describe are kept in a map.
+ * <p>
+ * The table is fixed when the slots are created, so attributes stay where they were stored even
+ * if the type changes afterwards.
+ */
+final class AttributeSlots {
+
+    /**
+     * Tables of the {@link MetacardType} implementations that do not keep their own, by identity.
+     */
+    private static final LoadingCache<MetacardType, AttributeDescriptorTable> TABLES =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .build(CacheLoader.from(AttributeDescriptorTable::of));
+
+    private final AttributeDescriptorTable table;
+
+    private Attribute[] slots;
+
+    private Map<String, Attribute> undescribed;
+
+    private int size;
+
+    AttributeSlots(MetacardType type) {
+        if (type instanceof MetacardTypeImpl) {
+            table = AttributeDescriptorTable.of(type);
+        } else {
+            table = TABLES.getUnchecked(type);
+        }
+    }
+
+    Attribute get(String name) {
+        int ordinal = table.ordinal(name);
+        if (ordinal >= 0) {
+            return slots == null ? null : slots[ordinal];
+        }
+        return undescribed == null ? null : undescribed.get(name);
+    }
+
+    /**
+     * Stores an attribute under a name, removing the attribute of that name if it is {@code null}.
+     */
+    void put(String name, Attribute attribute) {
+        if (attribute == null) {
+            remove(name);
+            return;
+        }
+
+        Attribute previous;
+        int ordinal = table.ordinal(name);
+        if (ordinal >= 0) {
+            if (slots == null) {
+                slots = new Attribute[table.ordinals()];
+            }
+            previous = slots[ordinal];
+            slots[ordinal] = attribute;
+        } else {
+            if (undescribed == null) {
+                undescribed = new HashMap<>();
+            }
+            previous = undescribed.put(name, attribute);
+        }
+
+        if (previous == null) {
+            size++;
+        }
+    }
+
+    void remove(String name) {
+        Attribute previous = null;
+        int ordinal = table.ordinal(name);
+        if (ordinal >= 0) {
+            if (slots != null) {
+                previous = slots[ordinal];
+                slots[ordinal] = null;
+            }
+        } else if (undescribed != null) {
+            previous = undescribed.remove(name);
+        }
+
+        if (previous != null) {
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<Attribute> values() {
+        List<Attribute> values = new ArrayList<>(size);
+        if (slots != null) {
+            for (Attribute attribute : slots) {
+                if (attribute != null) {
+                    values.add(attribute);
+                }
+            }
+        }
+        if (undescribed != null) {
+            values.addAll(undescribed.values());
+        }
+        return values;
+    }
+}
@@ -73,9 +73,9 @@ public class MetacardImpl implements Metacard {
     private static final Logger LOGGER = LoggerFactory.getLogger(MetacardImpl.class);
 
     /**
-     * key/value map of {@link Attribute}s.
+     * {@link Attribute}s by name, in slots of the {@link MetacardType}'s descriptors.
      */
-    private transient Map<String, Attribute> map = null;
+    private transient AttributeSlots attributes = null;
 
     private transient Metacard wrappedMetacard;
 
@@ -110,9 +110,9 @@ public MetacardImpl(MetacardType type) {
          * serialized object is maintained. For instance, if a null check is added in the
          * constructor, the same check should be added in the readObject() method.
          */
-        map = new HashMap<String, Attribute>();
         if (type != null) {
             this.type = type;
+            attributes = new AttributeSlots(type);
         } else {
             throw new IllegalArgumentException(
                     MetacardType.class.getName() + " instance should not be null.");
@@ -156,9 +156,9 @@ public MetacardImpl(Metacard metacard, MetacardType type) {
             throw new IllegalArgumentException(
                     MetacardType.class.getName() + " instance should not be null.");
         }
-        map = new HashMap<>();
+        attributes = new AttributeSlots(type);
         for (AttributeDescriptor attribute : metacard.getMetacardType().getAttributeDescriptors()) {
-            map.put(attribute.getName(), metacard.getAttribute(attribute.getName()));
+            attributes.put(attribute.getName(), metacard.getAttribute(attribute.getName()));
         }
     }
 
@@ -675,7 +675,9 @@ protected byte[] requestBytes(String key) {
 
     @Override
     public Attribute getAttribute(String name) {
-        return (wrappedMetacard != null) ? wrappedMetacard.getAttribute(name) : map.get(name);
+        return (wrappedMetacard != null) ?
+                wrappedMetacard.getAttribute(name) :
+                attributes.get(name);
     }
 
     /**
@@ -702,9 +704,9 @@ public void setAttribute(Attribute attribute) {
             Serializable value = attribute.getValue();
             if (name != null) {
                 if (value != null) {
-                    map.put(name, attribute);
+                    attributes.put(name, attribute);
                 } else {
-                    map.remove(name);
+                    attributes.remove(name);
                 }
             }
         }
@@ -750,10 +752,10 @@ private void writeObject(ObjectOutputStream stream) throws IOException {
             stream.writeObject(mt);
         }
 
-        if (map != null) {
-            stream.writeInt(map.size());
+        if (attributes != null) {
+            stream.writeInt(attributes.size());
 
-            for (Attribute attribute : this.map.values()) {
+            for (Attribute attribute : attributes.values()) {
                 stream.writeObject(attribute);
             }
         } else {
@@ -807,8 +809,6 @@ private void readObject(ObjectInputStream stream) throws IOException, ClassNotFo
          */
         stream.defaultReadObject();
 
-        map = new HashMap<String, Attribute>();
-
         wrappedMetacard = null;
 
         type = (MetacardType) stream.readObject();
@@ -818,6 +818,8 @@ private void readObject(ObjectInputStream stream) throws IOException, ClassNotFo
                     MetacardType.class.getName() + " instance cannot be null.");
         }
 
+        attributes = new AttributeSlots(type);
+
         int numElements = stream.readInt();
 
         for (int i = 0; i < numElements; i++) {
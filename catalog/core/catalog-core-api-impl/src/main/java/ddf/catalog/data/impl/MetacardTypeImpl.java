@@ -16,8 +16,10 @@
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 
 import ddf.catalog.data.AttributeDescriptor;
@@ -28,6 +30,12 @@
  * {@link BasicTypes#BASIC_METACARD}.
  *
  * <p>
+ * Attribute descriptors are looked up by name in an {@link AttributeDescriptorTable} shared by all
+ * instances with the same descriptors. The table is rebuilt the next time a descriptor is looked up
+ * after {@link #descriptors} has been modified.
+ * </p>
+ *
+ * <p>
  * This class is {@link java.io.Serializable} and care should be taken with compatibility if changes are
  * made.
  * </p>
@@ -48,7 +56,13 @@ public class MetacardTypeImpl implements MetacardType {
     /**
      * Set of {@link AttributeDescriptor}s
      */
-    protected transient Set<AttributeDescriptor> descriptors = new HashSet<AttributeDescriptor>();
+    protected transient Set<AttributeDescriptor> descriptors = new DescriptorSet();
+
+    /**
+     * Name index of {@link #descriptors}, {@code null} until a descriptor is looked up or after
+     * {@link #descriptors} has been modified.
+     */
+    private transient volatile AttributeDescriptorTable descriptorTable;
 
     /**
      * The name of this {@code MetacardTypeImpl}
@@ -94,13 +108,38 @@ public AttributeDescriptor getAttributeDescriptor(String attributeName) {
         if (attributeName == null) {
             return null;
         }
-        // TODO could this be faster?
-        for (AttributeDescriptor descriptor : descriptors) {
-            if (attributeName.equals(descriptor.getName())) {
-                return descriptor;
+
+        if (!(descriptors instanceof DescriptorSet)) {
+            // A subclass replaced the descriptors, changes to them cannot be tracked
+            for (AttributeDescriptor descriptor : descriptors) {
+                if (attributeName.equals(descriptor.getName())) {
+                    return descriptor;
+                }
             }
+            return null;
+        }
+
+        return getDescriptorTable().get(attributeName);
+    }
+
+    /**
+     * Shares the table of a type whose descriptors were copied into this one.
+     */
+    void setDescriptorTable(AttributeDescriptorTable descriptorTable) {
+        this.descriptorTable = descriptorTable;
+    }
+
+    AttributeDescriptorTable getDescriptorTable() {
+        if (!(descriptors instanceof DescriptorSet)) {
+            return AttributeDescriptorTable.of(descriptors);
+        }
+
+        AttributeDescriptorTable table = descriptorTable;
+        if (table == null) {
+            table = AttributeDescriptorTable.of(descriptors);
+            descriptorTable = table;
         }
-        return null;
+        return table;
     }
 
     /**
@@ -148,7 +187,7 @@ private void readObject(ObjectInputStream stream) throws IOException, ClassNotFo
 
         int numElements = stream.readInt();
 
-        descriptors = new HashSet<AttributeDescriptor>();
+        descriptors = new DescriptorSet();
 
         for (int i = 0; i < numElements; i++) {
             descriptors.add((AttributeDescriptor) stream.readObject());
@@ -160,7 +199,7 @@ public int hashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((name == null) ? 0 : name.hashCode());
-        result += (descriptors == null) ? 0 : descriptors.hashCode();
+        result += (descriptors == null) ? 0 : getDescriptorTable().hashCode();
         return result;
     }
 
@@ -192,6 +231,9 @@ public boolean equals(Object obj) {
             if (other.getAttributeDescriptors() != null) {
                 return false;
             }
+        } else if (other instanceof MetacardTypeImpl
+                && ((MetacardTypeImpl) other).descriptors != null) {
+            return getDescriptorTable().equals(((MetacardTypeImpl) other).getDescriptorTable());
         } else if (!descriptors.equals(other.getAttributeDescriptors())) {
             return false;
         }
@@ -199,4 +241,58 @@ public boolean equals(Object obj) {
         return true;
     }
 
+    /**
+     * Set of descriptors that discards the descriptor table whenever it is modified.
+     */
+    private class DescriptorSet extends HashSet<AttributeDescriptor> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean add(AttributeDescriptor descriptor) {
+            descriptorTable = null;
+            return super.add(descriptor);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends AttributeDescriptor> collection) {
+            descriptorTable = null;
+            return super.addAll(collection);
+        }
+
+        @Override
+        public boolean remove(Object descriptor) {
+            descriptorTable = null;
+            return super.remove(descriptor);
+        }
+
+        @Override
+        public void clear() {
+            descriptorTable = null;
+            super.clear();
+        }
+
+        @Override
+        public Iterator<AttributeDescriptor> iterator() {
+            Iterator<AttributeDescriptor> iterator = super.iterator();
+            return new Iterator<AttributeDescriptor>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public AttributeDescriptor next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    descriptorTable = null;
+                    iterator.remove();
+                }
+            };
+        }
+    }
+
 }
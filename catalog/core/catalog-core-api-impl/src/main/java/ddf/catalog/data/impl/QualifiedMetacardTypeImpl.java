@@ -49,11 +49,18 @@ public QualifiedMetacardTypeImpl(String namespace, String name,
     }
 
     public QualifiedMetacardTypeImpl(MetacardType mt) {
-        this(null, mt.getName(), mt.getAttributeDescriptors());
+        this(null, mt);
     }
 
     public QualifiedMetacardTypeImpl(String namespace, MetacardType mt) {
-        this(namespace, mt.getName(), mt.getAttributeDescriptors());
+        super(mt.getName(), mt.getAttributeDescriptors());
+        setDescriptorTable(AttributeDescriptorTable.of(mt));
+
+        this.namespace = namespace;
+
+        if (namespace == null || namespace.isEmpty()) {
+            this.namespace = QualifiedMetacardType.DEFAULT_METACARD_TYPE_NAMESPACE;
+        }
     }
 
     @Override
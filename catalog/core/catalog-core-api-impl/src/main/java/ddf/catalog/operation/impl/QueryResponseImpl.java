@@ -17,8 +17,10 @@
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -41,7 +43,7 @@ public class QueryResponseImpl extends ResponseImpl<QueryRequest> implements Que
 
     protected static final Result POISON_PILL_RESULT = new POISON_PILL_RESULT();
 
-    protected long hits;
+    protected volatile long hits;
 
     protected Set<ProcessingDetails> details = new HashSet<ProcessingDetails>();
 
@@ -196,6 +198,40 @@ public List<Result> getResults() {
         return resultList;
     }
 
+    /**
+     * Returns an {@link Iterator} over the results of this QueryResponse that returns each
+     * ${@link Result} as soon as it is added, blocking until the next one is available or the queue
+     * is closed. Results returned by the iterator are kept, so {@link #getResults()} still returns
+     * all of them afterwards.
+     *
+     * @return an iterator over the results, in the order they were added
+     */
+    public Iterator<Result> resultIterator() {
+        return new Iterator<Result>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (index < resultList.size()) {
+                    return true;
+                }
+                Result result = take();
+                if (result != null) {
+                    resultList.add(result);
+                }
+                return index < resultList.size();
+            }
+
+            @Override
+            public Result next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return resultList.get(index++);
+            }
+        };
+    }
+
     /**
      * Adds a ${@link Result} to this QueryResponse, and specifies whether or not to close the queue
      *
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import ddf.catalog.data.Result;
+
+/**
+ * Merges the {@link Result}s of several sources into a single sorted page while retaining at most
+ * {@code maxResults} entries.
+ * <p>
+ * Results are kept in a bounded heap whose head is the worst retained result, so each source's
+ * results can be merged as soon as that source responds and anything that can no longer make the
+ * page is released immediately instead of being held until every source has responded. When a
+ * source returns its results already sorted by the same {@link Comparator}, every result past the
+ * page cut-off is rejected with a single comparison.
+ * <p>
+ * Results that compare as equal keep the order in which they were added, so the merged page is
+ * identical to a stable sort of all results followed by truncation to {@code maxResults}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class BoundedResultMerger {
+
+    private final Comparator<? super Result> comparator;
+
+    private final int maxResults;
+
+    private final PriorityQueue<SequencedResult> heap;
+
+    private long sequence = 0;
+
+    /**
+     * Creates a merger that retains the best {@code maxResults} results according to
+     * {@code comparator}.
+     *
+     * @param comparator the sort order of the merged results
+     * @param maxResults the maximum number of results to retain; values less than 1 mean unbounded
+     */
+    public BoundedResultMerger(Comparator<? super Result> comparator, int maxResults) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator cannot be null");
+        }
+
+        this.comparator = comparator;
+        this.maxResults = maxResults > 0 ? maxResults : Integer.MAX_VALUE;
+        this.heap = new PriorityQueue<>(Math.min(this.maxResults, 64),
+                (a, b) -> compare(b, a));
+    }
+
+    /**
+     * Merges a source's results into the page.
+     *
+     * @param results the results of a single source, ideally already sorted
+     * @return the number of results that were retained
+     */
+    public int addAll(List<Result> results) {
+        if (results == null) {
+            return 0;
+        }
+
+        int retained = 0;
+        for (Result result : results) {
+            if (add(result)) {
+                retained++;
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * Merges a single result into the page.
+     *
+     * @param result the result to merge
+     * @return {@code true} if the result is currently part of the page
+     */
+    public boolean add(Result result) {
+        if (result == null) {
+            return false;
+        }
+
+        SequencedResult candidate = new SequencedResult(result, sequence++);
+        if (heap.size() < maxResults) {
+            heap.add(candidate);
+            return true;
+        }
+
+        if (compare(candidate, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(candidate);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the number of results currently retained
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Removes and returns the retained results in sorted order.
+     *
+     * @return the merged page, never {@code null}
+     */
+    public List<Result> drain() {
+        if (heap.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Result[] sorted = new Result[heap.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = heap.poll().result;
+        }
+        sequence = 0;
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    private int compare(SequencedResult a, SequencedResult b) {
+        int result = comparator.compare(a.result, b.result);
+        return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+    }
+
+    private static class SequencedResult {
+
+        private final Result result;
+
+        private final long sequence;
+
+        SequencedResult(Result result, long sequence) {
+            this.result = result;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import ddf.catalog.Constants;
+import ddf.catalog.data.Result;
+import ddf.catalog.federation.FederationException;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
+
+/**
+ * Iterates over all the {@link Result}s of a query, one page at a time.
+ * <p>
+ * Pages are requested with the {@link Constants#QUERY_CURSOR_KEY} property. When the source returns
+ * the cursor of the following page, each page is read from that cursor, so the cost of a page does
+ * not grow with its position in the results. Otherwise the start index of the query is advanced by
+ * the page size. Since sources ignore the start index of cursor queries, a query that does not
+ * start at the first result is always paged by start index. Iteration stops after a page holding
+ * fewer results than the page size, or after the first page if the query has no page size.
+ * <p>
+ * Failed queries are thrown from {@link Iterator#hasNext()} as a {@link QueryException}.
+ */
+public class ResultIterable implements Iterable<Result> {
+
+    private final QueryFunction queryFunction;
+
+    private final QueryRequest queryRequest;
+
+    /**
+     * @param queryFunction runs each page query, such as {@code catalogFramework::query}
+     * @param queryRequest  the query, with the page size used for each page
+     */
+    public ResultIterable(QueryFunction queryFunction, QueryRequest queryRequest) {
+        if (queryFunction == null || queryRequest == null || queryRequest.getQuery() == null) {
+            throw new IllegalArgumentException("Query function and query request cannot be null");
+        }
+        this.queryFunction = queryFunction;
+        this.queryRequest = queryRequest;
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        return new ResultIterator();
+    }
+
+    /**
+     * Runs a single page query.
+     */
+    @FunctionalInterface
+    public interface QueryFunction {
+        SourceResponse query(QueryRequest queryRequest)
+                throws UnsupportedQueryException, SourceUnavailableException, FederationException;
+    }
+
+    /**
+     * Thrown when a page of results cannot be queried.
+     */
+    public static class QueryException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public QueryException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private class ResultIterator implements Iterator<Result> {
+
+        private final QueryImpl query;
+
+        private final int pageSize;
+
+        private Serializable cursor;
+
+        private Iterator<Result> page = Collections.emptyIterator();
+
+        private boolean lastPage = false;
+
+        ResultIterator() {
+            Query original = queryRequest.getQuery();
+            query = new QueryImpl(original,
+                    original.getStartIndex(),
+                    original.getPageSize(),
+                    original.getSortBy(),
+                    original.requestsTotalResultsCount(),
+                    original.getTimeoutMillis());
+            pageSize = original.getPageSize();
+            cursor = original.getStartIndex() <= 1 ? Constants.QUERY_INITIAL_CURSOR : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !lastPage) {
+                nextPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public Result next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private void nextPage() {
+            Map<String, Serializable> properties = new HashMap<>();
+            if (queryRequest.getProperties() != null) {
+                properties.putAll(queryRequest.getProperties());
+            }
+            if (cursor != null) {
+                properties.put(Constants.QUERY_CURSOR_KEY, cursor);
+            }
+
+            SourceResponse response;
+            try {
+                response = queryFunction.query(new QueryRequestImpl(query,
+                        queryRequest.isEnterprise(),
+                        queryRequest.getSourceIds(),
+                        properties));
+            } catch (UnsupportedQueryException | SourceUnavailableException | FederationException e) {
+                throw new QueryException("Unable to query results starting at " + (cursor == null ?
+                        query.getStartIndex() :
+                        cursor), e);
+            }
+
+            List<Result> results = response.getResults();
+            Serializable nextCursor = response.getProperties() == null ?
+                    null :
+                    response.getProperties()
+                            .get(Constants.QUERY_NEXT_CURSOR_KEY);
+
+            page = results.iterator();
+            if (pageSize < 1 || results.size() < pageSize) {
+                lastPage = true;
+            } else if (cursor != null && nextCursor != null) {
+                lastPage = nextCursor.equals(cursor);
+                cursor = nextCursor;
+            } else {
+                cursor = null;
+                query.setStartIndex(query.getStartIndex() + results.size());
+            }
+        }
+    }
+}
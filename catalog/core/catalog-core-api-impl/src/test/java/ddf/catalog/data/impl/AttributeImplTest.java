@@ -19,7 +19,11 @@
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Serializable;
 import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.Before;
@@ -52,6 +56,56 @@ public void testValueRemoval() {
         assertEquals(1, toTest.getValue());
     }
 
+    @Test
+    public void testMultipleValues() {
+        toTest = new AttributeImpl("id", Arrays.<Serializable>asList("a", "b"));
+        toTest.addValue("c");
+        toTest.addValue("d");
+        assertEquals("a", toTest.getValue());
+        assertEquals(Arrays.asList("a", "b", "c", "d"), toTest.getValues());
+
+        toTest.clearValues();
+        assertNull(toTest.getValue());
+        assertEquals(Collections.emptyList(), toTest.getValues());
+    }
+
+    @Test
+    public void testModifyingValues() {
+        List<Serializable> values = toTest.getValues();
+        values.set(0, "a");
+        values.add("c");
+        values.add(1, "b");
+        assertEquals(Arrays.asList("a", "b", "c"), toTest.getValues());
+
+        values.remove("a");
+        values.remove(0);
+        assertEquals("c", toTest.getValue());
+        assertEquals(Collections.singletonList("c"), toTest.getValues());
+
+        values.clear();
+        assertNull(toTest.getValue());
+        assertEquals(0,
+                toTest.getValues()
+                        .size());
+    }
+
+    @Test
+    public void testNullValue() {
+        toTest = new AttributeImpl("id", (Serializable) null);
+        assertNull(toTest.getValue());
+        assertEquals(Collections.singletonList(null), toTest.getValues());
+    }
+
+    @Test
+    public void testSerializingValues() throws IOException, ClassNotFoundException {
+        toTest.addValue("second");
+        List<Serializable> values = toTest.getValues();
+
+        Attribute read = serializationLoop(new AttributeImpl("values", (Serializable) values));
+
+        assertEquals(values, read.getValues());
+    }
+
     @Test
     public void testSerializationSingle() throws IOException, ClassNotFoundException {
         Attribute read = serializationLoop(toTest);
@@ -562,4 +562,35 @@ public void testDeserializingHiddenAttribute() throws IOException, ClassNotFound
 
     }
 
+    @Test
+    public void testAttributesOutsideMetacardType() {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setTitle("title");
+        metacard.setAttribute("undescribed", "value");
+
+        assertEquals("title", metacard.getTitle());
+        assertEquals("value",
+                metacard.getAttribute("undescribed")
+                        .getValue());
+
+        metacard.setAttribute("undescribed", null);
+        metacard.setTitle(null);
+        assertNull(metacard.getAttribute("undescribed"));
+        assertNull(metacard.getTitle());
+    }
+
+    @Test
+    public void testAttributesAfterChangingMetacardType() {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setTitle("title");
+
+        metacard.setType(new MetacardTypeImpl("other", new HashSet<>()));
+        metacard.setAttribute("other", "value");
+
+        assertEquals("title", metacard.getTitle());
+        assertEquals("value",
+                metacard.getAttribute("other")
+                        .getValue());
+    }
+
 }
@@ -14,6 +14,8 @@
 package ddf.catalog.data.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -198,6 +200,57 @@ public void testEqualsSubClass() {
         assertTrue(metacardType.equals(extendedMetacardType));
     }
 
+    @Test
+    public void testGetAttributeDescriptor() {
+        MetacardTypeImpl metacardType = generateMetacardType("metacardType", 0);
+
+        assertEquals(BasicTypes.DOUBLE_TYPE,
+                metacardType.getAttributeDescriptor("frequency")
+                        .getType());
+        assertNull(metacardType.getAttributeDescriptor("height"));
+        assertNull(metacardType.getAttributeDescriptor(null));
+    }
+
+    @Test
+    public void testGetAttributeDescriptorAfterSubclassModifiesDescriptors() {
+        MetacardTypeImplExtended metacardType = new MetacardTypeImplExtended("extended",
+                null,
+                "description");
+        assertNull(metacardType.getAttributeDescriptor("height"));
+
+        metacardType.addDescriptor(new AttributeDescriptorImpl("height",
+                true,
+                true,
+                false,
+                false,
+                BasicTypes.DOUBLE_TYPE));
+        assertEquals("height",
+                metacardType.getAttributeDescriptor("height")
+                        .getName());
+
+        metacardType.removeDescriptors();
+        assertNull(metacardType.getAttributeDescriptor("height"));
+    }
+
+    @Test
+    public void testDescriptorTableIsShared() throws IOException, ClassNotFoundException {
+        MetacardTypeImpl metacardType1 = generateMetacardType("metacardType", 0);
+        MetacardTypeImpl metacardType2 = generateMetacardType("metacardType", 0);
+
+        assertSame(metacardType1.getDescriptorTable(), metacardType2.getDescriptorTable());
+        assertSame(metacardType1.getDescriptorTable(),
+                new QualifiedMetacardTypeImpl(metacardType1).getDescriptorTable());
+
+        String fileLocation = "target/metacardType.ser";
+        Serializer<MetacardTypeImpl> serializer = new Serializer<MetacardTypeImpl>();
+        serializer.serialize(metacardType1, fileLocation);
+        MetacardTypeImpl readMetacardType = serializer.deserialize(fileLocation);
+
+        assertSame(metacardType1.getDescriptorTable(), readMetacardType.getDescriptorTable());
+        assertEquals(metacardType1.getAttributeDescriptor("title"),
+                readMetacardType.getAttributeDescriptor("title"));
+    }
+
     private MetacardTypeImpl generateMetacardType(String name, int descriptorSetIndex) {
 
         HashSet<AttributeDescriptor> descriptors = new HashSet<AttributeDescriptor>();
@@ -264,6 +317,14 @@ public String getDescription() {
             return description;
         }
 
+        public void addDescriptor(AttributeDescriptor descriptor) {
+            descriptors.add(descriptor);
+        }
+
+        public void removeDescriptors() {
+            descriptors.removeIf(descriptor -> true);
+        }
+
     }
 
 }
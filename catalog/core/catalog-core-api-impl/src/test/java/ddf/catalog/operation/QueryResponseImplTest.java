@@ -13,12 +13,21 @@
  */
 package ddf.catalog.operation;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Iterator;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.junit.Test;
 
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 
 /**
@@ -40,4 +49,25 @@ public void queryNullSourceResponse() throws ParserConfigurationException {
         assertNotNull(response);
     }
 
+    @Test
+    public void resultIteratorReturnsResultsAsTheyAreAdded() throws Exception {
+        QueryResponseImpl response = new QueryResponseImpl(null);
+        Result first = new ResultImpl(new MetacardImpl());
+        Result second = new ResultImpl(new MetacardImpl());
+        response.addResult(first, false);
+
+        Iterator<Result> results = response.resultIterator();
+        assertSame(first, results.next());
+
+        Thread producer = new Thread(() -> response.addResults(Collections.singletonList(second),
+                true));
+        producer.start();
+        assertSame(second, results.next());
+        assertFalse(results.hasNext());
+        producer.join();
+
+        assertEquals(2,
+                response.getResults()
+                        .size());
+    }
 }
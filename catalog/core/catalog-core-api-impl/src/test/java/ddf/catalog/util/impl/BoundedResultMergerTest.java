@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.opengis.filter.sort.SortOrder;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+
+public class BoundedResultMergerTest {
+
+    private static final Comparator<Result> DESCENDING =
+            new RelevanceResultComparator(SortOrder.DESCENDING);
+
+    @Test
+    public void testMergeSortedSources() {
+        BoundedResultMerger merger = new BoundedResultMerger(DESCENDING, 4);
+
+        merger.addAll(results(9.0, 7.0, 5.0, 3.0, 1.0));
+        merger.addAll(results(8.0, 6.0, 4.0));
+
+        assertEquals(Arrays.asList(9.0, 8.0, 7.0, 6.0), scores(merger.drain()));
+    }
+
+    @Test
+    public void testRetainsAtMostMaxResults() {
+        BoundedResultMerger merger = new BoundedResultMerger(DESCENDING, 3);
+
+        assertEquals(3, merger.addAll(results(5.0, 4.0, 3.0, 2.0, 1.0)));
+        assertEquals(1, merger.addAll(results(4.5, 0.5)));
+
+        assertEquals(3, merger.size());
+        assertEquals(Arrays.asList(5.0, 4.5, 4.0), scores(merger.drain()));
+    }
+
+    @Test
+    public void testUnboundedWhenMaxResultsNotPositive() {
+        BoundedResultMerger merger = new BoundedResultMerger(DESCENDING, 0);
+
+        merger.addAll(results(1.0, 3.0));
+        merger.addAll(results(2.0));
+
+        assertEquals(Arrays.asList(3.0, 2.0, 1.0), scores(merger.drain()));
+    }
+
+    @Test
+    public void testTiesKeepInsertionOrder() {
+        BoundedResultMerger merger = new BoundedResultMerger(DESCENDING, 2);
+        List<Result> first = results(1.0);
+        List<Result> second = results(1.0);
+        List<Result> third = results(1.0);
+
+        merger.addAll(first);
+        merger.addAll(second);
+        assertFalse(merger.add(third.get(0)));
+
+        List<Result> merged = merger.drain();
+        assertSame(first.get(0), merged.get(0));
+        assertSame(second.get(0), merged.get(1));
+    }
+
+    @Test
+    public void testMatchesStableSortOfUnsortedSources() {
+        Random random = new Random(42);
+        List<Result> all = new ArrayList<>();
+        BoundedResultMerger merger = new BoundedResultMerger(DESCENDING, 25);
+
+        for (int source = 0; source < 10; source++) {
+            List<Result> sourceResults = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                sourceResults.add(result((double) random.nextInt(20)));
+            }
+            all.addAll(sourceResults);
+            merger.addAll(sourceResults);
+        }
+
+        Collections.sort(all, DESCENDING);
+        List<Result> merged = merger.drain();
+        assertEquals(25, merged.size());
+        for (int i = 0; i < merged.size(); i++) {
+            assertSame(all.get(i), merged.get(i));
+        }
+    }
+
+    @Test
+    public void testDrainEmptiesMerger() {
+        BoundedResultMerger merger = new BoundedResultMerger(DESCENDING, 10);
+
+        assertTrue(merger.drain()
+                .isEmpty());
+        merger.addAll(results(1.0));
+        assertEquals(1, merger.drain()
+                .size());
+        assertEquals(0, merger.size());
+    }
+
+    @Test
+    public void testNullResultsIgnored() {
+        BoundedResultMerger merger = new BoundedResultMerger(DESCENDING, 10);
+
+        assertEquals(0, merger.addAll(null));
+        assertFalse(merger.add(null));
+        assertEquals(0, merger.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullComparator() {
+        new BoundedResultMerger(null, 10);
+    }
+
+    private static List<Result> results(Double... scores) {
+        List<Result> results = new ArrayList<>();
+        for (Double score : scores) {
+            results.add(result(score));
+        }
+        return results;
+    }
+
+    private static Result result(Double score) {
+        ResultImpl result = new ResultImpl();
+        result.setRelevanceScore(score);
+        return result;
+    }
+
+    private static List<Double> scores(List<Result> results) {
+        List<Double> scores = new ArrayList<>();
+        for (Result result : results) {
+            scores.add(result.getRelevanceScore());
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+import ddf.catalog.Constants;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.SourceUnavailableException;
+
+public class ResultIterableTest {
+
+    private final List<QueryRequest> requests = new ArrayList<>();
+
+    @Test
+    public void testPagesWithCursor() {
+        List<String> ids = ids(new ResultIterable(request -> {
+            requests.add(request);
+            String cursor = (String) request.getPropertyValue(Constants.QUERY_CURSOR_KEY);
+            switch (cursor) {
+            case Constants.QUERY_INITIAL_CURSOR:
+                return response(request, "b", "1", "2");
+            case "b":
+                return response(request, "c", "3", "4");
+            default:
+                return response(request, "d", "5");
+            }
+        }, request(2)));
+
+        assertEquals(Arrays.asList("1", "2", "3", "4", "5"), ids);
+        assertEquals(3, requests.size());
+        for (QueryRequest request : requests) {
+            assertEquals(1, request.getQuery()
+                    .getStartIndex());
+            assertEquals("native", request.getPropertyValue("mode"));
+        }
+    }
+
+    @Test
+    public void testStopsWhenCursorDoesNotChange() {
+        List<String> ids = ids(new ResultIterable(request -> {
+            requests.add(request);
+            return response(request, "b", "1", "2");
+        }, request(2)));
+
+        assertEquals(Arrays.asList("1", "2", "1", "2"), ids);
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testPagesWithStartIndexWithoutCursor() {
+        List<String> ids = ids(new ResultIterable(request -> {
+            requests.add(request);
+            switch (request.getQuery()
+                    .getStartIndex()) {
+            case 1:
+                return response(request, null, "1", "2");
+            case 3:
+                return response(request, null, "3", "4");
+            default:
+                return response(request, null);
+            }
+        }, request(2)));
+
+        assertEquals(Arrays.asList("1", "2", "3", "4"), ids);
+        assertEquals(3, requests.size());
+        assertEquals(Constants.QUERY_INITIAL_CURSOR,
+                requests.get(0)
+                        .getPropertyValue(Constants.QUERY_CURSOR_KEY));
+        assertFalse(requests.get(1)
+                .getProperties()
+                .containsKey(Constants.QUERY_CURSOR_KEY));
+        assertEquals(5,
+                requests.get(2)
+                        .getQuery()
+                        .getStartIndex());
+    }
+
+    @Test
+    public void testPagesWithStartIndexWhenNotStartingAtFirstResult() {
+        QueryRequest queryRequest = request(2);
+        ((QueryImpl) queryRequest.getQuery()).setStartIndex(3);
+
+        List<String> ids = ids(new ResultIterable(request -> {
+            requests.add(request);
+            switch (request.getQuery()
+                    .getStartIndex()) {
+            case 3:
+                return response(request, "b", "3", "4");
+            default:
+                return response(request, "c", "5");
+            }
+        }, queryRequest));
+
+        assertEquals(Arrays.asList("3", "4", "5"), ids);
+        assertEquals(2, requests.size());
+        for (QueryRequest request : requests) {
+            assertFalse(request.getProperties()
+                    .containsKey(Constants.QUERY_CURSOR_KEY));
+        }
+        assertEquals(5,
+                requests.get(1)
+                        .getQuery()
+                        .getStartIndex());
+    }
+
+    @Test
+    public void testSinglePageWithoutPageSize() {
+        List<String> ids = ids(new ResultIterable(request -> {
+            requests.add(request);
+            return response(request, "b", "1", "2", "3");
+        }, request(0)));
+
+        assertEquals(Arrays.asList("1", "2", "3"), ids);
+        assertEquals(1, requests.size());
+    }
+
+    @Test(expected = ResultIterable.QueryException.class)
+    public void testQueryFailure() {
+        new ResultIterable(request -> {
+            throw new SourceUnavailableException("unavailable");
+        }, request(2)).iterator()
+                .hasNext();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullRequest() {
+        new ResultIterable(request -> null, null);
+    }
+
+    private static QueryRequest request(int pageSize) {
+        QueryImpl query = new QueryImpl(Filter.INCLUDE);
+        query.setPageSize(pageSize);
+        Map<String, Serializable> properties = new HashMap<>();
+        properties.put("mode", "native");
+        return new QueryRequestImpl(query, properties);
+    }
+
+    private static SourceResponse response(QueryRequest request, String nextCursor,
+            String... ids) {
+        List<Result> results = new ArrayList<>();
+        for (String id : ids) {
+            MetacardImpl metacard = new MetacardImpl();
+            metacard.setId(id);
+            results.add(new ResultImpl(metacard));
+        }
+        Map<String, Serializable> properties = new HashMap<>();
+        if (nextCursor != null) {
+            properties.put(Constants.QUERY_NEXT_CURSOR_KEY, nextCursor);
+        }
+        return new SourceResponseImpl(request, properties, results);
+    }
+
+    private static List<String> ids(Iterable<Result> results) {
+        List<String> ids = new ArrayList<>();
+        for (Result result : results) {
+            ids.add(result.getMetacard()
+                    .getId());
+        }
+        return ids;
+    }
+}
@@ -165,5 +165,51 @@ public final class Constants {
 
     public static final String CONTENT_PATHS = "content-paths";
 
+    /**
+     * Storage request property holding the checksums of the staged content, as a {@code Map} of
+     * content item ID to checksum, computed while the content was copied to the paths in
+     * {@link #CONTENT_PATHS}.
+     */
+    public static final String CONTENT_CHECKSUMS = "content-checksums";
+
+    /**
+     * Storage request property holding the name of the algorithm of the checksums in
+     * {@link #CONTENT_CHECKSUMS}.
+     */
+    public static final String CONTENT_CHECKSUM_ALGORITHM = "content-checksum-algorithm";
+
     public static final String ATTRIBUTE_OVERRIDES_KEY = "attributeOverrides";
+
+    /**
+     * Query request property holding the names of the attributes to return, as a {@code Set} of
+     * {@code String}s. Sources that support it return partial metacards holding only those
+     * attributes.
+     */
+    public static final String QUERY_RESULT_ATTRIBUTES_KEY = "result-attributes";
+
+    /**
+     * Query request property holding the cursor of the page to return, starting with
+     * {@link #QUERY_INITIAL_CURSOR}. Sources that support it ignore the start index of the query and
+     * return the cursor of the following page in the {@link #QUERY_NEXT_CURSOR_KEY} response
+     * property.
+     */
+    public static final String QUERY_CURSOR_KEY = "cursor";
+
+    /**
+     * The cursor of the first page of a query.
+     */
+    public static final String QUERY_INITIAL_CURSOR = "*";
+
+    /**
+     * Query response property holding the cursor of the following page.
+     */
+    public static final String QUERY_NEXT_CURSOR_KEY = "next-cursor";
+
+    /**
+     * Query request property identifying the paging session of a federated query. Pages of a query
+     * requested in order with the same session id only fetch the results of each source that can
+     * make the requested page. Sessions are kept apart for each user. OpenSearch clients opt in
+     * by sending the session id as the {@code query-session-id} request parameter.
+     */
+    public static final String QUERY_SESSION_ID_KEY = "query-session-id";
 }
@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.plugin;
+
+/**
+ * A ConcurrentPolicyPlugin is a {@link PolicyPlugin} whose
+ * {@link #processPostQuery(ddf.catalog.data.Result, java.util.Map)} only depends on the
+ * {@link ddf.catalog.data.Result} it is given and is safe to call from several threads at once.
+ * <p/>
+ * When every {@link PolicyPlugin} of the framework is a ConcurrentPolicyPlugin, the results of a
+ * query are processed in parallel, in chunks, as they are returned by the sources.
+ */
+public interface ConcurrentPolicyPlugin extends PolicyPlugin {
+}
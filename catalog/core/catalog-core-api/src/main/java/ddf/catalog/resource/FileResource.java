@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.resource;
+
+import java.nio.file.Path;
+
+/**
+ * A {@link Resource} whose complete content is held in a local file, such as a product in the
+ * product cache. Endpoints can serve any part of the file directly instead of reading the
+ * {@link #getInputStream()} from its first byte.
+ * <p>
+ * The {@link #getInputStream()} of a FileResource always starts at the first byte of the file,
+ * even if the request asked for bytes to be skipped.
+ */
+public interface FileResource extends Resource {
+
+    /**
+     * @return the path of the file holding the content of this Resource
+     */
+    Path getPath();
+}
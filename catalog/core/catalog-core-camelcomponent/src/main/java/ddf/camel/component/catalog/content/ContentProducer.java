@@ -16,6 +16,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -79,12 +80,53 @@ public void process(Exchange exchange)
         }
 
         Message in = exchange.getIn();
-        Object body = in.getBody();
-        File ingestedFile;
+        List<File> ingestedFiles = getIngestedFiles(in.getBody());
 
+        if (ingestedFiles.isEmpty()) {
+            LOGGER.debug("EXITING: process - ingestedFile is NULL");
+            return;
+        }
+
+        List<ContentItem> contentItems = new ArrayList<>(ingestedFiles.size());
+        for (File ingestedFile : ingestedFiles) {
+            contentItems.add(createContentItem(ingestedFile));
+        }
+
+        LOGGER.debug("Creating {} content item(s).", contentItems.size());
+
+        CreateStorageRequest createRequest = new CreateStorageRequestImpl(contentItems, null);
+
+        String attributeOverrideHeaders = (String) exchange.getIn()
+                .getHeaders().get(Constants.ATTRIBUTE_OVERRIDES_KEY);
+        createRequest.getProperties().put(Constants.ATTRIBUTE_OVERRIDES_KEY, createAttributeOverrideMapFromHeaders(attributeOverrideHeaders));
+
+        CreateResponse createResponse = endpoint.getComponent()
+                .getCatalogFramework()
+                .create(createRequest);
+        if (createResponse != null) {
+            List<Metacard> createdMetacards = createResponse.getCreatedMetacards();
+
+            if (LOGGER.isDebugEnabled()) {
+                for (Metacard metacard : createdMetacards) {
+                    LOGGER.debug("content item created with id = {}", metacard.getId());
+                }
+            }
+        }
+
+        LOGGER.debug("EXITING: process");
+    }
+
+    /**
+     * Returns the files carried by a message body, which is either a single Camel
+     * {@link GenericFile} or a {@link List} of them, so that a batch of files can be ingested
+     * with a single {@link CreateStorageRequest}.
+     */
+    private List<File> getIngestedFiles(Object body) throws ContentComponentException {
+        List<?> bodies;
         if (body instanceof GenericFile) {
-            GenericFile<File> genericFile = (GenericFile<File>) body;
-            ingestedFile = genericFile.getFile();
+            bodies = Collections.singletonList(body);
+        } else if (body instanceof List) {
+            bodies = (List<?>) body;
         } else {
             LOGGER.warn(
                     "Unable to cast message body to Camel GenericFile, so unable to process ingested file");
@@ -92,11 +134,23 @@ public void process(Exchange exchange)
                     "Unable to cast message body to Camel GenericFile, so unable to process ingested file");
         }
 
-        if (ingestedFile == null) {
-            LOGGER.debug("EXITING: process - ingestedFile is NULL");
-            return;
+        List<File> ingestedFiles = new ArrayList<>(bodies.size());
+        for (Object element : bodies) {
+            if (!(element instanceof GenericFile)) {
+                LOGGER.warn(
+                        "Unable to cast message body to Camel GenericFile, so unable to process ingested file");
+                throw new ContentComponentException(
+                        "Unable to cast message body to Camel GenericFile, so unable to process ingested file");
+            }
+            Object file = ((GenericFile<?>) element).getFile();
+            if (file instanceof File) {
+                ingestedFiles.add((File) file);
+            }
         }
+        return ingestedFiles;
+    }
 
+    private ContentItem createContentItem(File ingestedFile) throws ContentComponentException {
         String fileExtension = FilenameUtils.getExtension(ingestedFile.getAbsolutePath());
 
         String mimeType;
@@ -122,41 +176,16 @@ public void process(Exchange exchange)
 
         LOGGER.debug("Preparing content item for mimeType = {}", mimeType);
 
-        if (StringUtils.isNotEmpty(mimeType)) {
-            ContentItem newItem;
-            newItem = new ContentItemImpl(Files.asByteSource(ingestedFile),
-                    mimeType,
-                    ingestedFile.getName(),
-                    null);
-
-            LOGGER.debug("Creating content item.");
-
-            CreateStorageRequest createRequest =
-                    new CreateStorageRequestImpl(Collections.singletonList(newItem), null);
-
-            String attributeOverrideHeaders = (String) exchange.getIn()
-                    .getHeaders().get(Constants.ATTRIBUTE_OVERRIDES_KEY);
-            createRequest.getProperties().put(Constants.ATTRIBUTE_OVERRIDES_KEY, createAttributeOverrideMapFromHeaders(attributeOverrideHeaders));
-
-            CreateResponse createResponse = endpoint.getComponent()
-                    .getCatalogFramework()
-                    .create(createRequest);
-            if (createResponse != null) {
-                List<Metacard> createdMetacards = createResponse.getCreatedMetacards();
-
-                if (LOGGER.isDebugEnabled()) {
-                    for (Metacard metacard : createdMetacards) {
-                        LOGGER.debug("content item created with id = {}", metacard.getId());
-                    }
-                }
-            }
-        } else {
+        if (StringUtils.isEmpty(mimeType)) {
             LOGGER.debug("mimeType is NULL");
             throw new ContentComponentException(
                     "Unable to determine mime type for the file " + ingestedFile.getName());
         }
 
-        LOGGER.debug("EXITING: process");
+        return new ContentItemImpl(Files.asByteSource(ingestedFile),
+                mimeType,
+                ingestedFile.getName(),
+                null);
     }
 
     private HashMap<String, String> createAttributeOverrideMapFromHeaders(
@@ -28,6 +28,7 @@
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.io.FileUtils;
@@ -53,11 +54,11 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.filter.FilterBuilder;
-import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
+import ddf.catalog.util.impl.ResultIterable;
 
 @Command(scope = CatalogCommands.NAMESPACE, name = "dump", description = "Exports Metacards from the current Catalog. Does not remove them.\n\tDate filters are ANDed together, and are exclusive for range.\n\tISO8601 format includes YYYY-MM-dd, YYYY-MM-ddTHH, YYYY-MM-ddTHH:mm, YYYY-MM-ddTHH:mm:ss, YYY-MM-ddTHH:mm:ss.sss, THH:mm:sss. See documentation for full syntax and examples.")
 public class DumpCommand extends CatalogCommands {
@@ -130,6 +131,12 @@ public class DumpCommand extends CatalogCommands {
                     + "will be used to name each subdirectory level.")
     int dirLevel = 0;
 
+    @Option(name = "--archive", required = false, aliases = {"-a"}, multiValued = false,
+            description = "Export the Metacards into compressed archive segments, one per dump "
+                    + "thread, instead of one file per Metacard. Archives can be restored with "
+                    + "catalog:restore and can only be written with the default transformer.")
+    boolean archive = false;
+
     @Override
     protected Object executeWithSubject() throws Exception {
         final File dumpDir = new File(dirPath);
@@ -145,6 +152,12 @@ protected Object executeWithSubject() throws Exception {
             return null;
         }
 
+        if (archive && !DEFAULT_TRANSFORMER_ID.matches(transformerId)) {
+            printErrorMessage("Archives can only be written with the [" + DEFAULT_TRANSFORMER_ID
+                    + "] transformer.");
+            return null;
+        }
+
         if (!DEFAULT_TRANSFORMER_ID.matches(transformerId)) {
             transformers = getTransformers();
             if (transformers == null) {
@@ -233,8 +246,6 @@ protected Object executeWithSubject() throws Exception {
         final AtomicLong resultCount = new AtomicLong(0);
         long start = System.currentTimeMillis();
 
-        SourceResponse response = catalog.query(new QueryRequestImpl(query, props));
-
         BlockingQueue<Runnable> blockingQueue = new ArrayBlockingQueue<Runnable>(multithreaded);
         RejectedExecutionHandler rejectedExecutionHandler =
                 new ThreadPoolExecutor.CallerRunsPolicy();
@@ -245,48 +256,61 @@ protected Object executeWithSubject() throws Exception {
                 blockingQueue,
                 rejectedExecutionHandler);
 
-        while (response.getResults()
-                .size() > 0) {
-            response = catalog.query(new QueryRequestImpl(query, props));
-
-            if (multithreaded > 1) {
-                final List<Result> results = new ArrayList<Result>(response.getResults());
-                executorService.submit(new Runnable() {
-                    @Override
-                    public void run() {
-                        boolean transformationFailed = false;
-                        for (final Result result : results) {
-                            Metacard metacard = result.getMetacard();
-                            try {
-                                exportMetacard(dumpDir, metacard);
-                            } catch (IOException | CatalogTransformerException e) {
-                                transformationFailed = true;
-                                LOGGER.debug("Failed to dump metacard {}", metacard.getId(), e);
-                                executorService.shutdownNow();
-                            }
-                            printStatus(resultCount.incrementAndGet());
-                        }
-                        if (transformationFailed) {
-                            LOGGER.error(
-                                    "One or more metacards failed to transform. Enable debug log for more details.");
-                        }
-                    }
-                });
-            } else {
-                for (final Result result : response.getResults()) {
-                    Metacard metacard = result.getMetacard();
-                    exportMetacard(dumpDir, metacard);
-                    printStatus(resultCount.incrementAndGet());
-                }
+        List<DumpSegment.Writer> segments = new ArrayList<>();
+        if (archive) {
+            try {
+                openSegments(dumpDir, segments);
+            } catch (IOException e) {
+                discardSegments(segments);
+                printErrorMessage("Unable to create archive segments in [" + dirPath + "]: "
+                        + e.getMessage());
+                return null;
             }
-
-            if (response.getResults()
-                    .size() < pageSize || pageSize == -1) {
-                break;
+        }
+        final AtomicBoolean archiveFailed = new AtomicBoolean(false);
+        int batchCount = 0;
+
+        // Pages through the results with a cursor when the catalog supports it
+        List<Result> batch = new ArrayList<>();
+        for (Result result : new ResultIterable(catalog::query,
+                new QueryRequestImpl(query, props))) {
+            if (archive) {
+                if (archiveFailed.get()) {
+                    // Stop paging, the archive will be discarded
+                    break;
+                }
+                batch.add(result);
+                if (batch.size() == pageSize) {
+                    archiveBatch(executorService,
+                            segments.get(batchCount++ % segments.size()),
+                            batch,
+                            resultCount,
+                            archiveFailed);
+                    batch = new ArrayList<>();
+                }
+            } else if (multithreaded > 1) {
+                batch.add(result);
+                if (batch.size() == pageSize) {
+                    exportBatch(executorService, dumpDir, batch, resultCount);
+                    batch = new ArrayList<>();
+                }
+            } else {
+                Metacard metacard = result.getMetacard();
+                exportMetacard(dumpDir, metacard);
+                printStatus(resultCount.incrementAndGet());
             }
-
-            if (pageSize > 0) {
-                query.setStartIndex(query.getStartIndex() + pageSize);
+        }
+        if (!batch.isEmpty()) {
+            if (archive) {
+                if (!archiveFailed.get()) {
+                    archiveBatch(executorService,
+                            segments.get(batchCount % segments.size()),
+                            batch,
+                            resultCount,
+                            archiveFailed);
+                }
+            } else {
+                exportBatch(executorService, dumpDir, batch, resultCount);
             }
         }
 
@@ -300,15 +324,120 @@ public void run() {
             }
         }
 
+        if (archive && (archiveFailed.get() || !closeSegments(segments))) {
+            archiveFailed.set(true);
+            discardSegments(segments);
+        }
+
         long end = System.currentTimeMillis();
         String elapsedTime = timeFormatter.print(new Period(start, end).withMillis(0));
         console.printf(" %d file(s) dumped in %s\t%n", resultCount.get(), elapsedTime);
         LOGGER.info("{} file(s) dumped in {}", resultCount.get(), elapsedTime);
+        if (archive && !archiveFailed.get()) {
+            console.printf(" %d archive segment(s) written to %s%n", segments.size(), dirPath);
+        }
         console.println();
 
+        if (archiveFailed.get()) {
+            printErrorMessage("The archive could not be written and has been removed. See the "
+                    + "log for details.");
+        }
+
         return null;
     }
 
+    private void exportBatch(final ExecutorService executorService, final File dumpDir,
+            final List<Result> results, final AtomicLong resultCount) {
+        executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+                boolean transformationFailed = false;
+                for (final Result result : results) {
+                    Metacard metacard = result.getMetacard();
+                    try {
+                        exportMetacard(dumpDir, metacard);
+                    } catch (IOException | CatalogTransformerException e) {
+                        transformationFailed = true;
+                        LOGGER.debug("Failed to dump metacard {}", metacard.getId(), e);
+                        executorService.shutdownNow();
+                    }
+                    printStatus(resultCount.incrementAndGet());
+                }
+                if (transformationFailed) {
+                    LOGGER.error(
+                            "One or more metacards failed to transform. Enable debug log for more details.");
+                }
+            }
+        });
+    }
+
+    private void archiveBatch(final ExecutorService executorService,
+            final DumpSegment.Writer segment, final List<Result> results,
+            final AtomicLong resultCount, final AtomicBoolean archiveFailed) {
+        executorService.submit(() -> {
+            List<byte[]> records = new ArrayList<>(results.size());
+            try {
+                for (Result result : results) {
+                    records.add(DumpSegment.toRecord(result.getMetacard()));
+                }
+                segment.write(records);
+                printStatus(resultCount.addAndGet(records.size()));
+            } catch (IOException | RuntimeException e) {
+                archiveFailed.set(true);
+                LOGGER.error("Failed to write {} metacard(s) to an archive segment.",
+                        results.size(),
+                        e);
+                executorService.shutdownNow();
+            }
+        });
+    }
+
+    /**
+     * Opens one segment per dump thread, removing the segments and restore checkpoint of any
+     * previous archive in the directory so that they are not restored with, or skip, the new ones.
+     */
+    private void openSegments(File dumpDir, List<DumpSegment.Writer> segments)
+            throws IOException {
+        for (File segmentFile : DumpSegment.listSegmentFiles(dumpDir)) {
+            FileUtils.forceDelete(segmentFile);
+        }
+        File checkpointFile = new File(dumpDir, RestoreCommand.DEFAULT_CHECKPOINT_FILE);
+        if (checkpointFile.exists()) {
+            FileUtils.forceDelete(checkpointFile);
+        }
+        int segmentCount = Math.max(1, multithreaded);
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(new DumpSegment.Writer(DumpSegment.getSegmentFile(dumpDir, i)));
+        }
+    }
+
+    private boolean closeSegments(List<DumpSegment.Writer> segments) {
+        boolean closed = true;
+        for (DumpSegment.Writer segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                closed = false;
+                LOGGER.error("Failed to close archive segment.", e);
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Removes the segments of an archive that failed to be written, without ending them, so that
+     * the incomplete archive cannot be restored.
+     */
+    private void discardSegments(List<DumpSegment.Writer> segments) {
+        for (DumpSegment.Writer segment : segments) {
+            try {
+                segment.discard();
+            } catch (IOException e) {
+                LOGGER.error("Failed to remove archive segment.", e);
+            }
+        }
+    }
+
     private void exportMetacard(File dumpLocation, Metacard metacard)
             throws IOException, CatalogTransformerException {
 
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+
+/**
+ * A segment file of a catalog archive, written by {@code catalog:dump --archive} and read by
+ * {@code catalog:restore}.
+ * <p>
+ * A segment is a gzip-compressed stream holding a header followed by metacard records. Each record
+ * is the length of the Java serialized form of a {@link MetacardImpl}, followed by that form. The
+ * segment ends with a length of -1, so a segment cut short by an interrupted dump is detected when
+ * it is read.
+ */
+final class DumpSegment {
+
+    static final String EXTENSION = ".mdump";
+
+    private static final String PREFIX = "segment-";
+
+    private static final int MAGIC = 0x4D44554D;
+
+    private static final int VERSION = 1;
+
+    private static final int END_OF_SEGMENT = -1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private DumpSegment() {
+    }
+
+    static File getSegmentFile(File directory, int index) {
+        return new File(directory, String.format("%s%05d%s", PREFIX, index, EXTENSION));
+    }
+
+    /**
+     * @return the segment files of the archive in a directory, in order, or an empty array if
+     * there are none
+     */
+    static File[] listSegmentFiles(File directory) {
+        File[] segmentFiles = directory.listFiles((dir, name) -> name.startsWith(PREFIX)
+                && name.endsWith(EXTENSION));
+        if (segmentFiles == null) {
+            return new File[0];
+        }
+        Arrays.sort(segmentFiles);
+        return segmentFiles;
+    }
+
+    /**
+     * Serializes a metacard into a record that can be written to a segment.
+     */
+    static byte[] toRecord(Metacard metacard) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(new MetacardImpl(metacard));
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Appends records to a segment file. Records can be written from several threads; the records
+     * of each call are written together.
+     */
+    static class Writer implements Closeable {
+
+        private final File segmentFile;
+
+        private final DataOutputStream output;
+
+        Writer(File segmentFile) throws IOException {
+            this.segmentFile = segmentFile;
+            output = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(segmentFile),
+                    BUFFER_SIZE), BUFFER_SIZE));
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+        }
+
+        synchronized void write(List<byte[]> records) throws IOException {
+            for (byte[] record : records) {
+                output.writeInt(record.length);
+                output.write(record);
+            }
+        }
+
+        /**
+         * Ends the segment and closes its file.
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                output.writeInt(END_OF_SEGMENT);
+            } finally {
+                output.close();
+            }
+        }
+
+        /**
+         * Closes the segment without ending it and deletes its file.
+         */
+        synchronized void discard() throws IOException {
+            try {
+                output.close();
+            } finally {
+                Files.deleteIfExists(segmentFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * Reads the metacards of a segment file in the order they were written.
+     */
+    static class Reader implements Closeable {
+
+        private final File segmentFile;
+
+        private final DataInputStream input;
+
+        Reader(File segmentFile) throws IOException {
+            this.segmentFile = segmentFile;
+            input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+                    new FileInputStream(segmentFile),
+                    BUFFER_SIZE), BUFFER_SIZE));
+            try {
+                if (input.readInt() != MAGIC) {
+                    throw new StreamCorruptedException(
+                            "[" + segmentFile + "] is not a catalog archive segment.");
+                }
+                int version = input.readInt();
+                if (version != VERSION) {
+                    throw new StreamCorruptedException(
+                            "Unsupported version " + version + " of archive segment [" + segmentFile
+                                    + "].");
+                }
+            } catch (IOException e) {
+                input.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return the next metacard, or {@code null} at the end of the segment
+         * @throws EOFException if the segment ends without being closed by its writer
+         */
+        Metacard read() throws IOException {
+            int length;
+            try {
+                length = input.readInt();
+            } catch (EOFException e) {
+                throw new EOFException("Archive segment [" + segmentFile + "] is incomplete.");
+            }
+            if (length == END_OF_SEGMENT) {
+                return null;
+            }
+            if (length < 0) {
+                throw new StreamCorruptedException(
+                        "Invalid record length " + length + " in archive segment [" + segmentFile
+                                + "].");
+            }
+
+            byte[] record = new byte[length];
+            try {
+                input.readFully(record);
+            } catch (EOFException e) {
+                throw new EOFException("Archive segment [" + segmentFile + "] is incomplete.");
+            }
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(record))) {
+                return (Metacard) ois.readObject();
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new StreamCorruptedException(
+                        "Invalid metacard record in archive segment [" + segmentFile + "]: "
+                                + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -138,6 +138,15 @@ protected int queryAndIngest(CatalogFacade queryFacade, CatalogFacade ingestFaca
             return 0;
         }
 
+        return ingest(ingestFacade, queryMetacards);
+    }
+
+    /**
+     * @param ingestFacade   - the CatalogFacade used for ingest
+     * @param queryMetacards - the metacards to ingest
+     * @return - the number of successfully created metacards.
+     */
+    protected int ingest(CatalogFacade ingestFacade, List<Metacard> queryMetacards) {
         List<Metacard> createdMetacards = ingestMetacards(ingestFacade, queryMetacards);
         int failed = queryMetacards.size() - createdMetacards.size();
         if (failed != 0) {
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the files ingested by the {@link IngestCommand}, or the archive segments restored by the
+ * {@link RestoreCommand}, one absolute path per line, so that an interrupted ingest can be run
+ * again without ingesting the same files twice.
+ * <p>
+ * The files recorded before the checkpoint was opened are read once; files recorded afterwards
+ * are only appended to the checkpoint file.
+ */
+class IngestCheckpoint implements Closeable {
+
+    private final Set<String> ingestedFiles = new HashSet<>();
+
+    private final BufferedWriter writer;
+
+    IngestCheckpoint(File checkpointFile) throws IOException {
+        if (checkpointFile.exists()) {
+            ingestedFiles.addAll(Files.readAllLines(checkpointFile.toPath(),
+                    StandardCharsets.UTF_8));
+        }
+        writer = Files.newBufferedWriter(checkpointFile.toPath(),
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return whether the file was recorded as ingested before this checkpoint was opened
+     */
+    boolean isIngested(File file) {
+        return ingestedFiles.contains(file.getAbsolutePath());
+    }
+
+    /**
+     * Records files as ingested and flushes them to the checkpoint file.
+     */
+    synchronized void record(List<File> files) throws IOException {
+        for (File file : files) {
+            writer.write(file.getAbsolutePath());
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
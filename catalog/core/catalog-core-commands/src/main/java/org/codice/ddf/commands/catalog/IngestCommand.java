@@ -75,6 +75,8 @@ public class IngestCommand extends CatalogCommands {
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
+    private static final long STAGE_STATISTICS_INTERVAL_SECONDS = 10;
+
     private final PeriodFormatter timeFormatter = new PeriodFormatterBuilder().printZeroRarelyLast()
             .appendDays()
             .appendSuffix(" day", " days")
@@ -99,6 +101,14 @@ public class IngestCommand extends CatalogCommands {
 
     private final AtomicInteger fileCount = new AtomicInteger(Integer.MAX_VALUE);
 
+    private final AtomicInteger resumeCount = new AtomicInteger();
+
+    private final IngestStage walkStage = new IngestStage("walk", "files");
+
+    private final IngestStage transformStage = new IngestStage("transform", "files");
+
+    private final IngestStage submitStage = new IngestStage("submit", "metacards");
+
     @Argument(name = "File path or Directory path", description =
             "File path to a record or a directory of files to be ingested. Paths are absolute and must be in quotes."
                     + " This command can only detect roughly 2 billion records in one folder. Individual operating system limits might also apply.", index = 0, multiValued = false, required = true)
@@ -131,8 +141,19 @@ public class IngestCommand extends CatalogCommands {
             "-i"}, multiValued = true, description = "File extension(s) or file name(s) to ignore during ingestion (-i '.txt' -i 'image.jpg' -i 'file' )")
     List<String> ignoreList;
 
+    @Option(name = "--transform-threads", required = false, aliases = {
+            "-T"}, multiValued = false, description = "Number of threads to use when transforming files into metacards. Defaults to the number of processors.")
+    int transformThreads = Runtime.getRuntime()
+            .availableProcessors();
+
+    @Option(name = "--checkpoint", required = false, aliases = {
+            "-c"}, multiValued = false, description = "File in which to record the files that have been ingested. Files already recorded in it are skipped, so an interrupted ingest can be resumed by running the command again with the same checkpoint file.")
+    String checkpointPath = null;
+
     File failedIngestDirectory = null;
 
+    IngestCheckpoint checkpoint = null;
+
     InputTransformer transformer = null;
 
     @Override
@@ -180,6 +201,12 @@ protected Object executeWithSubject() throws Exception {
             batchSize = 1;
         }
 
+        if (transformThreads <= 0) {
+            printErrorMessage("A transform thread count of [" + transformThreads
+                    + "] was supplied. Transform thread count must be greater than 0.");
+            return null;
+        }
+
         BundleContext bundleContext = getBundleContext();
         if (!DEFAULT_TRANSFORMER_ID.equals(transformerId)) {
             ServiceReference[] refs = null;
@@ -199,25 +226,50 @@ protected Object executeWithSubject() throws Exception {
             }
         }
 
+        if (!StringUtils.isEmpty(checkpointPath)) {
+            try {
+                checkpoint = new IngestCheckpoint(new File(checkpointPath));
+            } catch (IOException e) {
+                printErrorMessage("Unable to open checkpoint file [" + checkpointPath + "]: "
+                        + e.getMessage());
+                return null;
+            }
+        }
+
         Stream<Path> ingestStream = Files.walk(inputFile.toPath(), FileVisitOption.FOLLOW_LINKS);
 
         int totalFiles = (inputFile.isDirectory()) ? inputFile.list().length : 1;
         fileCount.getAndSet(totalFiles);
 
-        final ArrayBlockingQueue<Metacard> metacardQueue = new ArrayBlockingQueue<>(
+        final ArrayBlockingQueue<TransformedFile> metacardQueue = new ArrayBlockingQueue<>(
                 batchSize * multithreaded);
 
         ExecutorService queueExecutor = Executors.newSingleThreadExecutor();
 
+        ExecutorService transformExecutor = new ThreadPoolExecutor(transformThreads,
+                transformThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(transformThreads),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
         final long start = System.currentTimeMillis();
 
         printProgressAndFlush(start, fileCount.get(), 0);
 
-        queueExecutor.submit(() -> buildQueue(ingestStream, metacardQueue, start));
+        queueExecutor.submit(() -> buildQueue(ingestStream,
+                transformExecutor,
+                metacardQueue,
+                start));
 
         final ScheduledExecutorService batchScheduler =
                 Executors.newSingleThreadScheduledExecutor();
 
+        batchScheduler.scheduleAtFixedRate(this::logStageStatistics,
+                STAGE_STATISTICS_INTERVAL_SECONDS,
+                STAGE_STATISTICS_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+
         BlockingQueue<Runnable> blockingQueue = new ArrayBlockingQueue<>(multithreaded);
         RejectedExecutionHandler rejectedExecutionHandler =
                 new ThreadPoolExecutor.CallerRunsPolicy();
@@ -230,7 +282,8 @@ protected Object executeWithSubject() throws Exception {
 
         submitToCatalog(batchScheduler, executorService, metacardQueue, catalog, start);
 
-        while (!doneBuildingQueue.get() || processingThreads.get() != 0) {
+        while (!doneBuildingQueue.get() || !metacardQueue.isEmpty()
+                || processingThreads.get() != 0) {
             try {
                 TimeUnit.SECONDS.sleep(2);
             } catch (InterruptedException e) {
@@ -240,19 +293,37 @@ protected Object executeWithSubject() throws Exception {
 
         try {
             queueExecutor.shutdown();
+            transformExecutor.shutdown();
             executorService.shutdown();
             batchScheduler.shutdown();
         } catch (SecurityException e) {
             LOGGER.error("Executor service shutdown was not permitted: {}", e);
         }
 
-        printProgressAndFlush(start, fileCount.get(), ingestCount.get() + ignoreCount.get());
+        if (checkpoint != null) {
+            try {
+                checkpoint.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close checkpoint file [{}].", checkpointPath, e);
+            }
+        }
+
+        printProgressAndFlush(start, fileCount.get(), getProcessedCount());
         long end = System.currentTimeMillis();
         console.println();
         String elapsedTime = timeFormatter.print(new Period(start, end).withMillis(0));
 
         console.println();
         console.printf(" %d file(s) ingested in %s %n", ingestCount.get(), elapsedTime);
+        if (checkpoint != null) {
+            console.printf(" %d file(s) skipped, already ingested according to checkpoint %s %n",
+                    resumeCount.get(),
+                    checkpointPath);
+        }
+        console.println();
+        for (IngestStage stage : getStages()) {
+            console.printf(" %s %n", stage);
+        }
 
         LOGGER.info("{} file(s) ingested in {} [{} records/sec]",
                 ingestCount.get(),
@@ -263,11 +334,12 @@ protected Object executeWithSubject() throws Exception {
                 elapsedTime,
                 calculateRecordsPerSecond(ingestCount.get(), start, end));
 
+        logStageStatistics();
+
         if (fileCount.get() != ingestCount.get()) {
             console.println();
-            if ((fileCount.get() - ingestCount.get() - ignoreCount.get()) >= 1) {
-                String failedAmount = Integer.toString(
-                        fileCount.get() - ingestCount.get() - ignoreCount.get());
+            if ((fileCount.get() - getProcessedCount()) >= 1) {
+                String failedAmount = Integer.toString(fileCount.get() - getProcessedCount());
                 printErrorMessage(failedAmount
                         + " file(s) failed to be ingested.  See the ingest log for more details.");
                 INGEST_LOGGER.warn("{} files(s) failed to be ingested.", failedAmount);
@@ -284,6 +356,24 @@ protected Object executeWithSubject() throws Exception {
         return null;
     }
 
+    private int getProcessedCount() {
+        return ingestCount.get() + ignoreCount.get() + resumeCount.get();
+    }
+
+    private List<IngestStage> getStages() {
+        List<IngestStage> stages = new ArrayList<>();
+        stages.add(walkStage);
+        stages.add(transformStage);
+        stages.add(submitStage);
+        return stages;
+    }
+
+    private void logStageStatistics() {
+        for (IngestStage stage : getStages()) {
+            INGEST_LOGGER.info("Ingest {}", stage);
+        }
+    }
+
     /**
      * Helper method to build ingest log strings
      */
@@ -316,7 +406,7 @@ private String buildIngestLog(ArrayList<Metacard> metacards) {
         return strBuilder.toString();
     }
 
-    private void logIngestException(IngestException exception, File inputFile) {
+    private void logIngestException(Exception exception, File inputFile) {
         LOGGER.debug("Failed to ingest file [{}].", inputFile.getAbsolutePath(), exception);
         INGEST_LOGGER.warn("Failed to ingest file [{}]:  \n{}",
                 inputFile.getAbsolutePath(),
@@ -408,35 +498,50 @@ private void makeFailedIngestDirectory() {
         }
     }
 
-    private boolean processBatch(CatalogFacade catalog, ArrayList<Metacard> metacards)
+    private boolean processBatch(CatalogFacade catalog, ArrayList<TransformedFile> batch)
             throws SourceUnavailableException {
         CreateResponse createResponse = null;
 
+        ArrayList<Metacard> metacards = new ArrayList<>(batch.size());
+        List<File> files = new ArrayList<>(batch.size());
+        for (TransformedFile transformedFile : batch) {
+            metacards.add(transformedFile.metacard);
+            files.add(transformedFile.file);
+        }
+
+        long submitStart = System.nanoTime();
         try {
-            createResponse = createMetacards(catalog, metacards);
-        } catch (IngestException e) {
-            printErrorMessage("Error executing command: " + e.getMessage());
-            if (INGEST_LOGGER.isWarnEnabled()) {
-                INGEST_LOGGER.warn("Error ingesting metacard batch {}",
-                        buildIngestLog(metacards),
-                        e);
+            try {
+                createResponse = createMetacards(catalog, metacards);
+            } catch (IngestException e) {
+                printErrorMessage("Error executing command: " + e.getMessage());
+                if (INGEST_LOGGER.isWarnEnabled()) {
+                    INGEST_LOGGER.warn("Error ingesting metacard batch {}",
+                            buildIngestLog(metacards),
+                            e);
+                }
+            } catch (SourceUnavailableException e) {
+                if (INGEST_LOGGER.isWarnEnabled()) {
+                    INGEST_LOGGER.warn("Error on process batch, local provider not available. {}"
+                                    + " metacards failed to ingest. {}",
+                            metacards.size(),
+                            buildIngestLog(metacards),
+                            e);
+                }
             }
-        } catch (SourceUnavailableException e) {
-            if (INGEST_LOGGER.isWarnEnabled()) {
-                INGEST_LOGGER.warn("Error on process batch, local provider not available. {}"
-                                + " metacards failed to ingest. {}",
-                        metacards.size(),
-                        buildIngestLog(metacards),
-                        e);
+
+            if (createResponse != null) {
+                ingestCount.getAndAdd(createResponse.getCreatedMetacards()
+                        .size());
+                submitStage.record(createResponse.getCreatedMetacards()
+                        .size(), System.nanoTime() - submitStart);
+                recordCheckpoint(files);
             }
         } finally {
+            // only once the batch is recorded, as the checkpoint is closed as soon as no batch
+            // is left processing
             processingThreads.decrementAndGet();
         }
-
-        if (createResponse != null) {
-            ingestCount.getAndAdd(createResponse.getCreatedMetacards()
-                    .size());
-        }
         return createResponse != null;
     }
 
@@ -450,75 +555,113 @@ private void moveToFailedIngestDirectory(File source) {
         }
     }
 
-    private void buildQueue(Stream<Path> ingestStream, ArrayBlockingQueue<Metacard> metacardQueue,
-            long start) {
-        ingestStream.filter(a -> !a.toFile()
-                .isDirectory())
-                .forEach(a -> {
-                    File file = a.toFile();
-
-                    if (file.isHidden()) {
-                        ignoreCount.incrementAndGet();
-                    } else {
-                        String extension = file.getName();
-
-                        if (extension.contains(".")) {
-                            int x = extension.indexOf('.');
-                            extension = extension.substring(x);
-                        }
+    private void recordCheckpoint(List<File> files) {
+        if (checkpoint != null) {
+            try {
+                checkpoint.record(files);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to record {} ingested file(s) in checkpoint file [{}].",
+                        files.size(),
+                        checkpointPath,
+                        e);
+            }
+        }
+    }
 
-                        if (ignoreList != null && (ignoreList.contains(extension)
-                                || ignoreList.contains(file.getName()))) {
+    /**
+     * Walks the files to ingest and hands each of them to the transform executor. The queue is
+     * complete once the walk is over and every file handed over has been transformed.
+     */
+    private void buildQueue(Stream<Path> ingestStream, ExecutorService transformExecutor,
+            ArrayBlockingQueue<TransformedFile> metacardQueue, long start) {
+        try {
+            ingestStream.filter(a -> !a.toFile()
+                    .isDirectory())
+                    .forEach(a -> {
+                        long walkStart = System.nanoTime();
+                        File file = a.toFile();
+
+                        if (file.isHidden()) {
                             ignoreCount.incrementAndGet();
-                            printProgressAndFlush(start,
-                                    fileCount.get(),
-                                    ingestCount.get() + ignoreCount.get());
+                        } else if (checkpoint != null && checkpoint.isIngested(file)) {
+                            resumeCount.incrementAndGet();
                         } else {
-                            Metacard result;
-                            try {
-                                result = readMetacard(file);
-                            } catch (IngestException e) {
-                                result = null;
-                                logIngestException(e, file);
-                                if (failedIngestDirectory != null) {
-                                    moveToFailedIngestDirectory(file);
-                                }
-                                printErrorMessage(
-                                        "Failed to ingest file [" + file.getAbsolutePath() + "].");
-                                if (INGEST_LOGGER.isWarnEnabled()) {
-                                    INGEST_LOGGER.warn("Failed to ingest file [{}].",
-                                            file.getAbsolutePath());
-                                }
+                            String extension = file.getName();
+
+                            if (extension.contains(".")) {
+                                int x = extension.indexOf('.');
+                                extension = extension.substring(x);
                             }
 
-                            if (result != null) {
-                                try {
-                                    metacardQueue.put(result);
-                                } catch (InterruptedException e) {
-                                    INGEST_LOGGER.error(
-                                            "Thread interrupted while waiting to 'put' metacard: {}",
-                                            e);
-                                }
+                            if (ignoreList != null && (ignoreList.contains(extension)
+                                    || ignoreList.contains(file.getName()))) {
+                                ignoreCount.incrementAndGet();
+                                printProgressAndFlush(start, fileCount.get(), getProcessedCount());
+                            } else {
+                                transformExecutor.execute(() -> transform(file, metacardQueue));
                             }
                         }
-                    }
-                });
-        doneBuildingQueue.set(true);
+                        walkStage.record(1, System.nanoTime() - walkStart);
+                    });
+
+            transformExecutor.shutdown();
+            while (!transformExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.trace("Waiting for files to be transformed.");
+            }
+        } catch (InterruptedException e) {
+            INGEST_LOGGER.error("Thread interrupted while waiting for files to be transformed: {}",
+                    e);
+            Thread.currentThread()
+                    .interrupt();
+        } finally {
+            doneBuildingQueue.set(true);
+        }
+    }
+
+    private void transform(File file, ArrayBlockingQueue<TransformedFile> metacardQueue) {
+        long transformStart = System.nanoTime();
+        Metacard result;
+        try {
+            result = readMetacard(file);
+        } catch (IngestException | RuntimeException e) {
+            result = null;
+            logIngestException(e, file);
+            if (failedIngestDirectory != null) {
+                moveToFailedIngestDirectory(file);
+            }
+            printErrorMessage("Failed to ingest file [" + file.getAbsolutePath() + "].");
+            if (INGEST_LOGGER.isWarnEnabled()) {
+                INGEST_LOGGER.warn("Failed to ingest file [{}].", file.getAbsolutePath());
+            }
+        }
+        transformStage.record(1, System.nanoTime() - transformStart);
+
+        if (result != null) {
+            try {
+                metacardQueue.put(new TransformedFile(file, result));
+            } catch (InterruptedException e) {
+                INGEST_LOGGER.error("Thread interrupted while waiting to 'put' metacard: {}", e);
+                Thread.currentThread()
+                        .interrupt();
+            }
+        }
     }
 
     private void submitToCatalog(ScheduledExecutorService batchScheduler,
-            ExecutorService executorService, ArrayBlockingQueue<Metacard> metacardQueue,
+            ExecutorService executorService, ArrayBlockingQueue<TransformedFile> metacardQueue,
             CatalogFacade catalog, long start) {
 
         batchScheduler.scheduleWithFixedDelay(() -> {
             int queueSize = metacardQueue.size();
             if (queueSize > 0) {
 
-                ArrayList<Metacard> metacardBatch = new ArrayList<>(batchSize);
+                ArrayList<TransformedFile> metacardBatch = new ArrayList<>(batchSize);
 
                 if (queueSize > batchSize || doneBuildingQueue.get()) {
-                    metacardQueue.drainTo(metacardBatch, batchSize);
+                    // counted before draining, so the batch is never missing from both the
+                    // queue and the processing count
                     processingThreads.incrementAndGet();
+                    metacardQueue.drainTo(metacardBatch, batchSize);
                 }
 
                 if (metacardBatch.size() > 0) {
@@ -531,11 +674,23 @@ private void submitToCatalog(ScheduledExecutorService batchScheduler,
                             }
                         }
                     });
-                    printProgressAndFlush(start,
-                            fileCount.get(),
-                            ingestCount.get() + ignoreCount.get());
+                    printProgressAndFlush(start, fileCount.get(), getProcessedCount());
                 }
             }
         }, 100, 100, TimeUnit.MILLISECONDS);
     }
+
+    /**
+     * A metacard together with the file it was transformed from.
+     */
+    private static class TransformedFile {
+        private final File file;
+
+        private final Metacard metacard;
+
+        TransformedFile(File file, Metacard metacard) {
+            this.file = file;
+            this.metacard = metacard;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency of one stage of the {@link IngestCommand} pipeline. Stages are updated
+ * concurrently by the threads running them and can be read at any time while the ingest runs.
+ */
+class IngestStage {
+
+    private final String name;
+
+    private final String unit;
+
+    private final long startNanos;
+
+    private final LongAdder items = new LongAdder();
+
+    private final LongAdder operations = new LongAdder();
+
+    private final LongAdder elapsedNanos = new LongAdder();
+
+    /**
+     * @param name the name of the stage, such as {@code transform}
+     * @param unit what the stage counts, such as {@code files}
+     */
+    IngestStage(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Records one operation of this stage.
+     *
+     * @param itemCount    the number of items handled by the operation
+     * @param elapsedNanos how long the operation took
+     */
+    void record(int itemCount, long elapsedNanos) {
+        items.add(itemCount);
+        operations.increment();
+        this.elapsedNanos.add(elapsedNanos);
+    }
+
+    long getItemCount() {
+        return items.sum();
+    }
+
+    /**
+     * @return the number of items handled per second since the stage was created
+     */
+    double getItemsPerSecond() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0 : items.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * @return the average time of an operation of this stage, in milliseconds
+     */
+    double getAverageLatencyMillis() {
+        long count = operations.sum();
+        return count == 0 ?
+                0 :
+                elapsedNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-9s %d %s, %.1f %s/sec, %.2f ms average",
+                name + ":",
+                getItemCount(),
+                unit,
+                getItemsPerSecond(),
+                unit,
+                getAverageLatencyMillis());
+    }
+}
@@ -48,6 +48,7 @@
 import ddf.catalog.source.CatalogProvider;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.util.impl.ResultIterable;
 import ddf.catalog.util.impl.ServiceComparator;
 
 @Command(scope = CatalogCommands.NAMESPACE, name = "migrate", description = "Migrates Metacards "
@@ -65,8 +66,6 @@ public class MigrateCommand extends DuplicateCommands {
 
     private long start;
 
-    private AtomicInteger queryIndex = new AtomicInteger(1);
-
     private AtomicInteger ingestCount = new AtomicInteger(0);
 
     @Override
@@ -138,31 +137,51 @@ protected Object executeWithSubject() throws Exception {
 
         console.println("Starting migration for " + totalPossible + " Records");
 
+        // Reads the metacards with a single cursor query instead of one query per batch, so
+        // reading the last batch costs no more than reading the first one
+        QueryImpl cursorQuery = new QueryImpl(filter);
+        cursorQuery.setRequestsTotalResultsCount(false);
+        cursorQuery.setPageSize(batchSize);
+        cursorQuery.setSortBy(new SortByImpl(Metacard.MODIFIED, SortOrder.DESCENDING));
+        Iterable<Result> results = new ResultIterable(framework::query,
+                new QueryRequestImpl(cursorQuery));
+
+        ExecutorService executorService = null;
         if (multithreaded > 1 && totalPossible > batchSize) {
             BlockingQueue<Runnable> blockingQueue = new ArrayBlockingQueue<Runnable>(multithreaded);
             RejectedExecutionHandler rejectedExecutionHandler =
                     new ThreadPoolExecutor.CallerRunsPolicy();
-            final ExecutorService executorService = new ThreadPoolExecutor(multithreaded,
+            executorService = new ThreadPoolExecutor(multithreaded,
                     multithreaded,
                     0L,
                     TimeUnit.MILLISECONDS,
                     blockingQueue,
                     rejectedExecutionHandler);
             console.printf("Running %d threads during replication.%n", multithreaded);
+        }
+
+        long queried = 0;
+        List<Metacard> batch = new ArrayList<>();
+        try {
+            for (Result result : results) {
+                batch.add(result.getMetacard());
+                if (++queried >= totalPossible) {
+                    break;
+                }
+                if (batch.size() >= batchSize) {
+                    ingestBatch(executorService, batch, totalPossible);
+                    batch = new ArrayList<>();
+                }
+            }
+        } catch (ResultIterable.QueryException e) {
+            printErrorMessage("Error occurred while querying the Framework." + e.getCause()
+                    .getMessage());
+        }
+        if (!batch.isEmpty()) {
+            ingestBatch(executorService, batch, totalPossible);
+        }
 
-            do {
-                LOGGER.debug("In loop at iteration {}", queryIndex.get());
-                executorService.submit(new Runnable() {
-                    @Override
-                    public void run() {
-                        int count = queryAndIngest(framework,
-                                ingestProvider,
-                                queryIndex.get(),
-                                filter);
-                        printProgressAndFlush(start, totalPossible, ingestCount.addAndGet(count));
-                    }
-                });
-            } while (queryIndex.addAndGet(batchSize) <= totalPossible);
+        if (executorService != null) {
             executorService.shutdown();
 
             while (!executorService.isTerminated()) {
@@ -172,11 +191,6 @@ public void run() {
                     // ignore
                 }
             }
-        } else {
-            do {
-                int count = queryAndIngest(framework, ingestProvider, queryIndex.get(), filter);
-                printProgressAndFlush(start, totalPossible, ingestCount.addAndGet(count));
-            } while (queryIndex.addAndGet(batchSize) <= totalPossible);
         }
 
         console.println();
@@ -192,6 +206,22 @@ public void run() {
         return null;
     }
 
+    private void ingestBatch(ExecutorService executorService, final List<Metacard> batch,
+            final long totalPossible) {
+        Runnable ingest = new Runnable() {
+            @Override
+            public void run() {
+                int count = ingest(ingestProvider, batch);
+                printProgressAndFlush(start, totalPossible, ingestCount.addAndGet(count));
+            }
+        };
+        if (executorService == null) {
+            ingest.run();
+        } else {
+            executorService.submit(ingest);
+        }
+    }
+
     @Override
     protected List<Metacard> query(CatalogFacade framework, int startIndex, Filter filter) {
         QueryImpl query = new QueryImpl(filter);
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.felix.gogo.commands.Argument;
+import org.apache.felix.gogo.commands.Command;
+import org.apache.felix.gogo.commands.Option;
+import org.codice.ddf.commands.catalog.facade.CatalogFacade;
+import org.joda.time.Period;
+import org.joda.time.format.PeriodFormatter;
+import org.joda.time.format.PeriodFormatterBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.SourceUnavailableException;
+
+@Command(scope = CatalogCommands.NAMESPACE, name = "restore", description = "Restores the Metacards of an archive written by catalog:dump --archive into the current Catalog.\n\tEach segment of the archive is restored by its own thread. Restored segments are recorded in a checkpoint file, so an interrupted restore can be resumed by running the command again.")
+public class RestoreCommand extends CatalogCommands {
+
+    static final String DEFAULT_CHECKPOINT_FILE = "restore.checkpoint";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestoreCommand.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final PeriodFormatter timeFormatter = new PeriodFormatterBuilder().printZeroRarelyLast()
+            .appendDays()
+            .appendSuffix(" day", " days")
+            .appendSeparator(" ")
+            .appendHours()
+            .appendSuffix(" hour", " hours")
+            .appendSeparator(" ")
+            .appendMinutes()
+            .appendSuffix(" minute", " minutes")
+            .appendSeparator(" ")
+            .appendSeconds()
+            .appendSuffix(" second", " seconds")
+            .toFormatter();
+
+    private final AtomicLong restoreCount = new AtomicLong();
+
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    @Argument(name = "Archive directory path", description = "Directory holding the archive segments written by catalog:dump --archive. Paths are absolute and must be in quotes.", index = 0, multiValued = false, required = true)
+    String dirPath = null;
+
+    @Option(name = "--batchsize", required = false, aliases = {
+            "-b"}, multiValued = false, description = "Number of Metacards to create at a time in each segment thread. Change this argument based on system memory and catalog provider limits.")
+    int batchSize = DEFAULT_BATCH_SIZE;
+
+    @Option(name = "--checkpoint", required = false, aliases = {
+            "-c"}, multiValued = false, description = "File in which to record the segments that have been restored. Segments already recorded in it are skipped. Defaults to " + DEFAULT_CHECKPOINT_FILE + " in the archive directory.")
+    String checkpointPath = null;
+
+    @Override
+    protected Object executeWithSubject() throws Exception {
+        final File archiveDir = new File(dirPath);
+
+        if (!archiveDir.isDirectory()) {
+            printErrorMessage("Directory [" + dirPath + "] must exist.");
+            console.println("If the directory does indeed exist, try putting the path in quotes.");
+            return null;
+        }
+
+        if (batchSize <= 0) {
+            printErrorMessage("A batch size of [" + batchSize
+                    + "] was supplied. Batch size must be greater than 0.");
+            return null;
+        }
+
+        File[] segmentFiles = DumpSegment.listSegmentFiles(archiveDir);
+        if (segmentFiles.length == 0) {
+            printErrorMessage("Directory [" + dirPath + "] does not hold any archive segments.");
+            return null;
+        }
+
+        File checkpointFile = StringUtils.isEmpty(checkpointPath) ?
+                new File(archiveDir, DEFAULT_CHECKPOINT_FILE) :
+                new File(checkpointPath);
+
+        CatalogFacade catalog = getCatalog();
+        long start = System.currentTimeMillis();
+        int skipCount = 0;
+
+        IngestCheckpoint checkpoint;
+        try {
+            checkpoint = new IngestCheckpoint(checkpointFile);
+        } catch (IOException e) {
+            printErrorMessage("Unable to open checkpoint file [" + checkpointFile + "]: "
+                    + e.getMessage());
+            return null;
+        }
+
+        try {
+            List<File> pendingSegments = new ArrayList<>();
+            for (File segmentFile : segmentFiles) {
+                if (checkpoint.isIngested(segmentFile)) {
+                    skipCount++;
+                } else {
+                    pendingSegments.add(segmentFile);
+                }
+            }
+
+            if (!pendingSegments.isEmpty()) {
+                ExecutorService executorService =
+                        Executors.newFixedThreadPool(pendingSegments.size());
+                for (File segmentFile : pendingSegments) {
+                    executorService.submit(() -> restoreSegment(catalog, segmentFile, checkpoint));
+                }
+                executorService.shutdown();
+
+                while (!executorService.awaitTermination(100, TimeUnit.MILLISECONDS)) {
+                    // wait for every segment to be restored
+                }
+            }
+        } finally {
+            try {
+                checkpoint.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close checkpoint file [{}].", checkpointFile, e);
+            }
+        }
+
+        long end = System.currentTimeMillis();
+        String elapsedTime = timeFormatter.print(new Period(start, end).withMillis(0));
+        console.printf(" %d metacard(s) restored from %d segment(s) in %s\t%n",
+                restoreCount.get(),
+                segmentFiles.length - skipCount - failedCount.get(),
+                elapsedTime);
+        LOGGER.info("{} metacard(s) restored in {}", restoreCount.get(), elapsedTime);
+        if (skipCount > 0) {
+            console.printf(" %d segment(s) skipped, already restored according to checkpoint %s%n",
+                    skipCount,
+                    checkpointFile);
+        }
+        console.println();
+
+        if (failedCount.get() > 0) {
+            printErrorMessage(failedCount.get() + " segment(s) failed to restore. Run the command "
+                    + "again to retry them. See the log for details.");
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates the metacards of a segment in batches, and records the segment in the checkpoint
+     * once all of them are created. A segment that fails is restored again from its start the
+     * next time the command is run.
+     */
+    private void restoreSegment(CatalogFacade catalog, File segmentFile,
+            IngestCheckpoint checkpoint) {
+        try (DumpSegment.Reader reader = new DumpSegment.Reader(segmentFile)) {
+            List<Metacard> batch = new ArrayList<>(batchSize);
+            Metacard metacard;
+            while ((metacard = reader.read()) != null) {
+                batch.add(metacard);
+                if (batch.size() == batchSize) {
+                    createMetacards(catalog, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                createMetacards(catalog, batch);
+            }
+
+            checkpoint.record(Collections.singletonList(segmentFile));
+        } catch (IOException | IngestException | SourceUnavailableException | RuntimeException e) {
+            failedCount.incrementAndGet();
+            LOGGER.error("Failed to restore archive segment [{}].", segmentFile, e);
+        }
+    }
+
+    private void createMetacards(CatalogFacade catalog, List<Metacard> metacards)
+            throws IngestException, SourceUnavailableException {
+        CreateResponse createResponse = catalog.create(new CreateRequestImpl(metacards));
+        printStatus(restoreCount.addAndGet(createResponse.getCreatedMetacards()
+                .size()));
+    }
+
+    protected void printStatus(long count) {
+        console.print(String.format(" %d metacard(s) restored\t\r", count));
+        console.flush();
+    }
+}
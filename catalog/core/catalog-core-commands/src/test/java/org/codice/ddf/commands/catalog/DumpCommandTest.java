@@ -13,11 +13,22 @@
  */
 package org.codice.ddf.commands.catalog;
 
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.codice.ddf.commands.catalog.facade.CatalogFacade;
 import org.codice.ddf.commands.catalog.facade.Framework;
@@ -27,8 +38,16 @@
 import org.junit.rules.TemporaryFolder;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryResponseImpl;
 
 /**
  * Tests the {@link DumpCommand} output.
@@ -220,4 +239,229 @@ protected Object doExecute() throws Exception {
         }
     }
 
+    /**
+     * Check that an archive dump writes every metacard into the archive segments
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testArchive() throws Exception {
+
+        ConsoleOutput consoleOutput = new ConsoleOutput();
+        consoleOutput.interceptSystemOut();
+
+        // given
+        final CatalogFramework catalogFramework = givenCatalogFramework(getResultList("id1",
+                "id2",
+                "id3"));
+        DumpCommand command = new DumpCommand() {
+            @Override
+            protected CatalogFacade getCatalog() throws InterruptedException {
+                return new Framework(catalogFramework);
+            }
+
+            @Override
+            protected FilterBuilder getFilterBuilder() throws InterruptedException {
+                return new GeotoolsFilterBuilder();
+            }
+
+            @Override
+            protected Object doExecute() throws Exception {
+                return executeWithSubject();
+            }
+        };
+        File outputDirectory = testFolder.newFolder("somedirectory");
+        command.dirPath = outputDirectory.getAbsolutePath();
+        command.archive = true;
+        command.multithreaded = 2;
+
+        // when
+        command.doExecute();
+
+        // cleanup
+        consoleOutput.resetSystemOut();
+
+        // then
+        try {
+            assertThat(consoleOutput.getOutput(), containsString(" 3 file(s) dumped in "));
+            assertThat(consoleOutput.getOutput(),
+                    containsString(" 2 archive segment(s) written to "));
+
+            List<String> ids = new ArrayList<>();
+            for (File segmentFile : DumpSegment.listSegmentFiles(outputDirectory)) {
+                try (DumpSegment.Reader reader = new DumpSegment.Reader(segmentFile)) {
+                    Metacard metacard;
+                    while ((metacard = reader.read()) != null) {
+                        ids.add(metacard.getId());
+                    }
+                }
+            }
+            assertThat(ids, containsInAnyOrder("id1", "id2", "id3"));
+        } finally {
+            consoleOutput.closeBuffer();
+        }
+    }
+
+    /**
+     * Check that an archive dump stops when a batch cannot be written, and that the incomplete
+     * archive is removed instead of being restorable
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testArchiveFailure() throws Exception {
+
+        ConsoleOutput consoleOutput = new ConsoleOutput();
+        consoleOutput.interceptSystemOut();
+
+        // given
+        // Mocks cannot be serialized, so the batch holding this metacard fails to be written
+        Attribute unwritableAttribute = mock(Attribute.class);
+        Metacard unwritableMetacard = mock(Metacard.class);
+        when(unwritableMetacard.getId()).thenReturn("unwritable");
+        when(unwritableMetacard.getMetacardType()).thenReturn(BasicTypes.BASIC_METACARD);
+        when(unwritableMetacard.getAttribute(Metacard.TITLE)).thenReturn(unwritableAttribute);
+
+        List<Result> results = getResultList("id1", "id2");
+        results.add(new ResultImpl(unwritableMetacard));
+        results.addAll(getResultList("id4", "id5", "id6", "id7", "id8"));
+        final CatalogFramework catalogFramework = givenPagedCatalogFramework(results);
+        DumpCommand command = new DumpCommand() {
+            @Override
+            protected CatalogFacade getCatalog() throws InterruptedException {
+                return new Framework(catalogFramework);
+            }
+
+            @Override
+            protected FilterBuilder getFilterBuilder() throws InterruptedException {
+                return new GeotoolsFilterBuilder();
+            }
+
+            @Override
+            protected Object doExecute() throws Exception {
+                return executeWithSubject();
+            }
+        };
+        File outputDirectory = testFolder.newFolder("somedirectory");
+        command.dirPath = outputDirectory.getAbsolutePath();
+        command.archive = true;
+        command.multithreaded = 2;
+        command.pageSize = 2;
+
+        // when
+        command.doExecute();
+
+        // cleanup
+        consoleOutput.resetSystemOut();
+
+        // then
+        try {
+            assertThat(consoleOutput.getOutput(),
+                    containsString("The archive could not be written and has been removed."));
+            assertThat(consoleOutput.getOutput(),
+                    not(containsString("archive segment(s) written to")));
+            assertThat(DumpSegment.listSegmentFiles(outputDirectory), is(emptyArray()));
+        } finally {
+            consoleOutput.closeBuffer();
+        }
+
+        consoleOutput = new ConsoleOutput();
+        consoleOutput.interceptSystemOut();
+        RestoreCommand restoreCommand = new RestoreCommand() {
+            @Override
+            protected CatalogFacade getCatalog() throws InterruptedException {
+                return new Framework(catalogFramework);
+            }
+
+            @Override
+            protected Object doExecute() throws Exception {
+                return executeWithSubject();
+            }
+        };
+        restoreCommand.dirPath = outputDirectory.getAbsolutePath();
+
+        restoreCommand.doExecute();
+
+        consoleOutput.resetSystemOut();
+
+        try {
+            assertThat(consoleOutput.getOutput(),
+                    startsWith(RED_CONSOLE_COLOR + "Directory [" + outputDirectory
+                            + "] does not hold any archive segments."));
+            verify(catalogFramework, never()).create(isA(CreateRequest.class));
+        } finally {
+            consoleOutput.closeBuffer();
+        }
+    }
+
+    /**
+     * Check that an archive dump removes the restore checkpoint of a previous archive, so that it
+     * does not skip the new segments
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testArchiveRemovesRestoreCheckpoint() throws Exception {
+
+        ConsoleOutput consoleOutput = new ConsoleOutput();
+        consoleOutput.interceptSystemOut();
+
+        // given
+        final CatalogFramework catalogFramework = givenCatalogFramework(getResultList("id1"));
+        DumpCommand command = new DumpCommand() {
+            @Override
+            protected CatalogFacade getCatalog() throws InterruptedException {
+                return new Framework(catalogFramework);
+            }
+
+            @Override
+            protected FilterBuilder getFilterBuilder() throws InterruptedException {
+                return new GeotoolsFilterBuilder();
+            }
+
+            @Override
+            protected Object doExecute() throws Exception {
+                return executeWithSubject();
+            }
+        };
+        File outputDirectory = testFolder.newFolder("somedirectory");
+        File checkpointFile = new File(outputDirectory, RestoreCommand.DEFAULT_CHECKPOINT_FILE);
+        assertThat(checkpointFile.createNewFile(), is(true));
+        command.dirPath = outputDirectory.getAbsolutePath();
+        command.archive = true;
+
+        // when
+        command.doExecute();
+
+        // cleanup
+        consoleOutput.resetSystemOut();
+
+        // then
+        try {
+            assertThat(consoleOutput.getOutput(), containsString(" 1 file(s) dumped in "));
+            assertThat(checkpointFile.exists(), is(false));
+        } finally {
+            consoleOutput.closeBuffer();
+        }
+    }
+
+    /**
+     * Returns the results one page at a time, following the start index and page size of each
+     * query.
+     */
+    private CatalogFramework givenPagedCatalogFramework(List<Result> results) throws Exception {
+        CatalogFramework catalogFramework = mock(CatalogFramework.class);
+        when(catalogFramework.query(isA(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = (QueryRequest) invocation.getArguments()[0];
+            int start = Math.min(request.getQuery()
+                    .getStartIndex() - 1, results.size());
+            int end = Math.min(start + request.getQuery()
+                    .getPageSize(), results.size());
+            return new QueryResponseImpl(request,
+                    new ArrayList<>(results.subList(start, end)),
+                    results.size());
+        });
+        return catalogFramework;
+    }
+
 }
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.codice.ddf.commands.catalog.facade.CatalogFacade;
+import org.codice.ddf.commands.catalog.facade.Framework;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Result;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.impl.CreateResponseImpl;
+
+/**
+ * Tests the {@link RestoreCommand} output.
+ */
+public class RestoreCommandTest extends AbstractCommandTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private CatalogFramework catalogFramework;
+
+    private File archiveDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        catalogFramework = mock(CatalogFramework.class);
+        when(catalogFramework.create(isA(CreateRequest.class))).thenAnswer(invocation -> {
+            CreateRequest request = (CreateRequest) invocation.getArguments()[0];
+            return new CreateResponseImpl(request, null, request.getMetacards());
+        });
+        archiveDirectory = testFolder.newFolder("archive");
+    }
+
+    /**
+     * Check for a directory without archive segments.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testNoSegments() throws Exception {
+        String output = restore();
+
+        assertThat(output,
+                startsWith(DumpCommandTest.RED_CONSOLE_COLOR + "Directory [" + archiveDirectory
+                        + "] does not hold any archive segments."));
+    }
+
+    /**
+     * Check that every segment is restored, and that restored segments are skipped the next time.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRestoreAndResume() throws Exception {
+        writeSegment(0, getResultList("id1", "id2"));
+        writeSegment(1, getResultList("id3"));
+
+        String output = restore();
+
+        assertThat(output, containsString(" 3 metacard(s) restored from 2 segment(s) in "));
+        assertThat(checkpointLines(), is(2L));
+
+        output = restore();
+
+        assertThat(output, containsString(" 0 metacard(s) restored from 0 segment(s) in "));
+        assertThat(output, containsString(" 2 segment(s) skipped, already restored"));
+        verify(catalogFramework, times(2)).create(isA(CreateRequest.class));
+    }
+
+    /**
+     * Check that a segment cut short is reported and not recorded as restored.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIncompleteSegment() throws Exception {
+        writeSegment(0, getResultList("id1", "id2"));
+        File segmentFile = writeSegment(1, getResultList("id3", "id4"));
+        byte[] segment = Files.readAllBytes(segmentFile.toPath());
+        Files.write(segmentFile.toPath(), Arrays.copyOf(segment, segment.length - 10));
+
+        String output = restore();
+
+        assertThat(output, containsString(" 2 metacard(s) restored from 1 segment(s) in "));
+        assertThat(output, containsString("1 segment(s) failed to restore."));
+        assertThat(output, not(containsString("skipped")));
+        assertThat(checkpointLines(), is(1L));
+    }
+
+    private File writeSegment(int index, List<Result> results) throws IOException {
+        File segmentFile = DumpSegment.getSegmentFile(archiveDirectory, index);
+        List<byte[]> records = new ArrayList<>();
+        for (Result result : results) {
+            records.add(DumpSegment.toRecord(result.getMetacard()));
+        }
+        try (DumpSegment.Writer writer = new DumpSegment.Writer(segmentFile)) {
+            writer.write(records);
+        }
+        return segmentFile;
+    }
+
+    private long checkpointLines() throws IOException {
+        File checkpointFile = new File(archiveDirectory, RestoreCommand.DEFAULT_CHECKPOINT_FILE);
+        try (Stream<String> lines = Files.lines(checkpointFile.toPath())) {
+            return lines.count();
+        }
+    }
+
+    private String restore() throws Exception {
+        ConsoleOutput consoleOutput = new ConsoleOutput();
+        consoleOutput.interceptSystemOut();
+
+        RestoreCommand command = new RestoreCommand() {
+            @Override
+            protected CatalogFacade getCatalog() throws InterruptedException {
+                return new Framework(catalogFramework);
+            }
+
+            @Override
+            protected Object doExecute() throws Exception {
+                return executeWithSubject();
+            }
+        };
+        command.dirPath = archiveDirectory.getAbsolutePath();
+
+        try {
+            command.doExecute();
+            return consoleOutput.getOutput();
+        } finally {
+            consoleOutput.resetSystemOut();
+            consoleOutput.closeBuffer();
+        }
+    }
+}
@@ -14,13 +14,20 @@
 package org.codice.ddf.commands.catalog;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 
 import org.codice.ddf.commands.catalog.facade.CatalogFacade;
@@ -35,6 +42,9 @@
 import org.osgi.framework.ServiceReference;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.impl.CreateResponseImpl;
 import ddf.catalog.transform.InputTransformer;
 
 /**
@@ -45,6 +55,9 @@ public class TestIngestCommand extends AbstractCommandTest {
     @Rule
     public TemporaryFolder testFolder = new TemporaryFolder();
 
+    @Rule
+    public TemporaryFolder checkpointFolder = new TemporaryFolder();
+
     ConsoleOutput consoleOutput;
 
     IngestCommand command;
@@ -56,7 +69,11 @@ public void setup() throws Exception {
         consoleOutput = new ConsoleOutput();
         consoleOutput.interceptSystemOut();
         catalogFramework = givenCatalogFramework(getResultList("id1", "id2"));
-        command = new IngestCommand() {
+        command = createCommand();
+    }
+
+    private IngestCommand createCommand() {
+        IngestCommand command = new IngestCommand() {
             @Override
             protected CatalogFacade getCatalog() throws InterruptedException {
                 return new Framework(catalogFramework);
@@ -82,6 +99,7 @@ public BundleContext getBundleContext() {
         };
         command.filePath = testFolder.getRoot()
                 .getAbsolutePath();
+        return command;
     }
 
     /**
@@ -217,4 +235,53 @@ public void testIgnoreHiddenFiles() throws Exception {
             consoleOutput.closeBuffer();
         }
     }
+
+    /**
+     * Check that files are transformed on several threads and that a second run with the same
+     * checkpoint file skips the files ingested by the first one
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testTransformThreadsWithCheckpoint() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MetacardImpl metacard = new MetacardImpl();
+            metacard.setId("id" + i);
+            try (ObjectOutputStream outputStream = new ObjectOutputStream(new FileOutputStream(
+                    testFolder.newFile("metacard" + i)))) {
+                outputStream.writeObject(metacard);
+            }
+        }
+        when(catalogFramework.create(isA(CreateRequest.class))).thenAnswer(invocation -> {
+            CreateRequest request = (CreateRequest) invocation.getArguments()[0];
+            return new CreateResponseImpl(request, null, request.getMetacards());
+        });
+        File checkpointFile = new File(checkpointFolder.getRoot(), "checkpoint");
+
+        // when
+        command.transformThreads = 3;
+        command.checkpointPath = checkpointFile.getAbsolutePath();
+        command.doExecute();
+
+        IngestCommand resumedCommand = createCommand();
+        resumedCommand.checkpointPath = checkpointFile.getAbsolutePath();
+        resumedCommand.doExecute();
+
+        // cleanup
+        consoleOutput.resetSystemOut();
+
+        // then
+        try {
+            String output = consoleOutput.getOutput();
+            assertThat(output, containsString("5 file(s) ingested"));
+            assertThat(output, containsString("0 file(s) ingested"));
+            assertThat(output, containsString("5 file(s) skipped"));
+            assertFalse(output.contains("failed"));
+            assertThat(Files.readAllLines(checkpointFile.toPath(), StandardCharsets.UTF_8)
+                    .size(), is(5));
+
+        } finally {
+            consoleOutput.closeBuffer();
+        }
+    }
 }
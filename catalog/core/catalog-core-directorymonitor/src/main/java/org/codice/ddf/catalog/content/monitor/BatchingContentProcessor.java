@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.Processor;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.util.AsyncProcessorHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.Constants;
+
+/**
+ * Collects the files polled from a monitored directory into batches and ingests each batch with a
+ * single {@link ddf.catalog.content.operation.CreateStorageRequest}, on a pool of ingest threads.
+ * <p>
+ * A batch is sent when it holds {@code batchSize} files, when the poll that found its files is
+ * complete, or {@code batchTimeoutMillis} after its first file arrived. Files are completed
+ * asynchronously, so the file consumer only moves or deletes a file once its batch has been
+ * ingested. When a batch fails, its files are ingested one at a time so that only the files that
+ * fail are moved to the {@code .errors} directory.
+ * <p>
+ * At most two batches per ingest thread are running or queued; beyond that the consumer waits
+ * for a batch to finish, which bounds the number of files in flight to
+ * {@link #maxFilesInFlight(int, int)}.
+ */
+class BatchingContentProcessor implements AsyncProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingContentProcessor.class);
+
+    private final CamelContext camelContext;
+
+    private final ProducerTemplate producerTemplate;
+
+    private final String endpointUri;
+
+    private final Processor systemSubjectBinder;
+
+    private final int batchSize;
+
+    private final long batchTimeoutMillis;
+
+    private final ExecutorService ingestExecutor;
+
+    private final ScheduledExecutorService timeoutExecutor;
+
+    private final Semaphore batchSlots;
+
+    private List<PendingFile> batch;
+
+    private ScheduledFuture<?> batchTimeout;
+
+    /**
+     * @param camelContext        the Camel context of the monitor's route
+     * @param endpointUri         the endpoint that ingests the files, such as
+     *                            {@code content:framework}
+     * @param systemSubjectBinder binds the subject used to ingest on the ingest threads
+     * @param numThreads          the number of batches ingested concurrently
+     * @param batchSize           the maximum number of files in a batch
+     * @param batchTimeoutMillis  the longest time a file waits for its batch to fill up
+     */
+    BatchingContentProcessor(CamelContext camelContext, String endpointUri,
+            Processor systemSubjectBinder, int numThreads, int batchSize,
+            long batchTimeoutMillis) {
+        this.camelContext = camelContext;
+        this.producerTemplate = camelContext.createProducerTemplate();
+        this.endpointUri = endpointUri;
+        this.systemSubjectBinder = systemSubjectBinder;
+        this.batchSize = batchSize;
+        this.batchTimeoutMillis = batchTimeoutMillis;
+        this.ingestExecutor = camelContext.getExecutorServiceManager()
+                .newFixedThreadPool(this, "ContentDirectoryMonitor", numThreads);
+        this.timeoutExecutor = camelContext.getExecutorServiceManager()
+                .newSingleThreadScheduledExecutor(this, "ContentDirectoryMonitorBatchTimeout");
+        this.batchSlots = new Semaphore(2 * numThreads);
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Returns the largest number of files that can be waiting for, or be part of, a batch
+     * ingest.
+     */
+    static int maxFilesInFlight(int numThreads, int batchSize) {
+        // running and queued batches, the batch being filled and a batch waiting for a slot
+        return (2 * numThreads + 2) * batchSize;
+    }
+
+    @Override
+    public void process(Exchange exchange) throws Exception {
+        AsyncProcessorHelper.process(this, exchange);
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        List<PendingFile> fullBatch = null;
+        synchronized (this) {
+            batch.add(new PendingFile(exchange, callback));
+            if (batch.size() >= batchSize || isLastFileOfPoll(exchange)) {
+                fullBatch = takeBatch();
+            } else if (batch.size() == 1) {
+                batchTimeout = timeoutExecutor.schedule(this::flush,
+                        batchTimeoutMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (fullBatch != null) {
+            submit(fullBatch);
+        }
+        return false;
+    }
+
+    /**
+     * Sends the files waiting for their batch to fill up and stops the ingest threads once the
+     * batches already sent have been ingested.
+     */
+    void shutdown() {
+        flush();
+        camelContext.getExecutorServiceManager()
+                .shutdownNow(timeoutExecutor);
+        camelContext.getExecutorServiceManager()
+                .shutdownGraceful(ingestExecutor);
+        try {
+            producerTemplate.stop();
+        } catch (Exception e) {
+            LOGGER.debug("Unable to stop producer template", e);
+        }
+    }
+
+    private void flush() {
+        List<PendingFile> pending;
+        synchronized (this) {
+            pending = takeBatch();
+        }
+
+        if (!pending.isEmpty()) {
+            submit(pending);
+        }
+    }
+
+    private List<PendingFile> takeBatch() {
+        if (batchTimeout != null) {
+            batchTimeout.cancel(false);
+            batchTimeout = null;
+        }
+        List<PendingFile> taken = batch;
+        batch = new ArrayList<>(batchSize);
+        return taken;
+    }
+
+    private void submit(List<PendingFile> pending) {
+        try {
+            batchSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            complete(pending, e);
+            return;
+        }
+
+        try {
+            ingestExecutor.execute(() -> {
+                try {
+                    ingest(pending);
+                } finally {
+                    batchSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batchSlots.release();
+            complete(pending, e);
+        }
+    }
+
+    private void ingest(List<PendingFile> pending) {
+        try {
+            Exchange batchExchange = send(pending);
+            Exception exception = batchExchange.getException();
+            if (exception == null || pending.size() == 1) {
+                LOGGER.debug("Ingested batch of {} files", pending.size());
+                complete(pending, exception);
+                return;
+            }
+
+            LOGGER.debug("Unable to ingest batch of {} files, ingesting them one at a time",
+                    pending.size(),
+                    exception);
+            for (PendingFile file : pending) {
+                Exchange fileExchange = send(file);
+                complete(file, fileExchange.getException());
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Unable to ingest batch of {} files", pending.size(), e);
+            complete(pending, e);
+        }
+    }
+
+    private Exchange send(List<PendingFile> pending) throws Exception {
+        if (pending.size() == 1) {
+            return send(pending.get(0));
+        }
+
+        List<Object> bodies = pending.stream()
+                .map(file -> file.exchange.getIn()
+                        .getBody())
+                .collect(Collectors.toList());
+        return send(pending.get(0).exchange, bodies);
+    }
+
+    private Exchange send(PendingFile file) throws Exception {
+        return send(file.exchange, file.exchange.getIn()
+                .getBody());
+    }
+
+    private Exchange send(Exchange original, Object body) throws Exception {
+        Exchange exchange = new DefaultExchange(camelContext, ExchangePattern.InOnly);
+        Object attributeOverrides = original.getIn()
+                .getHeader(Constants.ATTRIBUTE_OVERRIDES_KEY);
+        if (attributeOverrides != null) {
+            exchange.getIn()
+                    .setHeader(Constants.ATTRIBUTE_OVERRIDES_KEY, attributeOverrides);
+        }
+        exchange.getIn()
+                .setBody(body);
+
+        systemSubjectBinder.process(exchange);
+        return producerTemplate.send(endpointUri, exchange);
+    }
+
+    private void complete(List<PendingFile> pending, Exception exception) {
+        for (PendingFile file : pending) {
+            complete(file, exception);
+        }
+    }
+
+    private void complete(PendingFile file, Exception exception) {
+        if (exception != null) {
+            file.exchange.setException(exception);
+        }
+        file.callback.done(false);
+    }
+
+    private static boolean isLastFileOfPoll(Exchange exchange) {
+        return exchange.getProperty(Exchange.BATCH_COMPLETE, false, Boolean.class);
+    }
+
+    private static class PendingFile {
+        private final Exchange exchange;
+
+        private final AsyncCallback callback;
+
+        PendingFile(Exchange exchange, AsyncCallback callback) {
+            this.exchange = exchange;
+            this.callback = callback;
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package org.codice.ddf.catalog.content.monitor;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -23,8 +24,13 @@
 import org.apache.camel.Processor;
 import org.apache.camel.ServiceStatus;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.file.FileEndpoint;
 import org.apache.camel.model.FromDefinition;
 import org.apache.camel.model.RouteDefinition;
+import org.apache.camel.processor.idempotent.FileIdempotentRepository;
+import org.apache.camel.processor.idempotent.MemoryIdempotentRepository;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.util.ServiceHelper;
 import org.apache.commons.lang.StringUtils;
 import org.apache.shiro.util.ThreadContext;
 import org.slf4j.Logger;
@@ -39,6 +45,15 @@
 public class ContentDirectoryMonitor implements DirectoryMonitor {
     private static final Logger LOGGER = LoggerFactory.getLogger(ContentDirectoryMonitor.class);
 
+    /**
+     * Name of the file in the monitored directory that records the files ingested in batches.
+     */
+    static final String INGEST_JOURNAL = ".ingest-journal";
+
+    private static final int INGEST_JOURNAL_CACHE_SIZE = 10000;
+
+    private static final int DEFAULT_IN_PROGRESS_CACHE_SIZE = 1000;
+
     private String monitoredDirectory = null;
 
     private boolean copyIngestedFiles = false;
@@ -49,6 +64,18 @@ public class ContentDirectoryMonitor implements DirectoryMonitor {
 
     private List<String> attributeOverrides;
 
+    private int numThreads = 1;
+
+    private int batchSize = 1;
+
+    private long batchTimeoutMilliseconds = 1000;
+
+    private long readLockIntervalMilliseconds = 1000;
+
+    private BatchingContentProcessor batchingProcessor;
+
+    private IdempotentRepository<String> ingestJournal;
+
     Processor systemSubjectBinder = new SystemSubjectBinder();
 
     /**
@@ -87,6 +114,7 @@ public void init() {
         } else {
             LOGGER.debug("No routes to remove before configuring a new route");
         }
+        stopBatching();
 
         configureCamelRoute();
     }
@@ -97,6 +125,7 @@ public void init() {
     public void destroy(int code) {
         LOGGER.trace("INSIDE: destroy()");
         removeRoutes();
+        stopBatching();
     }
 
     /**
@@ -116,6 +145,12 @@ public void updateCallback(Map<String, Object> properties) {
             if (parameterArray != null) {
                 setAttributeOverrides(Arrays.asList(parameterArray));
             }
+            setNumThreads(getInt(properties, "numThreads", 1));
+            setBatchSize(getInt(properties, "batchSize", 1));
+            setBatchTimeoutMilliseconds(getInt(properties, "batchTimeoutMilliseconds", 1000));
+            setReadLockIntervalMilliseconds(getInt(properties,
+                    "readLockIntervalMilliseconds",
+                    1000));
             init();
         }
 
@@ -148,6 +183,43 @@ public List<String> getAttributeOverrides() {
         return this.attributeOverrides;
     }
 
+    /**
+     * @param numThreads - number of batches of files ingested concurrently
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    /**
+     * @param batchSize - maximum number of files ingested with a single request
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @param batchTimeoutMilliseconds - longest time a file waits for its batch to fill up
+     */
+    public void setBatchTimeoutMilliseconds(long batchTimeoutMilliseconds) {
+        this.batchTimeoutMilliseconds = Math.max(1, batchTimeoutMilliseconds);
+    }
+
+    /**
+     * @param readLockIntervalMilliseconds - time a file must be left unchanged before it is
+     *                                     ingested in batches
+     */
+    public void setReadLockIntervalMilliseconds(long readLockIntervalMilliseconds) {
+        this.readLockIntervalMilliseconds = Math.max(1, readLockIntervalMilliseconds);
+    }
+
+    /**
+     * Returns whether files are ingested in batches on a pool of threads rather than one at a
+     * time on the consumer thread.
+     */
+    boolean isBatching() {
+        return numThreads > 1 || batchSize > 1;
+    }
+
     private void configureCamelRoute() {
         LOGGER.trace("ENTERING: configureCamelRoute");
 
@@ -168,7 +240,12 @@ public void configure() throws Exception {
                 }
                 LOGGER.debug("inbox = {}", inbox);
 
-                RouteDefinition routeDefinition = from(inbox);
+                RouteDefinition routeDefinition;
+                if (isBatching()) {
+                    routeDefinition = from(createBatchingEndpoint(inbox));
+                } else {
+                    routeDefinition = from(inbox);
+                }
 
                 if (attributeOverrides != null) {
                     String attributeOverrideString = attributeOverrides.stream()
@@ -178,8 +255,18 @@ public void configure() throws Exception {
                             attributeOverrideString));
                 }
 
-                routeDefinition.process(systemSubjectBinder)
-                        .to("content:framework");
+                if (isBatching()) {
+                    batchingProcessor = new BatchingContentProcessor(camelContext,
+                            "content:framework",
+                            systemSubjectBinder,
+                            numThreads,
+                            batchSize,
+                            batchTimeoutMilliseconds);
+                    routeDefinition.process(batchingProcessor);
+                } else {
+                    routeDefinition.process(systemSubjectBinder)
+                            .to("content:framework");
+                }
             }
         };
 
@@ -215,6 +302,68 @@ public void configure() throws Exception {
         LOGGER.trace("EXITING: configureCamelRoute");
     }
 
+    /**
+     * Creates the file endpoint used when ingesting in batches. Only files that have been left
+     * unchanged for the read lock interval are picked up, so files that are still being written
+     * are not ingested. Ingested files are recorded in a journal in the monitored directory, keyed
+     * by name, size and modification time, so that a file which was ingested but not yet moved or
+     * deleted when the monitor stopped is not ingested again on restart.
+     */
+    private FileEndpoint createBatchingEndpoint(String inbox) throws Exception {
+        String uri = inbox + "&readLock=changed&readLockCheckInterval="
+                + readLockIntervalMilliseconds + "&readLockMinAge="
+                + readLockIntervalMilliseconds + "&readLockTimeout="
+                + 3 * readLockIntervalMilliseconds
+                + "&idempotent=true&idempotentKey=${file:name}-${file:size}-${file:modified}";
+        LOGGER.debug("batching inbox = {}", uri);
+
+        FileEndpoint endpoint = camelContext.getEndpoint(uri, FileEndpoint.class);
+
+        File journalFile = new File(monitoredDirectory, INGEST_JOURNAL);
+        if (!journalFile.getParentFile()
+                .exists() && !journalFile.getParentFile()
+                .mkdirs()) {
+            LOGGER.debug("Unable to create monitored directory {}", monitoredDirectory);
+        }
+        ingestJournal = FileIdempotentRepository.fileIdempotentRepository(journalFile,
+                INGEST_JOURNAL_CACHE_SIZE);
+        ServiceHelper.startService(ingestJournal);
+        endpoint.setIdempotentRepository(ingestJournal);
+
+        // Files stay in progress until their batch has been ingested, so the in progress
+        // repository must remember all of them to keep the next poll from picking them up again.
+        endpoint.setInProgressRepository(MemoryIdempotentRepository.memoryIdempotentRepository(
+                Math.max(DEFAULT_IN_PROGRESS_CACHE_SIZE,
+                        BatchingContentProcessor.maxFilesInFlight(numThreads, batchSize))));
+        return endpoint;
+    }
+
+    private void stopBatching() {
+        if (batchingProcessor != null) {
+            batchingProcessor.shutdown();
+            batchingProcessor = null;
+        }
+        if (ingestJournal != null) {
+            try {
+                ServiceHelper.stopService(ingestJournal);
+            } catch (Exception e) {
+                LOGGER.debug("Unable to stop ingest journal", e);
+            }
+            ingestJournal = null;
+        }
+    }
+
+    private static int getInt(Map<String, Object> properties, String key, int defaultValue) {
+        Object value = properties.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String && StringUtils.isNumeric((String) value)
+                && StringUtils.isNotEmpty((String) value)) {
+            return Integer.parseInt((String) value);
+        }
+        return defaultValue;
+    }
+
     public List<RouteDefinition> getRouteDefinitions() {
         return camelContext.getRouteDefinitions();
     }
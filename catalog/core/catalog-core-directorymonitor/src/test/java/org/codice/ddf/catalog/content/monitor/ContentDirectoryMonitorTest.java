@@ -15,9 +15,11 @@
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -27,6 +29,7 @@
 import org.apache.camel.Processor;
 import org.apache.camel.builder.AdviceWithRouteBuilder;
 import org.apache.camel.component.mock.MockComponent;
+import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.model.FromDefinition;
 import org.apache.camel.model.ModelCamelContext;
 import org.apache.camel.model.ProcessorDefinition;
@@ -267,10 +270,133 @@ public void testDirectoryMonitorWithParameters() throws Exception {
                 "SetHeader[" + Constants.ATTRIBUTE_OVERRIDES_KEY + ", simple{Simple: test1=someParameter1,test2=someParameter2}"));
     }
 
+    @Test
+    public void testRouteCreationWithBatching() throws Exception {
+        RouteDefinition routeDefinition = createBatchingRoute(MONITORED_DIRECTORY);
+
+        List<FromDefinition> fromDefinitions = routeDefinition.getInputs();
+        assertThat(fromDefinitions.size(), is(1));
+        String uri = fromDefinitions.get(0)
+                .getEndpoint()
+                .getEndpointUri();
+        LOGGER.debug("uri = {}", uri);
+        assertThat(uri, containsString("move=.ingested"));
+        assertThat(uri, containsString("moveFailed=.errors"));
+        assertThat(uri, containsString("readLock=changed"));
+        assertThat(uri, containsString("readLockMinAge=100"));
+        assertThat(uri, containsString("idempotent=true"));
+        assertThat(routeDefinition.getOutputs()
+                .size(), is(1));
+
+        FileUtils.deleteDirectory(new File(MONITORED_DIRECTORY));
+    }
+
+    @Test
+    public void testBatchIngest() throws Exception {
+        createBatchingRoute(MONITORED_DIRECTORY);
+        MockEndpoint framework = camelContext.getEndpoint("content:framework",
+                MockEndpoint.class);
+
+        for (int i = 0; i < 5; i++) {
+            template.sendBodyAndHeader("file://" + MONITORED_DIRECTORY,
+                    "Dummy data in text file " + i,
+                    Exchange.FILE_NAME,
+                    "input_" + i + ".txt");
+        }
+
+        Thread.sleep(3000);
+
+        List<Object> ingested = new ArrayList<>();
+        List<Class<?>> bodyTypes = new ArrayList<>();
+        for (Exchange exchange : framework.getReceivedExchanges()) {
+            Object body = exchange.getIn()
+                    .getBody();
+            bodyTypes.add(body.getClass());
+            if (body instanceof List) {
+                ingested.addAll((List<?>) body);
+            } else {
+                ingested.add(body);
+            }
+        }
+        assertThat(ingested.size(), is(5));
+        assertThat(bodyTypes, hasItem(ArrayList.class));
+
+        for (int i = 0; i < 5; i++) {
+            File target = new File(MONITORED_DIRECTORY + "/.ingested/input_" + i + ".txt");
+            assertTrue("File " + i + " not moved to .ingested folder", target.exists());
+        }
+        assertTrue("Ingest journal not created",
+                new File(MONITORED_DIRECTORY, ContentDirectoryMonitor.INGEST_JOURNAL).exists());
+
+        FileUtils.deleteDirectory(new File(MONITORED_DIRECTORY));
+    }
+
+    /**
+     * Verify that when a batch fails, its files are ingested one at a time and only the files
+     * that fail on their own are moved to the .errors directory.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedBatchIsIngestedOneFileAtATime() throws Exception {
+        createBatchingRoute(MONITORED_DIRECTORY);
+        MockEndpoint framework = camelContext.getEndpoint("content:framework",
+                MockEndpoint.class);
+        framework.whenAnyExchangeReceived(exchange -> {
+            Object body = exchange.getIn()
+                    .getBody();
+            if (body instanceof List || exchange.getIn()
+                    .getBody(String.class)
+                    .contains("bad")) {
+                throw new IllegalStateException("Unable to ingest");
+            }
+        });
+
+        template.sendBodyAndHeader("file://" + MONITORED_DIRECTORY,
+                "good data",
+                Exchange.FILE_NAME,
+                "good.txt");
+        template.sendBodyAndHeader("file://" + MONITORED_DIRECTORY,
+                "bad data",
+                Exchange.FILE_NAME,
+                "bad.txt");
+
+        Thread.sleep(3000);
+
+        assertTrue("Good file not moved to .ingested folder",
+                new File(MONITORED_DIRECTORY + "/.ingested/good.txt").exists());
+        assertTrue("Bad file not moved to .errors folder",
+                new File(MONITORED_DIRECTORY + "/.errors/bad.txt").exists());
+
+        FileUtils.deleteDirectory(new File(MONITORED_DIRECTORY));
+    }
+
     /**
      * ********************************************************************************
      */
 
+    private RouteDefinition createBatchingRoute(String monitoredDirectory) throws Exception {
+        camelContext = (ModelCamelContext) super.createCamelContext();
+        camelContext.start();
+        camelContext.addComponent("content", new MockComponent());
+
+        contentDirectoryMonitor = new ContentDirectoryMonitor(camelContext);
+        contentDirectoryMonitor.systemSubjectBinder = noOpProcessor;
+        contentDirectoryMonitor.setMonitoredDirectoryPath(monitoredDirectory);
+        contentDirectoryMonitor.setCopyIngestedFiles(true);
+        contentDirectoryMonitor.setNumThreads(2);
+        contentDirectoryMonitor.setBatchSize(3);
+        contentDirectoryMonitor.setBatchTimeoutMilliseconds(200);
+        contentDirectoryMonitor.setReadLockIntervalMilliseconds(100);
+        contentDirectoryMonitor.init();
+
+        List<RouteDefinition> routeDefinitions = contentDirectoryMonitor.getRouteDefinitions();
+        assertThat(routeDefinitions.size(), is(1));
+        LOGGER.debug("routeDefinition = {}", routeDefinitions.get(0));
+
+        return routeDefinitions.get(0);
+    }
+
     private RouteDefinition createRouteWithAdvice(String monitoredDirectory,
             boolean copyIngestedFiles) throws Exception {
         camelContext = (ModelCamelContext) super.createCamelContext();
@@ -15,7 +15,6 @@
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -47,6 +46,7 @@
 import ddf.catalog.plugin.PostFederatedQueryPlugin;
 import ddf.catalog.plugin.PreFederatedQueryPlugin;
 import ddf.catalog.source.Source;
+import ddf.catalog.util.impl.BoundedResultMerger;
 import ddf.catalog.util.impl.DistanceResultComparator;
 import ddf.catalog.util.impl.RelevanceResultComparator;
 import ddf.catalog.util.impl.TemporalResultComparator;
@@ -146,7 +146,8 @@ public void run() {
                 }
             }
 
-            List<Result> resultList = new ArrayList<Result>();
+            BoundedResultMerger resultMerger = new BoundedResultMerger(coreComparator,
+                    query.getPageSize());
             long totalHits = 0;
             Set<ProcessingDetails> processingDetails = returnResults.getProcessingDetails();
 
@@ -179,10 +180,11 @@ public void run() {
                 }
                 if (sourceResponse != null) {
                     List<Result> sourceResults = sourceResponse.getResults();
-                    resultList.addAll(sourceResults);
+                    resultMerger.addAll(sourceResults);
                     long sourceHits = sourceResponse.getHits();
 
                     totalHits += sourceHits;
+                    returnResults.setHits(totalHits);
                     Map<String, Serializable> newSourceProperties =
                             new HashMap<String, Serializable>();
                     newSourceProperties.put(QueryResponse.TOTAL_HITS, sourceHits);
@@ -225,16 +227,10 @@ public void run() {
 
                 }
             }
-            logger.debug("all sites finished returning results: " + resultList.size());
-
-            Collections.sort(resultList, coreComparator);
+            logger.debug("all sites finished returning results: " + resultMerger.size());
 
             returnResults.setHits(totalHits);
-            int maxResults = query.getPageSize() > 0 ? query.getPageSize() : Integer.MAX_VALUE;
-
-            returnResults.addResults(
-                    resultList.size() > maxResults ? resultList.subList(0, maxResults) : resultList,
-                    true);
+            returnResults.addResults(resultMerger.drain(), true);
         }
 
         private long getTimeRemaining(long deadline) {
@@ -14,9 +14,13 @@
 
 package ddf.catalog.data.metacardtype;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.slf4j.Logger;
@@ -43,8 +47,14 @@ public final class MetacardTypeRegistryImpl implements MetacardTypeRegistry {
 
     private Set<QualifiedMetacardType> registeredMetacardTypes;
 
+    /**
+     * The first registered type of each namespace and name, keyed by {@link #key(String, String)}
+     */
+    private Map<List<String>, QualifiedMetacardType> metacardTypesByName;
+
     private MetacardTypeRegistryImpl() {
         this.registeredMetacardTypes = new CopyOnWriteArraySet<QualifiedMetacardType>();
+        this.metacardTypesByName = new ConcurrentHashMap<List<String>, QualifiedMetacardType>();
         register(new QualifiedMetacardTypeImpl(BasicTypes.BASIC_METACARD));
     }
 
@@ -57,7 +67,12 @@ public void register(QualifiedMetacardType qualifiedMetacardType)
             throws IllegalArgumentException {
         validateInput(qualifiedMetacardType);
 
-        registeredMetacardTypes.add(qualifiedMetacardType);
+        synchronized (registeredMetacardTypes) {
+            if (registeredMetacardTypes.add(qualifiedMetacardType)) {
+                metacardTypesByName.putIfAbsent(key(qualifiedMetacardType.getNamespace(),
+                        qualifiedMetacardType.getName()), qualifiedMetacardType);
+            }
+        }
     }
 
     @Override
@@ -66,12 +81,9 @@ public QualifiedMetacardType lookup(String namespace, String metacardTypeName)
 
         validateInput(namespace, metacardTypeName);
 
-        for (QualifiedMetacardType qmt : registeredMetacardTypes) {
-            String currName = qmt.getName();
-            String currNamespace = qmt.getNamespace();
-            if (metacardTypeName.equals(currName) && namespace.equals(currNamespace)) {
-                return qmt;
-            }
+        QualifiedMetacardType qmt = metacardTypesByName.get(key(namespace, metacardTypeName));
+        if (qmt != null) {
+            return qmt;
         }
         LOGGER.debug("No registered MetacardType with namespace: {} and name: {}",
                 namespace,
@@ -90,7 +102,13 @@ public void unregister(QualifiedMetacardType qualifiedMetacardType)
 
         validateInput(qualifiedMetacardType);
 
-        boolean removedSuccessfully = registeredMetacardTypes.remove(qualifiedMetacardType);
+        boolean removedSuccessfully;
+        synchronized (registeredMetacardTypes) {
+            removedSuccessfully = registeredMetacardTypes.remove(qualifiedMetacardType);
+            if (removedSuccessfully) {
+                reindex(qualifiedMetacardType.getNamespace(), qualifiedMetacardType.getName());
+            }
+        }
 
         if (!removedSuccessfully) {
             String message = "Unable to unregister specified MetacardType.";
@@ -105,6 +123,25 @@ public Set<QualifiedMetacardType> getRegisteredTypes() {
                 registeredMetacardTypes));
     }
 
+    /**
+     * Points the index entry of a namespace and name back at the first registered type with that
+     * namespace and name, if any.
+     */
+    private void reindex(String namespace, String metacardTypeName) {
+        List<String> key = key(namespace, metacardTypeName);
+        for (QualifiedMetacardType qmt : registeredMetacardTypes) {
+            if (metacardTypeName.equals(qmt.getName()) && namespace.equals(qmt.getNamespace())) {
+                metacardTypesByName.put(key, qmt);
+                return;
+            }
+        }
+        metacardTypesByName.remove(key);
+    }
+
+    private static List<String> key(String namespace, String metacardTypeName) {
+        return Arrays.asList(namespace, metacardTypeName);
+    }
+
     private void validateInput(QualifiedMetacardType qmt) {
         if (qmt == null) {
             String message = "QualifiedMetacardType passed in cannot be null.";
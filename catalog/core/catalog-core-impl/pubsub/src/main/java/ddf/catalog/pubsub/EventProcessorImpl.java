@@ -22,12 +22,9 @@
 import java.util.Map;
 import java.util.UUID;
 
-import org.apache.lucene.store.Directory;
 import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
-import org.osgi.service.event.EventConstants;
 import org.osgi.service.event.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,10 +44,13 @@
 import ddf.catalog.plugin.PostIngestPlugin;
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.plugin.PreSubscriptionPlugin;
-import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.internal.DeliveryProcessor;
+import ddf.catalog.pubsub.internal.DeliveryQueue;
+import ddf.catalog.pubsub.internal.EventDispatcher;
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.internal.PubSubThread;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
 
@@ -69,7 +69,9 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
     protected CatalogFramework catalog;
 
-    private Map<String, ServiceRegistration> existingSubscriptions;
+    private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+
+    private final EventDispatcher eventDispatcher = new EventDispatcher();
 
     public EventProcessorImpl() {
         LOGGER.debug("INSIDE: EventProcessorImpl default constructor");
@@ -85,7 +87,6 @@ public EventProcessorImpl(BundleContext bundleContext, EventAdmin eventAdmin,
         this.preSubscription = preSubscription;
         this.preDelivery = preDelivery;
         this.catalog = catalog;
-        this.existingSubscriptions = new HashMap<String, ServiceRegistration>();
 
         if (this.preSubscription == null) {
             LOGGER.debug("preSubscription plugins list is NULL");
@@ -103,125 +104,164 @@ public EventProcessorImpl(BundleContext bundleContext, EventAdmin eventAdmin,
     }
 
     /**
-     * Processes an entry by adding properties from the metacard to the event. Then the eventAdmin
-     * is used to post the metacard properties as a single event.
+     * Posts an entry as the catalog event of its operation, which the event processor matches
+     * against the subscriptions like the events it posts for ingested entries.
      *
      * @param metacard   - the metacard to process
      * @param operation  - The type of event {@link ddf.catalog.pubsub.internal.PubSubConstants}
      * @param eventAdmin - OSGi EventAdmin service used post events
+     * @deprecated post the catalog event to {@link EventProcessor#EVENTS_TOPIC_CREATED},
+     * {@link EventProcessor#EVENTS_TOPIC_UPDATED} or {@link EventProcessor#EVENTS_TOPIC_DELETED}
+     * instead, as subscriptions are no longer matched on the published event topic
      */
+    @Deprecated
     public static void processEntry(Metacard metacard, String operation, EventAdmin eventAdmin) {
         String methodName = "processEntry";
         LOGGER.debug("ENTERING: " + methodName);
 
-        if (metacard != null) {
-            LOGGER.debug("Input Metacard:{}\n", metacard.toString());
-            LOGGER.debug("catalog ID = {}", metacard.getId());
-            LOGGER.debug("operation = {}", operation);
-
-            HashMap<String, Object> properties = new HashMap<String, Object>();
-
-            // Common headers
-            properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
-            properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
-
-            // ENTRY ID INFORMATION
-            // TODO: probably don't need to pass this through since they can get the metacard
-            properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
-
-            try {
-                URI uri = metacard.getResourceURI();
-                if (uri != null) {
-                    String productUri = uri.toString();
-                    LOGGER.debug(
-                            "Processing incoming entry.  Adding DAD URI to event properties: {}",
-                            productUri);
-                    // TODO: probably just get this info from the Metacard, Probably don't need to
-                    // create new property for this
-                    properties.put(PubSubConstants.HEADER_DAD_KEY, productUri);
-                }
-            } catch (Exception e) {
-                LOGGER.warn("Unable to obtain resource URL, will not be considered in subscription",
-                        e);
-            }
+        String topic = getTopic(operation);
+        if (metacard == null) {
+            LOGGER.warn("Unable to post null metacard.");
+        } else if (topic == null) {
+            LOGGER.warn("Unable to post metacard {} for unknown operation {}.",
+                    metacard.getId(),
+                    operation);
+        } else if (eventAdmin == null) {
+            LOGGER.warn("Unable to post event since eventAdmin is null.");
+        } else {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put(EventProcessor.EVENT_METACARD, metacard);
+            properties.put(EventProcessor.EVENT_TIME, System.currentTimeMillis());
+            eventAdmin.postEvent(new Event(topic, properties));
+        }
 
-            // CONTENT TYPE INFORMATION
-            String type = metacard.getContentTypeName();
-            String contentType = "UNKNOWN";
-            if (type != null) {
-                contentType = type;
-            } else {
-                LOGGER.debug("contentType is null");
-            }
+        LOGGER.debug("EXITING: {}", methodName);
+    }
 
-            String version = metacard.getContentTypeVersion();
-
-            contentType = contentType + "," + (version == null ? "" : version);
-
-            LOGGER.debug("contentType = {}", contentType);
-
-            properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY, contentType);
-
-            // CONTEXTUAL INFORMATION
-            if (metacard.getMetadata() != null) {
-                try {
-                    // Build Lucene search index on entry's entire metadata using
-                    // default XPaths (specified
-                    // in ContextualEvaluator) - this index will be used by all
-                    // contextual predicates that do
-                    // *NOT* specify any textPaths. (Building index here optimizes
-                    // code so that this index is
-                    // not built for every contextual subscription that has no
-                    // textPaths.)
-                    Directory index = ContextualEvaluator.buildIndex(metacard.getMetadata());
-
-                    // Build contextual info to be sent in event for this entry.
-                    // Include the default Lucene search
-                    // index and the entry's metadata (in case subscription has
-                    // textPaths, then it can create Lucene
-                    // search indices on the metadata using its textPaths)
-                    Map<String, Object> contextualMap = new HashMap<String, Object>();
-                    contextualMap.put("DEFAULT_INDEX", index);
-                    contextualMap.put("METADATA", metacard.getMetadata());
-                    properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
-                } catch (Exception e) {
-                    LOGGER.error("Exception updating context map", e);
-                }
-            }
+    private static String getTopic(String operation) {
+        if (PubSubConstants.CREATE.equals(operation)) {
+            return EventProcessor.EVENTS_TOPIC_CREATED;
+        } else if (PubSubConstants.UPDATE.equals(operation)) {
+            return EventProcessor.EVENTS_TOPIC_UPDATED;
+        } else if (PubSubConstants.DELETE.equals(operation)) {
+            return EventProcessor.EVENTS_TOPIC_DELETED;
+        }
+        return null;
+    }
 
-            if (eventAdmin != null) {
-                eventAdmin.postEvent(new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME,
-                        properties));
-            } else {
-                LOGGER.warn("Unable to post event since eventAdmin is null.");
+    /**
+     * Creates the properties of the event published for an entry, except for the contextual
+     * information.
+     *
+     * @param metacard  - the metacard to process
+     * @param operation - The type of event {@link ddf.catalog.pubsub.internal.PubSubConstants}
+     * @return the event properties
+     */
+    public static Map<String, Object> createEventProperties(Metacard metacard,
+            String operation) {
+        LOGGER.debug("Input Metacard:{}\n", metacard.toString());
+        LOGGER.debug("catalog ID = {}", metacard.getId());
+        LOGGER.debug("operation = {}", operation);
+
+        HashMap<String, Object> properties = new HashMap<String, Object>();
+
+        // Common headers
+        properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+        properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+
+        // ENTRY ID INFORMATION
+        // TODO: probably don't need to pass this through since they can get the metacard
+        properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
+
+        try {
+            URI uri = metacard.getResourceURI();
+            if (uri != null) {
+                String productUri = uri.toString();
+                LOGGER.debug("Processing incoming entry.  Adding DAD URI to event properties: {}",
+                        productUri);
+                // TODO: probably just get this info from the Metacard, Probably don't need to
+                // create new property for this
+                properties.put(PubSubConstants.HEADER_DAD_KEY, productUri);
             }
+        } catch (Exception e) {
+            LOGGER.warn("Unable to obtain resource URL, will not be considered in subscription", e);
+        }
+
+        // CONTENT TYPE INFORMATION
+        String type = metacard.getContentTypeName();
+        String contentType = "UNKNOWN";
+        if (type != null) {
+            contentType = type;
         } else {
-            LOGGER.warn("Unable to post null metacard.");
+            LOGGER.debug("contentType is null");
         }
 
-        LOGGER.debug("EXITING: {}", methodName);
+        String version = metacard.getContentTypeVersion();
+
+        contentType = contentType + "," + (version == null ? "" : version);
+
+        LOGGER.debug("contentType = {}", contentType);
+
+        properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY, contentType);
+
+        return properties;
     }
 
     public void init() {
         String methodName = "init";
         LOGGER.debug("ENTERING: {}", methodName);
 
-        LOGGER.debug("EXITING: {}", methodName);
+        subscriptionIndex.registerMBean();
+        eventDispatcher.registerMBean();
 
+        LOGGER.debug("EXITING: {}", methodName);
     }
 
     public void destroy() {
         String methodName = "destroy";
         LOGGER.debug("ENTERING: {}", methodName);
 
+        subscriptionIndex.unregisterMBean();
+        eventDispatcher.unregisterMBean();
+        eventDispatcher.shutdown();
+
         LOGGER.debug("EXITING: {}", methodName);
     }
 
+    /**
+     * Sets the number of threads matching catalog events against the subscriptions.
+     */
+    public void setThreadPoolSize(int threadPoolSize) {
+        eventDispatcher.setThreadPoolSize(threadPoolSize);
+    }
+
+    /**
+     * Sets the number of threads delivering matched events to the subscribers.
+     */
+    public void setDeliveryThreadPoolSize(int deliveryThreadPoolSize) {
+        eventDispatcher.setDeliveryThreadPoolSize(deliveryThreadPoolSize);
+    }
+
+    /**
+     * Sets the number of catalog events, and of deliveries per subscription, that can be queued
+     * before the overflow policy applies.
+     */
+    public void setMaximumQueuedEvents(int maximumQueuedEvents) {
+        eventDispatcher.setMaximumQueuedEvents(maximumQueuedEvents);
+    }
+
+    /**
+     * Sets what happens when a queue is full, one of {@link EventDispatcher.OverflowPolicy}.
+     */
+    public void setOverflowPolicy(String overflowPolicy) {
+        eventDispatcher.setOverflowPolicy(overflowPolicy);
+    }
+
     /**
      * By default the Felix EventAdmin implementation has a timeout of 5000 ms. Your event handler
      * has to return from the handle event method in this time frame. If it does not, it gets
-     * Blacklisted. Therefore, this method processes its events in a separate thread than the
-     * EventAdmin who called it.
+     * Blacklisted. Therefore, this method queues its events to be processed by the event
+     * dispatcher's threads rather than the EventAdmin who called it.
      */
     public void handleEvent(Event event) {
         String methodName = "handleEvent";
@@ -229,12 +269,12 @@ public void handleEvent(Event event) {
 
         LOGGER.debug("Received event: {}", event.getTopic());
 
-        if (!existingSubscriptions.isEmpty()) {
+        if (!subscriptionIndex.isEmpty()) {
             String topic = event.getTopic();
             Metacard entry = (Metacard) event.getProperty(EventProcessor.EVENT_METACARD);
             LOGGER.debug("metacard ID = {}", entry.getId());
 
-            new PubSubThread(entry, topic, eventAdmin).start();
+            eventDispatcher.dispatch(new PubSubThread(entry, topic, subscriptionIndex));
         } else {
             LOGGER.debug(
                     "No existing subscriptions, so no need to handle event since there is no one listening ...");
@@ -278,19 +318,17 @@ public void createSubscription(Subscription subscription, String subscriptionId)
             Predicate finalPredicate = (Predicate) subscription.accept(visitor, null);
             LOGGER.debug("predicate from filter visitor: {}", finalPredicate);
 
-            String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
-
-            Dictionary<String, String[]> props = new Hashtable<String, String[]>();
-            props.put(EventConstants.EVENT_TOPIC, topics);
-            ServiceRegistration serviceRegistration =
-                    bundleContext.registerService(EventHandler.class.getName(),
-                            new PublishedEventHandler(finalPredicate,
-                                    subscription,
-                                    preDelivery,
-                                    catalog),
-                            props);
-
-            existingSubscriptions.put(subscriptionId, serviceRegistration);
+            // Subscriptions are matched through the subscription index rather than registered
+            // as event handlers, so that each entry is only evaluated against the subscriptions
+            // it may match
+            DeliveryQueue deliveryQueue = eventDispatcher.createDeliveryQueue(subscriptionId,
+                    new DeliveryProcessor(subscription, preDelivery));
+            subscriptionIndex.add(subscriptionId,
+                    new PublishedEventHandler(finalPredicate,
+                            subscription,
+                            preDelivery,
+                            catalog,
+                            deliveryQueue));
 
             LOGGER.debug("Subscription {} created.", subscriptionId);
         } catch (Exception e) {
@@ -328,12 +366,9 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
 
         try {
             LOGGER.info("Removing subscription: {}", subscriptionId);
-            ServiceRegistration sr =
-                    (ServiceRegistration) existingSubscriptions.get(subscriptionId);
-            if (sr != null) {
-                sr.unregister();
+            if (subscriptionIndex.remove(subscriptionId)) {
+                eventDispatcher.removeDeliveryQueue(subscriptionId);
                 LOGGER.debug("Removal complete");
-                existingSubscriptions.remove(subscriptionId);
             } else {
                 LOGGER.info("Unable to find existing subscription: {}.  May already be deleted.",
                         subscriptionId);
@@ -399,6 +434,7 @@ protected void postEvent(String topic, Metacard card, Metacard oldCard) {
         // }
         properties.put(EventProcessor.EVENT_TIME, System.currentTimeMillis());
         Event event = new Event(topic, properties);
+        eventDispatcher.awaitCapacity();
         eventAdmin.postEvent(event);
 
         LOGGER.debug("EXITING: {}", methodName);
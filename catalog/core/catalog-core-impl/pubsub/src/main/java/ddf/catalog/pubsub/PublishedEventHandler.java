@@ -27,6 +27,7 @@
 import ddf.catalog.event.Subscription;
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.pubsub.internal.DeliveryProcessor;
+import ddf.catalog.pubsub.internal.DeliveryQueue;
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.predicate.Predicate;
 
@@ -41,12 +42,25 @@ public class PublishedEventHandler implements EventHandler {
 
     private CatalogFramework catalog;
 
+    private DeliveryQueue deliveryQueue;
+
     public PublishedEventHandler(Predicate finalPredicate, Subscription subscription,
             List<PreDeliveryPlugin> preDelivery, CatalogFramework catalog) {
+        this(finalPredicate, subscription, preDelivery, catalog, null);
+    }
+
+    /**
+     * @param deliveryQueue queue the matched events are delivered through, or {@code null} to
+     *                      deliver them on the calling thread
+     */
+    public PublishedEventHandler(Predicate finalPredicate, Subscription subscription,
+            List<PreDeliveryPlugin> preDelivery, CatalogFramework catalog,
+            DeliveryQueue deliveryQueue) {
         this.predicate = finalPredicate;
         this.subscription = subscription;
         this.preDelivery = preDelivery;
         this.catalog = catalog;
+        this.deliveryQueue = deliveryQueue;
     }
 
     public void handleEvent(Event event) {
@@ -115,14 +129,30 @@ public void handleEvent(Event event) {
         LOGGER.debug("EXITING: {}", methodName);
     }
 
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    public Subscription getSubscription() {
+        return subscription;
+    }
+
     private void evaluateEvent(Event event) {
         // If predicate is NULL then we are handling a filterless subscription - publish all events
         if (predicate == null) {
             LOGGER.debug(
                     "predicate is NULL (must be filterless subscription), publishing all events");
-            new DeliveryProcessor(subscription, preDelivery).process(event);
+            deliver(event);
             // Otherwise, only send events that match the predicate's filter criteria
         } else if (predicate.matches(event)) {
+            deliver(event);
+        }
+    }
+
+    private void deliver(Event event) {
+        if (deliveryQueue != null) {
+            deliveryQueue.enqueue(event);
+        } else {
             new DeliveryProcessor(subscription, preDelivery).process(event);
         }
     }
@@ -17,7 +17,9 @@
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
@@ -111,8 +113,38 @@ public static boolean evaluate(ContextualEvaluationCriteria cec)
         }
 
         // a. query
+        Query q = parse(searchPhrase, cec.isCaseSensitiveSearch());
+
+        // b. search
+        int hitsPerPage = 1;
+        IndexSearcher searcher = new IndexSearcher(index, true);
+        TopDocs topDocs = searcher.search(q, hitsPerPage);
+
+        // c. display results
+        LOGGER.debug("Found " + topDocs.totalHits + " hits.");
+
+        // searcher can only be closed when there
+        // is no need to access the documents any more.
+        searcher.close();
+
+        LOGGER.exit(methodName);
+
+        return topDocs.totalHits > 0;
+    }
+
+    /**
+     * Parses a contextual search phrase into a Lucene query against the fields of the index built
+     * by {@link #buildIndex(String)}.
+     *
+     * @param searchPhrase        the search phrase, in Lucene query syntax
+     * @param caseSensitiveSearch true to query the case-sensitive field
+     * @return the parsed query
+     * @throws ParseException if the search phrase is not valid Lucene query syntax
+     */
+    public static Query parse(String searchPhrase, boolean caseSensitiveSearch)
+            throws ParseException {
         QueryParser queryParser = null;
-        if (cec.isCaseSensitiveSearch()) {
+        if (caseSensitiveSearch) {
             LOGGER.debug("Doing case-sensitive search ...");
             queryParser = new QueryParser(Version.LUCENE_30,
                     CASE_SENSITIVE_FIELD_NAME,
@@ -132,23 +164,49 @@ public static boolean evaluate(ContextualEvaluationCriteria cec)
         // contextual search phrase
         queryParser.setAllowLeadingWildcard(true);
 
-        Query q = queryParser.parse(searchPhrase);
-
-        // b. search
-        int hitsPerPage = 1;
-        IndexSearcher searcher = new IndexSearcher(index, true);
-        TopDocs topDocs = searcher.search(q, hitsPerPage);
-
-        // c. display results
-        LOGGER.debug("Found " + topDocs.totalHits + " hits.");
+        return queryParser.parse(searchPhrase);
+    }
 
-        // searcher can only be closed when there
-        // is no need to access the documents any more.
-        searcher.close();
+    /**
+     * Returns the distinct terms of the specified text, lower-cased. The terms are produced by the
+     * case-sensitive analyzer before being lower-cased, so they are a superset of the terms of both
+     * the case-sensitive and case-insensitive fields of an index built on the same text.
+     *
+     * @param indexableText text extracted with {@link #getIndexableText(String)}
+     * @return the lower-cased terms of the text
+     * @throws IOException
+     */
+    public static Set<String> getTerms(String indexableText) throws IOException {
+        Set<String> terms = new HashSet<String>();
+        if (indexableText == null || indexableText.isEmpty()) {
+            return terms;
+        }
 
-        LOGGER.exit(methodName);
+        TokenStream tokenStream =
+                new CaseSensitiveContextualAnalyzer(Version.LUCENE_30).tokenStream(
+                        CASE_SENSITIVE_FIELD_NAME,
+                        new StringReader(indexableText));
+        TermAttribute termAttribute = tokenStream.getAttribute(TermAttribute.class);
+        try {
+            while (tokenStream.incrementToken()) {
+                terms.add(toLowerCase(termAttribute.term()));
+            }
+        } finally {
+            tokenStream.close();
+        }
+        return terms;
+    }
 
-        return topDocs.totalHits > 0;
+    /**
+     * Lower-cases a term one character at a time, the same way Lucene's {@code LowerCaseFilter}
+     * does.
+     */
+    public static String toLowerCase(String term) {
+        char[] chars = term.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
     }
 
     /**
@@ -204,6 +262,33 @@ public static Directory buildIndex(String fullDocument, String[] xpathSelectors)
 
         // LOGGER.debug( XPathHelper.xmlToString( fullDocument ) );
 
+        // Retrieve the text from the document that can be indexed using the specified XPath
+        // selectors
+        String indexableText = getIndexableText(fullDocument, xpathSelectors);
+
+        Directory index = buildTextIndex(indexableText, fullDocument);
+
+        LOGGER.exit(methodName);
+
+        return index;
+    }
+
+    /**
+     * Build one Lucene index for text previously extracted with {@link #getIndexableText(String)}
+     * that contains both case-insensitive and case-sensitive indexed text. This allows the
+     * extracted text to be reused, for instance to look up candidate subscriptions, without
+     * evaluating the XPath selectors again.
+     *
+     * @param indexableText the text to be indexed
+     * @return the Lucene index for the text
+     * @throws IOException
+     */
+    public static Directory buildTextIndex(String indexableText) throws IOException {
+        return buildTextIndex(indexableText, indexableText);
+    }
+
+    private static Directory buildTextIndex(String indexableText, String loggedText)
+            throws IOException {
         // 0. Specify the analyzer for tokenizing text.
         // The same analyzer should be used for indexing and searching
         ContextualAnalyzer contextualAnalyzer = new ContextualAnalyzer(Version.LUCENE_30);
@@ -211,10 +296,6 @@ public static Directory buildIndex(String fullDocument, String[] xpathSelectors)
         // 1. create the index
         Directory index = new RAMDirectory();
 
-        // Retrieve the text from the document that can be indexed using the specified XPath
-        // selectors
-        String indexableText = getIndexableText(fullDocument, xpathSelectors);
-
         // Create an IndexWriter using the case-insensitive StandardAnalyzer
         // NOTE: the boolean arg in the IndexWriter constructor means to create a new index,
         // overwriting any existing index
@@ -222,7 +303,7 @@ public static Directory buildIndex(String fullDocument, String[] xpathSelectors)
                 contextualAnalyzer,
                 true,
                 IndexWriter.MaxFieldLength.UNLIMITED);
-        logTokens(indexWriter.getAnalyzer(), FIELD_NAME, fullDocument, "ContextualAnalyzer");
+        logTokens(indexWriter.getAnalyzer(), FIELD_NAME, loggedText, "ContextualAnalyzer");
 
         // Add the indexable text to the case-insensitive index writer, assigning it the
         // "case-insensitive" field name
@@ -245,8 +326,6 @@ public static Directory buildIndex(String fullDocument, String[] xpathSelectors)
         addDoc(csIndexWriter, CASE_SENSITIVE_FIELD_NAME, indexableText);
         csIndexWriter.close();
 
-        LOGGER.exit(methodName);
-
         return index;
     }
 
@@ -269,6 +348,17 @@ private static void logTokens(Analyzer analyzer, String fieldName, String fullDo
         LOGGER.debug("-----  END:  {} tokens  -----", analyzerName);
     }
 
+    /**
+     * Extract the text from the specified XML Document that is to be indexed using the default
+     * XPath selectors.
+     *
+     * @param document the XML document
+     * @return the indexable text of the document
+     */
+    public static String getIndexableText(String document) {
+        return getIndexableText(document, DEFAULT_XPATH_SELECTORS);
+    }
+
     /**
      * Extract the text from the specified XML Document that is to be indexed using the specified
      * XPath selectors.
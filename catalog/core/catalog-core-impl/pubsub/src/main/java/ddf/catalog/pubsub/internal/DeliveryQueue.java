@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Metacard;
+
+/**
+ * Delivers the events matched by a single subscription, in the order they were matched.
+ * <p>
+ * Deliveries are run one at a time on the {@link EventDispatcher}'s delivery executor, so a slow
+ * subscriber only holds up its own deliveries. An update of an entry that is still waiting to be
+ * delivered replaces the pending delivery instead of being queued behind it: a pending create is
+ * delivered as a create of the updated entry, a pending update as the latest update.
+ */
+public class DeliveryQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeliveryQueue.class);
+
+    private final String subscriptionId;
+
+    private final DeliveryProcessor deliveryProcessor;
+
+    private final EventDispatcher dispatcher;
+
+    private final Deque<PendingDelivery> pending = new ArrayDeque<>();
+
+    private final Map<String, PendingDelivery> pendingById = new HashMap<>();
+
+    private boolean draining = false;
+
+    private boolean closed = false;
+
+    DeliveryQueue(String subscriptionId, DeliveryProcessor deliveryProcessor,
+            EventDispatcher dispatcher) {
+        this.subscriptionId = subscriptionId;
+        this.deliveryProcessor = deliveryProcessor;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Queues an event for delivery. If the queue is full, waits for room or drops the oldest
+     * pending delivery depending on the dispatcher's {@link EventDispatcher.OverflowPolicy}.
+     *
+     * @param event the matched event
+     */
+    public void enqueue(Event event) {
+        Metacard entry = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+        String operation = (String) event.getProperty(PubSubConstants.HEADER_OPERATION_KEY);
+        String id = entry == null ? null : entry.getId();
+
+        synchronized (this) {
+            if (closed) {
+                LOGGER.debug("Subscription {} was deleted, not delivering entry {}",
+                        subscriptionId,
+                        id);
+                return;
+            }
+
+            PendingDelivery previous = id == null ? null : pendingById.get(id);
+            if (previous != null && PubSubConstants.UPDATE.equals(operation)
+                    && !PubSubConstants.DELETE.equals(previous.operation)) {
+                LOGGER.debug("Coalescing pending {} of entry {} for subscription {}",
+                        previous.operation,
+                        id,
+                        subscriptionId);
+                previous.event = withOperation(event, previous.operation);
+                dispatcher.coalesced();
+                return;
+            }
+
+            while (pending.size() >= dispatcher.getMaximumQueuedEvents() && !closed) {
+                if (dispatcher.getOverflowPolicy() == EventDispatcher.OverflowPolicy.DROP_OLDEST) {
+                    PendingDelivery dropped = pending.removeFirst();
+                    pendingById.remove(dropped.id, dropped);
+                    dispatcher.droppedDelivery();
+                    LOGGER.warn("Delivery queue of subscription {} is full, dropped {} of entry {}",
+                            subscriptionId,
+                            dropped.operation,
+                            dropped.id);
+                } else {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread()
+                                .interrupt();
+                        LOGGER.warn("Interrupted while waiting to deliver entry {} to subscription {}",
+                                id,
+                                subscriptionId);
+                        return;
+                    }
+                }
+            }
+
+            PendingDelivery delivery = new PendingDelivery(id, operation, event);
+            pending.addLast(delivery);
+            if (id != null) {
+                pendingById.put(id, delivery);
+            }
+            dispatcher.queuedDelivery();
+
+            if (!draining) {
+                draining = true;
+                try {
+                    dispatcher.executeDelivery(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining = false;
+                    LOGGER.warn("Unable to schedule deliveries for subscription {}",
+                            subscriptionId,
+                            e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the pending deliveries and stops accepting new ones.
+     */
+    public synchronized void close() {
+        closed = true;
+        dispatcher.discardedDeliveries(pending.size());
+        pending.clear();
+        pendingById.clear();
+        notifyAll();
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    private void drain() {
+        while (true) {
+            PendingDelivery delivery;
+            synchronized (this) {
+                delivery = pending.pollFirst();
+                if (delivery == null) {
+                    draining = false;
+                    return;
+                }
+                pendingById.remove(delivery.id, delivery);
+                notifyAll();
+            }
+
+            try {
+                deliveryProcessor.process(delivery.event);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to deliver entry {} to subscription {}",
+                        delivery.id,
+                        subscriptionId,
+                        e);
+            }
+            dispatcher.delivered(System.nanoTime() - delivery.queuedNanos);
+        }
+    }
+
+    private static Event withOperation(Event event, String operation) {
+        Map<String, Object> properties = new HashMap<>();
+        for (String name : event.getPropertyNames()) {
+            properties.put(name, event.getProperty(name));
+        }
+        properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+        return new Event(event.getTopic(), properties);
+    }
+
+    private static class PendingDelivery {
+
+        private final String id;
+
+        private final String operation;
+
+        private final long queuedNanos = System.nanoTime();
+
+        private Event event;
+
+        PendingDelivery(String id, String operation, Event event) {
+            this.id = id;
+            this.operation = operation;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the matching and delivery of catalog events on bounded thread pools.
+ * <p>
+ * Catalog events are queued for a pool of publishing threads that match them against the
+ * subscriptions. Matched events are handed to the {@link DeliveryQueue} of each subscription, which
+ * delivers them in order on a separate pool of delivery threads. When the event queue or a delivery
+ * queue holds {@link #getMaximumQueuedEvents()} entries, the {@link OverflowPolicy} decides whether
+ * the producer waits for room or the oldest entry is dropped.
+ * <p>
+ * The event queue is the work queue of the publishing pool. Events reach it through EventAdmin,
+ * so events posted to the catalog topics without first calling {@link #awaitCapacity()}, or by
+ * producers that waited for room at the same time, can still fill it past the maximum. Under
+ * {@link OverflowPolicy#BLOCK} it may hold up to twice the maximum before the oldest events are
+ * dropped, so it stays bounded whatever the producers do. The work queue of the delivery pool
+ * needs no bound of its own, as each {@link DeliveryQueue} has at most one drain task scheduled
+ * at a time, so it never holds more tasks than there are subscriptions.
+ */
+public class EventDispatcher implements EventDispatcherMBean {
+
+    public enum OverflowPolicy {
+        /**
+         * Producers wait until there is room in the queue, slowing down ingest. Events that get
+         * past waiting producers are only dropped once the event queue holds twice its maximum.
+         */
+        BLOCK,
+
+        /**
+         * The oldest queued entry is dropped to make room.
+         */
+        DROP_OLDEST
+    }
+
+    public static final int DEFAULT_THREAD_POOL_SIZE = 8;
+
+    public static final int DEFAULT_MAXIMUM_QUEUED_EVENTS = 10000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventDispatcher.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final int BLOCKED_QUEUE_HEADROOM = 2;
+
+    private final ThreadPoolExecutor publishExecutor;
+
+    private final ThreadPoolExecutor deliveryExecutor;
+
+    private final Map<String, DeliveryQueue> deliveryQueues = new ConcurrentHashMap<>();
+
+    private final Object capacityLock = new Object();
+
+    private volatile int maximumQueuedEvents = DEFAULT_MAXIMUM_QUEUED_EVENTS;
+
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    private final AtomicLong queuedDeliveries = new AtomicLong();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final AtomicLong droppedDeliveries = new AtomicLong();
+
+    private final AtomicLong coalescedDeliveries = new AtomicLong();
+
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    private final AtomicLong deliveryLagNanos = new AtomicLong();
+
+    private final AtomicLong maxDeliveryLagNanos = new AtomicLong();
+
+    private ObjectName objectName;
+
+    public EventDispatcher() {
+        publishExecutor = createExecutor("pubsub-publish");
+        deliveryExecutor = createExecutor("pubsub-delivery");
+    }
+
+    /**
+     * Waits until there is room in the event queue when the overflow policy is
+     * {@link OverflowPolicy#BLOCK}. Called by producers before posting catalog events, so that a
+     * backlog of events slows down ingest instead of growing without bound.
+     */
+    public void awaitCapacity() {
+        synchronized (capacityLock) {
+            while (overflowPolicy == OverflowPolicy.BLOCK && !publishExecutor.isShutdown()
+                    && getQueuedEventCount() >= maximumQueuedEvents) {
+                try {
+                    capacityLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                            .interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues a catalog event to be matched against the subscriptions. Never blocks, as it is
+     * called from event handlers; when the queue is full and the overflow policy is
+     * {@link OverflowPolicy#DROP_OLDEST}, or holds twice its maximum and the overflow policy is
+     * {@link OverflowPolicy#BLOCK}, the oldest queued event is dropped.
+     *
+     * @param task matches the event against the subscriptions
+     */
+    public void dispatch(Runnable task) {
+        long limit = overflowPolicy == OverflowPolicy.DROP_OLDEST ?
+                maximumQueuedEvents :
+                (long) maximumQueuedEvents * BLOCKED_QUEUE_HEADROOM;
+        while (getQueuedEventCount() >= limit && publishExecutor.getQueue()
+                .poll() != null) {
+            droppedEvents.incrementAndGet();
+            LOGGER.warn("Event queue is full, dropped the oldest catalog event");
+        }
+
+        publishExecutor.execute(() -> {
+            synchronized (capacityLock) {
+                capacityLock.notifyAll();
+            }
+            task.run();
+        });
+    }
+
+    /**
+     * Creates the delivery queue of a subscription, discarding the pending deliveries of any
+     * previous queue with the same id.
+     */
+    public DeliveryQueue createDeliveryQueue(String subscriptionId,
+            DeliveryProcessor deliveryProcessor) {
+        DeliveryQueue deliveryQueue = new DeliveryQueue(subscriptionId, deliveryProcessor, this);
+        DeliveryQueue previous = deliveryQueues.put(subscriptionId, deliveryQueue);
+        if (previous != null) {
+            previous.close();
+        }
+        return deliveryQueue;
+    }
+
+    /**
+     * Discards the pending deliveries of a subscription.
+     */
+    public void removeDeliveryQueue(String subscriptionId) {
+        DeliveryQueue deliveryQueue = deliveryQueues.remove(subscriptionId);
+        if (deliveryQueue != null) {
+            deliveryQueue.close();
+        }
+    }
+
+    public void shutdown() {
+        publishExecutor.shutdown();
+        deliveryExecutor.shutdown();
+        deliveryQueues.values()
+                .forEach(DeliveryQueue::close);
+        deliveryQueues.clear();
+        synchronized (capacityLock) {
+            capacityLock.notifyAll();
+        }
+    }
+
+    public void registerMBean() {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            objectName = new ObjectName(EventDispatcherMBean.OBJECTNAME);
+            try {
+                mbeanServer.registerMBean(new StandardMBean(this, EventDispatcherMBean.class),
+                        objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                LOGGER.info("Re-registering Event Dispatcher MBean");
+                mbeanServer.unregisterMBean(objectName);
+                mbeanServer.registerMBean(new StandardMBean(this, EventDispatcherMBean.class),
+                        objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not register MBean.", e);
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            if (objectName != null) {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not unregister MBean.", e);
+        }
+    }
+
+    public void setThreadPoolSize(int threadPoolSize) {
+        resize(publishExecutor, threadPoolSize);
+    }
+
+    public void setDeliveryThreadPoolSize(int deliveryThreadPoolSize) {
+        resize(deliveryExecutor, deliveryThreadPoolSize);
+    }
+
+    public int getMaximumQueuedEvents() {
+        return maximumQueuedEvents;
+    }
+
+    public void setMaximumQueuedEvents(int maximumQueuedEvents) {
+        if (maximumQueuedEvents < 1) {
+            LOGGER.warn("Invalid maximum number of queued events {}, keeping {}",
+                    maximumQueuedEvents,
+                    this.maximumQueuedEvents);
+            return;
+        }
+        this.maximumQueuedEvents = maximumQueuedEvents;
+        synchronized (capacityLock) {
+            capacityLock.notifyAll();
+        }
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        try {
+            this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            LOGGER.warn("Unknown overflow policy {}, keeping {}",
+                    overflowPolicy,
+                    this.overflowPolicy);
+            return;
+        }
+        synchronized (capacityLock) {
+            capacityLock.notifyAll();
+        }
+    }
+
+    @Override
+    public int getQueuedEventCount() {
+        return publishExecutor.getQueue()
+                .size();
+    }
+
+    @Override
+    public long getQueuedDeliveryCount() {
+        return queuedDeliveries.get();
+    }
+
+    @Override
+    public int getMaximumDeliveryQueueDepth() {
+        int depth = 0;
+        for (DeliveryQueue deliveryQueue : deliveryQueues.values()) {
+            depth = Math.max(depth, deliveryQueue.size());
+        }
+        return depth;
+    }
+
+    @Override
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    @Override
+    public long getDroppedDeliveryCount() {
+        return droppedDeliveries.get();
+    }
+
+    @Override
+    public long getCoalescedDeliveryCount() {
+        return coalescedDeliveries.get();
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    @Override
+    public double getAverageDeliveryLagMillis() {
+        long count = deliveredCount.get();
+        return count == 0 ? 0 : deliveryLagNanos.get() / (double) count / 1e6;
+    }
+
+    @Override
+    public double getMaximumDeliveryLagMillis() {
+        return maxDeliveryLagNanos.get() / 1e6;
+    }
+
+    @Override
+    public void resetStatistics() {
+        droppedEvents.set(0);
+        droppedDeliveries.set(0);
+        coalescedDeliveries.set(0);
+        deliveredCount.set(0);
+        deliveryLagNanos.set(0);
+        maxDeliveryLagNanos.set(0);
+    }
+
+    /**
+     * Schedules the drain task of a {@link DeliveryQueue}, which only has one scheduled at a time.
+     */
+    void executeDelivery(Runnable drain) {
+        deliveryExecutor.execute(drain);
+    }
+
+    void queuedDelivery() {
+        queuedDeliveries.incrementAndGet();
+    }
+
+    void coalesced() {
+        coalescedDeliveries.incrementAndGet();
+    }
+
+    void droppedDelivery() {
+        queuedDeliveries.decrementAndGet();
+        droppedDeliveries.incrementAndGet();
+    }
+
+    void discardedDeliveries(int count) {
+        queuedDeliveries.addAndGet(-count);
+    }
+
+    void delivered(long lagNanos) {
+        queuedDeliveries.decrementAndGet();
+        deliveredCount.incrementAndGet();
+        deliveryLagNanos.addAndGet(lagNanos);
+        long max = maxDeliveryLagNanos.get();
+        while (lagNanos > max && !maxDeliveryLagNanos.compareAndSet(max, lagNanos)) {
+            max = maxDeliveryLagNanos.get();
+        }
+    }
+
+    private static void resize(ThreadPoolExecutor executor, int size) {
+        if (size < 1) {
+            LOGGER.warn("Invalid thread pool size {}, keeping {}",
+                    size,
+                    executor.getMaximumPoolSize());
+            return;
+        }
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_THREAD_POOL_SIZE,
+                DEFAULT_THREAD_POOL_SIZE,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+/**
+ * Queue depths and delivery statistics of the {@link EventDispatcher}.
+ */
+public interface EventDispatcherMBean {
+
+    public static final String OBJECTNAME =
+            "ddf.catalog.pubsub.internal.EventDispatcher:service=event-dispatcher";
+
+    /**
+     * @return the number of catalog events waiting to be matched against the subscriptions
+     */
+    int getQueuedEventCount();
+
+    /**
+     * @return the number of matched events waiting to be delivered, across all subscriptions
+     */
+    long getQueuedDeliveryCount();
+
+    /**
+     * @return the number of deliveries waiting in the longest subscription delivery queue
+     */
+    int getMaximumDeliveryQueueDepth();
+
+    /**
+     * @return the number of catalog events dropped because the event queue was full
+     */
+    long getDroppedEventCount();
+
+    /**
+     * @return the number of deliveries dropped because a subscription delivery queue was full
+     */
+    long getDroppedDeliveryCount();
+
+    /**
+     * @return the number of updates merged into a delivery that was still pending
+     */
+    long getCoalescedDeliveryCount();
+
+    /**
+     * @return the number of deliveries made since the statistics were last reset
+     */
+    long getDeliveredCount();
+
+    /**
+     * @return the average time between an event being matched and delivered, in milliseconds
+     */
+    double getAverageDeliveryLagMillis();
+
+    /**
+     * @return the longest time between an event being matched and delivered, in milliseconds
+     */
+    double getMaximumDeliveryLagMillis();
+
+    void resetStatistics();
+}
@@ -14,41 +14,37 @@
 
 package ddf.catalog.pubsub.internal;
 
-import org.osgi.service.event.EventAdmin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ddf.catalog.data.Metacard;
 import ddf.catalog.event.EventProcessor;
-import ddf.catalog.pubsub.EventProcessorImpl;
 
-public class PubSubThread extends Thread {
+public class PubSubThread implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(PubSubThread.class);
 
     private Metacard entry;
 
     private String topic;
 
-    private EventAdmin eventAdmin;
+    private SubscriptionIndex subscriptionIndex;
 
-    public PubSubThread(Metacard entry, String topic, EventAdmin eventAdmin) {
+    public PubSubThread(Metacard entry, String topic, SubscriptionIndex subscriptionIndex) {
         this.entry = entry;
         this.topic = topic;
-        this.eventAdmin = eventAdmin;
+        this.subscriptionIndex = subscriptionIndex;
     }
 
+    @Override
     public void run() {
         LOGGER.debug("Processing entry event in separate thread - topic = {}", topic);
 
         if (topic.equals(EventProcessor.EVENTS_TOPIC_CREATED)) {
-            EventProcessorImpl.processEntry(entry, PubSubConstants.CREATE, eventAdmin);
-            // new EventProcessorImpl().processEntry( entry, PubSubConstants.CREATE, eventAdmin );
+            subscriptionIndex.publish(entry, PubSubConstants.CREATE);
         } else if (topic.equals(EventProcessor.EVENTS_TOPIC_UPDATED)) {
-            EventProcessorImpl.processEntry(entry, PubSubConstants.UPDATE, eventAdmin);
-            // new EventProcessorImpl().processEntry( entry, PubSubConstants.UPDATE, eventAdmin );
+            subscriptionIndex.publish(entry, PubSubConstants.UPDATE);
         } else if (topic.equals(EventProcessor.EVENTS_TOPIC_DELETED)) {
-            EventProcessorImpl.processEntry(entry, PubSubConstants.DELETE, eventAdmin);
-            // new EventProcessorImpl().processEntry( entry, PubSubConstants.DELETE, eventAdmin );
+            subscriptionIndex.publish(entry, PubSubConstants.DELETE);
         }
     }
 
@@ -0,0 +1,308 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryParser.ParseException;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.NotPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+
+/**
+ * A condition that an event must meet for a subscription to possibly match it: a content type, a
+ * contextual term, a bounding box or a date range.
+ * <p>
+ * The guards of a subscription are derived from its {@link Predicate} by {@link #of(Predicate)}
+ * and are conservative: a subscription can only match an event that meets at least one of its
+ * guards, but meeting a guard does not mean the subscription matches. Subscriptions without guards
+ * have to be evaluated against every event.
+ */
+class SubscriptionGuard {
+
+    enum Kind {
+        CONTENT_TYPE, TEMPORAL, SPATIAL, TERM
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionGuard.class);
+
+    private static final Pattern LITERAL_CONTENT_TYPE = Pattern.compile("[\\w\\- :/]+");
+
+    private final Kind kind;
+
+    private final String value;
+
+    private final Envelope envelope;
+
+    private final DateType dateType;
+
+    private final long start;
+
+    private final long end;
+
+    private SubscriptionGuard(Kind kind, String value, Envelope envelope, DateType dateType,
+            long start, long end) {
+        this.kind = kind;
+        this.value = value;
+        this.envelope = envelope;
+        this.dateType = dateType;
+        this.start = start;
+        this.end = end;
+    }
+
+    static SubscriptionGuard contentType(String type) {
+        return new SubscriptionGuard(Kind.CONTENT_TYPE, type, null, null, 0, 0);
+    }
+
+    static SubscriptionGuard term(String term) {
+        return new SubscriptionGuard(Kind.TERM, term, null, null, 0, 0);
+    }
+
+    static SubscriptionGuard spatial(Envelope envelope) {
+        return new SubscriptionGuard(Kind.SPATIAL, null, envelope, null, 0, 0);
+    }
+
+    static SubscriptionGuard temporal(DateType dateType, long start, long end) {
+        return new SubscriptionGuard(Kind.TEMPORAL, null, null, dateType, start, end);
+    }
+
+    /**
+     * Derives the guards of a subscription predicate.
+     *
+     * @param predicate the subscription predicate, {@code null} for a filterless subscription
+     * @return the guards of the predicate, or {@code null} if events cannot be ruled out without
+     * evaluating the predicate
+     */
+    static List<SubscriptionGuard> of(Predicate predicate) {
+        if (predicate instanceof AndPredicate) {
+            // Either side has to match, so the guards of the most selective side are enough
+            return mostSelective(of(((AndPredicate) predicate).getLeft()),
+                    of(((AndPredicate) predicate).getRight()));
+        } else if (predicate instanceof OrPredicate) {
+            List<SubscriptionGuard> left = of(((OrPredicate) predicate).getLeft());
+            List<SubscriptionGuard> right = of(((OrPredicate) predicate).getRight());
+            if (left == null || right == null) {
+                return null;
+            }
+            List<SubscriptionGuard> guards = new ArrayList<>(left);
+            guards.addAll(right);
+            return guards;
+        } else if (predicate instanceof ContentTypePredicate) {
+            return of((ContentTypePredicate) predicate);
+        } else if (predicate instanceof ContextualPredicate) {
+            return of((ContextualPredicate) predicate);
+        } else if (predicate instanceof GeospatialPredicate) {
+            return of((GeospatialPredicate) predicate);
+        } else if (predicate instanceof TemporalPredicate) {
+            return of((TemporalPredicate) predicate);
+        }
+
+        // NOT, entry and XPath predicates as well as filterless subscriptions cannot be indexed
+        return null;
+    }
+
+    /**
+     * @return {@code true} if the predicate evaluates contextual criteria against the default
+     * index of the event metadata
+     */
+    static boolean usesDefaultIndex(Predicate predicate) {
+        if (predicate instanceof AndPredicate) {
+            return usesDefaultIndex(((AndPredicate) predicate).getLeft()) || usesDefaultIndex(
+                    ((AndPredicate) predicate).getRight());
+        } else if (predicate instanceof OrPredicate) {
+            return usesDefaultIndex(((OrPredicate) predicate).getLeft()) || usesDefaultIndex(
+                    ((OrPredicate) predicate).getRight());
+        } else if (predicate instanceof NotPredicate) {
+            return usesDefaultIndex(((NotPredicate) predicate).getPredicate());
+        } else if (predicate instanceof ContextualPredicate) {
+            return !((ContextualPredicate) predicate).hasTextPaths();
+        }
+        return false;
+    }
+
+    private static List<SubscriptionGuard> of(ContentTypePredicate predicate) {
+        String type = predicate.getType();
+        // Content types are matched as regular expressions, only plain names can be looked up
+        if (type == null || !LITERAL_CONTENT_TYPE.matcher(type)
+                .matches()) {
+            return null;
+        }
+        return Collections.singletonList(contentType(type));
+    }
+
+    private static List<SubscriptionGuard> of(ContextualPredicate predicate) {
+        String searchPhrase = predicate.getSearchPhrase();
+        if (predicate.hasTextPaths() || searchPhrase == null || searchPhrase.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return of(ContextualEvaluator.parse(searchPhrase, predicate.isCaseSensitive()));
+        } catch (ParseException e) {
+            LOGGER.debug("Unable to parse search phrase [{}], it will not be indexed.",
+                    searchPhrase,
+                    e);
+            return null;
+        }
+    }
+
+    private static List<SubscriptionGuard> of(Query query) {
+        if (query instanceof TermQuery) {
+            return Collections.singletonList(term(((TermQuery) query).getTerm()));
+        } else if (query instanceof PhraseQuery) {
+            // Every term of a phrase is required, the longest one is likely the rarest
+            Term longest = null;
+            for (Term term : ((PhraseQuery) query).getTerms()) {
+                if (longest == null || term.text()
+                        .length() > longest.text()
+                        .length()) {
+                    longest = term;
+                }
+            }
+            return longest == null ? null : Collections.singletonList(term(longest));
+        } else if (query instanceof BooleanQuery) {
+            List<SubscriptionGuard> required = null;
+            List<SubscriptionGuard> optional = new ArrayList<>();
+            boolean hasRequiredClauses = false;
+            boolean allOptionalClausesGuarded = true;
+
+            for (BooleanClause clause : ((BooleanQuery) query).getClauses()) {
+                if (clause.getOccur() == BooleanClause.Occur.MUST) {
+                    hasRequiredClauses = true;
+                    required = mostSelective(required, of(clause.getQuery()));
+                } else if (clause.getOccur() == BooleanClause.Occur.SHOULD) {
+                    List<SubscriptionGuard> guards = of(clause.getQuery());
+                    if (guards == null) {
+                        allOptionalClausesGuarded = false;
+                    } else {
+                        optional.addAll(guards);
+                    }
+                }
+            }
+
+            if (required != null) {
+                return required;
+            } else if (!hasRequiredClauses && allOptionalClausesGuarded && !optional.isEmpty()) {
+                return optional;
+            }
+        }
+
+        // Wildcard, prefix, fuzzy and range queries cannot be looked up by term
+        return null;
+    }
+
+    private static SubscriptionGuard term(Term term) {
+        return term(ContextualEvaluator.toLowerCase(term.text()));
+    }
+
+    private static List<SubscriptionGuard> of(GeospatialPredicate predicate) {
+        if (predicate.getGeoCriteria() == null) {
+            return null;
+        }
+
+        // Every supported operation requires the entry to be within the distance of the criteria
+        Envelope envelope = new Envelope(predicate.getGeoCriteria()
+                .getEnvelopeInternal());
+        envelope.expandBy(predicate.getDistance());
+        return Collections.singletonList(spatial(envelope));
+    }
+
+    private static List<SubscriptionGuard> of(TemporalPredicate predicate) {
+        // Relative ranges move with the current time
+        if (predicate.getOffset() > 0 || predicate.getType() == null) {
+            return null;
+        }
+
+        long start = predicate.getStart() == null ?
+                Long.MIN_VALUE :
+                predicate.getStart()
+                        .getTime();
+        long end = predicate.getEnd() == null ?
+                Long.MAX_VALUE :
+                predicate.getEnd()
+                        .getTime();
+        return Collections.singletonList(temporal(predicate.getType(), start, end));
+    }
+
+    private static List<SubscriptionGuard> mostSelective(List<SubscriptionGuard> left,
+            List<SubscriptionGuard> right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        } else if (left.size() != right.size()) {
+            return left.size() < right.size() ? left : right;
+        }
+        return selectivity(left) >= selectivity(right) ? left : right;
+    }
+
+    private static int selectivity(List<SubscriptionGuard> guards) {
+        int selectivity = Integer.MAX_VALUE;
+        for (SubscriptionGuard guard : guards) {
+            selectivity = Math.min(selectivity,
+                    guard.getKind()
+                            .ordinal());
+        }
+        return selectivity;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    Envelope getEnvelope() {
+        return envelope;
+    }
+
+    DateType getDateType() {
+        return dateType;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    long getEnd() {
+        return end;
+    }
+
+    boolean contains(long date) {
+        return start <= date && date <= end;
+    }
+}
@@ -0,0 +1,618 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.commons.lang.StringUtils;
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.pubsub.EventProcessorImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.PublishedEventHandler;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+
+/**
+ * Matches published entries against the registered subscriptions.
+ * <p>
+ * Rather than evaluating every subscription for every entry, the subscriptions are indexed by the
+ * {@link SubscriptionGuard}s derived from their predicates: contextual terms, content types,
+ * bounding boxes in a coarse spatial grid and absolute date ranges. The metadata of each entry is
+ * tokenized once, its terms, content type, location and dates are looked up in the index, and
+ * only the resulting candidate subscriptions are evaluated. Subscriptions whose predicates cannot
+ * be indexed are evaluated for every entry.
+ * <p>
+ * This class is thread-safe.
+ */
+public class SubscriptionIndex implements SubscriptionIndexMBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+    private static final double CELL_SIZE_DEGREES = 10.0;
+
+    private static final int LONGITUDE_CELLS = 36;
+
+    private static final int LATITUDE_CELLS = 18;
+
+    /**
+     * Bounding boxes covering more cells than this are kept in a list instead of the grid.
+     */
+    private static final int MAX_GRID_CELLS = 64;
+
+    private static final String DEFAULT_INDEX = "DEFAULT_INDEX";
+
+    private static final String METADATA = "METADATA";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, IndexedSubscription> subscriptions = new LinkedHashMap<>();
+
+    private final Set<IndexedSubscription> unindexed = new HashSet<>();
+
+    private final Map<String, Set<IndexedSubscription>> contentTypes = new HashMap<>();
+
+    private final Map<String, Set<IndexedSubscription>> terms = new HashMap<>();
+
+    private final Map<Integer, List<SpatialEntry>> grid = new HashMap<>();
+
+    private final List<SpatialEntry> largeAreas = new ArrayList<>();
+
+    private final Map<DateType, NavigableMap<Long, List<TemporalEntry>>> dateRanges =
+            new EnumMap<>(DateType.class);
+
+    private final AtomicLong eventCount = new AtomicLong();
+
+    private final AtomicLong eventNanos = new AtomicLong();
+
+    private final AtomicLong maxEventNanos = new AtomicLong();
+
+    private final AtomicLong candidateCount = new AtomicLong();
+
+    private final AtomicLong matchNanos = new AtomicLong();
+
+    private ObjectName objectName;
+
+    /**
+     * Adds a subscription, replacing any subscription previously added with the same id.
+     *
+     * @param subscriptionId id of the subscription
+     * @param handler        handler evaluating the subscription and delivering matching events
+     */
+    public void add(String subscriptionId, PublishedEventHandler handler) {
+        IndexedSubscription subscription = new IndexedSubscription(subscriptionId,
+                handler,
+                SubscriptionGuard.of(handler.getPredicate()),
+                SubscriptionGuard.usesDefaultIndex(handler.getPredicate()));
+        LOGGER.debug("Indexing subscription {} with guards {}",
+                subscriptionId,
+                subscription.guards);
+
+        lock.writeLock()
+                .lock();
+        try {
+            IndexedSubscription previous = subscriptions.put(subscriptionId, subscription);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(subscription);
+        } finally {
+            lock.writeLock()
+                    .unlock();
+        }
+    }
+
+    /**
+     * @param subscriptionId id of the subscription to remove
+     * @return {@code true} if the subscription was removed, {@code false} if it was not found
+     */
+    public boolean remove(String subscriptionId) {
+        lock.writeLock()
+                .lock();
+        try {
+            IndexedSubscription subscription = subscriptions.remove(subscriptionId);
+            if (subscription == null) {
+                return false;
+            }
+            unindex(subscription);
+            return true;
+        } finally {
+            lock.writeLock()
+                    .unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.readLock()
+                .lock();
+        try {
+            return subscriptions.isEmpty();
+        } finally {
+            lock.readLock()
+                    .unlock();
+        }
+    }
+
+    /**
+     * Evaluates the candidate subscriptions for an entry, delivering the entry to the ones it
+     * matches.
+     *
+     * @param entry     the created, updated or deleted entry
+     * @param operation the operation, one of the {@link PubSubConstants} operations
+     */
+    public void publish(Metacard entry, String operation) {
+        long start = System.nanoTime();
+
+        Map<String, Object> properties = EventProcessorImpl.createEventProperties(entry,
+                operation);
+        String metadata = entry.getMetadata();
+
+        String indexableText = null;
+        Set<String> entryTerms = Collections.emptySet();
+        boolean matchAll = PubSubConstants.DELETE.equals(operation)
+                && PubSubConstants.METADATA_DELETED.equals(metadata);
+        if (metadata != null && !matchAll) {
+            try {
+                indexableText = ContextualEvaluator.getIndexableText(metadata);
+                entryTerms = ContextualEvaluator.getTerms(indexableText);
+            } catch (Exception e) {
+                LOGGER.warn("Unable to tokenize metadata of entry {}, evaluating all subscriptions",
+                        entry.getId(),
+                        e);
+                matchAll = true;
+            }
+        }
+
+        Collection<IndexedSubscription> candidates = matchAll ?
+                getSubscriptions() :
+                getCandidates(entry,
+                        (String) properties.get(PubSubConstants.HEADER_CONTENT_TYPE_KEY),
+                        entryTerms);
+        LOGGER.debug("Evaluating {} candidate subscriptions for entry {}",
+                candidates.size(),
+                entry.getId());
+
+        if (!candidates.isEmpty()) {
+            if (metadata != null) {
+                properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY,
+                        getContextualMap(metadata, indexableText, candidates));
+            }
+
+            Event event = new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
+            for (IndexedSubscription candidate : candidates) {
+                long matchStart = System.nanoTime();
+                try {
+                    candidate.handler.handleEvent(event);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Unable to process entry {} for subscription {}",
+                            entry.getId(),
+                            candidate.id,
+                            e);
+                }
+                matchNanos.addAndGet(System.nanoTime() - matchStart);
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        eventCount.incrementAndGet();
+        eventNanos.addAndGet(elapsed);
+        candidateCount.addAndGet(candidates.size());
+        long max = maxEventNanos.get();
+        while (elapsed > max && !maxEventNanos.compareAndSet(max, elapsed)) {
+            max = maxEventNanos.get();
+        }
+    }
+
+    public void registerMBean() {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            objectName = new ObjectName(SubscriptionIndexMBean.OBJECTNAME);
+            try {
+                mbeanServer.registerMBean(new StandardMBean(this, SubscriptionIndexMBean.class),
+                        objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                LOGGER.info("Re-registering Subscription Index MBean");
+                mbeanServer.unregisterMBean(objectName);
+                mbeanServer.registerMBean(new StandardMBean(this, SubscriptionIndexMBean.class),
+                        objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not register MBean.", e);
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            if (objectName != null) {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not unregister MBean.", e);
+        }
+    }
+
+    @Override
+    public int getSubscriptionCount() {
+        lock.readLock()
+                .lock();
+        try {
+            return subscriptions.size();
+        } finally {
+            lock.readLock()
+                    .unlock();
+        }
+    }
+
+    @Override
+    public int getUnindexedSubscriptionCount() {
+        lock.readLock()
+                .lock();
+        try {
+            return unindexed.size();
+        } finally {
+            lock.readLock()
+                    .unlock();
+        }
+    }
+
+    @Override
+    public long getEventCount() {
+        return eventCount.get();
+    }
+
+    @Override
+    public double getAverageEventLatencyMillis() {
+        return average(eventNanos.get(), eventCount.get()) / 1e6;
+    }
+
+    @Override
+    public double getMaximumEventLatencyMillis() {
+        return maxEventNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getAverageCandidatesPerEvent() {
+        return average(candidateCount.get(), eventCount.get());
+    }
+
+    @Override
+    public double getAverageMatchLatencyMillis() {
+        return average(matchNanos.get(), candidateCount.get()) / 1e6;
+    }
+
+    @Override
+    public void resetStatistics() {
+        eventCount.set(0);
+        eventNanos.set(0);
+        maxEventNanos.set(0);
+        candidateCount.set(0);
+        matchNanos.set(0);
+    }
+
+    /**
+     * Returns the subscriptions that may match an entry.
+     *
+     * @param entry       the entry
+     * @param contentType the content type header of the entry's event
+     * @param entryTerms  the lower-cased terms of the entry's metadata
+     * @return the candidate subscriptions, in the order they were added
+     */
+    Collection<IndexedSubscription> getCandidates(Metacard entry, String contentType,
+            Set<String> entryTerms) {
+        Envelope location = getEnvelope(entry);
+
+        lock.readLock()
+                .lock();
+        try {
+            Set<IndexedSubscription> candidates = new HashSet<>(unindexed);
+
+            addAll(candidates, contentTypes.get(getInputType(contentType)));
+
+            for (String term : entryTerms) {
+                addAll(candidates, terms.get(term));
+            }
+
+            if (location != null) {
+                for (int cell : getCells(location)) {
+                    addIntersecting(candidates, grid.get(cell), location);
+                }
+                addIntersecting(candidates, largeAreas, location);
+            }
+
+            for (Map.Entry<DateType, NavigableMap<Long, List<TemporalEntry>>> ranges : dateRanges.entrySet()) {
+                Date date = getDate(entry, ranges.getKey());
+                if (date != null) {
+                    for (List<TemporalEntry> entries : ranges.getValue()
+                            .headMap(date.getTime(), true)
+                            .values()) {
+                        for (TemporalEntry temporalEntry : entries) {
+                            if (temporalEntry.guard.contains(date.getTime())) {
+                                candidates.add(temporalEntry.subscription);
+                            }
+                        }
+                    }
+                }
+            }
+
+            List<IndexedSubscription> ordered = new ArrayList<>(candidates.size());
+            for (IndexedSubscription subscription : subscriptions.values()) {
+                if (candidates.contains(subscription)) {
+                    ordered.add(subscription);
+                }
+            }
+            return ordered;
+        } finally {
+            lock.readLock()
+                    .unlock();
+        }
+    }
+
+    private Collection<IndexedSubscription> getSubscriptions() {
+        lock.readLock()
+                .lock();
+        try {
+            return new ArrayList<>(subscriptions.values());
+        } finally {
+            lock.readLock()
+                    .unlock();
+        }
+    }
+
+    private Map<String, Object> getContextualMap(String metadata, String indexableText,
+            Collection<IndexedSubscription> candidates) {
+        Map<String, Object> contextualMap = new HashMap<>();
+        contextualMap.put(METADATA, metadata);
+
+        // The default index is only built if a candidate subscription is going to search it
+        for (IndexedSubscription candidate : candidates) {
+            if (candidate.usesDefaultIndex) {
+                try {
+                    contextualMap.put(DEFAULT_INDEX,
+                            ContextualEvaluator.buildTextIndex(indexableText == null ?
+                                    ContextualEvaluator.getIndexableText(metadata) :
+                                    indexableText));
+                } catch (Exception e) {
+                    LOGGER.error("Exception updating context map", e);
+                }
+                break;
+            }
+        }
+        return contextualMap;
+    }
+
+    private void index(IndexedSubscription subscription) {
+        if (subscription.guards == null) {
+            unindexed.add(subscription);
+            return;
+        }
+
+        for (SubscriptionGuard guard : subscription.guards) {
+            switch (guard.getKind()) {
+            case CONTENT_TYPE:
+                contentTypes.computeIfAbsent(guard.getValue(), key -> new HashSet<>())
+                        .add(subscription);
+                break;
+            case TERM:
+                terms.computeIfAbsent(guard.getValue(), key -> new HashSet<>())
+                        .add(subscription);
+                break;
+            case SPATIAL:
+                SpatialEntry spatialEntry = new SpatialEntry(subscription, guard.getEnvelope());
+                List<Integer> cells = getCells(guard.getEnvelope());
+                if (cells.size() > MAX_GRID_CELLS) {
+                    largeAreas.add(spatialEntry);
+                } else {
+                    for (int cell : cells) {
+                        grid.computeIfAbsent(cell, key -> new ArrayList<>())
+                                .add(spatialEntry);
+                    }
+                }
+                break;
+            case TEMPORAL:
+                dateRanges.computeIfAbsent(guard.getDateType(), key -> new TreeMap<>())
+                        .computeIfAbsent(guard.getStart(), key -> new ArrayList<>())
+                        .add(new TemporalEntry(subscription, guard));
+                break;
+            default:
+                unindexed.add(subscription);
+            }
+        }
+    }
+
+    private void unindex(IndexedSubscription subscription) {
+        unindexed.remove(subscription);
+        removeFrom(contentTypes, subscription);
+        removeFrom(terms, subscription);
+
+        grid.values()
+                .forEach(entries -> entries.removeIf(entry -> entry.subscription == subscription));
+        grid.values()
+                .removeIf(List::isEmpty);
+        largeAreas.removeIf(entry -> entry.subscription == subscription);
+
+        for (NavigableMap<Long, List<TemporalEntry>> ranges : dateRanges.values()) {
+            ranges.values()
+                    .forEach(entries -> entries.removeIf(entry -> entry.subscription
+                            == subscription));
+            ranges.values()
+                    .removeIf(List::isEmpty);
+        }
+    }
+
+    private static void removeFrom(Map<String, Set<IndexedSubscription>> postings,
+            IndexedSubscription subscription) {
+        postings.values()
+                .forEach(subscriptions -> subscriptions.remove(subscription));
+        postings.values()
+                .removeIf(Set::isEmpty);
+    }
+
+    private static void addAll(Set<IndexedSubscription> candidates,
+            Set<IndexedSubscription> subscriptions) {
+        if (subscriptions != null) {
+            candidates.addAll(subscriptions);
+        }
+    }
+
+    private static void addIntersecting(Set<IndexedSubscription> candidates,
+            List<SpatialEntry> entries, Envelope location) {
+        if (entries != null) {
+            for (SpatialEntry entry : entries) {
+                if (entry.envelope.intersects(location)) {
+                    candidates.add(entry.subscription);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the type part of a content type header the same way the content type evaluator
+     * does.
+     */
+    private static String getInputType(String contentType) {
+        if (contentType == null || contentType.matches(",")) {
+            return "null";
+        }
+        String type = contentType.split(",")[0];
+        return type.isEmpty() ? "null" : type;
+    }
+
+    private static Envelope getEnvelope(Metacard entry) {
+        String location = entry.getLocation();
+        if (StringUtils.isBlank(location)) {
+            return null;
+        }
+        try {
+            return new WKTReader().read(location)
+                    .getEnvelopeInternal();
+        } catch (ParseException e) {
+            LOGGER.debug("Unable to parse location of entry {}", entry.getId(), e);
+            return null;
+        }
+    }
+
+    private static List<Integer> getCells(Envelope envelope) {
+        int minX = cellIndex(envelope.getMinX() + 180, LONGITUDE_CELLS);
+        int maxX = cellIndex(envelope.getMaxX() + 180, LONGITUDE_CELLS);
+        int minY = cellIndex(envelope.getMinY() + 90, LATITUDE_CELLS);
+        int maxY = cellIndex(envelope.getMaxY() + 90, LATITUDE_CELLS);
+
+        List<Integer> cells = new ArrayList<>((maxX - minX + 1) * (maxY - minY + 1));
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                cells.add(y * LONGITUDE_CELLS + x);
+            }
+        }
+        return cells;
+    }
+
+    private static int cellIndex(double offset, int cells) {
+        int index = (int) Math.floor(offset / CELL_SIZE_DEGREES);
+        return Math.max(0, Math.min(cells - 1, index));
+    }
+
+    private static Date getDate(Metacard entry, DateType dateType) {
+        switch (dateType) {
+        case modified:
+            return entry.getModifiedDate();
+        case effective:
+            return entry.getEffectiveDate();
+        case created:
+            return entry.getCreatedDate();
+        case expiration:
+            return entry.getExpirationDate();
+        default:
+            return null;
+        }
+    }
+
+    private static double average(long total, long count) {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    static class IndexedSubscription {
+
+        private final String id;
+
+        private final PublishedEventHandler handler;
+
+        private final List<SubscriptionGuard> guards;
+
+        private final boolean usesDefaultIndex;
+
+        IndexedSubscription(String id, PublishedEventHandler handler,
+                List<SubscriptionGuard> guards, boolean usesDefaultIndex) {
+            this.id = id;
+            this.handler = handler;
+            this.guards = guards;
+            this.usesDefaultIndex = usesDefaultIndex;
+        }
+
+        String getId() {
+            return id;
+        }
+    }
+
+    private static class SpatialEntry {
+
+        private final IndexedSubscription subscription;
+
+        private final Envelope envelope;
+
+        SpatialEntry(IndexedSubscription subscription, Envelope envelope) {
+            this.subscription = subscription;
+            this.envelope = envelope;
+        }
+    }
+
+    private static class TemporalEntry {
+
+        private final IndexedSubscription subscription;
+
+        private final SubscriptionGuard guard;
+
+        TemporalEntry(IndexedSubscription subscription, SubscriptionGuard guard) {
+            this.subscription = subscription;
+            this.guard = guard;
+        }
+    }
+}
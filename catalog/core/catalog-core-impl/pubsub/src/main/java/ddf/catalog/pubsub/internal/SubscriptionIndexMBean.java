@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+/**
+ * Subscription matching statistics of the {@link SubscriptionIndex}.
+ */
+public interface SubscriptionIndexMBean {
+
+    public static final String OBJECTNAME =
+            "ddf.catalog.pubsub.internal.SubscriptionIndex:service=subscription-index";
+
+    /**
+     * @return the number of registered subscriptions
+     */
+    int getSubscriptionCount();
+
+    /**
+     * @return the number of subscriptions that cannot be indexed and are evaluated for every event
+     */
+    int getUnindexedSubscriptionCount();
+
+    /**
+     * @return the number of events published since the statistics were last reset
+     */
+    long getEventCount();
+
+    /**
+     * @return the average time to match and deliver an event, in milliseconds
+     */
+    double getAverageEventLatencyMillis();
+
+    /**
+     * @return the longest time taken to match and deliver an event, in milliseconds
+     */
+    double getMaximumEventLatencyMillis();
+
+    /**
+     * @return the average number of candidate subscriptions evaluated per event
+     */
+    double getAverageCandidatesPerEvent();
+
+    /**
+     * @return the average time to evaluate a candidate subscription and deliver the event to it
+     * when it matches, in milliseconds
+     */
+    double getAverageMatchLatencyMillis();
+
+    void resetStatistics();
+}
@@ -154,6 +154,14 @@ public DateType getType() {
         return type;
     }
 
+    /**
+     * @return the length in milliseconds of a relative time range ending now, or 0 if the range is
+     * absolute
+     */
+    public long getOffset() {
+        return offset;
+    }
+
     public String toString() {
         StringBuffer sb = new StringBuffer();
 
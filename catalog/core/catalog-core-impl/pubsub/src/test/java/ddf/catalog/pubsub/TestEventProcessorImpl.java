@@ -13,18 +13,27 @@
  */
 package ddf.catalog.pubsub;
 
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.event.EventProcessor;
+import ddf.catalog.pubsub.internal.PubSubConstants;
 
 public class TestEventProcessorImpl {
 
@@ -89,4 +98,20 @@ public void testNullOperation() {
 
     }
 
+    @Test
+    public void testProcessEntryPostsCatalogEvent() {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId("id");
+        EventAdmin eventAdmin = mock(EventAdmin.class);
+
+        EventProcessorImpl.processEntry(metacard, PubSubConstants.UPDATE, eventAdmin);
+
+        ArgumentCaptor<Event> event = ArgumentCaptor.forClass(Event.class);
+        verify(eventAdmin).postEvent(event.capture());
+        assertThat(event.getValue()
+                .getTopic(), is(EventProcessor.EVENTS_TOPIC_UPDATED));
+        assertThat(event.getValue()
+                .getProperty(EventProcessor.EVENT_METACARD), sameInstance((Object) metacard));
+    }
+
 }
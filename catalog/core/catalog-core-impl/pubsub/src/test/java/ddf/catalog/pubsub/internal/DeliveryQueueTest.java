@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+
+public class DeliveryQueueTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private EventDispatcher eventDispatcher;
+
+    private RecordingDeliveryProcessor deliveryProcessor;
+
+    private DeliveryQueue deliveryQueue;
+
+    @Before
+    public void setUp() {
+        eventDispatcher = new EventDispatcher();
+        deliveryProcessor = new RecordingDeliveryProcessor();
+        deliveryQueue = eventDispatcher.createDeliveryQueue("subscription", deliveryProcessor);
+    }
+
+    @After
+    public void tearDown() {
+        deliveryProcessor.release();
+        eventDispatcher.shutdown();
+    }
+
+    @Test
+    public void testDeliveriesAreOrdered() throws Exception {
+        deliveryProcessor.release();
+
+        for (int i = 0; i < 100; i++) {
+            deliveryQueue.enqueue(event(String.valueOf(i), PubSubConstants.CREATE, "title"));
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(PubSubConstants.CREATE + " " + i + " title");
+        }
+        assertThat(deliveryProcessor.awaitDeliveries(100), is(expected));
+        assertThat(eventDispatcher.getDeliveredCount(), is(100L));
+        assertThat(eventDispatcher.getQueuedDeliveryCount(), is(0L));
+    }
+
+    @Test
+    public void testPendingUpdatesAreCoalesced() throws Exception {
+        deliveryQueue.enqueue(event("blocker", PubSubConstants.CREATE, "title"));
+        deliveryProcessor.awaitStarted();
+
+        deliveryQueue.enqueue(event("1", PubSubConstants.CREATE, "first"));
+        deliveryQueue.enqueue(event("1", PubSubConstants.UPDATE, "second"));
+        deliveryQueue.enqueue(event("2", PubSubConstants.UPDATE, "first"));
+        deliveryQueue.enqueue(event("2", PubSubConstants.UPDATE, "second"));
+        deliveryQueue.enqueue(event("1", PubSubConstants.DELETE, "second"));
+        deliveryQueue.enqueue(event("1", PubSubConstants.UPDATE, "third"));
+        deliveryProcessor.release();
+
+        assertThat(deliveryProcessor.awaitDeliveries(5),
+                contains(PubSubConstants.CREATE + " blocker title",
+                        PubSubConstants.CREATE + " 1 second",
+                        PubSubConstants.UPDATE + " 2 second",
+                        PubSubConstants.DELETE + " 1 second",
+                        PubSubConstants.UPDATE + " 1 third"));
+        assertThat(eventDispatcher.getCoalescedDeliveryCount(), is(2L));
+    }
+
+    @Test
+    public void testDropOldestWhenFull() throws Exception {
+        eventDispatcher.setMaximumQueuedEvents(2);
+        eventDispatcher.setOverflowPolicy(EventDispatcher.OverflowPolicy.DROP_OLDEST.name());
+
+        deliveryQueue.enqueue(event("blocker", PubSubConstants.CREATE, "title"));
+        deliveryProcessor.awaitStarted();
+
+        deliveryQueue.enqueue(event("1", PubSubConstants.CREATE, "title"));
+        deliveryQueue.enqueue(event("2", PubSubConstants.CREATE, "title"));
+        deliveryQueue.enqueue(event("3", PubSubConstants.CREATE, "title"));
+        deliveryProcessor.release();
+
+        assertThat(deliveryProcessor.awaitDeliveries(3),
+                contains(PubSubConstants.CREATE + " blocker title",
+                        PubSubConstants.CREATE + " 2 title",
+                        PubSubConstants.CREATE + " 3 title"));
+        assertThat(eventDispatcher.getDroppedDeliveryCount(), is(1L));
+    }
+
+    @Test
+    public void testBlockWhenFull() throws Exception {
+        eventDispatcher.setMaximumQueuedEvents(1);
+
+        deliveryQueue.enqueue(event("blocker", PubSubConstants.CREATE, "title"));
+        deliveryProcessor.awaitStarted();
+        deliveryQueue.enqueue(event("1", PubSubConstants.CREATE, "title"));
+
+        Thread producer = new Thread(() -> deliveryQueue.enqueue(event("2",
+                PubSubConstants.CREATE,
+                "title")));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+
+        deliveryProcessor.release();
+        producer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+        assertThat(deliveryProcessor.awaitDeliveries(3),
+                contains(PubSubConstants.CREATE + " blocker title",
+                        PubSubConstants.CREATE + " 1 title",
+                        PubSubConstants.CREATE + " 2 title"));
+    }
+
+    @Test
+    public void testRemovedQueueDiscardsPendingDeliveries() throws Exception {
+        deliveryQueue.enqueue(event("blocker", PubSubConstants.CREATE, "title"));
+        deliveryProcessor.awaitStarted();
+        deliveryQueue.enqueue(event("1", PubSubConstants.CREATE, "title"));
+
+        eventDispatcher.removeDeliveryQueue("subscription");
+        deliveryQueue.enqueue(event("2", PubSubConstants.CREATE, "title"));
+        deliveryProcessor.release();
+
+        assertThat(deliveryProcessor.awaitDeliveries(1),
+                contains(PubSubConstants.CREATE + " blocker title"));
+        assertThat(eventDispatcher.getQueuedDeliveryCount(), is(0L));
+    }
+
+    @Test
+    public void testDispatch() throws Exception {
+        CountDownLatch latch = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            eventDispatcher.dispatch(latch::countDown);
+        }
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDispatchBoundsEventQueueWhenBlocking() throws Exception {
+        eventDispatcher.setThreadPoolSize(1);
+        eventDispatcher.setMaximumQueuedEvents(2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        eventDispatcher.dispatch(() -> {
+            started.countDown();
+            try {
+                released.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+        });
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // Dispatched without awaiting capacity, as events posted to the topics directly are
+        for (int i = 0; i < 10; i++) {
+            eventDispatcher.dispatch(() -> {
+            });
+        }
+        released.countDown();
+
+        assertThat(eventDispatcher.getDroppedEventCount(), is(6L));
+    }
+
+    private static Event event(String id, String operation, String title) {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(id);
+        metacard.setTitle(title);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+        properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+        return new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
+    }
+
+    /**
+     * Records the deliveries it processes. Blocks the first delivery until released.
+     */
+    private static class RecordingDeliveryProcessor extends DeliveryProcessor {
+
+        private final List<String> deliveries = Collections.synchronizedList(new ArrayList<>());
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        RecordingDeliveryProcessor() {
+            super(null, null);
+        }
+
+        @Override
+        public void process(Event event) {
+            started.countDown();
+            try {
+                released.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+
+            Metacard metacard = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+            deliveries.add(event.getProperty(PubSubConstants.HEADER_OPERATION_KEY) + " "
+                    + metacard.getId() + " " + metacard.getTitle());
+            synchronized (deliveries) {
+                deliveries.notifyAll();
+            }
+        }
+
+        void awaitStarted() throws InterruptedException {
+            assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        List<String> awaitDeliveries(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(
+                    TIMEOUT_SECONDS);
+            synchronized (deliveries) {
+                while (deliveries.size() < count && System.currentTimeMillis() < deadline) {
+                    deliveries.wait(100);
+                }
+                // Give unexpected deliveries a chance to show up
+                deliveries.wait(100);
+                return new ArrayList<>(deliveries);
+            }
+        }
+    }
+}
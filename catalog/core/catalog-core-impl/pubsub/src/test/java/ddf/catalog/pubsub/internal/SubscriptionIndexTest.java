@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.osgi.service.event.Event;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.PublishedEventHandler;
+import ddf.catalog.pubsub.TestDataLibrary;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.NotPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+
+public class SubscriptionIndexTest {
+
+    private SubscriptionIndex subscriptionIndex;
+
+    private MetacardImpl metacard;
+
+    @Before
+    public void setUp() {
+        subscriptionIndex = new SubscriptionIndex();
+
+        metacard = new MetacardImpl();
+        metacard.setId("1");
+        metacard.setMetadata(TestDataLibrary.getCatAndDogEntry());
+        metacard.setContentTypeName("type1");
+        metacard.setContentTypeVersion("version1");
+        metacard.setLocation("POINT (10 20)");
+        metacard.setModifiedDate(new Date(5000));
+    }
+
+    @Test
+    public void testContextualSubscriptions() {
+        PublishedEventHandler dog = addSubscription("dog", contextual("dog"));
+        PublishedEventHandler horse = addSubscription("horse", contextual("horse"));
+        PublishedEventHandler phrase = addSubscription("phrase", contextual("\"serengeti event\""));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(dog).handleEvent(any(Event.class));
+        verify(horse, never()).handleEvent(any(Event.class));
+        verify(phrase).handleEvent(any(Event.class));
+    }
+
+    @Test
+    public void testBooleanContextualSubscriptions() {
+        PublishedEventHandler and = addSubscription("and", contextual("horse AND dog"));
+        PublishedEventHandler or = addSubscription("or", contextual("horse OR cow"));
+        PublishedEventHandler wildcard = addSubscription("wildcard", contextual("hor*"));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(and, never()).handleEvent(any(Event.class));
+        verify(or, never()).handleEvent(any(Event.class));
+        verify(wildcard).handleEvent(any(Event.class));
+    }
+
+    @Test
+    public void testContentTypeSubscriptions() {
+        PublishedEventHandler type1 = addSubscription("type1",
+                new ContentTypePredicate("type1", "version1"));
+        PublishedEventHandler type2 = addSubscription("type2",
+                new ContentTypePredicate("type2", null));
+        PublishedEventHandler pattern = addSubscription("pattern",
+                new ContentTypePredicate("type.*", null));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(type1).handleEvent(any(Event.class));
+        verify(type2, never()).handleEvent(any(Event.class));
+        verify(pattern).handleEvent(any(Event.class));
+    }
+
+    @Test
+    public void testGeospatialSubscriptions() {
+        PublishedEventHandler near = addSubscription("near",
+                new GeospatialPredicate("POLYGON ((0 10, 15 10, 15 25, 0 25, 0 10))",
+                        "intersects",
+                        0));
+        PublishedEventHandler far = addSubscription("far",
+                new GeospatialPredicate("POLYGON ((-50 -50, -40 -50, -40 -40, -50 -40, -50 -50))",
+                        "intersects",
+                        0));
+        PublishedEventHandler world = addSubscription("world",
+                new GeospatialPredicate("POLYGON ((-180 -90, 180 -90, 180 90, -180 90, -180 -90))",
+                        "intersects",
+                        0));
+        PublishedEventHandler distance = addSubscription("distance",
+                new GeospatialPredicate(new GeometryFactory().createPoint(new Coordinate(12, 22)),
+                        "point_radius",
+                        5));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(near).handleEvent(any(Event.class));
+        verify(far, never()).handleEvent(any(Event.class));
+        verify(world).handleEvent(any(Event.class));
+        verify(distance).handleEvent(any(Event.class));
+    }
+
+    @Test
+    public void testTemporalSubscriptions() {
+        PublishedEventHandler during = addSubscription("during",
+                new TemporalPredicate(new Date(1000), new Date(10000), DateType.modified));
+        PublishedEventHandler before = addSubscription("before",
+                new TemporalPredicate(new Date(1000), new Date(2000), DateType.modified));
+        PublishedEventHandler created = addSubscription("created",
+                new TemporalPredicate(new Date(1000), new Date(10000), DateType.created));
+        PublishedEventHandler relative = addSubscription("relative",
+                new TemporalPredicate(1000, DateType.modified));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(during).handleEvent(any(Event.class));
+        verify(before, never()).handleEvent(any(Event.class));
+        verify(created, never()).handleEvent(any(Event.class));
+        verify(relative).handleEvent(any(Event.class));
+    }
+
+    @Test
+    public void testLogicalSubscriptions() {
+        PublishedEventHandler and = addSubscription("and",
+                new AndPredicate(new ContentTypePredicate("type1", null), contextual("horse")));
+        PublishedEventHandler or = addSubscription("or",
+                new OrPredicate(new ContentTypePredicate("type2", null), contextual("dog")));
+        PublishedEventHandler not = addSubscription("not", new NotPredicate(contextual("dog")));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(and, never()).handleEvent(any(Event.class));
+        verify(or).handleEvent(any(Event.class));
+        verify(not).handleEvent(any(Event.class));
+        assertThat(subscriptionIndex.getUnindexedSubscriptionCount(), is(1));
+    }
+
+    @Test
+    public void testDeletedEntryIsEvaluatedByAllSubscriptions() {
+        PublishedEventHandler horse = addSubscription("horse", contextual("horse"));
+        metacard.setMetadata(PubSubConstants.METADATA_DELETED);
+
+        subscriptionIndex.publish(metacard, PubSubConstants.DELETE);
+
+        verify(horse).handleEvent(any(Event.class));
+    }
+
+    @Test
+    public void testRemoveSubscription() {
+        PublishedEventHandler dog = addSubscription("dog", contextual("dog"));
+
+        assertThat(subscriptionIndex.remove("dog"), is(true));
+        assertThat(subscriptionIndex.remove("dog"), is(false));
+        assertThat(subscriptionIndex.isEmpty(), is(true));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(dog, never()).handleEvent(any(Event.class));
+    }
+
+    @Test
+    public void testReplaceSubscription() {
+        PublishedEventHandler dog = addSubscription("id", contextual("dog"));
+        PublishedEventHandler horse = addSubscription("id", contextual("horse"));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(dog, never()).handleEvent(any(Event.class));
+        verify(horse, never()).handleEvent(any(Event.class));
+        assertThat(subscriptionIndex.getSubscriptionCount(), is(1));
+    }
+
+    @Test
+    public void testDefaultIndexOnlyBuiltWhenNeeded() {
+        PublishedEventHandler type1 = addSubscription("type1",
+                new ContentTypePredicate("type1", null));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        assertThat(getContextualMap(type1), not(hasKey("DEFAULT_INDEX")));
+
+        PublishedEventHandler dog = addSubscription("dog", contextual("dog"));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        assertThat(getContextualMap(dog), hasKey("DEFAULT_INDEX"));
+    }
+
+    @Test
+    public void testFailingSubscriptionDoesNotStopDelivery() {
+        PublishedEventHandler failing = addSubscription("failing", contextual("dog"));
+        doThrow(new IllegalStateException()).when(failing)
+                .handleEvent(any(Event.class));
+        PublishedEventHandler dog = addSubscription("dog", contextual("dog"));
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(dog).handleEvent(any(Event.class));
+        assertThat(subscriptionIndex.getEventCount(), is(1L));
+        assertThat(subscriptionIndex.getAverageCandidatesPerEvent(), is(2.0));
+    }
+
+    @Test
+    public void testNoMetadata() {
+        PublishedEventHandler dog = addSubscription("dog", contextual("dog"));
+        PublishedEventHandler type1 = addSubscription("type1",
+                new ContentTypePredicate("type1", null));
+        metacard.setMetadata(null);
+
+        subscriptionIndex.publish(metacard, PubSubConstants.CREATE);
+
+        verify(dog, never()).handleEvent(any(Event.class));
+        assertThat(getContextualMap(type1), is(nullValue()));
+    }
+
+    private PublishedEventHandler addSubscription(String id, Predicate predicate) {
+        PublishedEventHandler handler = mock(PublishedEventHandler.class);
+        when(handler.getPredicate()).thenReturn(predicate);
+        subscriptionIndex.add(id, handler);
+        return handler;
+    }
+
+    private Map<String, Object> getContextualMap(PublishedEventHandler handler) {
+        ArgumentCaptor<Event> event = ArgumentCaptor.forClass(Event.class);
+        verify(handler).handleEvent(event.capture());
+        return (Map<String, Object>) event.getValue()
+                .getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+    }
+
+    private static ContextualPredicate contextual(String searchPhrase) {
+        return new ContextualPredicate(searchPhrase, false, false, null);
+    }
+}
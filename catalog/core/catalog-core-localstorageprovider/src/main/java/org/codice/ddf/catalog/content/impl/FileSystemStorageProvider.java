@@ -19,12 +19,14 @@
 import java.net.URISyntaxException;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,6 +41,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
@@ -110,6 +113,7 @@ public CreateStorageResponse create(CreateStorageRequest createRequest)
 
         List<ContentItem> createdContentItems = new ArrayList<>(createRequest.getContentItems()
                 .size());
+        Map<String, Path> stagedPaths = getStagedPaths(createRequest);
 
         for (ContentItem contentItem : contentItems) {
             try {
@@ -119,7 +123,9 @@ public CreateStorageResponse create(CreateStorageRequest createRequest)
 
                 Path contentDirectory = Files.createDirectories(contentIdDir);
 
-                createdContentItems.add(generateContentFile(contentItem, contentDirectory));
+                createdContentItems.add(generateContentFile(contentItem,
+                        contentDirectory,
+                        stagedPaths.get(contentItem.getId())));
             } catch (IOException | URISyntaxException | IllegalArgumentException e) {
                 throw new StorageException(e);
             }
@@ -156,6 +162,7 @@ public UpdateStorageResponse update(UpdateStorageRequest updateRequest)
 
         List<ContentItem> updatedItems = new ArrayList<>(updateRequest.getContentItems()
                 .size());
+        Map<String, Path> stagedPaths = getStagedPaths(updateRequest);
 
         for (ContentItem contentItem : contentItems) {
             try {
@@ -172,7 +179,9 @@ public UpdateStorageResponse update(UpdateStorageRequest updateRequest)
                 Path contentIdDir = getTempContentItemDir(updateRequest.getId(),
                         new URI(updateItem.getUri()));
 
-                updatedItems.add(generateContentFile(updateItem, contentIdDir));
+                updatedItems.add(generateContentFile(updateItem,
+                        contentIdDir,
+                        stagedPaths.get(updateItem.getId())));
             } catch (IOException | URISyntaxException | IllegalArgumentException e) {
                 throw new StorageException(e);
             }
@@ -480,8 +489,23 @@ private Path getContentFilePath(URI uri) throws StorageException {
         return null;
     }
 
-    private ContentItem generateContentFile(ContentItem item, Path contentDirectory)
-            throws IOException, StorageException {
+    /**
+     * Returns the paths of the files in which the framework staged the content of the request, by
+     * content item ID.
+     */
+    private Map<String, Path> getStagedPaths(StorageRequest request) {
+        if (request.getProperties() != null) {
+            Map<String, Path> stagedPaths = (Map<String, Path>) request.getProperties()
+                    .get(Constants.CONTENT_PATHS);
+            if (stagedPaths != null) {
+                return stagedPaths;
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    private ContentItem generateContentFile(ContentItem item, Path contentDirectory,
+            Path stagedPath) throws IOException, StorageException {
         LOGGER.trace("ENTERING: generateContentFile");
 
         if (!Files.exists(contentDirectory)) {
@@ -491,7 +515,10 @@ private ContentItem generateContentFile(ContentItem item, Path contentDirectory)
         Path contentItemPath = Paths.get(contentDirectory.toAbsolutePath()
                 .toString(), item.getFilename());
 
-        long copy = Files.copy(item.getInputStream(), contentItemPath);
+        long copy = linkStagedContent(item, stagedPath, contentItemPath);
+        if (copy < 0) {
+            copy = Files.copy(item.getInputStream(), contentItemPath);
+        }
 
         if (copy != item.getSize()) {
             LOGGER.warn("Created content item {} size {} does not match expected size {}",
@@ -515,6 +542,29 @@ private ContentItem generateContentFile(ContentItem item, Path contentDirectory)
         return contentItem;
     }
 
+    /**
+     * Links the file in which the content of an item was staged to its location in the temporary
+     * content directory, so that the content is not copied. The staged file stays where it is for
+     * the plugins that still need it.
+     *
+     * @return the size of the linked content, or -1 if the content has to be copied instead
+     */
+    private long linkStagedContent(ContentItem item, Path stagedPath, Path contentItemPath)
+            throws IOException {
+        if (stagedPath == null || StringUtils.isNotEmpty(item.getQualifier())
+                || !Files.isRegularFile(stagedPath) || Files.size(stagedPath) != item.getSize()) {
+            return -1;
+        }
+
+        try {
+            Files.createLink(contentItemPath, stagedPath);
+            return Files.size(contentItemPath);
+        } catch (FileSystemException | UnsupportedOperationException e) {
+            LOGGER.debug("Unable to link staged content {}, resorting to copy.", stagedPath, e);
+            return -1;
+        }
+    }
+
     public MimeTypeMapper getMimeTypeMapper() {
         return mimeTypeMapper;
     }
@@ -28,13 +28,17 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.net.URI;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -50,6 +54,7 @@
 
 import com.google.common.io.ByteSource;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.data.impl.ContentItemImpl;
@@ -121,6 +126,40 @@ public void testCreate() throws Exception {
         assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, "test.nitf");
     }
 
+    @Test
+    public void testCreateLinksStagedContent() throws Exception {
+        Path stagedPath = tempFolder.newFile("staged.nitf")
+                .toPath();
+        Files.write(stagedPath, TEST_INPUT_CONTENTS.getBytes());
+        ByteSource byteSource = com.google.common.io.Files.asByteSource(stagedPath.toFile());
+        String id = UUID.randomUUID()
+                .toString()
+                .replaceAll("-", "");
+        ContentItem contentItem = new ContentItemImpl(id,
+                byteSource,
+                NITF_MIME_TYPE,
+                "test.nitf",
+                byteSource.size(),
+                mock(Metacard.class));
+        HashMap<String, Path> stagedPaths = new HashMap<>();
+        stagedPaths.put(id, stagedPath);
+        Map<String, Serializable> properties = new HashMap<>();
+        properties.put(Constants.CONTENT_PATHS, stagedPaths);
+        CreateStorageRequest createRequest = new CreateStorageRequestImpl(Collections.singletonList(
+                contentItem), properties);
+
+        CreateStorageResponse createResponse = provider.create(createRequest);
+        ContentItem createdContentItem = createResponse.getCreatedContentItems()
+                .get(0);
+
+        assertThat(IOUtils.toString(createdContentItem.getInputStream()),
+                is(TEST_INPUT_CONTENTS));
+        assertThat(createdContentItem.getSize(), is(byteSource.size()));
+        assertTrue(Files.exists(stagedPath));
+        provider.commit(createRequest);
+        assertReadRequest(new URI(createdContentItem.getUri()), NITF_MIME_TYPE);
+    }
+
     @Test
     public void testCreateMimeTypeWithNonIdParameter() throws Exception {
         String mimeType = "image/nitf; charset=UTF-8";
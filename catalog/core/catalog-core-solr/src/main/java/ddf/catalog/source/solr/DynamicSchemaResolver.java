@@ -24,13 +24,14 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -54,6 +55,12 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.AttributeType.AttributeFormat;
@@ -66,6 +73,7 @@
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import lux.Config;
 import lux.xml.SaxonDocBuilder;
+import lux.xml.StAXHandler;
 import lux.xml.XmlReader;
 import lux.xml.tinybin.TinyBinary;
 import net.sf.saxon.s9api.Processor;
@@ -100,14 +108,31 @@ public class DynamicSchemaResolver {
 
     public static final String SCORE_FIELD_NAME = "score";
 
+    /**
+     * Prefix of the ids of the documents of the metacard type registry.
+     */
+    public static final String METACARD_TYPE_ID_PREFIX = "metacard-type:";
+
+    private static final char METACARD_TYPE_KEY_SEPARATOR = '#';
+
     private static final List<String> PRIVATE_SOLR_FIELDS = Arrays.asList(SOLR_CLOUD_VERSION_FIELD,
             SchemaFields.METACARD_TYPE_FIELD_NAME,
             SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+            SchemaFields.METACARD_TYPE_KEY_FIELD_NAME,
+            SchemaFields.METACARD_TYPE_REGISTRY_FIELD_NAME,
             LUX_XML_FIELD_NAME,
             SCORE_FIELD_NAME);
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DynamicSchemaResolver.class);
 
+    /**
+     * Keys of the metacard types, by identity.
+     */
+    private static final LoadingCache<MetacardType, String> METACARD_TYPE_KEYS =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .build(CacheLoader.from(DynamicSchemaResolver::createMetacardTypeKey));
+
     static {
         ClassLoader tccl = Thread.currentThread()
                 .getContextClassLoader();
@@ -128,15 +153,22 @@ public class DynamicSchemaResolver {
         }
     }
 
-    protected Set<String> fieldsCache = new HashSet<>();
+    protected Set<String> fieldsCache = ConcurrentHashMap.newKeySet();
 
-    protected Set<String> anyTextFieldsCache = new HashSet<>();
+    protected Set<String> anyTextFieldsCache = ConcurrentHashMap.newKeySet();
 
     protected SchemaFields schemaFields;
 
-    protected Map<String, MetacardType> metacardTypesCache = new HashMap<>();
+    /**
+     * Metacard types by key, or by name for the documents indexed before the metacard type
+     * registry.
+     */
+    protected Map<String, MetacardType> metacardTypesCache = new ConcurrentHashMap<>();
 
-    protected Map<String, byte[]> metacardTypeNameToSerialCache = new HashMap<>();
+    /**
+     * Serialized metacard types of the metacard type registry documents, by key.
+     */
+    protected Map<String, byte[]> serializedMetacardTypes = new ConcurrentHashMap<>();
 
     private Processor processor = new Processor(new Config());
 
@@ -206,7 +238,28 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
             throws MetacardCreationException {
         MetacardType schema = metacard.getMetacardType();
 
-        // TODO: register these metacard types when a new one is seen
+        /*
+         * The metadata is parsed once, building the TinyTree used for XPath queries and extracting
+         * its text at the same time. The parse uses the settings of parseTextFrom, so unreplaced
+         * entity references would be missing from the TinyTree; such metadata is parsed again by
+         * lux on its own.
+         */
+        String metadata = metacard.getMetadata();
+        byte[] luxXml = null;
+        String metadataText = null;
+        if (!ConfigurationStore.getInstance()
+                .isDisableTextPath() && StringUtils.isNotBlank(metadata)) {
+            TextExtractor textExtractor = new TextExtractor();
+            try {
+                luxXml = createTinyBinary(metadata, textExtractor);
+                metadataText = textExtractor.getText();
+                if (textExtractor.hasEntityReferences()) {
+                    luxXml = createTinyBinary(metadata, null);
+                }
+            } catch (XMLStreamException | SaxonApiException e) {
+                LOGGER.warn("Unable to parse metadata field.  XPath support unavailable for metacard " + metacard.getId());
+            }
+        }
 
         for (AttributeDescriptor ad : schema.getAttributeDescriptors()) {
             if (metacard.getAttribute(ad.getName()) != null) {
@@ -220,7 +273,13 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
                     String formatIndexName = ad.getName() + getFieldSuffix(format);
 
                     if (AttributeFormat.XML.equals(format)) {
-                        List<String> parsedTexts = parseTextFrom(attributeValues);
+                        List<String> parsedTexts;
+                        if (metadataText != null && attributeValues.size() == 1
+                                && metadata.equals(attributeValues.get(0))) {
+                            parsedTexts = Collections.singletonList(metadataText);
+                        } else {
+                            parsedTexts = parseTextFrom(attributeValues);
+                        }
 
                         // text => metadata_txt_ws
                         String whitespaceTokenizedIndexName = ad.getName() + getFieldSuffix(
@@ -270,46 +329,130 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
             }
         }
 
-        if (!ConfigurationStore.getInstance()
-                .isDisableTextPath()) {
-            if (StringUtils.isNotBlank(metacard.getMetadata())) {
-                try {
-                    byte[] luxXml = createTinyBinary(metacard.getMetadata());
-                    solrInputDocument.addField(LUX_XML_FIELD_NAME, luxXml);
-                } catch (XMLStreamException | SaxonApiException e) {
-                    LOGGER.warn("Unable to parse metadata field.  XPath support unavailable for metacard " + metacard.getId());
-                }
-            }
+        if (luxXml != null) {
+            solrInputDocument.addField(LUX_XML_FIELD_NAME, luxXml);
         }
 
         /*
-         * Lastly the metacardType must be added to the solr document. These are internal fields
+         * Lastly the metacardType must be added to the solr document. These are internal fields.
+         * The metacardType itself is stored once in the metacard type registry, under its key.
          */
-        solrInputDocument.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, schema.getName());
-        byte[] metacardTypeBytes = metacardTypeNameToSerialCache.get(schema.getName());
-
-        if (metacardTypeBytes == null) {
+        String metacardTypeKey = METACARD_TYPE_KEYS.getUnchecked(schema);
+        if (!metacardTypesCache.containsKey(metacardTypeKey)) {
             MetacardType coreMetacardType = new MetacardTypeImpl(schema.getName(),
                     convertAttributeDescriptors(schema.getAttributeDescriptors()));
 
-            metacardTypesCache.put(schema.getName(), coreMetacardType);
+            if (metacardTypesCache.putIfAbsent(metacardTypeKey, coreMetacardType) == null) {
+                addToFieldsCache(coreMetacardType.getAttributeDescriptors());
+            }
+        }
+
+        solrInputDocument.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, schema.getName());
+        solrInputDocument.addField(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME, metacardTypeKey);
+    }
+
+    /**
+     * Returns the metacard type registry documents of the metacard types of the given documents.
+     * <p>
+     * The registry documents are added with every batch of documents rather than once per metacard
+     * type, since they can be deleted without this resolver knowing, by another node or by a
+     * delete by query. Adding a registry document again only replaces it.
+     *
+     * @param solrInputDocuments documents created by {@link #addFields(Metacard, SolrInputDocument)}
+     * @return the registry documents to add along with the given documents
+     */
+    public List<SolrInputDocument> getMetacardTypeDocuments(
+            Collection<SolrInputDocument> solrInputDocuments) throws MetacardCreationException {
+        Set<String> metacardTypeKeys = new HashSet<>();
+        for (SolrInputDocument solrInputDocument : solrInputDocuments) {
+            Object metacardTypeKey =
+                    solrInputDocument.getFieldValue(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME);
+            if (metacardTypeKey != null) {
+                metacardTypeKeys.add(metacardTypeKey.toString());
+            }
+        }
+
+        List<SolrInputDocument> metacardTypeDocuments = new ArrayList<>(metacardTypeKeys.size());
+        for (String metacardTypeKey : metacardTypeKeys) {
+            MetacardType metacardType = metacardTypesCache.get(metacardTypeKey);
+            if (metacardType == null) {
+                continue;
+            }
 
-            metacardTypeBytes = serialize(coreMetacardType);
-            metacardTypeNameToSerialCache.put(schema.getName(), metacardTypeBytes);
+            SolrInputDocument metacardTypeDocument = new SolrInputDocument();
+            metacardTypeDocument.addField(Metacard.ID + SchemaFields.TEXT_SUFFIX,
+                    getMetacardTypeId(metacardTypeKey));
+            metacardTypeDocument.addField(SchemaFields.METACARD_TYPE_REGISTRY_FIELD_NAME, true);
+            metacardTypeDocument.addField(SchemaFields.METACARD_TYPE_FIELD_NAME,
+                    metacardType.getName());
+            metacardTypeDocument.addField(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME,
+                    metacardTypeKey);
+            metacardTypeDocument.addField(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+                    getSerializedMetacardType(metacardTypeKey, metacardType));
+            metacardTypeDocuments.add(metacardTypeDocument);
+        }
+        return metacardTypeDocuments;
+    }
 
-            addToFieldsCache(coreMetacardType.getAttributeDescriptors());
+    private byte[] getSerializedMetacardType(String metacardTypeKey, MetacardType metacardType)
+            throws MetacardCreationException {
+        byte[] serializedMetacardType = serializedMetacardTypes.get(metacardTypeKey);
+        if (serializedMetacardType == null) {
+            serializedMetacardType = serialize(metacardType);
+            serializedMetacardTypes.put(metacardTypeKey, serializedMetacardType);
         }
+        return serializedMetacardType;
+    }
 
-        solrInputDocument.addField(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME, metacardTypeBytes);
+    /**
+     * Returns the key of the metacard type of a document when that metacard type has to be read
+     * from the metacard type registry, because it is neither cached nor stored in the document.
+     *
+     * @param doc the Solr document of a metacard
+     * @return the key of the metacard type to read from the registry, or {@code null} if
+     * {@link #getMetacardType(SolrDocument)} can resolve it from the document alone
+     */
+    public String getUnresolvedMetacardTypeKey(SolrDocument doc) {
+        Object metacardTypeKey = doc.getFirstValue(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME);
+        if (metacardTypeKey == null || metacardTypesCache.containsKey(metacardTypeKey.toString())
+                || doc.getFirstValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME) != null) {
+            return null;
+        }
+        return metacardTypeKey.toString();
     }
 
-    private byte[] createTinyBinary(String xml) throws XMLStreamException, SaxonApiException {
+    /**
+     * @param metacardTypeKey the key of a metacard type
+     * @return the id of the metacard type registry document of the metacard type
+     */
+    public String getMetacardTypeId(String metacardTypeKey) {
+        return METACARD_TYPE_ID_PREFIX + metacardTypeKey;
+    }
+
+    /**
+     * Builds the TinyTree of an XML document. When a text extractor is given, it is fed the events
+     * of the same parse, which is then done with {@link #XML_INPUT_FACTORY} so that the extracted
+     * text is the same as the text from {@link #parseTextFrom(List)}.
+     */
+    private byte[] createTinyBinary(String xml, StAXHandler textExtractor)
+            throws XMLStreamException, SaxonApiException {
         SaxonDocBuilder builder = new SaxonDocBuilder(processor);
 
         XmlReader xmlReader = new XmlReader();
         xmlReader.addHandler(builder);
         xmlReader.setStripNamespaces(true);
-        xmlReader.read(IOUtils.toInputStream(xml));
+        if (textExtractor == null) {
+            xmlReader.read(IOUtils.toInputStream(xml));
+        } else {
+            xmlReader.addHandler(textExtractor);
+            XMLStreamReader xmlStreamReader =
+                    XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+            try {
+                xmlReader.read(xmlStreamReader);
+            } finally {
+                xmlStreamReader.close();
+            }
+        }
 
         XdmNode node = builder.getDocument();
 
@@ -473,9 +616,16 @@ public String getFieldSuffix(AttributeFormat format) {
         return schemaFields.getFieldSuffix(format);
     }
 
+    /**
+     * Returns the metacard type of a metacard document or of a metacard type registry document.
+     * Documents indexed before the metacard type registry hold their serialized metacard type.
+     */
     public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationException {
-        String mTypeFieldName = doc.getFirstValue(SchemaFields.METACARD_TYPE_FIELD_NAME)
-                .toString();
+        Object metacardTypeKey = doc.getFirstValue(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME);
+        String mTypeFieldName = metacardTypeKey != null ?
+                metacardTypeKey.toString() :
+                doc.getFirstValue(SchemaFields.METACARD_TYPE_FIELD_NAME)
+                        .toString();
 
         MetacardType cachedMetacardType = metacardTypesCache.get(mTypeFieldName);
 
@@ -484,6 +634,10 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
         }
 
         byte[] bytes = (byte[]) doc.getFirstValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
+        if (bytes == null) {
+            LOGGER.debug("Metacard type {} is not in the document or the cache", mTypeFieldName);
+            throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE);
+        }
 
         ByteArrayInputStream bais = null;
         ObjectInputStream in = null;
@@ -509,8 +663,10 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
             IOUtils.closeQuietly(in);
         }
 
-        metacardTypeNameToSerialCache.put(mTypeFieldName, bytes);
-        metacardTypesCache.put(mTypeFieldName, cachedMetacardType);
+        MetacardType previous = metacardTypesCache.putIfAbsent(mTypeFieldName, cachedMetacardType);
+        if (previous != null) {
+            return previous;
+        }
         addToFieldsCache(cachedMetacardType.getAttributeDescriptors());
         return cachedMetacardType;
     }
@@ -572,6 +728,35 @@ private void addToFieldsCache(Set<AttributeDescriptor> descriptors) {
         }
     }
 
+    /**
+     * Creates the key of a metacard type from its name and a hash of its attribute descriptors, so
+     * that each version of a metacard type has its own key.
+     */
+    private static String createMetacardTypeKey(MetacardType metacardType) {
+        List<String> descriptors = new ArrayList<>();
+        for (AttributeDescriptor descriptor : metacardType.getAttributeDescriptors()) {
+            AttributeType<?> type = descriptor.getType();
+            descriptors.add(String.join(" ",
+                    descriptor.getName(),
+                    String.valueOf(type.getAttributeFormat()),
+                    type.getBinding() == null ? "" : type.getBinding()
+                            .getName(),
+                    String.valueOf(descriptor.isIndexed()),
+                    String.valueOf(descriptor.isStored()),
+                    String.valueOf(descriptor.isTokenized()),
+                    String.valueOf(descriptor.isMultiValued())));
+        }
+        Collections.sort(descriptors);
+
+        Hasher hasher = Hashing.murmur3_128()
+                .newHasher();
+        for (String descriptor : descriptors) {
+            hasher.putString(descriptor, StandardCharsets.UTF_8)
+                    .putChar('\n');
+        }
+        return metacardType.getName() + METACARD_TYPE_KEY_SEPARATOR + hasher.hash();
+    }
+
     private byte[] serialize(MetacardType anywhereMType) throws MetacardCreationException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
@@ -626,7 +811,7 @@ private String findAnyMatchingNumericalField(String propertyName) {
      */
     protected List<String> parseTextFrom(List<Serializable> xmlDatas) {
 
-        StringBuilder builder = new StringBuilder();
+        TextExtractor textExtractor = new TextExtractor();
         List<String> parsedTexts = new ArrayList<>();
         XMLStreamReader xmlStreamReader = null;
         StringReader sr = null;
@@ -639,33 +824,10 @@ protected List<String> parseTextFrom(List<Serializable> xmlDatas) {
                 xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(sr);
 
                 while (xmlStreamReader.hasNext()) {
-                    int event = xmlStreamReader.next();
-
-                    if (event == XMLStreamConstants.CHARACTERS
-                            || event == XMLStreamConstants.CDATA) {
-
-                        String text = xmlStreamReader.getText();
-
-                        if (StringUtils.isNotBlank(text)) {
-                            builder.append(" ")
-                                    .append(text.trim());
-                        }
-
-                    }
-                    if (event == XMLStreamConstants.START_ELEMENT) {
-                        for (int i = 0; i < xmlStreamReader.getAttributeCount(); i++) {
-
-                            String text = xmlStreamReader.getAttributeValue(i);
-
-                            if (StringUtils.isNotBlank(text)) {
-                                builder.append(" ")
-                                        .append(text.trim());
-                            }
-                        }
-                    }
+                    textExtractor.handleEvent(xmlStreamReader, xmlStreamReader.next());
                 }
-                parsedTexts.add(builder.toString());
-                builder.setLength(0);
+                parsedTexts.add(textExtractor.getText());
+                textExtractor.reset();
             }
         } catch (XMLStreamException e1) {
             LOGGER.warn(
@@ -722,4 +884,54 @@ public String getSortKey(String field) {
     public Stream<String> anyTextFields() {
         return anyTextFieldsCache.stream();
     }
+
+    /**
+     * Collects the element text, CDATA text and attribute values of an XML document, separated by
+     * one space character.
+     */
+    private static class TextExtractor implements StAXHandler {
+
+        private final StringBuilder text = new StringBuilder();
+
+        private boolean entityReferences = false;
+
+        @Override
+        public void handleEvent(XMLStreamReader reader, int eventType) {
+            if (eventType == XMLStreamConstants.CHARACTERS
+                    || eventType == XMLStreamConstants.CDATA) {
+                append(reader.getText());
+            } else if (eventType == XMLStreamConstants.START_ELEMENT) {
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    append(reader.getAttributeValue(i));
+                }
+            } else if (eventType == XMLStreamConstants.ENTITY_REFERENCE) {
+                entityReferences = true;
+            }
+        }
+
+        @Override
+        public void reset() {
+            text.setLength(0);
+            entityReferences = false;
+        }
+
+        public String getText() {
+            return text.toString();
+        }
+
+        /**
+         * @return true if the document had entity references, which are not replaced and whose
+         * text is not extracted
+         */
+        public boolean hasEntityReferences() {
+            return entityReferences;
+        }
+
+        private void append(String value) {
+            if (StringUtils.isNotBlank(value)) {
+                text.append(" ")
+                        .append(value.trim());
+            }
+        }
+    }
 }
@@ -63,6 +63,11 @@ public class SchemaFields {
 
     public static final String METACARD_TYPE_OBJECT_FIELD_NAME = "metacard_type" + OBJECT_SUFFIX;
 
+    public static final String METACARD_TYPE_KEY_FIELD_NAME = "metacard_type_key" + TEXT_SUFFIX;
+
+    public static final String METACARD_TYPE_REGISTRY_FIELD_NAME =
+            "metacard_type_registry" + BOOLEAN_SUFFIX;
+
     public static final String SORT_KEY_SUFFIX = "_sk";
 
     private static final Map<String, AttributeFormat> SUFFIX_TO_FORMAT_MAP = new HashMap<>();
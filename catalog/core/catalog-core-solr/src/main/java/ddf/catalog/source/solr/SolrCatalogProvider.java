@@ -47,6 +47,7 @@
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.ContentTypeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
@@ -69,6 +70,7 @@
 import ddf.catalog.source.SourceMonitor;
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.util.impl.MaskableImpl;
+import ddf.catalog.util.impl.ResultIterable;
 
 /**
  * {@link CatalogProvider} implementation using Apache Solr
@@ -291,6 +293,17 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         return client.query(request);
     }
 
+    /**
+     * Iterates over all the results of a query. Pages are read with a Solr cursor, so deep pages
+     * cost as much as the first one.
+     *
+     * @param request the query, with the page size used for each page
+     * @return the results of the query, queried page by page while iterating
+     */
+    public Iterable<Result> queryAll(QueryRequest request) {
+        return new ResultIterable(this::query, request);
+    }
+
     @Override
     public CreateResponse create(CreateRequest request) throws IngestException {
         if (request == null) {
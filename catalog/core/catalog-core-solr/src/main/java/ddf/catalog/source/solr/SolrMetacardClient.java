@@ -18,7 +18,9 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Transformer;
@@ -28,16 +30,19 @@
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.locationtech.spatial4j.distance.DistanceUtils;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ddf.catalog.Constants;
 import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
@@ -86,11 +91,17 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
 
         SolrQuery query = getSolrQuery(request, filterDelegateFactory.newInstance(resolver));
         String sortProperty = getSortProperty(request, query);
+        setResultFields(request, query);
+        boolean cursorQuery = setCursor(request, query);
 
         long totalHits;
+        String nextCursor = null;
         List<Result> results = new ArrayList<>();
         try {
             QueryResponse solrResponse = client.query(query, SolrRequest.METHOD.POST);
+            if (cursorQuery) {
+                nextCursor = solrResponse.getNextCursorMark();
+            }
             totalHits = solrResponse.getResults()
                     .getNumFound();
             SolrDocumentList docs = solrResponse.getResults();
@@ -103,7 +114,6 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
                 ResultImpl tmpResult;
                 try {
                     tmpResult = createResult(doc, sortProperty);
-                    // TODO: register metacard type???
                 } catch (MetacardCreationException e) {
                     LOGGER.warn("Metacard creation exception creating result", e);
                     throw new UnsupportedQueryException("Could not create metacard(s).");
@@ -125,12 +135,18 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         /* Total Count */
         sourceResponseImpl.setHits(totalHits);
 
+        if (nextCursor != null) {
+            sourceResponseImpl.getProperties()
+                    .put(Constants.QUERY_NEXT_CURSOR_KEY, nextCursor);
+        }
+
         return sourceResponseImpl;
     }
 
     public List<Metacard> query(String queryString) throws UnsupportedQueryException {
         SolrQuery query = new SolrQuery();
         query.setQuery(queryString);
+        excludeMetacardTypes(query);
         try {
             QueryResponse solrResponse = client.query(query, SolrRequest.METHOD.POST);
             SolrDocumentList docs = solrResponse.getResults();
@@ -159,10 +175,18 @@ protected SolrQuery getSolrQuery(QueryRequest request, SolrFilterDelegate solrFi
                 .getSortBy());
 
         SolrQuery query = filterAdapter.adapt(request.getQuery(), solrFilterDelegate);
+        excludeMetacardTypes(query);
 
         return postAdapt(request, solrFilterDelegate, query);
     }
 
+    /**
+     * Keeps the documents of the metacard type registry out of the results of a query.
+     */
+    protected void excludeMetacardTypes(SolrQuery query) {
+        query.addFilterQuery("-" + SchemaFields.METACARD_TYPE_REGISTRY_FIELD_NAME + ":true");
+    }
+
     protected SolrQuery postAdapt(QueryRequest request, SolrFilterDelegate filterDelegate,
             SolrQuery query) throws UnsupportedQueryException {
         if (LOGGER.isDebugEnabled()) {
@@ -195,6 +219,56 @@ protected SolrQuery postAdapt(QueryRequest request, SolrFilterDelegate filterDel
         return query;
     }
 
+    /**
+     * Limits the returned fields to those of the attributes in the
+     * {@link Constants#QUERY_RESULT_ATTRIBUTES_KEY} request property, if any. The id and the
+     * metacard type are always returned so that the partial metacards can be created.
+     */
+    protected void setResultFields(QueryRequest request, SolrQuery query) {
+        Serializable attributes = request.getPropertyValue(Constants.QUERY_RESULT_ATTRIBUTES_KEY);
+        if (!(attributes instanceof Collection) || ((Collection<?>) attributes).isEmpty()) {
+            return;
+        }
+
+        Set<String> fields = new LinkedHashSet<>();
+        fields.addAll(resolver.getAnonymousField(Metacard.ID));
+        fields.add(SchemaFields.METACARD_TYPE_FIELD_NAME);
+        fields.add(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
+        fields.add(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME);
+        fields.add(RELEVANCE_SORT_FIELD);
+        for (Object attribute : (Collection<?>) attributes) {
+            fields.addAll(resolver.getAnonymousField(String.valueOf(attribute)));
+        }
+
+        query.setFields(fields.toArray(new String[fields.size()]));
+    }
+
+    /**
+     * Pages from the cursor in the {@link Constants#QUERY_CURSOR_KEY} request property, if any.
+     * Solr requires the results of a cursor query to be sorted on the unique key last, so that
+     * their order is stable.
+     *
+     * @return whether the query is a cursor query
+     */
+    protected boolean setCursor(QueryRequest request, SolrQuery query) {
+        Serializable cursor = request.getPropertyValue(Constants.QUERY_CURSOR_KEY);
+        if (cursor == null) {
+            return false;
+        }
+
+        String idField = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+        boolean sortedById = query.getSorts()
+                .stream()
+                .anyMatch(sortClause -> idField.equals(sortClause.getItem()));
+        if (!sortedById) {
+            query.addSort(idField, SolrQuery.ORDER.asc);
+        }
+
+        query.setStart(0);
+        query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursor.toString());
+        return true;
+    }
+
     private void checkSpatialFunction(SolrFilterDelegate solrFilterDelegate, SolrQuery query) {
         if (solrFilterDelegate.isSortedByDistance()) {
             String queryPhrase = query.getQuery()
@@ -278,7 +352,7 @@ private Double degreesToMeters(double distance) {
     }
 
     public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationException {
-        MetacardType metacardType = resolver.getMetacardType(doc);
+        MetacardType metacardType = getMetacardType(doc);
         MetacardImpl metacard = new MetacardImpl(metacardType);
 
         for (String solrFieldName : doc.getFieldNames()) {
@@ -293,6 +367,35 @@ public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationExce
         return metacard;
     }
 
+    /**
+     * Resolves the metacard type of a document, reading it from the metacard type registry the
+     * first time it is seen.
+     */
+    protected MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationException {
+        String metacardTypeKey = resolver.getUnresolvedMetacardTypeKey(doc);
+        if (metacardTypeKey == null) {
+            return resolver.getMetacardType(doc);
+        }
+
+        SolrQuery query = new SolrQuery(Metacard.ID + SchemaFields.TEXT_SUFFIX + ":"
+                + ClientUtils.escapeQueryChars(resolver.getMetacardTypeId(metacardTypeKey)));
+        query.setRows(1);
+        try {
+            SolrDocumentList metacardTypeDocs = client.query(query, SolrRequest.METHOD.POST)
+                    .getResults();
+            if (metacardTypeDocs.isEmpty()) {
+                LOGGER.warn("Metacard type {} is not in the metacard type registry",
+                        metacardTypeKey);
+                throw new MetacardCreationException(
+                        "Could not find MetacardType " + metacardTypeKey);
+            }
+            return resolver.getMetacardType(metacardTypeDocs.get(0));
+        } catch (SolrServerException | SolrException | IOException e) {
+            LOGGER.warn("Failure reading metacard type {} from Solr.", metacardTypeKey, e);
+            throw new MetacardCreationException("Could not read MetacardType " + metacardTypeKey);
+        }
+    }
+
     public List<SolrInputDocument> add(List<Metacard> metacards, boolean forceAutoCommit)
             throws IOException, SolrServerException, MetacardCreationException {
         if (metacards == null || metacards.size() == 0) {
@@ -304,10 +407,18 @@ public List<SolrInputDocument> add(List<Metacard> metacards, boolean forceAutoCo
             docs.add(getSolrInputDocument(metacard));
         }
 
+        // The metacard types are added to the registry with every batch of their metacards
+        List<SolrInputDocument> metacardTypeDocs = resolver.getMetacardTypeDocuments(docs);
+        List<SolrInputDocument> allDocs = docs;
+        if (!metacardTypeDocs.isEmpty()) {
+            allDocs = new ArrayList<>(docs);
+            allDocs.addAll(metacardTypeDocs);
+        }
+
         if (!forceAutoCommit) {
-            client.add(docs);
+            client.add(allDocs);
         } else {
-            softCommit(docs);
+            softCommit(allDocs);
         }
 
         return docs;
@@ -14,24 +14,31 @@
 package ddf.catalog.source.solr;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.Matchers.eq;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrInputDocument;
 import org.junit.Test;
-import org.mockito.ArgumentCaptor;
 
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
@@ -39,6 +46,8 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
 
 public class DynamicSchemaResolverTest {
     /**
@@ -72,17 +81,20 @@ public void testAddFields() throws Exception {
         when(mockMetacard.getMetacardType()
                 .getAttributeDescriptors()).thenReturn(addtributeDescriptors);
         when(mockMetacard.getAttribute(name)).thenReturn(mockAttribute);
-        ArgumentCaptor<byte[]> metacardTypeBytes = ArgumentCaptor.forClass(byte[].class);
-        SolrInputDocument mockSolrInputDocument = mock(SolrInputDocument.class);
+        SolrInputDocument solrInputDocument = new SolrInputDocument();
         DynamicSchemaResolver resolver = new DynamicSchemaResolver();
 
         // Perform Test
-        resolver.addFields(mockMetacard, mockSolrInputDocument);
+        resolver.addFields(mockMetacard, solrInputDocument);
+        List<SolrInputDocument> metacardTypeDocuments = resolver.getMetacardTypeDocuments(
+                Collections.singletonList(solrInputDocument));
 
         // Verify: Verify that TestAttributeDescritorImpl has been recreated as a AttributeDescriptorImpl.
-        verify(mockSolrInputDocument).addField(eq(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME),
-                metacardTypeBytes.capture());
-        byte[] serializedMetacardType = metacardTypeBytes.getValue();
+        assertThat(solrInputDocument.getFieldValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME),
+                nullValue());
+        assertThat(metacardTypeDocuments, hasSize(1));
+        byte[] serializedMetacardType = (byte[]) metacardTypeDocuments.get(0)
+                .getFieldValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
         MetacardType metacardType = deserializeMetacardType(serializedMetacardType);
         for (AttributeDescriptor attributeDescriptor : metacardType.getAttributeDescriptors()) {
             assertThat(attributeDescriptor.getClass()
@@ -90,6 +102,137 @@ public void testAddFields() throws Exception {
         }
     }
 
+    /**
+     * Verify that the text extracted while building the XPath index of the metadata is the same as
+     * the text extracted from the metadata on its own, and that it is added to each text field.
+     */
+    @Test
+    public void testAddFieldsMetadataText() throws Exception {
+        String metadata = "<a b=\"attribute\"><c>element</c><d><![CDATA[cdata]]></d></a>";
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setMetadata(metadata);
+        SolrInputDocument solrInputDocument = new SolrInputDocument();
+        DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+
+        resolver.addFields(metacard, solrInputDocument);
+
+        String text = resolver.parseTextFrom(Collections.<Serializable>singletonList(metadata))
+                .get(0);
+        assertThat(text, is(" attribute element cdata"));
+        String textField = Metacard.METADATA + SchemaFields.TEXT_SUFFIX;
+        for (String field : new String[] {textField + SchemaFields.WHITESPACE_TEXT_SUFFIX,
+                textField + SchemaFields.WHITESPACE_TEXT_SUFFIX + SchemaFields.HAS_CASE,
+                textField + SchemaFields.TOKENIZED,
+                textField + SchemaFields.TOKENIZED + SchemaFields.HAS_CASE}) {
+            assertThat(field, solrInputDocument.getFieldValues(field), contains((Object) text));
+        }
+        assertThat(solrInputDocument.getFieldValue(DynamicSchemaResolver.LUX_XML_FIELD_NAME),
+                notNullValue());
+    }
+
+    /**
+     * Verify that the text extracted while building the XPath index of the metadata keeps CDATA
+     * apart from the text next to it, and leaves entity references unreplaced, as when the text
+     * is extracted from the metadata on its own.
+     */
+    @Test
+    public void testAddFieldsMetadataTextWithCdataAndEntities() throws Exception {
+        String metadata = "<!DOCTYPE a [<!ENTITY e \"entity\">]>"
+                + "<a>text<![CDATA[cdata]]> &amp; <b>&e;</b></a>";
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setMetadata(metadata);
+        SolrInputDocument solrInputDocument = new SolrInputDocument();
+        DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+
+        resolver.addFields(metacard, solrInputDocument);
+
+        String text = resolver.parseTextFrom(Collections.<Serializable>singletonList(metadata))
+                .get(0);
+        assertThat(text, is(" text cdata &"));
+        assertThat(solrInputDocument.getFieldValues(
+                Metacard.METADATA + SchemaFields.TEXT_SUFFIX + SchemaFields.TOKENIZED),
+                contains((Object) text));
+        assertThat(solrInputDocument.getFieldValue(DynamicSchemaResolver.LUX_XML_FIELD_NAME),
+                notNullValue());
+    }
+
+    /**
+     * Verify that each batch of documents carries one metacard type registry document per metacard
+     * type, and that documents referencing it can be read back from the registry.
+     */
+    @Test
+    public void testMetacardTypeRegistry() throws Exception {
+        DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+        MetacardImpl first = new MetacardImpl();
+        first.setId("first");
+        MetacardImpl second = new MetacardImpl();
+        second.setId("second");
+        SolrInputDocument firstDocument = new SolrInputDocument();
+        SolrInputDocument secondDocument = new SolrInputDocument();
+        resolver.addFields(first, firstDocument);
+        resolver.addFields(second, secondDocument);
+        List<SolrInputDocument> documents = Arrays.asList(firstDocument, secondDocument);
+
+        List<SolrInputDocument> metacardTypeDocuments =
+                resolver.getMetacardTypeDocuments(documents);
+        assertThat(metacardTypeDocuments, hasSize(1));
+        SolrInputDocument metacardTypeDocument = metacardTypeDocuments.get(0);
+        String metacardTypeKey = firstDocument.getFieldValue(
+                SchemaFields.METACARD_TYPE_KEY_FIELD_NAME)
+                .toString();
+        assertThat(metacardTypeDocument.getFieldValue(Metacard.ID + SchemaFields.TEXT_SUFFIX),
+                is(resolver.getMetacardTypeId(metacardTypeKey)));
+
+        // Every batch carries the registry document, in case it was deleted since
+        List<SolrInputDocument> nextMetacardTypeDocuments =
+                resolver.getMetacardTypeDocuments(documents);
+        assertThat(nextMetacardTypeDocuments, hasSize(1));
+        assertThat(nextMetacardTypeDocuments.get(0)
+                        .getFieldValue(Metacard.ID + SchemaFields.TEXT_SUFFIX),
+                is(resolver.getMetacardTypeId(metacardTypeKey)));
+
+        DynamicSchemaResolver reader = new DynamicSchemaResolver();
+        SolrDocument document = toSolrDocument(firstDocument);
+        assertThat(reader.getUnresolvedMetacardTypeKey(document), is(metacardTypeKey));
+
+        MetacardType metacardType =
+                reader.getMetacardType(toSolrDocument(metacardTypeDocument));
+        assertThat(metacardType.getName(), is(BasicTypes.BASIC_METACARD.getName()));
+        assertThat(metacardType.getAttributeDescriptors(),
+                is(BasicTypes.BASIC_METACARD.getAttributeDescriptors()));
+        assertThat(reader.getUnresolvedMetacardTypeKey(document), nullValue());
+        assertThat(reader.getMetacardType(document), sameInstance(metacardType));
+    }
+
+    /**
+     * Verify that metacard types with the same name but different attribute descriptors are
+     * registered under different keys.
+     */
+    @Test
+    public void testMetacardTypeKeyVersions() throws Exception {
+        DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+        Set<AttributeDescriptor> descriptors =
+                new HashSet<>(BasicTypes.BASIC_METACARD.getAttributeDescriptors());
+        MetacardTypeImpl original = new MetacardTypeImpl("versioned", descriptors);
+        descriptors.add(new AttributeDescriptorImpl("extra",
+                true,
+                true,
+                false,
+                false,
+                BasicTypes.STRING_TYPE));
+        MetacardTypeImpl extended = new MetacardTypeImpl("versioned", descriptors);
+
+        SolrInputDocument originalDocument = new SolrInputDocument();
+        SolrInputDocument extendedDocument = new SolrInputDocument();
+        resolver.addFields(new MetacardImpl(original), originalDocument);
+        resolver.addFields(new MetacardImpl(extended), extendedDocument);
+
+        assertThat(originalDocument.getFieldValue(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME),
+                not(extendedDocument.getFieldValue(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME)));
+        assertThat(resolver.getMetacardTypeDocuments(Arrays.asList(originalDocument,
+                extendedDocument)), hasSize(2));
+    }
+
     private MetacardType deserializeMetacardType(byte[] serializedMetacardType)
             throws ClassNotFoundException, IOException {
         ByteArrayInputStream bais = new ByteArrayInputStream((byte[]) serializedMetacardType);
@@ -99,5 +242,12 @@ private MetacardType deserializeMetacardType(byte[] serializedMetacardType)
         IOUtils.closeQuietly(in);
         return metacardType;
     }
-}
 
+    private static SolrDocument toSolrDocument(SolrInputDocument solrInputDocument) {
+        SolrDocument solrDocument = new SolrDocument();
+        for (String fieldName : solrInputDocument.getFieldNames()) {
+            solrDocument.setField(fieldName, solrInputDocument.getFieldValues(fieldName));
+        }
+        return solrDocument;
+    }
+}
@@ -21,6 +21,7 @@
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.solr.client.solrj.SolrClient;
 import org.codice.solr.factory.ConfigurationFileProxy;
 import org.codice.solr.factory.ConfigurationStore;
 import org.codice.solr.factory.EmbeddedSolrFactory;
@@ -72,6 +73,8 @@ public abstract class SolrProviderTestCase {
 
     protected static TestSolrFilterBuilder filterBuilder = new TestSolrFilterBuilder();
 
+    protected static SolrClient solrClient = null;
+
     protected static SolrCatalogProvider provider = null;
 
     private static String threadPoolSize;
@@ -97,10 +100,11 @@ public static void setup() throws Exception {
         ConfigurationFileProxy configurationFileProxy = new ConfigurationFileProxy(
                 ConfigurationStore.getInstance());
 
-        provider = new SolrCatalogProvider(EmbeddedSolrFactory.getEmbeddedSolrServer(
-                "solrconfig-inmemory.xml",
+        solrClient = EmbeddedSolrFactory.getEmbeddedSolrServer("solrconfig-inmemory.xml",
                 "schema.xml",
-                configurationFileProxy),
+                configurationFileProxy);
+
+        provider = new SolrCatalogProvider(solrClient,
                 new GeotoolsFilterAdapterImpl(),
                 new SolrFilterDelegateFactoryImpl());
 
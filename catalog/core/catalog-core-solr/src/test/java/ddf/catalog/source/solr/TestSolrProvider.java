@@ -41,6 +41,7 @@
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -74,6 +75,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ddf.catalog.Constants;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
@@ -84,6 +86,7 @@
 import ddf.catalog.data.impl.ContentTypeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteRequest;
@@ -328,6 +331,145 @@ public void testCreateOperation() throws IngestException, UnsupportedQueryExcept
 
     }
 
+    /**
+     * Tests that metacards can still be read by a provider that has not seen their metacard type
+     * after the metacard type registry document has been deleted and the metacards re-ingested.
+     */
+    @Test
+    public void testCreateAfterMetacardTypeRegistryDocumentIsDeleted() throws Exception {
+
+        deleteAllIn(provider);
+
+        create(new MockMetacard(Library.getFlagstaffRecord()));
+
+        solrClient.deleteByQuery(SchemaFields.METACARD_TYPE_REGISTRY_FIELD_NAME + ":true");
+        solrClient.commit();
+
+        create(new MockMetacard(Library.getFlagstaffRecord()));
+
+        // A new provider has an empty metacard type cache, like the provider of another node
+        SolrCatalogProvider otherProvider = new SolrCatalogProvider(solrClient,
+                new GeotoolsFilterAdapterImpl(),
+                new SolrFilterDelegateFactoryImpl());
+        otherProvider.setId(MASKED_ID);
+
+        FilterFactory filterFactory = new FilterFactoryImpl();
+        Filter filter = filterFactory.like(filterFactory.property(Metacard.TITLE),
+                MockMetacard.DEFAULT_TITLE,
+                DEFAULT_TEST_WILDCARD,
+                DEFAULT_TEST_SINGLE_WILDCARD,
+                DEFAULT_TEST_ESCAPE,
+                false);
+
+        SourceResponse sourceResponse = otherProvider.query(new QueryRequestImpl(new QueryImpl(
+                filter)));
+
+        List<Result> results = sourceResponse.getResults();
+        assertEquals(2, results.size());
+        for (Result result : results) {
+            assertEquals(MockMetacard.DEFAULT_TITLE,
+                    result.getMetacard()
+                            .getTitle());
+        }
+    }
+
+    /**
+     * Tests that pages read from the cursor returned with the previous page hold the following
+     * results, and that {@link SolrCatalogProvider#queryAll(QueryRequest)} reads all of them.
+     */
+    @Test
+    public void testCursorPagingPastFirstPage() throws Exception {
+
+        deleteAllIn(provider);
+
+        List<Metacard> metacards = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            metacards.add(new MockMetacard(Library.getFlagstaffRecord()));
+        }
+        create(metacards);
+
+        FilterFactory filterFactory = new FilterFactoryImpl();
+        Filter filter = filterFactory.like(filterFactory.property(Metacard.TITLE),
+                MockMetacard.DEFAULT_TITLE,
+                DEFAULT_TEST_WILDCARD,
+                DEFAULT_TEST_SINGLE_WILDCARD,
+                DEFAULT_TEST_ESCAPE,
+                false);
+        QueryImpl query = new QueryImpl(filter);
+        query.setPageSize(10);
+
+        List<Integer> pageSizes = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        Serializable cursor = Constants.QUERY_INITIAL_CURSOR;
+        while (cursor != null) {
+            Map<String, Serializable> properties = new HashMap<>();
+            properties.put(Constants.QUERY_CURSOR_KEY, cursor);
+            SourceResponse sourceResponse = provider.query(new QueryRequestImpl(query,
+                    properties));
+
+            List<Result> results = sourceResponse.getResults();
+            pageSizes.add(results.size());
+            for (Result result : results) {
+                assertTrue("Result returned on more than one page",
+                        ids.add(result.getMetacard()
+                                .getId()));
+            }
+            assertEquals(25, sourceResponse.getHits());
+
+            Serializable nextCursor = sourceResponse.getProperties()
+                    .get(Constants.QUERY_NEXT_CURSOR_KEY);
+            assertNotNull(nextCursor);
+            cursor = results.size() < query.getPageSize() ? null : nextCursor;
+        }
+
+        assertEquals(Arrays.asList(10, 10, 5), pageSizes);
+        assertEquals(25, ids.size());
+
+        Set<String> allIds = new HashSet<>();
+        for (Result result : provider.queryAll(new QueryRequestImpl(query))) {
+            allIds.add(result.getMetacard()
+                    .getId());
+        }
+        assertEquals(ids, allIds);
+    }
+
+    /**
+     * Tests that only the requested attributes of the results are returned, along with their id.
+     */
+    @Test
+    public void testResultAttributesProjection() throws Exception {
+
+        deleteAllIn(provider);
+
+        MockMetacard metacard = new MockMetacard(Library.getFlagstaffRecord());
+        create(metacard);
+
+        FilterFactory filterFactory = new FilterFactoryImpl();
+        Filter filter = filterFactory.like(filterFactory.property(Metacard.TITLE),
+                MockMetacard.DEFAULT_TITLE,
+                DEFAULT_TEST_WILDCARD,
+                DEFAULT_TEST_SINGLE_WILDCARD,
+                DEFAULT_TEST_ESCAPE,
+                false);
+        Map<String, Serializable> properties = new HashMap<>();
+        properties.put(Constants.QUERY_RESULT_ATTRIBUTES_KEY,
+                new ArrayList<>(Arrays.asList(Metacard.TITLE, Metacard.CONTENT_TYPE)));
+
+        SourceResponse sourceResponse = provider.query(new QueryRequestImpl(new QueryImpl(
+                filter), properties));
+
+        List<Result> results = sourceResponse.getResults();
+        assertEquals(1, results.size());
+        Metacard mResult = results.get(0)
+                .getMetacard();
+        assertNotNull(mResult.getId());
+        assertEquals(MockMetacard.DEFAULT_TITLE, mResult.getTitle());
+        assertEquals(MockMetacard.DEFAULT_TYPE, mResult.getContentTypeName());
+        assertThat(mResult.getAttribute(Metacard.METADATA), nullValue());
+        assertThat(mResult.getAttribute(Metacard.GEOGRAPHY), nullValue());
+        assertThat(mResult.getAttribute(Metacard.CONTENT_TYPE_VERSION), nullValue());
+    }
+
     @Test(expected = IngestException.class)
     public void testCreateOperationWithSourceIdNoId()
             throws IngestException, UnsupportedQueryException {
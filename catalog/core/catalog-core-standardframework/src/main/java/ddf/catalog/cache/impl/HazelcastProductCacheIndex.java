@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+
+import ddf.catalog.resource.data.ReliableResource;
+
+/**
+ * {@link ProductCacheIndex} shared by the nodes of a cluster through a Hazelcast map. The least
+ * recently cached products are evicted by the {@link ProductCacheDirListener}.
+ * <p>
+ * Evictions and rejections are not counted.
+ */
+class HazelcastProductCacheIndex implements ProductCacheIndex {
+
+    private static final String PRODUCT_CACHE_NAME = "Product_Cache";
+
+    private final HazelcastInstance instance;
+
+    private final boolean ownsInstance;
+
+    private final IMap<Object, Object> cache;
+
+    private final ProductCacheDirListener<Object, Object> cacheListener;
+
+    private final String cacheListenerId;
+
+    /**
+     * @param instance     the Hazelcast instance holding the map
+     * @param maxSizeBytes the maximum size of the products, or 0 for no limit
+     * @param ownsInstance {@code true} to shut the instance down when the index is closed
+     */
+    HazelcastProductCacheIndex(HazelcastInstance instance, long maxSizeBytes,
+            boolean ownsInstance) {
+        this.instance = instance;
+        this.ownsInstance = ownsInstance;
+        this.cache = instance.getMap(PRODUCT_CACHE_NAME);
+        this.cacheListener = new ProductCacheDirListener<>(maxSizeBytes);
+        cacheListener.setHazelcastInstance(instance);
+        this.cacheListenerId = cache.addEntryListener(cacheListener, true);
+    }
+
+    @Override
+    public ReliableResource get(String key) {
+        return (ReliableResource) cache.get(key);
+    }
+
+    @Override
+    public void put(ReliableResource reliableResource) {
+        cache.put(reliableResource.getKey(), reliableResource);
+    }
+
+    @Override
+    public void remove(String key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        // Products are evicted in the order they were cached
+    }
+
+    @Override
+    public long getMaxSizeBytes() {
+        return cacheListener.getMaxDirSizeBytes();
+    }
+
+    @Override
+    public void setMaxSizeBytes(long maxSizeBytes) {
+        cacheListener.setMaxDirSizeBytes(maxSizeBytes);
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public long getSizeBytes() {
+        return cacheListener.getCacheDirSizeBytes();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return 0;
+    }
+
+    @Override
+    public long getEvictedBytes() {
+        return 0;
+    }
+
+    @Override
+    public long getRejectionCount() {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        if (ownsInstance) {
+            instance.shutdown();
+        } else {
+            cache.removeEntryListener(cacheListenerId);
+        }
+    }
+}
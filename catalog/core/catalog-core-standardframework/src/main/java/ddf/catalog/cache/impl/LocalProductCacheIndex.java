@@ -0,0 +1,593 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.resource.data.ReliableResource;
+
+/**
+ * {@link ProductCacheIndex} of a single node, held in memory and persisted to an append-only index
+ * file in the product cache directory.
+ * <p>
+ * When the products exceed the maximum size, the least recently used products are evicted in the
+ * background. A product that is added to a full index is only kept if it was requested more often
+ * than each of the products it would displace, as estimated by a {@link FrequencySketch}; otherwise
+ * the new product is removed instead. This way a large product that is requested once does not
+ * flush the products that are requested all the time. A product larger than the maximum size is
+ * never kept.
+ * <p>
+ * Every put and remove appends a record to the index file, which is read back when the index is
+ * created. The file is rewritten with the current entries only once it holds more than twice as
+ * many records as entries. The order of the entries is restored from the order of the records, so
+ * products read since they were added are not more recent after a restart. The products in the
+ * product cache directory that are not the product of an entry, such as products cached by a
+ * clustered index or before the index file was lost, are deleted when the index is created. Files
+ * that are not named like products are never deleted.
+ */
+class LocalProductCacheIndex implements ProductCacheIndex {
+
+    static final String INDEX_FILE_NAME = ".product-cache-index";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalProductCacheIndex.class);
+
+    private static final int INDEX_FILE_VERSION = 0x50430001;
+
+    private static final byte PUT = 1;
+
+    private static final byte REMOVE = 2;
+
+    private static final int EXPECTED_ENTRIES = 4096;
+
+    /**
+     * Names of the products of the local catalog, which are named after their
+     * {@link CacheKey}: {@code <sourceId>-<metacardId>[_<option>-<value>]}
+     */
+    private static final Pattern PRODUCT_FILE_NAME = Pattern.compile(
+            "[^.].*-[0-9a-fA-F]{32}(_.+)?");
+
+    private final Path indexFile;
+
+    private final Executor evictionExecutor;
+
+    private final FrequencySketch sketch = new FrequencySketch(EXPECTED_ENTRIES);
+
+    /**
+     * Entries from the least to the most recently used
+     */
+    private final LinkedHashMap<String, ReliableResource> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Keys of the entries that were added over the maximum size since eviction last ran
+     */
+    private final Queue<String> candidates = new ArrayDeque<>();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final AtomicLong evictedBytes = new AtomicLong();
+
+    private final AtomicLong rejectionCount = new AtomicLong();
+
+    private DataOutputStream indexOutput;
+
+    private int records;
+
+    private long sizeBytes;
+
+    private long maxSizeBytes;
+
+    private boolean evictionScheduled;
+
+    /**
+     * Creates the index of a product cache directory, loading the entries of its index file.
+     *
+     * @param productCacheDirectory the product cache directory
+     * @param maxSizeBytes          the maximum size of the products, or 0 for no limit
+     */
+    LocalProductCacheIndex(Path productCacheDirectory, long maxSizeBytes) {
+        this(productCacheDirectory, maxSizeBytes, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-cache-eviction");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    LocalProductCacheIndex(Path productCacheDirectory, long maxSizeBytes,
+            Executor evictionExecutor) {
+        this.indexFile = productCacheDirectory.resolve(INDEX_FILE_NAME);
+        this.maxSizeBytes = maxSizeBytes;
+        this.evictionExecutor = evictionExecutor;
+
+        long start = System.currentTimeMillis();
+        load();
+        LOGGER.debug("Loaded {} product cache entries from {} in {} ms",
+                entries.size(),
+                indexFile,
+                System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public synchronized ReliableResource get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(ReliableResource reliableResource) {
+        String key = reliableResource.getKey();
+        ReliableResource previous = entries.put(key, reliableResource);
+        sizeBytes += weight(reliableResource) - weight(previous);
+        appendPut(reliableResource);
+
+        if (maxSizeBytes > 0 && sizeBytes > maxSizeBytes) {
+            if (previous == null) {
+                candidates.add(key);
+            }
+            scheduleEviction();
+        }
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        ReliableResource removed = entries.remove(key);
+        if (removed != null) {
+            sizeBytes -= weight(removed);
+            appendRemove(key);
+        }
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        sketch.increment(key);
+    }
+
+    @Override
+    public synchronized long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    @Override
+    public synchronized void setMaxSizeBytes(long maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+        if (maxSizeBytes > 0 && sizeBytes > maxSizeBytes) {
+            scheduleEviction();
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public long getEvictedBytes() {
+        return evictedBytes.get();
+    }
+
+    @Override
+    public long getRejectionCount() {
+        return rejectionCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (evictionExecutor instanceof ExecutorService) {
+            ((ExecutorService) evictionExecutor).shutdownNow();
+        }
+        synchronized (this) {
+            IOUtils.closeQuietly(indexOutput);
+            indexOutput = null;
+        }
+    }
+
+    private void scheduleEviction() {
+        if (!evictionScheduled) {
+            evictionScheduled = true;
+            try {
+                evictionExecutor.execute(this::evict);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Product cache index is closed, not evicting products", e);
+            }
+        }
+    }
+
+    /**
+     * Admits or rejects the entries added over the maximum size, then evicts the least recently
+     * used entries until the products fit in the maximum size.
+     */
+    void evict() {
+        List<ReliableResource> removed = new ArrayList<>();
+        synchronized (this) {
+            evictionScheduled = false;
+
+            String key;
+            while ((key = candidates.poll()) != null) {
+                admit(key, removed);
+            }
+
+            Iterator<ReliableResource> leastRecentlyUsed = entries.values()
+                    .iterator();
+            while (maxSizeBytes > 0 && sizeBytes > maxSizeBytes && leastRecentlyUsed.hasNext()) {
+                ReliableResource victim = leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+                evicted(victim, removed);
+            }
+
+            if (records > 2 * entries.size() + 16) {
+                compact();
+            }
+        }
+
+        for (ReliableResource reliableResource : removed) {
+            deleteProduct(reliableResource);
+        }
+    }
+
+    private void admit(String key, List<ReliableResource> removed) {
+        ReliableResource candidate = entries.get(key);
+        if (candidate == null || maxSizeBytes <= 0 || sizeBytes <= maxSizeBytes) {
+            return;
+        }
+
+        if (weight(candidate) > maxSizeBytes) {
+            LOGGER.debug("Product {} is larger than the product cache, removing it", key);
+            rejected(candidate, removed);
+            return;
+        }
+
+        // Find the least recently used entries that would have to go to make room for the candidate
+        long excess = sizeBytes - maxSizeBytes;
+        int victimFrequency = 0;
+        List<ReliableResource> victims = new ArrayList<>();
+        for (ReliableResource entry : entries.values()) {
+            if (excess <= 0) {
+                break;
+            }
+            if (entry != candidate) {
+                victims.add(entry);
+                excess -= weight(entry);
+                victimFrequency = Math.max(victimFrequency, sketch.frequency(entry.getKey()));
+            }
+        }
+
+        if (sketch.frequency(key) > victimFrequency) {
+            for (ReliableResource victim : victims) {
+                entries.remove(victim.getKey());
+                evicted(victim, removed);
+            }
+        } else {
+            LOGGER.debug("Product {} is not requested often enough to be cached, removing it", key);
+            rejected(candidate, removed);
+        }
+    }
+
+    private void evicted(ReliableResource victim, List<ReliableResource> removed) {
+        LOGGER.debug("Evicting product {} from the product cache", victim.getKey());
+        long weight = weight(victim);
+        sizeBytes -= weight;
+        appendRemove(victim.getKey());
+        evictionCount.incrementAndGet();
+        evictedBytes.addAndGet(weight);
+        removed.add(victim);
+    }
+
+    private void rejected(ReliableResource candidate, List<ReliableResource> removed) {
+        entries.remove(candidate.getKey());
+        sizeBytes -= weight(candidate);
+        appendRemove(candidate.getKey());
+        rejectionCount.incrementAndGet();
+        removed.add(candidate);
+    }
+
+    private void deleteProduct(ReliableResource reliableResource) {
+        if (reliableResource.getFilePath() == null) {
+            return;
+        }
+
+        File file = new File(reliableResource.getFilePath());
+        if (file.exists() && !file.delete()) {
+            LOGGER.info("Could not delete file {}", file.getAbsolutePath());
+        }
+    }
+
+    private static long weight(ReliableResource reliableResource) {
+        return reliableResource == null ? 0 : Math.max(reliableResource.getSize(), 0);
+    }
+
+    private void load() {
+        boolean validIndex = true;
+        if (Files.isRegularFile(indexFile)) {
+            long validLength = read();
+            if (validLength < 0) {
+                LOGGER.info("Product cache index {} is not valid, starting with an empty cache",
+                        indexFile);
+                entries.clear();
+                records = 0;
+                validIndex = false;
+            } else {
+                try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+                    if (channel.size() > validLength) {
+                        LOGGER.info("Discarding incomplete record at the end of {}", indexFile);
+                        channel.truncate(validLength);
+                    }
+                } catch (IOException e) {
+                    LOGGER.info("Unable to truncate product cache index {}", indexFile, e);
+                }
+            }
+        }
+
+        // Products deleted from the product cache directory while the index was closed
+        Iterator<ReliableResource> iterator = entries.values()
+                .iterator();
+        while (iterator.hasNext()) {
+            ReliableResource reliableResource = iterator.next();
+            if (reliableResource.hasProduct()) {
+                sizeBytes += weight(reliableResource);
+            } else {
+                iterator.remove();
+            }
+        }
+
+        deleteUnknownProducts(validIndex);
+
+        if (records == 0 || records > entries.size()) {
+            compact();
+        } else {
+            openIndexOutput(indexFile);
+        }
+    }
+
+    /**
+     * Deletes the products of the product cache directory that are not the product of an entry.
+     * They can never be served from the cache, and would take up room in the directory that is not
+     * counted against the maximum size. Only the files named like the cache keys of products of
+     * the local catalog are deleted, so other files in the directory are kept. When the index file
+     * is not valid, the unknown products are only logged.
+     *
+     * @param validIndex whether the entries were read from a valid index file, or there was none
+     */
+    private void deleteUnknownProducts(boolean validIndex) {
+        Path productCacheDirectory = indexFile.getParent();
+        if (!Files.isDirectory(productCacheDirectory)) {
+            return;
+        }
+
+        Set<Path> products = new HashSet<>();
+        for (ReliableResource reliableResource : entries.values()) {
+            products.add(reliableResource.getPath()
+                    .toAbsolutePath()
+                    .normalize());
+        }
+
+        int deletedCount = 0;
+        long deletedBytes = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(productCacheDirectory)) {
+            for (Path file : files) {
+                if (!Files.isRegularFile(file) || !PRODUCT_FILE_NAME.matcher(file.getFileName()
+                        .toString())
+                        .matches() || products.contains(file.toAbsolutePath()
+                        .normalize())) {
+                    continue;
+                }
+
+                if (!validIndex) {
+                    LOGGER.info("Keeping product {} that is not in product cache index {}",
+                            file,
+                            indexFile);
+                    continue;
+                }
+
+                try {
+                    long size = Files.size(file);
+                    Files.delete(file);
+                    deletedCount++;
+                    deletedBytes += size;
+                } catch (IOException e) {
+                    LOGGER.info("Could not delete file {}", file, e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.info("Unable to list product cache directory {}", productCacheDirectory, e);
+        }
+
+        if (deletedCount > 0) {
+            LOGGER.info("Deleted {} products ({} bytes) not in product cache index {}",
+                    deletedCount,
+                    deletedBytes,
+                    indexFile);
+        }
+    }
+
+    /**
+     * Reads the records of the index file into the entries.
+     *
+     * @return the length of the file up to the last complete record, or -1 if it is not an index
+     * file
+     */
+    private long read() {
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(
+                Files.newInputStream(indexFile)));
+                DataInputStream input = new DataInputStream(counter)) {
+            if (input.readInt() != INDEX_FILE_VERSION) {
+                return -1;
+            }
+
+            long validLength = counter.getByteCount();
+            while (true) {
+                try {
+                    byte type = input.readByte();
+                    String key = input.readUTF();
+                    if (type == PUT) {
+                        byte[] value = new byte[input.readInt()];
+                        input.readFully(value);
+                        ReliableResource reliableResource = deserialize(key, value);
+                        if (reliableResource != null) {
+                            entries.put(key, reliableResource);
+                        }
+                    } else if (type == REMOVE) {
+                        entries.remove(key);
+                    } else {
+                        return validLength;
+                    }
+                } catch (EOFException e) {
+                    return validLength;
+                }
+                records++;
+                validLength = counter.getByteCount();
+            }
+        } catch (IOException e) {
+            LOGGER.info("Unable to read product cache index {}", indexFile, e);
+            return -1;
+        }
+    }
+
+    private ReliableResource deserialize(String key, byte[] value) {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(value))) {
+            return (ReliableResource) input.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.info("Unable to read product cache entry {}", key, e);
+            return null;
+        }
+    }
+
+    private void appendPut(ReliableResource reliableResource) {
+        if (indexOutput == null) {
+            return;
+        }
+
+        try {
+            ByteArrayOutputStream value = new ByteArrayOutputStream();
+            try (ObjectOutputStream output = new ObjectOutputStream(value)) {
+                output.writeObject(reliableResource);
+            }
+            indexOutput.writeByte(PUT);
+            indexOutput.writeUTF(reliableResource.getKey());
+            indexOutput.writeInt(value.size());
+            value.writeTo(indexOutput);
+            indexOutput.flush();
+            records++;
+        } catch (IOException e) {
+            LOGGER.info("Unable to write product cache entry {} to {}",
+                    reliableResource.getKey(),
+                    indexFile,
+                    e);
+        }
+    }
+
+    private void appendRemove(String key) {
+        if (indexOutput == null) {
+            return;
+        }
+
+        try {
+            indexOutput.writeByte(REMOVE);
+            indexOutput.writeUTF(key);
+            indexOutput.flush();
+            records++;
+        } catch (IOException e) {
+            LOGGER.info("Unable to remove product cache entry {} from {}", key, indexFile, e);
+        }
+    }
+
+    /**
+     * Rewrites the index file with one record per entry, from the least to the most recently used.
+     */
+    private void compact() {
+        IOUtils.closeQuietly(indexOutput);
+        indexOutput = null;
+
+        Path compactedFile = indexFile.resolveSibling(INDEX_FILE_NAME + ".tmp");
+        try {
+            Files.deleteIfExists(compactedFile);
+            records = 0;
+            openIndexOutput(compactedFile);
+            for (ReliableResource reliableResource : entries.values()) {
+                appendPut(reliableResource);
+            }
+            IOUtils.closeQuietly(indexOutput);
+            indexOutput = null;
+            Files.move(compactedFile,
+                    indexFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.info("Unable to compact product cache index {}", indexFile, e);
+        }
+        openIndexOutput(indexFile);
+    }
+
+    private void openIndexOutput(Path file) {
+        try {
+            boolean empty = !Files.exists(file) || Files.size(file) == 0;
+            indexOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)));
+            if (empty) {
+                indexOutput.writeInt(INDEX_FILE_VERSION);
+                indexOutput.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.info("Unable to open product cache index {}, entries will not be persisted",
+                    file,
+                    e);
+            IOUtils.closeQuietly(indexOutput);
+            indexOutput = null;
+        }
+    }
+}
@@ -151,6 +151,10 @@ private void deleteFromCache(IMap<String, ReliableResource> cacheMap, ReliableRe
         cacheDirSize.addAndGet(-rr.getSize());
     }
 
+    public long getCacheDirSizeBytes() {
+        return cacheDirSize == null ? 0 : cacheDirSize.get();
+    }
+
     public synchronized long getMaxDirSizeBytes() {
         return maxDirSizeBytes;
     }
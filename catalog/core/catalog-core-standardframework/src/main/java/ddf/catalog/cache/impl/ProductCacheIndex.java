@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import ddf.catalog.resource.data.ReliableResource;
+
+/**
+ * Index of the products held in the product cache directory, by cache key.
+ * <p>
+ * The index evicts products on its own to stay within its maximum size, deleting their files from
+ * the product cache directory. Removing an entry does not delete its file.
+ */
+interface ProductCacheIndex {
+
+    /**
+     * @param key the cache key of the product
+     * @return the product, or {@code null} if it is not in the index
+     */
+    ReliableResource get(String key);
+
+    void put(ReliableResource reliableResource);
+
+    void remove(String key);
+
+    /**
+     * Records a request for a product, whether or not it is in the index.
+     *
+     * @param key the cache key of the product
+     */
+    void recordAccess(String key);
+
+    /**
+     * @return the maximum size of the products in the index, in bytes, or 0 if there is no limit
+     */
+    long getMaxSizeBytes();
+
+    void setMaxSizeBytes(long maxSizeBytes);
+
+    /**
+     * @return the number of products in the index
+     */
+    int size();
+
+    /**
+     * @return the size of the products in the index, in bytes
+     */
+    long getSizeBytes();
+
+    /**
+     * @return the number of products evicted to make room for other products
+     */
+    long getEvictionCount();
+
+    /**
+     * @return the size of the products evicted to make room for other products, in bytes
+     */
+    long getEvictedBytes();
+
+    /**
+     * @return the number of products removed as soon as they were added because they were not
+     * requested often enough to displace the products already in the index
+     */
+    long getRejectionCount();
+
+    void close();
+}
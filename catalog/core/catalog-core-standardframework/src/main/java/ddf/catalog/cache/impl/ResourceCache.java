@@ -16,9 +16,17 @@
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -34,7 +42,6 @@
 import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
-import com.hazelcast.core.IMap;
 
 import ddf.catalog.cache.ResourceCacheInterface;
 import ddf.catalog.data.Metacard;
@@ -42,7 +49,14 @@
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.data.ReliableResource;
 
-public class ResourceCache implements ResourceCacheInterface {
+/**
+ * Cache of the products retrieved from sources, stored as files in the product cache directory.
+ * <p>
+ * By default the products are indexed by a {@link LocalProductCacheIndex}, which only keeps the
+ * products that are requested often. In a cluster, set {@link #setClustered(boolean)} to share the
+ * index between the nodes through Hazelcast.
+ */
+public class ResourceCache implements ResourceCacheInterface, ResourceCacheMBean {
 
     private static final String KARAF_HOME = "karaf.home";
 
@@ -60,43 +74,59 @@ public class ResourceCache implements ResourceCacheInterface {
 
     private static final long DEFAULT_MAX_CACHE_DIR_SIZE_BYTES = 10737418240L;  //10 GB
 
-    private List<String> pendingCache = new ArrayList<String>();
+    private Set<String> pendingCache = ConcurrentHashMap.newKeySet();
 
     /**
      * Directory for products cached to file system
      */
     private String productCacheDirectory;
 
-    private HazelcastInstance instance;
+    private volatile ProductCacheIndex cache;
 
-    private IMap<Object, Object> cache;
+    private long maxDirSizeBytes = DEFAULT_MAX_CACHE_DIR_SIZE_BYTES;
 
-    private ProductCacheDirListener<Object, Object> cacheListener =
-            new ProductCacheDirListener<Object, Object>(DEFAULT_MAX_CACHE_DIR_SIZE_BYTES);
+    private boolean clustered = false;
 
     private BundleContext context;
 
     private String xmlConfigFilename;
 
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong hitBytes = new AtomicLong();
+
+    private ObjectName objectName;
+
     /**
-     * Called after all parameters are set
+     * Indexes the products in a Hazelcast map, creating a Hazelcast instance from the XML config
+     * file if the instance is {@code null}. Only a Hazelcast instance created here is shut down by
+     * {@link #teardownCache()}.
      */
     public void setCache(HazelcastInstance instance) {
         LOGGER.trace("ENTERING: setCache()");
-        this.instance = instance;
-        if (this.instance == null) {
+        if (instance == null) {
             Config cfg = getHazelcastConfig(context, xmlConfigFilename);
             cfg.setClassLoader(getClass().getClassLoader());
-            this.instance = Hazelcast.newHazelcastInstance(cfg);
+            cache = new HazelcastProductCacheIndex(Hazelcast.newHazelcastInstance(cfg),
+                    maxDirSizeBytes,
+                    true);
+        } else {
+            cache = new HazelcastProductCacheIndex(instance, maxDirSizeBytes, false);
         }
-
-        cache = this.instance.getMap(PRODUCT_CACHE_NAME);
-        cacheListener.setHazelcastInstance(this.instance);
-        cache.addEntryListener(cacheListener, true);
     }
 
+    /**
+     * Called after all parameters are set
+     */
     public void setupCache() {
-        setCache(null);
+        if (clustered) {
+            setCache(null);
+        } else {
+            cache = new LocalProductCacheIndex(Paths.get(productCacheDirectory), maxDirSizeBytes);
+        }
+        registerMBean();
     }
 
     private Config getHazelcastConfig(BundleContext context, String xmlConfigFilename) {
@@ -151,23 +181,129 @@ private Config getHazelcastConfig(BundleContext context, String xmlConfigFilenam
     }
 
     public void teardownCache() {
-        instance.shutdown();
+        unregisterMBean();
+        cache.close();
+    }
+
+    private void registerMBean() {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            objectName = new ObjectName(ResourceCacheMBean.OBJECTNAME);
+            try {
+                mbeanServer.registerMBean(new StandardMBean(this, ResourceCacheMBean.class),
+                        objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                LOGGER.info("Re-registering Product Cache MBean");
+                mbeanServer.unregisterMBean(objectName);
+                mbeanServer.registerMBean(new StandardMBean(this, ResourceCacheMBean.class),
+                        objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not register MBean.", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            if (objectName != null) {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not unregister MBean.", e);
+        }
     }
 
     public long getCacheDirMaxSizeMegabytes() {
         LOGGER.debug("Getting max size for cache directory.");
-        return cacheListener.getMaxDirSizeBytes() / BYTES_IN_MEGABYTES;
+        return maxDirSizeBytes / BYTES_IN_MEGABYTES;
     }
 
     public void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes) {
         LOGGER.debug("Setting max size for cache directory: {}", cacheDirMaxSizeMegabytes);
-        cacheListener.setMaxDirSizeBytes(cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES);
+        maxDirSizeBytes = cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES;
+        if (cache != null) {
+            cache.setMaxSizeBytes(maxDirSizeBytes);
+        }
+    }
+
+    public boolean isClustered() {
+        return clustered;
+    }
+
+    /**
+     * @param clustered true to share the product cache index between the nodes of a cluster
+     *                  through Hazelcast, false to keep it on this node; only read by
+     *                  {@link #setupCache()}
+     */
+    public void setClustered(boolean clustered) {
+        this.clustered = clustered;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getHitBytes() {
+        return hitBytes.get();
+    }
+
+    @Override
+    public int getEntryCount() {
+        return cache.size();
+    }
+
+    @Override
+    public long getSizeBytes() {
+        return cache.getSizeBytes();
+    }
+
+    @Override
+    public long getMaxSizeBytes() {
+        return cache.getMaxSizeBytes();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    @Override
+    public long getEvictedBytes() {
+        return cache.getEvictedBytes();
+    }
+
+    @Override
+    public long getRejectionCount() {
+        return cache.getRejectionCount();
+    }
+
+    @Override
+    public void resetStatistics() {
+        hitCount.set(0);
+        missCount.set(0);
+        hitBytes.set(0);
     }
 
     public String getProductCacheDirectory() {
         return productCacheDirectory;
     }
 
+    /**
+     * Sets the directory the products are cached in. If the products are indexed by a
+     * {@link LocalProductCacheIndex}, the index is reopened from the new directory, so only the
+     * products cached there before are served from the cache.
+     *
+     * @param productCacheDirectory the product cache directory, or an empty string for
+     *                              {@link #DEFAULT_PRODUCT_CACHE_DIRECTORY} in karaf.home
+     */
     public void setProductCacheDirectory(final String productCacheDirectory) {
         String newProductCacheDirectoryDir = "";
 
@@ -215,6 +351,17 @@ public void setProductCacheDirectory(final String productCacheDirectory) {
             }
         }
 
+        ProductCacheIndex previousCache = cache;
+        if (previousCache instanceof LocalProductCacheIndex && !newProductCacheDirectoryDir.equals(
+                this.productCacheDirectory)) {
+            // The index is opened before products are downloaded to the new directory, since it
+            // deletes the files there that are not in the index.
+            LOGGER.debug("Reopening product cache index from {}", newProductCacheDirectoryDir);
+            cache = new LocalProductCacheIndex(Paths.get(newProductCacheDirectoryDir),
+                    maxDirSizeBytes);
+            previousCache.close();
+        }
+
         this.productCacheDirectory = newProductCacheDirectoryDir;
 
         LOGGER.debug("Set product cache directory to: {}", this.productCacheDirectory);
@@ -261,7 +408,7 @@ public boolean isPending(String key) {
     public void put(ReliableResource reliableResource) {
         LOGGER.trace("ENTERING: put(ReliableResource)");
         reliableResource.setLastTouchedMillis(System.currentTimeMillis());
-        cache.put(reliableResource.getKey(), reliableResource);
+        cache.put(reliableResource);
         removePendingCacheEntry(reliableResource.getKey());
 
         LOGGER.trace("EXITING: put(ReliableResource)");
@@ -281,10 +428,10 @@ public void addPendingCacheEntry(ReliableResource reliableResource) {
         String cacheKey = reliableResource.getKey();
         if (isPending(cacheKey)) {
             LOGGER.debug("Cache entry with key = {} is already pending", cacheKey);
-        } else if (containsValid(cacheKey, reliableResource.getMetacard())) {
+        } else if (isCached(cacheKey, reliableResource.getMetacard())) {
             LOGGER.debug("Cache entry with key = {} is already in cache", cacheKey);
-        } else {
-            pendingCache.add(cacheKey);
+        } else if (!pendingCache.add(cacheKey)) {
+            LOGGER.debug("Cache entry with key = {} is already pending", cacheKey);
         }
     }
 
@@ -303,7 +450,7 @@ public Resource getValid(String key, Metacard latestMetacard) {
         }
         LOGGER.debug("key {}", key);
 
-        ReliableResource cachedResource = (ReliableResource) cache.get(key);
+        ReliableResource cachedResource = cache.get(key);
 
         // Check that ReliableResource actually maps to a file (product) in the
         // product cache directory. This check handles the case if the product
@@ -318,6 +465,7 @@ public Resource getValid(String key, Metacard latestMetacard) {
 
             if (cachedResource.hasProduct()) {
                 LOGGER.trace("EXITING: get() for key {}", key);
+                hitBytes.addAndGet(Math.max(cachedResource.getSize(), 0));
                 return cachedResource;
             } else {
                 cache.remove(key);
@@ -334,7 +482,7 @@ public Resource getValid(String key, Metacard latestMetacard) {
     }
 
     /**
-     * States whether an item is in the cache or not.
+     * States whether an item is in the cache or not. Each call counts as a request for the item.
      *
      * @param key
      * @return {@code true} if items exists in cache.
@@ -344,7 +492,18 @@ public boolean containsValid(String key, Metacard latestMetacard) {
         if (key == null) {
             return false;
         }
-        ReliableResource cachedResource = (ReliableResource) cache.get(key);
+        cache.recordAccess(key);
+        boolean cached = isCached(key, latestMetacard);
+        if (cached) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return cached;
+    }
+
+    private boolean isCached(String key, Metacard latestMetacard) {
+        ReliableResource cachedResource = cache.get(key);
         return cachedResource != null ?
                 (validateCacheEntry(cachedResource, latestMetacard)) :
                 false;
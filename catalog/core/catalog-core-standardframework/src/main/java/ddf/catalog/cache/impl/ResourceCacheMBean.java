@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+/**
+ * Statistics of the product cache.
+ */
+public interface ResourceCacheMBean {
+
+    String OBJECTNAME = "ddf.catalog.cache.impl.ResourceCache:service=product-cache";
+
+    /**
+     * @return the number of product requests served from the cache since the statistics were last
+     * reset
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of product requests that were not in the cache since the statistics were
+     * last reset
+     */
+    long getMissCount();
+
+    /**
+     * @return the size of the products served from the cache since the statistics were last reset,
+     * in bytes
+     */
+    long getHitBytes();
+
+    /**
+     * @return the number of products in the cache
+     */
+    int getEntryCount();
+
+    /**
+     * @return the size of the products in the cache, in bytes
+     */
+    long getSizeBytes();
+
+    /**
+     * @return the maximum size of the products in the cache, in bytes, or 0 if there is no limit
+     */
+    long getMaxSizeBytes();
+
+    /**
+     * @return the number of products evicted to make room for other products
+     */
+    long getEvictionCount();
+
+    /**
+     * @return the size of the products evicted to make room for other products, in bytes
+     */
+    long getEvictedBytes();
+
+    /**
+     * @return the number of products that were not kept in the cache because they were not
+     * requested often enough to displace the products already in it
+     */
+    long getRejectionCount();
+
+    /**
+     * Resets the hit and miss statistics.
+     */
+    void resetStatistics();
+}
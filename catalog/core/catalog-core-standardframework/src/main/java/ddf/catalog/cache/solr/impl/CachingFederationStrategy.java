@@ -118,6 +118,8 @@ public class CachingFederationStrategy implements FederationStrategy, PostIngest
 
     private static final int DEFAULT_MAX_START_INDEX = 50000;
 
+    private static final int DEFAULT_MAX_PAGING_SESSIONS = 1000;
+
     private static Logger logger = LoggerFactory.getLogger(CachingFederationStrategy.class);
 
     private final SolrCache cache;
@@ -140,6 +142,9 @@ public class CachingFederationStrategy implements FederationStrategy, PostIngest
 
     private int maxStartIndex;
 
+    private final FederatedPagingSessions pagingSessions = new FederatedPagingSessions(
+            DEFAULT_MAX_PAGING_SESSIONS);
+
     private CacheCommitPhaser cacheCommitPhaser = new CacheCommitPhaser();
 
     private CacheBulkProcessor cacheBulkProcessor;
@@ -227,8 +232,19 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
         int offset = originalQuery.getStartIndex();
         final int pageSize = originalQuery.getPageSize();
 
-        // limit offset to max value
-        if (offset > this.maxStartIndex) {
+        // Pages of a federated query that continue its paging session only fetch the results that
+        // can make the page from each source
+        FederatedPagingSessions.Page page = null;
+        if (sources.size() > 1 && !INDEX_QUERY_MODE.equals(queryRequest.getPropertyValue(
+                QUERY_MODE))) {
+            page = pagingSessions.plan(queryRequest, sources, this.maxStartIndex);
+        }
+        final boolean continuedPage = page != null && page.isContinued();
+
+        if (page != null) {
+            offset = page.getStartIndex();
+        } else if (offset > this.maxStartIndex) {
+            // limit offset to max value
             offset = this.maxStartIndex;
         }
 
@@ -236,7 +252,17 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
 
         Map<Future<SourceResponse>, Source> futures = new HashMap<Future<SourceResponse>, Source>();
 
-        Query modifiedQuery = getModifiedQuery(originalQuery, sources.size(), offset, pageSize);
+        Query modifiedQuery;
+        if (continuedPage) {
+            modifiedQuery = new QueryImpl(originalQuery,
+                    1,
+                    pageSize,
+                    originalQuery.getSortBy(),
+                    originalQuery.requestsTotalResultsCount(),
+                    originalQuery.getTimeoutMillis());
+        } else {
+            modifiedQuery = getModifiedQuery(originalQuery, sources.size(), offset, pageSize);
+        }
         QueryRequest modifiedQueryRequest = new QueryRequestImpl(modifiedQuery,
                 queryRequest.isEnterprise(),
                 queryRequest.getSourceIds(),
@@ -272,8 +298,19 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
                                 modifiedQueryRequest);
                     }
 
-                    futures.put(queryCompletion.submit(new CallableSourceResponse(source,
-                            finalQueryRequest)), source);
+                    SourceResponse sessionResponse = null;
+                    if (page != null) {
+                        finalQueryRequest = page.getSourceRequest(source, finalQueryRequest);
+                        sessionResponse = page.getSessionResponse(source, finalQueryRequest);
+                    }
+
+                    if (sessionResponse != null) {
+                        final SourceResponse response = sessionResponse;
+                        futures.put(queryCompletion.submit(() -> response), source);
+                    } else {
+                        futures.put(queryCompletion.submit(new CallableSourceResponse(source,
+                                finalQueryRequest)), source);
+                    }
                 } else {
                     logger.warn("Duplicate source found with name {}. Ignoring second one.",
                             source.getId());
@@ -286,7 +323,7 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
         // results back and then
         // transfer them into a different Queue. That is what the
         // OffsetResultHandler does.
-        if (offset > 1 && sources.size() > 1) {
+        if (!continuedPage && offset > 1 && sources.size() > 1) {
             offsetResults = new QueryResponseImpl(queryRequest, null);
             queryExecutorService.submit(new OffsetResultHandler(queryResponseQueue,
                     offsetResults,
@@ -294,13 +331,19 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
                     offset));
         }
 
-        queryExecutorService.submit(createMonitor(queryCompletion,
+        Runnable monitor = createMonitor(queryCompletion,
                 futures,
                 queryResponseQueue,
-                modifiedQueryRequest));
+                modifiedQueryRequest);
+        // Only a SortedQueryMonitor advances the paging session, so pages merged by any other
+        // monitor never continue a session
+        if (page != null && monitor instanceof SortedQueryMonitor) {
+            ((SortedQueryMonitor) monitor).setPage(page);
+        }
+        queryExecutorService.submit(monitor);
 
         QueryResponse queryResponse = null;
-        if (offset > 1 && sources.size() > 1) {
+        if (offsetResults != null) {
             queryResponse = offsetResults;
             logger.debug("returning offsetResults");
         } else {
@@ -480,6 +523,21 @@ public void setMaxStartIndex(int maxStartIndex) {
         }
     }
 
+    /**
+     * Sets the number of federated query paging sessions to remember. The least recently used
+     * sessions are discarded first.
+     *
+     * @param maxPagingSessions the maximum number of paging sessions
+     */
+    public void setMaxPagingSessions(int maxPagingSessions) {
+        if (maxPagingSessions > 0) {
+            pagingSessions.setMaximumSessions(maxPagingSessions);
+        } else {
+            logger.debug("Invalid max paging sessions {}, keeping the current sessions",
+                    maxPagingSessions);
+        }
+    }
+
     public void setUrl(String url) {
         cache.updateServer(PropertyResolver.resolveProperties(url));
     }
@@ -0,0 +1,467 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.solr.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.shiro.subject.Subject;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import ddf.catalog.Constants;
+import ddf.catalog.data.Result;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.Source;
+import ddf.security.SecurityConstants;
+import ddf.security.SubjectUtils;
+
+/**
+ * Remembers how far a federated query has read into the results of each of its sources, so that
+ * the following page only requests from each source the results that can still make that page.
+ * <p>
+ * Without a session, page {@code n} of a federated query requests the first
+ * {@code n * pageSize} results from every source and discards all but the last page of the merged
+ * results. Queries that carry a {@link Constants#QUERY_SESSION_ID_KEY} property record, after each
+ * page, how many results of each source were merged into the pages served so far. When the next
+ * page is requested, each source is queried for at most a page of results starting after the ones
+ * already served. Sources that return a {@link Constants#QUERY_NEXT_CURSOR_KEY} are paged with
+ * their cursor instead of a start index. Since a cursor can only resume after the last page it
+ * returned, the results of that page that have not been served yet are kept in the session and
+ * only the rest of the page is requested from the next cursor.
+ * <p>
+ * Sessions are identified by the session id together with the name of the user the request is
+ * made for, so that results fetched for one user are never served to another.
+ * <p>
+ * Any request that does not continue a session where it left off, such as jumping to another
+ * page or changing the query, is federated as usual and restarts the session. The least recently
+ * used sessions are discarded once {@code maximumSessions} is reached, and sessions expire when
+ * unused for {@link #SESSION_EXPIRATION_MINUTES}.
+ */
+class FederatedPagingSessions {
+
+    static final long SESSION_EXPIRATION_MINUTES = 30;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederatedPagingSessions.class);
+
+    private volatile Cache<String, Session> sessions;
+
+    FederatedPagingSessions(int maximumSessions) {
+        sessions = createCache(maximumSessions);
+    }
+
+    /**
+     * Changes the number of sessions to remember, keeping the current sessions up to the new
+     * maximum.
+     *
+     * @param maximumSessions the maximum number of sessions
+     */
+    synchronized void setMaximumSessions(int maximumSessions) {
+        Cache<String, Session> resized = createCache(maximumSessions);
+        resized.putAll(sessions.asMap());
+        sessions = resized;
+    }
+
+    private static Cache<String, Session> createCache(int maximumSessions) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maximumSessions)
+                .expireAfterAccess(SESSION_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Plans the source queries of a page of a federated query.
+     *
+     * @param request       the federated query request
+     * @param sources       the sources to query
+     * @param maxStartIndex the largest start index that can be served without continuing a
+     *                      session
+     * @return the plan of the page, or {@code null} if the request is not part of a session
+     */
+    Page plan(QueryRequest request, List<Source> sources, int maxStartIndex) {
+        Serializable sessionId = request.getPropertyValue(Constants.QUERY_SESSION_ID_KEY);
+        Query query = request.getQuery();
+        if (sessionId == null || query.getPageSize() < 1) {
+            return null;
+        }
+
+        String queryKey = getQueryKey(query, sources);
+        try {
+            return sessions.get(getSessionKey(sessionId, request), Session::new)
+                    .plan(queryKey, query.getStartIndex(), maxStartIndex, query.getPageSize());
+        } catch (ExecutionException e) {
+            LOGGER.debug("Unable to create paging session {}", sessionId, e);
+            return null;
+        }
+    }
+
+    int size() {
+        sessions.cleanUp();
+        return (int) sessions.size();
+    }
+
+    /**
+     * Sessions are kept apart for each user, since they hold results the sources returned to the
+     * user that started them.
+     */
+    private static String getSessionKey(Serializable sessionId, QueryRequest request) {
+        Serializable subject = request.getPropertyValue(SecurityConstants.SECURITY_SUBJECT);
+        String user = subject instanceof Subject ? SubjectUtils.getName((Subject) subject, "") : "";
+        return user + '|' + sessionId;
+    }
+
+    private static String getQueryKey(Query query, List<Source> sources) {
+        TreeSet<String> sourceIds = new TreeSet<>();
+        for (Source source : sources) {
+            if (source != null) {
+                sourceIds.add(source.getId());
+            }
+        }
+
+        // Sessions are only continued by queries with the same filter, which is compared by its
+        // string representation since filters do not implement equals
+        Filter filter = query;
+        while (filter instanceof QueryImpl) {
+            filter = ((QueryImpl) filter).getFilter();
+        }
+
+        SortBy sortBy = query.getSortBy();
+        StringBuilder key = new StringBuilder(String.valueOf(filter));
+        if (sortBy != null) {
+            key.append('|')
+                    .append(sortBy.getPropertyName() == null ?
+                            null :
+                            sortBy.getPropertyName()
+                                    .getPropertyName())
+                    .append(' ')
+                    .append(sortBy.getSortOrder());
+        }
+        return key.append('|')
+                .append(query.getPageSize())
+                .append('|')
+                .append(sourceIds)
+                .toString();
+    }
+
+    /**
+     * Where a source is in its own results.
+     */
+    private static class Position {
+
+        private static final Position START = new Position(0,
+                Constants.QUERY_INITIAL_CURSOR,
+                Collections.emptyList(),
+                0);
+
+        /**
+         * The number of results of the source that have been served.
+         */
+        private final int served;
+
+        /**
+         * The cursor to fetch the next results of the source from, or {@code null} if the source
+         * does not support cursors.
+         */
+        private final Serializable cursor;
+
+        /**
+         * The results fetched from the source before {@link #cursor} that have not been served.
+         */
+        private final List<Result> unserved;
+
+        /**
+         * The number of hits the source last reported.
+         */
+        private final long hits;
+
+        Position(int served, Serializable cursor, List<Result> unserved, long hits) {
+            this.served = served;
+            this.cursor = cursor;
+            this.unserved = unserved;
+            this.hits = hits;
+        }
+    }
+
+    private static class Session {
+
+        private String queryKey;
+
+        private int nextStartIndex;
+
+        private long generation;
+
+        private Map<String, Position> positions = Collections.emptyMap();
+
+        synchronized Page plan(String queryKey, int startIndex, int maxStartIndex,
+                int pageSize) {
+            boolean continued = queryKey.equals(this.queryKey) && startIndex == nextStartIndex;
+            if (!continued) {
+                startIndex = Math.min(startIndex, maxStartIndex);
+                LOGGER.debug("Restarting paging session at start index {}", startIndex);
+            }
+            return new Page(this,
+                    generation,
+                    queryKey,
+                    startIndex,
+                    pageSize,
+                    continued ? positions : null);
+        }
+
+        synchronized void advance(Page page, Map<String, Position> positions) {
+            if (page.generation != generation) {
+                // Another request for this session completed first
+                return;
+            }
+
+            generation++;
+            this.queryKey = page.queryKey;
+            this.nextStartIndex = page.startIndex + page.pageSize;
+            this.positions = positions;
+        }
+
+        synchronized void reset(Page page) {
+            if (page.generation == generation) {
+                generation++;
+                queryKey = null;
+                positions = Collections.emptyMap();
+            }
+        }
+    }
+
+    /**
+     * The source queries of one page of a federated query, and the results they returned.
+     */
+    static class Page {
+
+        private final Session session;
+
+        private final long generation;
+
+        private final String queryKey;
+
+        private final int startIndex;
+
+        private final int pageSize;
+
+        private final Map<String, Position> startPositions;
+
+        private final Map<String, Position> fetchedPositions = new HashMap<>();
+
+        private final Map<String, List<Result>> fetchedResults = new HashMap<>();
+
+        private final Map<String, Long> fetchedHits = new HashMap<>();
+
+        private final Map<String, Serializable> nextCursors = new HashMap<>();
+
+        private final Map<Result, String> sourceIds = new IdentityHashMap<>();
+
+        Page(Session session, long generation, String queryKey, int startIndex, int pageSize,
+                Map<String, Position> startPositions) {
+            this.session = session;
+            this.generation = generation;
+            this.queryKey = queryKey;
+            this.startIndex = startIndex;
+            this.pageSize = pageSize;
+            this.startPositions = startPositions;
+        }
+
+        /**
+         * @return the start index of the page
+         */
+        int getStartIndex() {
+            return startIndex;
+        }
+
+        /**
+         * @return whether the sources only need to be queried for the results of this page
+         */
+        boolean isContinued() {
+            return startPositions != null;
+        }
+
+        /**
+         * Creates the query request of a source.
+         *
+         * @param source  the source to query
+         * @param request the request to send to the source when the page is not continued
+         * @return the request for the results of the source that can make this page
+         */
+        synchronized QueryRequest getSourceRequest(Source source, QueryRequest request) {
+            Position position = Position.START;
+            if (isContinued()) {
+                position = startPositions.getOrDefault(source.getId(), Position.START);
+            }
+            fetchedPositions.put(source.getId(), position);
+
+            Map<String, Serializable> properties = new HashMap<>();
+            if (request.getProperties() != null) {
+                properties.putAll(request.getProperties());
+            }
+            Query query = request.getQuery();
+            int sourceStartIndex = query.getStartIndex();
+            int sourcePageSize = query.getPageSize();
+
+            if (position.cursor != null) {
+                // The results already fetched from the source are not requested again
+                properties.put(Constants.QUERY_CURSOR_KEY, position.cursor);
+                if (isContinued()) {
+                    sourceStartIndex = 1;
+                    sourcePageSize = Math.max(pageSize - position.unserved.size(), 1);
+                }
+            } else if (isContinued()) {
+                sourceStartIndex = position.served + 1;
+                sourcePageSize = pageSize;
+            }
+
+            return new QueryRequestImpl(new QueryImpl(query,
+                    sourceStartIndex,
+                    sourcePageSize,
+                    query.getSortBy(),
+                    query.requestsTotalResultsCount(),
+                    query.getTimeoutMillis()),
+                    request.isEnterprise(),
+                    request.getSourceIds(),
+                    properties);
+        }
+
+        /**
+         * Answers the query of a source from the session when the session already holds a page of
+         * its unserved results. Such sources are not queried, since every result this page can
+         * take from them has already been fetched.
+         *
+         * @param source  the source to query
+         * @param request the request created by {@link #getSourceRequest(Source, QueryRequest)}
+         * @return the response of the source, or {@code null} if the source has to be queried
+         */
+        synchronized SourceResponse getSessionResponse(Source source, QueryRequest request) {
+            Position position = fetchedPositions.get(source.getId());
+            if (!isContinued() || position == null || position.cursor == null
+                    || position.unserved.size() < pageSize) {
+                return null;
+            }
+
+            Map<String, Serializable> properties = new HashMap<>();
+            properties.put(Constants.QUERY_NEXT_CURSOR_KEY, position.cursor);
+            SourceResponseImpl response = new SourceResponseImpl(request,
+                    properties,
+                    Collections.emptyList());
+            response.setHits(position.hits);
+            return response;
+        }
+
+        /**
+         * Records the response of a source.
+         *
+         * @return the results of the source that have not been served by a previous page
+         */
+        synchronized List<Result> addResponse(String sourceId, SourceResponse response) {
+            List<Result> results = response.getResults();
+            Position position = fetchedPositions.get(sourceId);
+            if (position == null || results == null) {
+                return results;
+            }
+
+            if (response.getProperties() != null) {
+                Serializable nextCursor = response.getProperties()
+                        .get(Constants.QUERY_NEXT_CURSOR_KEY);
+                if (nextCursor != null) {
+                    nextCursors.put(sourceId, nextCursor);
+                }
+            }
+
+            if (position.cursor != null && !position.unserved.isEmpty()) {
+                List<Result> unservedResults = new ArrayList<>(position.unserved.size()
+                        + results.size());
+                unservedResults.addAll(position.unserved);
+                unservedResults.addAll(results);
+                results = unservedResults;
+            }
+            fetchedResults.put(sourceId, results);
+            fetchedHits.put(sourceId, response.getHits());
+
+            for (Result result : results) {
+                sourceIds.put(result, sourceId);
+            }
+            return results;
+        }
+
+        /**
+         * Advances the session past the results merged by this page.
+         *
+         * @param merged all the merged results of the sources, including any results before the
+         *               start index when the page was not continued
+         */
+        synchronized void complete(List<Result> merged) {
+            if (!fetchedResults.keySet()
+                    .containsAll(fetchedPositions.keySet())) {
+                // Where the sources that did not respond are is unknown
+                session.reset(this);
+                return;
+            }
+
+            Map<String, Integer> mergedCounts = new HashMap<>();
+            for (Result result : merged) {
+                String sourceId = sourceIds.get(result);
+                if (sourceId != null) {
+                    mergedCounts.merge(sourceId, 1, Integer::sum);
+                }
+            }
+
+            Map<String, Position> positions = new HashMap<>();
+            for (Map.Entry<String, Position> entry : fetchedPositions.entrySet()) {
+                String sourceId = entry.getKey();
+                Position fetched = entry.getValue();
+                int mergedCount = mergedCounts.getOrDefault(sourceId, 0);
+
+                Serializable cursor = nextCursors.get(sourceId);
+                List<Result> unserved = Collections.emptyList();
+                // Sources that do not return a cursor are paged by start index
+                if (fetched.cursor != null && cursor != null) {
+                    // The results of a source are merged in the order the source returned them
+                    List<Result> results = fetchedResults.get(sourceId);
+                    unserved = new ArrayList<>(results.subList(Math.min(mergedCount,
+                            results.size()), results.size()));
+                } else {
+                    cursor = null;
+                }
+
+                positions.put(sourceId,
+                        new Position(fetched.served + mergedCount,
+                                cursor,
+                                unserved,
+                                fetchedHits.get(sourceId)));
+            }
+
+            session.advance(this, positions);
+        }
+    }
+}
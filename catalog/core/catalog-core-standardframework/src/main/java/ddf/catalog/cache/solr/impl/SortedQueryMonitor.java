@@ -14,8 +14,6 @@
 package ddf.catalog.cache.solr.impl;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -44,11 +42,14 @@
 import ddf.catalog.operation.impl.ProcessingDetailsImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.source.Source;
+import ddf.catalog.util.impl.BoundedResultMerger;
 import ddf.catalog.util.impl.DistanceResultComparator;
 import ddf.catalog.util.impl.RelevanceResultComparator;
 import ddf.catalog.util.impl.TemporalResultComparator;
 
 class SortedQueryMonitor implements Runnable {
+    static final String HITS_PER_SOURCE = "hitsPerSource";
+
     private static Logger logger = LoggerFactory.getLogger(SortedQueryMonitor.class);
 
     private CachingFederationStrategy cachingFederationStrategy;
@@ -63,6 +64,8 @@ class SortedQueryMonitor implements Runnable {
 
     private Query query;
 
+    private FederatedPagingSessions.Page page;
+
     private long deadline;
 
     public SortedQueryMonitor(CachingFederationStrategy cachingFederationStrategy,
@@ -80,6 +83,16 @@ public SortedQueryMonitor(CachingFederationStrategy cachingFederationStrategy,
         deadline = System.currentTimeMillis() + query.getTimeoutMillis();
     }
 
+    /**
+     * Sets the paging session page the sources were queried for. The responses of the sources are
+     * recorded in the page, which is completed with the merged results.
+     *
+     * @param page the page of the paging session
+     */
+    void setPage(FederatedPagingSessions.Page page) {
+        this.page = page;
+    }
+
     @Override
     public void run() {
         SortBy sortBy = query.getSortBy();
@@ -104,7 +117,10 @@ public void run() {
             }
         }
 
-        List<Result> resultList = new ArrayList<>();
+        // Only the best pageSize results are retained as each source responds, results that can
+        // no longer make the page are released as soon as their source's response is merged
+        BoundedResultMerger resultMerger = new BoundedResultMerger(coreComparator,
+                query.getPageSize());
         long totalHits = 0;
         Set<ProcessingDetails> processingDetails = returnResults.getProcessingDetails();
 
@@ -139,13 +155,18 @@ public void run() {
                     processingDetails.add(new ProcessingDetailsImpl(sourceId,
                             new NullPointerException()));
                 } else {
-                    resultList.addAll(sourceResponse.getResults());
+                    resultMerger.addAll(page == null ?
+                            sourceResponse.getResults() :
+                            page.addResponse(sourceId, sourceResponse));
                     long hits = sourceResponse.getHits();
                     totalHits += hits;
                     hitsPerSource.merge(sourceId, hits, (l1, l2) -> l1 + l2);
 
                     Map<String, Serializable> properties = sourceResponse.getProperties();
                     returnProperties.putAll(properties);
+
+                    // Publish hit counts as each source responds rather than once all are done
+                    publishHits(totalHits, hitsPerSource);
                 }
             } catch (InterruptedException e) {
                 if (source != null) {
@@ -167,28 +188,27 @@ public void run() {
                         new Exception(Exceptions.getFullMessage(e))));
             }
         }
-        returnProperties.put("hitsPerSource", hitsPerSource);
-        logger.debug("All sources finished returning results: {}", resultList.size());
+        publishHits(totalHits, hitsPerSource);
+        logger.debug("All sources finished returning results: {}", resultMerger.size());
 
-        returnResults.setHits(totalHits);
         if (CachingFederationStrategy.INDEX_QUERY_MODE.equals(request.getPropertyValue(
                 CachingFederationStrategy.QUERY_MODE))) {
             QueryResponse result = cachingFederationStrategy.queryCache(request);
             returnResults.addResults(result.getResults(), true);
         } else {
-            returnResults.addResults(sortedResults(resultList, coreComparator), true);
+            List<Result> results = resultMerger.drain();
+            if (page != null) {
+                page.complete(results);
+            }
+            returnResults.addResults(results, true);
         }
     }
 
-    List<Result> sortedResults(List<Result> results, Comparator<? super Result> comparator) {
-        Collections.sort(results, comparator);
-
-        int maxResults = Integer.MAX_VALUE;
-        if (query.getPageSize() > 0) {
-            maxResults = query.getPageSize();
-        }
-
-        return results.size() > maxResults ? results.subList(0, maxResults) : results;
+    private void publishHits(long totalHits, Map<String, Long> hitsPerSource) {
+        returnResults.setHits(totalHits);
+        // Replace rather than mutate the published map since it may already be read by a consumer
+        returnResults.getProperties()
+                .put(HITS_PER_SOURCE, new HashMap<>(hitsPerSource));
     }
 
     private void timeoutRemainingSources(Set<ProcessingDetails> processingDetails) {
@@ -13,6 +13,8 @@
  */
 package ddf.catalog.impl;
 
+import static ddf.catalog.Constants.CONTENT_CHECKSUMS;
+import static ddf.catalog.Constants.CONTENT_CHECKSUM_ALGORITHM;
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
 import java.io.BufferedReader;
@@ -23,9 +25,7 @@
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
@@ -42,6 +42,8 @@
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import javax.activation.MimeType;
@@ -51,7 +53,6 @@
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.tika.detect.DefaultProbDetector;
@@ -144,7 +145,6 @@
 import ddf.catalog.plugin.PolicyPlugin;
 import ddf.catalog.plugin.PolicyResponse;
 import ddf.catalog.plugin.PostIngestPlugin;
-import ddf.catalog.plugin.PostQueryPlugin;
 import ddf.catalog.plugin.PostResourcePlugin;
 import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.PreQueryPlugin;
@@ -692,7 +692,7 @@ private void buildPolicyMap(HashMap<String, Set<String>> policyMap,
     }
 
     private Metacard generateMetacard(String mimeTypeRaw, String id, String fileName, long size,
-            Subject subject, Path tmpContentPath)
+            Subject subject, ContentStager.StagedContent stagedContent)
             throws MetacardCreationException, MimeTypeParseException {
 
         Metacard generatedMetacard = null;
@@ -710,9 +710,7 @@ private Metacard generateMetacard(String mimeTypeRaw, String id, String fileName
             for (InputTransformer candidate : listOfCandidates) {
                 transformer = candidate;
 
-                try (InputStream transformerStream = com.google.common.io.Files.asByteSource(
-                        tmpContentPath.toFile())
-                        .openStream()) {
+                try (InputStream transformerStream = stagedContent.openStream()) {
                     generatedMetacard = transformer.transform(transformerStream);
                 }
                 if (generatedMetacard != null) {
@@ -782,12 +780,10 @@ private String updateFileExtension(String mimeTypeRaw, String fileName) {
         return fileName;
     }
 
-    private String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
-            throws IOException {
+    private String guessMimeType(String mimeTypeRaw, String fileName,
+            ContentStager.StagedContent stagedContent) throws IOException {
         if (ContentItem.DEFAULT_MIME_TYPE.equals(mimeTypeRaw)) {
-            try (InputStream inputStreamMessageCopy = com.google.common.io.Files.asByteSource(
-                    tmpContentPath.toFile())
-                    .openStream()) {
+            try (InputStream inputStreamMessageCopy = stagedContent.openStream()) {
                 String mimeTypeGuess = frameworkProperties.getMimeTypeMapper()
                         .guessMimeType(inputStreamMessageCopy,
                                 FilenameUtils.getExtension(fileName));
@@ -799,9 +795,7 @@ private String guessMimeType(String mimeTypeRaw, String fileName, Path tmpConten
             }
             if (ContentItem.DEFAULT_MIME_TYPE.equals(mimeTypeRaw)) {
                 Detector detector = new DefaultProbDetector();
-                try (InputStream inputStreamMessageCopy = com.google.common.io.Files.asByteSource(
-                        tmpContentPath.toFile())
-                        .openStream()) {
+                try (InputStream inputStreamMessageCopy = stagedContent.openSniffStream()) {
                     MediaType mediaType = detector.detect(inputStreamMessageCopy, new Metadata());
                     mimeTypeRaw = mediaType.toString();
                 } catch (IOException e) {
@@ -809,9 +803,7 @@ private String guessMimeType(String mimeTypeRaw, String fileName, Path tmpConten
                 }
             }
             if (mimeTypeRaw.equals("text/plain")) {
-                try (InputStream inputStreamMessageCopy = com.google.common.io.Files.asByteSource(
-                        tmpContentPath.toFile())
-                        .openStream();
+                try (InputStream inputStreamMessageCopy = stagedContent.openSniffStream();
                         BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(
                                 inputStreamMessageCopy,
                                 Charset.forName("UTF-8")))) {
@@ -837,66 +829,92 @@ private String guessMimeType(String mimeTypeRaw, String fileName, Path tmpConten
         return mimeTypeRaw;
     }
 
+    /**
+     * Stages the content of each incoming content item, then generates their metacards and the
+     * content items to store in parallel. The checksums computed while staging the content are
+     * added to the properties of the storage request.
+     */
     private void generateMetacardAndContentItems(StorageRequest storageRequest,
             List<ContentItem> incomingContentItems, Map<String, Metacard> metacardMap,
             List<ContentItem> contentItems, Map<String, Path> tmpContentPaths)
             throws IngestException {
-        for (ContentItem contentItem : incomingContentItems) {
-            try {
-                Path tmpPath = null;
-                long size;
+        ContentStager contentStager = frameworkProperties.getContentStager();
+        Subject subject = (Subject) storageRequest.getProperties()
+                .get(SecurityConstants.SECURITY_SUBJECT);
+
+        List<ContentStager.StagedContent> stagedContents =
+                new ArrayList<>(incomingContentItems.size());
+        List<Callable<ContentItem>> tasks = new ArrayList<>(incomingContentItems.size());
+        try {
+            for (ContentItem contentItem : incomingContentItems) {
+                ContentStager.StagedContent stagedContent;
                 try {
-                    if (contentItem.getInputStream() != null) {
-                        tmpPath =
-                                Files.createTempFile(FilenameUtils.getBaseName(contentItem.getFilename()),
-                                        FilenameUtils.getExtension(contentItem.getFilename()));
-                        Files.copy(contentItem.getInputStream(),
-                                tmpPath,
-                                StandardCopyOption.REPLACE_EXISTING);
-                        size = Files.size(tmpPath);
-                        tmpContentPaths.put(contentItem.getId(), tmpPath);
-                    } else {
-                        throw new IngestException(
-                                "Could not copy bytes of content message.  Message was NULL.");
-                    }
+                    stagedContent = contentStager.stage(contentItem);
                 } catch (IOException e) {
-                    if (tmpPath != null) {
-                        FileUtils.deleteQuietly(tmpPath.toFile());
-                    }
                     throw new IngestException("Could not copy bytes of content message.", e);
-                } finally {
-                    IOUtils.closeQuietly(contentItem.getInputStream());
-                }
-                String mimeTypeRaw = contentItem.getMimeTypeRawData();
-                mimeTypeRaw = guessMimeType(mimeTypeRaw, contentItem.getFilename(), tmpPath);
-
-                String fileName = updateFileExtension(mimeTypeRaw, contentItem.getFilename());
-                Metacard metacard = generateMetacard(mimeTypeRaw,
-                        contentItem.getId(),
-                        fileName,
-                        size,
-                        (Subject) storageRequest.getProperties()
-                                .get(SecurityConstants.SECURITY_SUBJECT),
-                        tmpPath);
-                metacardMap.put(metacard.getId(), metacard);
-
-                ContentItem generatedContentItem = new ContentItemImpl(metacard.getId(),
-                        com.google.common.io.Files.asByteSource(tmpPath.toFile()),
-                        mimeTypeRaw,
-                        fileName,
-                        size,
-                        metacard);
+                }
+                tmpContentPaths.put(contentItem.getId(), stagedContent.getPath());
+                stagedContents.add(stagedContent);
+
+                Callable<ContentItem> task = () -> generateContentItem(contentItem,
+                        stagedContent,
+                        subject);
+                tasks.add(subject == null ? task : subject.associateWith(task));
+            }
+
+            List<ContentItem> generatedContentItems = contentStager.invokeAll(tasks);
+
+            HashMap<String, String> checksums = new HashMap<>(generatedContentItems.size());
+            for (int i = 0; i < generatedContentItems.size(); i++) {
+                ContentItem generatedContentItem = generatedContentItems.get(i);
+                metacardMap.put(generatedContentItem.getMetacard()
+                        .getId(), generatedContentItem.getMetacard());
                 contentItems.add(generatedContentItem);
-            } catch (Exception e) {
-                tmpContentPaths.values()
-                        .stream()
-                        .forEach(path -> FileUtils.deleteQuietly(path.toFile()));
-                tmpContentPaths.clear();
-                throw new IngestException("Could not create metacard.", e);
+                checksums.put(generatedContentItem.getId(),
+                        stagedContents.get(i)
+                                .getChecksum());
+            }
+            storageRequest.getProperties()
+                    .put(CONTENT_CHECKSUMS, checksums);
+            storageRequest.getProperties()
+                    .put(CONTENT_CHECKSUM_ALGORITHM, ContentStager.CHECKSUM_ALGORITHM);
+        } catch (Exception e) {
+            tmpContentPaths.values()
+                    .stream()
+                    .forEach(path -> FileUtils.deleteQuietly(path.toFile()));
+            tmpContentPaths.clear();
+            if (e instanceof InterruptedException) {
+                Thread.currentThread()
+                        .interrupt();
             }
+            throw new IngestException("Could not create metacard.",
+                    e instanceof ExecutionException ? e.getCause() : e);
         }
     }
 
+    private ContentItem generateContentItem(ContentItem contentItem,
+            ContentStager.StagedContent stagedContent, Subject subject)
+            throws IOException, MetacardCreationException, MimeTypeParseException {
+        String mimeTypeRaw = contentItem.getMimeTypeRawData();
+        mimeTypeRaw = guessMimeType(mimeTypeRaw, contentItem.getFilename(), stagedContent);
+
+        String fileName = updateFileExtension(mimeTypeRaw, contentItem.getFilename());
+        Metacard metacard = generateMetacard(mimeTypeRaw,
+                contentItem.getId(),
+                fileName,
+                stagedContent.getSize(),
+                subject,
+                stagedContent);
+
+        return new ContentItemImpl(metacard.getId(),
+                com.google.common.io.Files.asByteSource(stagedContent.getPath()
+                        .toFile()),
+                mimeTypeRaw,
+                fileName,
+                stagedContent.getSize(),
+                metacard);
+    }
+
     @Override
     public CreateResponse create(CreateStorageRequest streamCreateRequest)
             throws IngestException, SourceUnavailableException {
@@ -1785,50 +1803,19 @@ public QueryResponse query(QueryRequest queryRequest, FederationStrategy strateg
                 }
             }
 
-            queryResponse = doQuery(queryReq, fedStrategy);
+            queryResponse = doQuery(queryReq, fedStrategy, false);
 
             validateFixQueryResponse(queryResponse, queryReq, overrideFanoutRename);
 
-            HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
-            unmodifiableProperties = Collections.unmodifiableMap(queryResponse.getProperties());
-            for (Result result : queryResponse.getResults()) {
-                HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
-                for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-                    try {
-                        PolicyResponse policyResponse = plugin.processPostQuery(result,
-                                unmodifiableProperties);
-                        buildPolicyMap(itemPolicyMap,
-                                policyResponse.itemPolicy()
-                                        .entrySet());
-                        buildPolicyMap(responsePolicyMap,
-                                policyResponse.operationPolicy()
-                                        .entrySet());
-                    } catch (StopProcessingException e) {
-                        throw new FederationException("Query could not be executed.", e);
-                    }
-                }
-                result.getMetacard()
-                        .setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
-            }
-            queryResponse.getProperties()
-                    .put(PolicyPlugin.OPERATION_SECURITY, responsePolicyMap);
-
-            for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-                try {
-                    queryResponse = plugin.processPostQuery(queryResponse);
-                } catch (StopProcessingException e) {
-                    throw new FederationException("Query could not be executed.", e);
-                }
-            }
-
-            for (PostQueryPlugin service : frameworkProperties.getPostQuery()) {
-                try {
-                    queryResponse = service.process(queryResponse);
-                } catch (PluginExecutionException see) {
-                    LOGGER.warn("Error executing PostQueryPlugin: {}", see.getMessage(), see);
-                } catch (StopProcessingException e) {
-                    throw new FederationException("Query could not be executed.", e);
-                }
+            try {
+                queryResponse = frameworkProperties.getPostQueryPipeline()
+                        .process(queryResponse,
+                                frameworkProperties.getQueryResponsePostProcessor(),
+                                frameworkProperties.getPolicyPlugins(),
+                                frameworkProperties.getAccessPlugins(),
+                                frameworkProperties.getPostQuery());
+            } catch (StopProcessingException e) {
+                throw new FederationException("Query could not be executed.", e);
             }
 
         } catch (RuntimeException re) {
@@ -2017,6 +2004,15 @@ private DeleteResponse doRemoteDelete(DeleteRequest deleteRequest) {
      */
     private QueryResponse doQuery(QueryRequest queryRequest, FederationStrategy strategy)
             throws FederationException {
+        return doQuery(queryRequest, strategy, true);
+    }
+
+    /**
+     * Executes a query like {@link #doQuery(QueryRequest, FederationStrategy)}, optionally leaving
+     * the {@link QueryResponsePostProcessor} to the {@link PostQueryPipeline}.
+     */
+    private QueryResponse doQuery(QueryRequest queryRequest, FederationStrategy strategy,
+            boolean postProcess) throws FederationException {
 
         Set<ProcessingDetails> exceptions = new HashSet<>();
         Set<String> sourceIds = getCombinedIdSet(queryRequest);
@@ -2126,8 +2122,10 @@ && canAccessSource(frameworkProperties.getFederatedSources()
         LOGGER.debug("Calling strategy.federate()");
 
         QueryResponse response = strategy.federate(sourcesToQuery, queryRequest);
-        frameworkProperties.getQueryResponsePostProcessor()
-                .processResponse(response);
+        if (postProcess) {
+            frameworkProperties.getQueryResponsePostProcessor()
+                    .processResponse(response);
+        }
         return addProcessingDetails(exceptions, response);
     }
 
@@ -2874,7 +2872,9 @@ protected SourceResponse validateFixQueryResponse(SourceResponse sourceResponse,
             sourceResp = replaceSourceId((QueryResponse) sourceResponse);
         }
         if (sourceResp != null) {
-            if (sourceResp.getResults() == null) {
+            // The results of a QueryResponseImpl are never null, and reading them here would wait
+            // for all of them to be returned before the post-query plugins can start
+            if (!(sourceResp instanceof QueryResponseImpl) && sourceResp.getResults() == null) {
                 throw new UnsupportedQueryException(
                         "CatalogProvider returned null list of results from query method.");
             }
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Adler32;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+
+import ddf.catalog.content.data.ContentItem;
+
+/**
+ * Stages the content of the {@link ContentItem}s of a storage request in temporary files.
+ * <p>
+ * The content of each item is read only once. While it is copied to its temporary file, its size
+ * and checksum are computed and its first bytes are kept in memory, so that its MIME type can be
+ * detected without reading the file again. Content small enough to be kept in memory entirely is
+ * never read back from the file.
+ * <p>
+ * The work done on the staged content of a request, such as generating the metacard of each
+ * item, can then be run in parallel on a bounded executor.
+ */
+public class ContentStager {
+
+    /**
+     * The algorithm of the checksums of the staged content, as named by the Checksum plugin.
+     */
+    public static final String CHECKSUM_ALGORITHM = "Adler32";
+
+    private static final int SNIFF_BUFFER_SIZE = 64 * 1024;
+
+    private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates a stager that runs the work on the staged content in the calling thread.
+     */
+    public ContentStager() {
+        this.executor = null;
+    }
+
+    /**
+     * @param threadPoolSize the number of threads working on staged content in parallel, or 1 or
+     *                       less to work in the calling thread
+     */
+    public ContentStager(int threadPoolSize) {
+        this.executor = threadPoolSize > 1 ? createExecutor(threadPoolSize) : null;
+    }
+
+    /**
+     * Copies the content of a {@link ContentItem} to a temporary file, and closes its input
+     * stream.
+     *
+     * @param contentItem the content item to stage
+     * @return the staged content
+     * @throws IOException if the content could not be read or copied, in which case no
+     *                     temporary file is left behind
+     */
+    public StagedContent stage(ContentItem contentItem) throws IOException {
+        Path path = Files.createTempFile(FilenameUtils.getBaseName(contentItem.getFilename()),
+                FilenameUtils.getExtension(contentItem.getFilename()));
+
+        Adler32 checksum = new Adler32();
+        byte[] sniffBuffer = new byte[SNIFF_BUFFER_SIZE];
+        int sniffed = 0;
+        long size = 0;
+        try (InputStream inputStream = contentItem.getInputStream();
+                OutputStream outputStream = Files.newOutputStream(path)) {
+            if (inputStream == null) {
+                throw new IOException("Content item " + contentItem.getId() + " has no content.");
+            }
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+                checksum.update(buffer, 0, read);
+                if (sniffed < sniffBuffer.length) {
+                    int length = Math.min(read, sniffBuffer.length - sniffed);
+                    System.arraycopy(buffer, 0, sniffBuffer, sniffed, length);
+                    sniffed += length;
+                }
+                size += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            FileUtils.deleteQuietly(path.toFile());
+            throw e;
+        }
+
+        return new StagedContent(path,
+                size,
+                Long.toHexString(checksum.getValue()),
+                Arrays.copyOf(sniffBuffer, sniffed));
+    }
+
+    /**
+     * Runs tasks on staged content, in parallel if this stager has an executor and there is more
+     * than one task.
+     *
+     * @param tasks the tasks to run
+     * @return the results of the tasks, in the order of the tasks
+     * @throws ExecutionException   if a task failed, holding the failure of the first one
+     * @throws InterruptedException if interrupted while waiting for the tasks
+     */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> tasks)
+            throws ExecutionException, InterruptedException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (executor == null || tasks.size() < 2) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (Exception e) {
+                    throw new ExecutionException(e);
+                }
+            }
+            return results;
+        }
+
+        for (Future<T> future : executor.invokeAll(tasks)) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService createExecutor(int threadPoolSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable,
+                    "content-stager-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadPoolSize,
+                threadPoolSize,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * The content of a {@link ContentItem} staged in a temporary file.
+     */
+    public static class StagedContent {
+
+        private final Path path;
+
+        private final long size;
+
+        private final String checksum;
+
+        private final byte[] sniffBuffer;
+
+        StagedContent(Path path, long size, String checksum, byte[] sniffBuffer) {
+            this.path = path;
+            this.size = size;
+            this.checksum = checksum;
+            this.sniffBuffer = sniffBuffer;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the {@link #CHECKSUM_ALGORITHM} checksum of the content, in hexadecimal
+         */
+        public String getChecksum() {
+            return checksum;
+        }
+
+        /**
+         * @return a stream over the whole content, read from memory if it fits in the sniff
+         * buffer
+         */
+        public InputStream openStream() throws IOException {
+            if (sniffBuffer.length == size) {
+                return new ByteArrayInputStream(sniffBuffer);
+            }
+            return Files.newInputStream(path);
+        }
+
+        /**
+         * @return a stream over the first bytes of the content, enough to detect its type
+         */
+        public InputStream openSniffStream() {
+            return new ByteArrayInputStream(sniffBuffer);
+        }
+    }
+}
@@ -87,6 +87,10 @@ public class FrameworkProperties {
 
     private QueryResponsePostProcessor queryResponsePostProcessor;
 
+    private PostQueryPipeline postQueryPipeline = new PostQueryPipeline();
+
+    private ContentStager contentStager = new ContentStager();
+
     private ExecutorService pool;
 
     private SourcePoller sourcePoller;
@@ -236,6 +240,22 @@ public void setQueryResponsePostProcessor(
         this.queryResponsePostProcessor = queryResponsePostProcessor;
     }
 
+    public PostQueryPipeline getPostQueryPipeline() {
+        return postQueryPipeline;
+    }
+
+    public void setPostQueryPipeline(PostQueryPipeline postQueryPipeline) {
+        this.postQueryPipeline = postQueryPipeline;
+    }
+
+    public ContentStager getContentStager() {
+        return contentStager;
+    }
+
+    public void setContentStager(ContentStager contentStager) {
+        this.contentStager = contentStager;
+    }
+
     public ExecutorService getPool() {
         return pool;
     }
@@ -0,0 +1,382 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.plugin.AccessPlugin;
+import ddf.catalog.plugin.ConcurrentPolicyPlugin;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PolicyPlugin;
+import ddf.catalog.plugin.PolicyResponse;
+import ddf.catalog.plugin.PostQueryPlugin;
+import ddf.catalog.plugin.StopProcessingException;
+
+/**
+ * Runs the post-query stage of the {@link CatalogFrameworkImpl}. The
+ * {@link QueryResponsePostProcessor} and the {@link PolicyPlugin}s process each {@link Result},
+ * then the {@link AccessPlugin}s and the {@link PostQueryPlugin}s process the whole
+ * {@link QueryResponse}.
+ * <p>
+ * Results are read in chunks as the federation strategy returns them, instead of after all of
+ * them have been returned. When every {@link PolicyPlugin} is a {@link ConcurrentPolicyPlugin},
+ * the chunks are processed in parallel. Results are updated in place, so they keep their order.
+ * <p>
+ * The time spent in each plugin is exposed through the {@link PostQueryPipelineMBean}.
+ */
+public class PostQueryPipeline implements PostQueryPipelineMBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostQueryPipeline.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 50;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ExecutorService executor;
+
+    private final Map<String, PluginStatistics> statistics = new ConcurrentHashMap<>();
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private ObjectName objectName;
+
+    /**
+     * Creates a pipeline that processes the results in the calling thread.
+     */
+    public PostQueryPipeline() {
+        this.executor = null;
+    }
+
+    /**
+     * @param threadPoolSize the number of threads processing chunks of results in parallel, or
+     *                       1 or less to process them in the calling thread
+     */
+    public PostQueryPipeline(int threadPoolSize) {
+        this.executor = threadPoolSize > 1 ? createExecutor(threadPoolSize) : null;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Runs the post-query stage on a {@link QueryResponse}.
+     *
+     * @param queryResponse    the response of the federation strategy
+     * @param postProcessor    processes each result before the policy plugins, may be {@code null}
+     * @param policyPlugins    the plugins building the security policy of each result
+     * @param accessPlugins    the plugins run on the response once the policy has been built
+     * @param postQueryPlugins the plugins run on the response last
+     * @return the response returned by the last plugin
+     * @throws StopProcessingException if a plugin stopped the processing of the query
+     */
+    public QueryResponse process(QueryResponse queryResponse,
+            QueryResponsePostProcessor postProcessor, List<PolicyPlugin> policyPlugins,
+            List<AccessPlugin> accessPlugins, List<PostQueryPlugin> postQueryPlugins)
+            throws StopProcessingException {
+        QueryResponse response = queryResponse;
+
+        HashMap<String, Set<String>> responsePolicyMap = processResults(response,
+                postProcessor,
+                policyPlugins);
+        response.getProperties()
+                .put(PolicyPlugin.OPERATION_SECURITY, responsePolicyMap);
+
+        for (AccessPlugin plugin : accessPlugins) {
+            long start = System.nanoTime();
+            try {
+                response = plugin.processPostQuery(response);
+            } finally {
+                record(plugin, start);
+            }
+        }
+
+        for (PostQueryPlugin plugin : postQueryPlugins) {
+            long start = System.nanoTime();
+            try {
+                response = plugin.process(response);
+            } catch (PluginExecutionException e) {
+                LOGGER.warn("Error executing PostQueryPlugin: {}", e.getMessage(), e);
+            } finally {
+                record(plugin, start);
+            }
+        }
+
+        return response;
+    }
+
+    private HashMap<String, Set<String>> processResults(QueryResponse response,
+            QueryResponsePostProcessor postProcessor, List<PolicyPlugin> policyPlugins)
+            throws StopProcessingException {
+        Map<String, Serializable> properties =
+                Collections.unmodifiableMap(response.getProperties());
+        Iterator<Result> results = response instanceof QueryResponseImpl ?
+                ((QueryResponseImpl) response).resultIterator() :
+                response.getResults()
+                        .iterator();
+        boolean concurrent = executor != null && policyPlugins.stream()
+                .allMatch(ConcurrentPolicyPlugin.class::isInstance);
+
+        HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
+        List<Future<HashMap<String, Set<String>>>> chunks = new ArrayList<>();
+        try {
+            while (results.hasNext()) {
+                List<Result> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && results.hasNext()) {
+                    chunk.add(results.next());
+                }
+
+                if (concurrent) {
+                    chunks.add(executor.submit(() -> processChunk(chunk,
+                            postProcessor,
+                            policyPlugins,
+                            properties)));
+                } else {
+                    buildPolicyMap(responsePolicyMap,
+                            processChunk(chunk, postProcessor, policyPlugins, properties)
+                                    .entrySet());
+                }
+            }
+
+            for (Future<HashMap<String, Set<String>>> chunk : chunks) {
+                buildPolicyMap(responsePolicyMap,
+                        getChunk(chunk)
+                                .entrySet());
+            }
+        } finally {
+            for (Future<HashMap<String, Set<String>>> chunk : chunks) {
+                chunk.cancel(true);
+            }
+        }
+        return responsePolicyMap;
+    }
+
+    private HashMap<String, Set<String>> processChunk(List<Result> chunk,
+            QueryResponsePostProcessor postProcessor, List<PolicyPlugin> policyPlugins,
+            Map<String, Serializable> properties) throws StopProcessingException {
+        HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
+        for (Result result : chunk) {
+            if (postProcessor != null) {
+                long start = System.nanoTime();
+                postProcessor.processResult(result);
+                record(postProcessor, start);
+            }
+
+            HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
+            for (PolicyPlugin plugin : policyPlugins) {
+                long start = System.nanoTime();
+                PolicyResponse policyResponse;
+                try {
+                    policyResponse = plugin.processPostQuery(result, properties);
+                } finally {
+                    record(plugin, start);
+                }
+                buildPolicyMap(itemPolicyMap,
+                        policyResponse.itemPolicy()
+                                .entrySet());
+                buildPolicyMap(responsePolicyMap,
+                        policyResponse.operationPolicy()
+                                .entrySet());
+            }
+            result.getMetacard()
+                    .setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
+        }
+        return responsePolicyMap;
+    }
+
+    private HashMap<String, Set<String>> getChunk(Future<HashMap<String, Set<String>>> chunk)
+            throws StopProcessingException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new StopProcessingException("Interrupted while processing the query results.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof StopProcessingException) {
+                throw (StopProcessingException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new StopProcessingException(cause.getMessage());
+        }
+    }
+
+    private void buildPolicyMap(Map<String, Set<String>> policyMap,
+            Set<Entry<String, Set<String>>> policy) {
+        if (policy != null) {
+            for (Entry<String, Set<String>> entry : policy) {
+                if (policyMap.containsKey(entry.getKey())) {
+                    policyMap.get(entry.getKey())
+                            .addAll(entry.getValue());
+                } else {
+                    policyMap.put(entry.getKey(), new HashSet<>(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    private void record(Object plugin, long start) {
+        statistics.computeIfAbsent(plugin.getClass()
+                .getName(), name -> new PluginStatistics())
+                .record(System.nanoTime() - start);
+    }
+
+    @Override
+    public Map<String, Long> getInvocationCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        statistics.forEach((name, pluginStatistics) -> counts.put(name,
+                pluginStatistics.count.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getTotalMillis() {
+        return toMillis(pluginStatistics -> pluginStatistics.totalNanos.sum());
+    }
+
+    @Override
+    public Map<String, Double> getAverageMillis() {
+        return toMillis(pluginStatistics -> {
+            long count = pluginStatistics.count.sum();
+            return count == 0 ? 0 : (double) pluginStatistics.totalNanos.sum() / count;
+        });
+    }
+
+    @Override
+    public Map<String, Double> getMaximumMillis() {
+        return toMillis(pluginStatistics -> pluginStatistics.maximumNanos.get());
+    }
+
+    @Override
+    public void resetStatistics() {
+        statistics.clear();
+    }
+
+    private Map<String, Double> toMillis(ToDoubleFunction<PluginStatistics> nanos) {
+        Map<String, Double> millis = new TreeMap<>();
+        statistics.forEach((name, pluginStatistics) -> millis.put(name,
+                nanos.applyAsDouble(pluginStatistics) / NANOS_PER_MILLI));
+        return millis;
+    }
+
+    public void registerMBean() {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            objectName = new ObjectName(PostQueryPipelineMBean.OBJECTNAME);
+            try {
+                mbeanServer.registerMBean(new StandardMBean(this,
+                        PostQueryPipelineMBean.class,
+                        true), objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                LOGGER.info("Re-registering Post-Query Pipeline MBean");
+                mbeanServer.unregisterMBean(objectName);
+                mbeanServer.registerMBean(new StandardMBean(this,
+                        PostQueryPipelineMBean.class,
+                        true), objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not register MBean.", e);
+        }
+    }
+
+    public void destroy() {
+        try {
+            if (objectName != null) {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not unregister MBean.", e);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService createExecutor(int threadPoolSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable,
+                    "post-query-pipeline-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadPoolSize,
+                threadPoolSize,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static class PluginStatistics {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final AtomicLong maximumNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maximumNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+}
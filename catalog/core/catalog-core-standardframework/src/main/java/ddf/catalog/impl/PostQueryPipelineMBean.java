@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import java.util.Map;
+
+/**
+ * Time spent by each plugin of the {@link PostQueryPipeline}, by plugin class name.
+ */
+public interface PostQueryPipelineMBean {
+
+    String OBJECTNAME = "ddf.catalog.impl.PostQueryPipeline:service=post-query-pipeline";
+
+    /**
+     * @return the number of times each plugin was called since the statistics were last reset
+     */
+    Map<String, Long> getInvocationCounts();
+
+    /**
+     * @return the total time spent in each plugin, in milliseconds
+     */
+    Map<String, Double> getTotalMillis();
+
+    /**
+     * @return the average time of a call to each plugin, in milliseconds
+     */
+    Map<String, Double> getAverageMillis();
+
+    /**
+     * @return the longest call to each plugin, in milliseconds
+     */
+    Map<String, Double> getMaximumMillis();
+
+    void resetStatistics();
+}
@@ -65,35 +65,49 @@ public void processResponse(QueryResponse queryResponse) {
         }
 
         for (Result result : queryResponse.getResults()) {
-            final Metacard metacard = result.getMetacard();
+            processResult(result);
+        }
+    }
 
-            if (metacard.getResourceURI() != null && resourceActionProvider != null) {
-                List<Action> actions = resourceActionProvider.getActions(metacard);
+    /**
+     * Performs any required post-processing on a single {@link Result} of a {@link QueryResponse}.
+     * May be called concurrently for different results.
+     *
+     * @param result {@link Result} to process. Cannot be <code>null</code>.
+     */
+    public void processResult(Result result) {
+        if (resourceActionProvider == null && derivedActionProvider == null) {
+            return;
+        }
+
+        final Metacard metacard = result.getMetacard();
+
+        if (metacard.getResourceURI() != null && resourceActionProvider != null) {
+            List<Action> actions = resourceActionProvider.getActions(metacard);
 
-                if (!CollectionUtils.isEmpty(actions)) {
-                    final URL resourceUrl = actions.get(0)
-                            .getUrl();
+            if (!CollectionUtils.isEmpty(actions)) {
+                final URL resourceUrl = actions.get(0)
+                        .getUrl();
 
-                    if (resourceUrl != null) {
-                        metacard.setAttribute(new AttributeImpl(Metacard.RESOURCE_DOWNLOAD_URL,
-                                resourceUrl.toString()));
-                    }
+                if (resourceUrl != null) {
+                    metacard.setAttribute(new AttributeImpl(Metacard.RESOURCE_DOWNLOAD_URL,
+                            resourceUrl.toString()));
                 }
             }
-            if (metacard.getAttribute(Metacard.DERIVED_RESOURCE_URI) != null
-                    && !metacard.getAttribute(Metacard.DERIVED_RESOURCE_URI)
-                    .getValues()
-                    .isEmpty() &&
-                    derivedActionProvider != null) {
-                List<Action> actions = derivedActionProvider.getActions(metacard);
-
-                if (!CollectionUtils.isEmpty(actions)) {
-                    metacard.setAttribute(new AttributeImpl(Metacard.DERIVED_RESOURCE_DOWNLOAD_URL,
-                            actions.stream()
-                                    .map(action -> action.getUrl()
-                                            .toString())
-                                    .collect(Collectors.toList())));
-                }
+        }
+        if (metacard.getAttribute(Metacard.DERIVED_RESOURCE_URI) != null
+                && !metacard.getAttribute(Metacard.DERIVED_RESOURCE_URI)
+                .getValues()
+                .isEmpty() &&
+                derivedActionProvider != null) {
+            List<Action> actions = derivedActionProvider.getActions(metacard);
+
+            if (!CollectionUtils.isEmpty(actions)) {
+                metacard.setAttribute(new AttributeImpl(Metacard.DERIVED_RESOURCE_DOWNLOAD_URL,
+                        actions.stream()
+                                .map(action -> action.getUrl()
+                                        .toString())
+                                .collect(Collectors.toList())));
             }
         }
     }
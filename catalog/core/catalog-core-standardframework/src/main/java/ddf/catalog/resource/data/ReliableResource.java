@@ -17,6 +17,8 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import javax.activation.MimeType;
 
@@ -28,13 +30,13 @@
 
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
-import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.FileResource;
 
 /**
  * The resource that will be stored in the @ResourceCache cache map.
  *
  */
-public class ReliableResource implements Resource, Serializable {
+public class ReliableResource implements FileResource, Serializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -72,6 +74,11 @@ public String getFilePath() {
         return filePath;
     }
 
+    @Override
+    public Path getPath() {
+        return filePath == null ? null : Paths.get(filePath);
+    }
+
     /**
      * Key is also filename of where file is stored.
      *
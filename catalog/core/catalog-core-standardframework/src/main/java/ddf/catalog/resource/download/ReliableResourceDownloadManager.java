@@ -14,7 +14,11 @@
 package ddf.catalog.resource.download;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,6 +29,7 @@
 
 import com.google.common.base.Stopwatch;
 
+import ddf.catalog.cache.impl.CacheKey;
 import ddf.catalog.cache.impl.ResourceCache;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.event.retrievestatus.DownloadStatusInfo;
@@ -41,6 +46,11 @@
 /**
  * The manager for downloading a resource, including retrying the download if problems are
  * encountered, and optionally caching the resource as it is streamed to the client.
+ * <p>
+ * Concurrent requests for the same resource, as identified by its {@link CacheKey}, share a single
+ * download: the resource is only retrieved from the source once, and each client reads it from its
+ * own {@link ReliableResourceInputStream}. Requests for part of a resource, which set the
+ * {@link ResourceRetriever#BYTES_TO_SKIP} property, always get a download of their own.
  */
 public class ReliableResourceDownloadManager {
 
@@ -51,8 +61,6 @@ public class ReliableResourceDownloadManager {
 
     private DownloadsStatusEventPublisher eventPublisher;
 
-    private ResourceResponse resourceResponse;
-
     private String downloadIdentifier;
 
     private DownloadStatusInfo downloadStatusInfo;
@@ -62,6 +70,13 @@ public class ReliableResourceDownloadManager {
     private ReliableResourceDownloaderConfig downloaderConfig =
             new ReliableResourceDownloaderConfig();
 
+    /**
+     * Downloads by cache key that clients are still reading, completed with their downloader once
+     * it is set up, or with null if the download could not be started.
+     */
+    private final ConcurrentMap<String, CompletableFuture<ReliableResourceDownloader>>
+            downloadsInProgress = new ConcurrentHashMap<>();
+
     /**
      * @param resourceCache
      *            reference to the @ResourceCache to cache the resource in
@@ -123,6 +138,40 @@ public ResourceResponse download(ResourceRequest resourceRequest, Metacard metac
             throw new DownloadException("Cannot download resource if request is null");
         }
 
+        String key = isPartialRequest(resourceRequest) ?
+                null :
+                getCacheKey(metacard, resourceRequest);
+        if (key == null) {
+            return startDownload(resourceRequest, metacard, retriever, null, null);
+        }
+
+        CompletableFuture<ReliableResourceDownloader> download = new CompletableFuture<>();
+        CompletableFuture<ReliableResourceDownloader> downloadInProgress;
+        while ((downloadInProgress = downloadsInProgress.putIfAbsent(key, download)) != null) {
+            ReliableResourceDownloader downloader = downloadInProgress.join();
+            ResourceResponse resourceResponse =
+                    downloader == null ? null : downloader.attach(resourceRequest);
+            if (resourceResponse != null) {
+                LOGGER.debug("Reading resource with cache key {} from download in progress", key);
+                return resourceResponse;
+            }
+            downloadsInProgress.remove(key, downloadInProgress);
+        }
+
+        try {
+            return startDownload(resourceRequest, metacard, retriever, key, download);
+        } finally {
+            // Lets clients waiting on this download start their own if it could not be started
+            if (download.complete(null)) {
+                downloadsInProgress.remove(key, download);
+            }
+        }
+    }
+
+    private ResourceResponse startDownload(ResourceRequest resourceRequest, Metacard metacard,
+            ResourceRetriever retriever, String key,
+            CompletableFuture<ReliableResourceDownloader> download) throws DownloadException {
+        ResourceResponse resourceResponse;
         try {
             resourceResponse = retriever.retrieveResource();
         } catch (ResourceNotFoundException | ResourceNotSupportedException | IOException e) {
@@ -153,11 +202,29 @@ public ResourceResponse download(ResourceRequest resourceRequest, Metacard metac
                 downloadIdentifier,
                 resourceResponse,
                 retriever);
+        if (download != null) {
+            downloader.setReleaseListener(() -> downloadsInProgress.remove(key, download));
+        }
         resourceResponse = downloader.setupDownload(metacard, downloadStatusInfo);
 
         // Start download in separate thread so can return ResourceResponse with
         // ReliableResourceInputStream available for client to start reading from
-        executor.submit(downloader);
+        if (download == null) {
+            executor.submit(downloader);
+        } else {
+            executor.submit(() -> {
+                try {
+                    downloader.run();
+                } finally {
+                    // Clients can keep attaching to a completed download until its last reader
+                    // is done with it
+                    if (!downloader.isCompleted()) {
+                        downloadsInProgress.remove(key, download);
+                    }
+                }
+            });
+            download.complete(downloader);
+        }
 
         // Wait for download to get started before returning control to client
         Stopwatch stopwatch = Stopwatch.createStarted();
@@ -178,6 +245,31 @@ public ResourceResponse download(ResourceRequest resourceRequest, Metacard metac
         return resourceResponse;
     }
 
+    private boolean isPartialRequest(ResourceRequest resourceRequest) {
+        Serializable bytesToSkip =
+                resourceRequest.getPropertyValue(ResourceRetriever.BYTES_TO_SKIP);
+        if (bytesToSkip == null) {
+            return false;
+        }
+
+        try {
+            return Long.parseLong(bytesToSkip.toString()) > 0;
+        } catch (NumberFormatException e) {
+            // The source decides what to make of it, so the download is not shared
+            return true;
+        }
+    }
+
+    private String getCacheKey(Metacard metacard, ResourceRequest resourceRequest) {
+        try {
+            return new CacheKey(metacard, resourceRequest).generateKey();
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Cannot create cache key for resource with metacard ID = {}",
+                    metacard.getId());
+            return null;
+        }
+    }
+
     public void setMaxRetryAttempts(int maxRetryAttempts) {
         downloaderConfig.setMaxRetryAttempts(maxRetryAttempts);
     }
@@ -18,13 +18,17 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Timer;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.activation.MimeType;
 
@@ -45,6 +49,7 @@
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventListener;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher.ProductRetrievalStatus;
+import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
 import ddf.catalog.operation.impl.ResourceResponseImpl;
 import ddf.catalog.resource.Resource;
@@ -78,6 +83,20 @@ public class ReliableResourceDownloader implements Runnable {
 
     private ReliableResourceInputStream streamReadByClient;
 
+    // All of the ReliableResourceInputStreams reading this download, starting with streamReadByClient
+    private final List<ReliableResourceInputStream> streamsReadByClients =
+            new CopyOnWriteArrayList<>();
+
+    // The number of streamsReadByClients that are still reading from the FileBackedOutputStream
+    private final AtomicInteger openReaders = new AtomicInteger(1);
+
+    // The Callable and its Future currently writing to the FileBackedOutputStream
+    private ReliableResourceCallable callableReadByClients;
+
+    private Future<ReliableResourceStatus> futureReadByClients;
+
+    private Runnable releaseListener;
+
     private FileOutputStream fos;
 
     private FileBackedOutputStream fbos;
@@ -94,6 +113,10 @@ public class ReliableResourceDownloader implements Runnable {
 
     private ResourceResponse resourceResponse;
 
+    private MimeType mimeType;
+
+    private String resourceName;
+
     private ReliableResourceDownloaderConfig downloaderConfig;
 
     private DownloadsStatusEventListener eventListener;
@@ -137,8 +160,8 @@ public ReliableResourceDownloader(ReliableResourceDownloaderConfig downloaderCon
     public ResourceResponse setupDownload(Metacard metacard,
             DownloadStatusInfo downloadStatusInfo) {
         Resource resource = resourceResponse.getResource();
-        MimeType mimeType = resource.getMimeType();
-        String resourceName = resource.getName();
+        mimeType = resource.getMimeType();
+        resourceName = resource.getName();
 
         fbos = new FileBackedOutputStream(DEFAULT_FILE_BACKED_OUTPUT_STREAM_THRESHOLD);
         countingFbos = new CountingOutputStream(fbos);
@@ -146,7 +169,10 @@ public ResourceResponse setupDownload(Metacard metacard,
                 countingFbos,
                 downloadState,
                 downloadIdentifier,
-                resourceResponse);
+                resourceResponse,
+                openReaders);
+        streamReadByClient.setReleaseListener(this::releaseReaders);
+        streamsReadByClients.add(streamReadByClient);
 
         this.metacard = metacard;
 
@@ -207,6 +233,63 @@ public ResourceResponse setupDownload(Metacard metacard,
         return resourceResponse;
     }
 
+    /**
+     * Attaches another client to this download. The client reads the product from its first byte
+     * as it is downloaded, without the product being retrieved from the source again, and can
+     * cancel its retrieval without affecting the other clients reading this download.
+     *
+     * @param resourceRequest the @ResourceRequest of the client
+     * @return the @ResourceResponse with the @ReliableResourceInputStream that the client should
+     * read from, or null if this download has failed or is no longer being read
+     */
+    public ResourceResponse attach(ResourceRequest resourceRequest) {
+        synchronized (streamsReadByClients) {
+            DownloadState state = downloadState.getDownloadState();
+            if (state == DownloadState.FAILED || state == DownloadState.CANCELED) {
+                return null;
+            }
+
+            // Once the last client stops reading, the FileBackedOutputStream is reset and the
+            // product can no longer be read from its first byte
+            if (openReaders.getAndUpdate(readers -> readers > 0 ? readers + 1 : readers) == 0) {
+                return null;
+            }
+
+            ReliableResourceInputStream stream = new ReliableResourceInputStream(fbos,
+                    countingFbos,
+                    downloadState,
+                    downloadIdentifier,
+                    resourceResponse,
+                    openReaders);
+            if (futureReadByClients != null) {
+                stream.setCallableAndItsFuture(callableReadByClients, futureReadByClients);
+            }
+            stream.setReleaseListener(this::releaseReaders);
+            streamsReadByClients.add(stream);
+            LOGGER.debug("Attached client {} to download of metacard ID = {}",
+                    streamsReadByClients.size(),
+                    metacard.getId());
+
+            return new ResourceResponseImpl(resourceRequest,
+                    new HashMap<>(resourceResponse.getProperties()),
+                    new ResourceImpl(stream, mimeType, resourceName));
+        }
+    }
+
+    /**
+     * Sets the @Runnable to run once no client is reading this download any more, after which
+     * no other client can be attached to it.
+     *
+     * @param releaseListener
+     */
+    public void setReleaseListener(Runnable releaseListener) {
+        this.releaseListener = releaseListener;
+    }
+
+    public boolean isCompleted() {
+        return downloadState.getDownloadState() == DownloadState.COMPLETED;
+    }
+
     @Override
     public void run() {
         long bytesRead = 0;
@@ -250,11 +333,10 @@ public void run() {
                     downloadExecutor = Executors.newSingleThreadExecutor();
                     downloadFuture = downloadExecutor.submit(reliableResourceCallable);
 
-                    // Update callable and its Future in the ReliableResourceInputStream being read
-                    // by the client so that if client cancels this download the proper Callable and
-                    // Future are canceled.
-                    streamReadByClient.setCallableAndItsFuture(reliableResourceCallable,
-                            downloadFuture);
+                    // Update callable and its Future in the ReliableResourceInputStreams being read
+                    // by the clients so that if the clients cancel this download the proper
+                    // Callable and Future are canceled.
+                    setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
 
                     // Monitor to watch that bytes are continually being read from the resource's
                     // InputStream. This monitor is used to detect if there are long pauses or
@@ -557,6 +639,23 @@ private ReliableResourceCallable retrieveResource(long bytesRead) {
         return reliableResourceCallable;
     }
 
+    private void releaseReaders() {
+        if (releaseListener != null) {
+            releaseListener.run();
+        }
+    }
+
+    private void setCallableAndItsFuture(ReliableResourceCallable reliableResourceCallable,
+            Future<ReliableResourceStatus> downloadFuture) {
+        synchronized (streamsReadByClients) {
+            callableReadByClients = reliableResourceCallable;
+            futureReadByClients = downloadFuture;
+            for (ReliableResourceInputStream stream : streamsReadByClients) {
+                stream.setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
+            }
+        }
+    }
+
     private void deleteCacheFile(FileOutputStream fos) {
         LOGGER.debug("Deleting partially cached file {}", filePath);
         IOUtils.closeQuietly(fos);
@@ -16,6 +16,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,10 @@
 /**
  * The @InputStream used by the client to read from the @FileBackedOutputStream being written to as
  * the resource is being downloaded.
+ * <p>
+ * Several clients can read the same download, each with its own ReliableResourceInputStream
+ * starting at the first byte. The @FileBackedOutputStream is only reset, and the download only
+ * canceled, by the last of them.
  */
 public class ReliableResourceInputStream extends InputStream {
 
@@ -51,6 +56,12 @@ public class ReliableResourceInputStream extends InputStream {
 
     private CountingOutputStream countingFbos;
 
+    // The number of ReliableResourceInputStreams still reading from the FileBackedOutputStream
+    private AtomicInteger openReaders;
+
+    // Run when the last ReliableResourceInputStream stops reading from the FileBackedOutputStream
+    private Runnable releaseListener;
+
     private ByteSource fbosByteSource;
 
     private long fbosBytesRead = 0;
@@ -58,6 +69,9 @@ public class ReliableResourceInputStream extends InputStream {
     // Indicates if this InputStream is closed or not
     private boolean streamClosed = false;
 
+    // Indicates if this InputStream has stopped reading from the FileBackedOutputStream
+    private boolean released = false;
+
     /**
      * @param fbos          the @FileBackedOutputStream this object will read from
      * @param countingFbos  wrapped @FileBackedOutputStream that counts the number of bytes written so far
@@ -66,12 +80,32 @@ public class ReliableResourceInputStream extends InputStream {
     public ReliableResourceInputStream(FileBackedOutputStream fbos,
             CountingOutputStream countingFbos, DownloadManagerState downloadState,
             String downloadIdentifier, ResourceResponse resourceResponse) {
+        this(fbos,
+                countingFbos,
+                downloadState,
+                downloadIdentifier,
+                resourceResponse,
+                new AtomicInteger(1));
+    }
+
+    /**
+     * @param fbos          the @FileBackedOutputStream this object will read from
+     * @param countingFbos  wrapped @FileBackedOutputStream that counts the number of bytes written so far
+     * @param downloadState the current state of the resource's download
+     * @param openReaders   the number of ReliableResourceInputStreams reading from the
+     *                      @FileBackedOutputStream, including this one
+     */
+    public ReliableResourceInputStream(FileBackedOutputStream fbos,
+            CountingOutputStream countingFbos, DownloadManagerState downloadState,
+            String downloadIdentifier, ResourceResponse resourceResponse,
+            AtomicInteger openReaders) {
         this.fbos = fbos;
         fbosByteSource = fbos.asByteSource();
         this.countingFbos = countingFbos;
         this.downloadState = downloadState;
         this.downloadIdentifier = downloadIdentifier;
         this.resourceResponse = resourceResponse;
+        this.openReaders = openReaders;
     }
 
     /**
@@ -87,15 +121,28 @@ public void setCallableAndItsFuture(ReliableResourceCallable reliableResourceCal
         this.downloadFuture = downloadFuture;
     }
 
+    /**
+     * Sets the @Runnable to run once this and every other ReliableResourceInputStream reading
+     * from the @FileBackedOutputStream have stopped reading from it.
+     *
+     * @param releaseListener
+     */
+    public void setReleaseListener(Runnable releaseListener) {
+        this.releaseListener = releaseListener;
+    }
+
     @Override
     public void close() throws IOException {
         LOGGER.debug("ENTERING: close() - fbosBytesRead = {}", fbosBytesRead);
         InputStream is = fbosByteSource.openStream();
         is.close();
 
+        // Other clients may still be reading this download, in which case it is left running
+        boolean lastReader = release();
+
         // If product download not yet complete, set cancellation of download
         // (ReliableResourceDownloadManager will determine if caching should continue)
-        if (!downloadFuture.isDone()) {
+        if (lastReader && downloadFuture != null && !downloadFuture.isDone()) {
             // Stop the caching thread. This is synchronized so that Callable can finish any writing to
             // OutputStreams before being canceled
             synchronized (reliableResourceCallable) {
@@ -113,8 +160,10 @@ public void close() throws IOException {
 
         // Resetting the FileBackedOutputStream should delete the tmp file
         // it created.
-        LOGGER.debug("Resetting FBOS");
-        fbos.reset();
+        if (lastReader) {
+            LOGGER.debug("Resetting FBOS");
+            fbos.reset();
+        }
 
         streamClosed = true;
     }
@@ -167,7 +216,10 @@ public int read(byte b[], int off, int len) throws IOException {
             LOGGER.debug("Sending EOF");
             // Client is done reading from this FileBackedOutputStream, so can
             // delete the backing file it created in the <INSTALL_DIR>/data/tmp directory
-            fbos.reset();
+            // unless other clients are still reading from it
+            if (release()) {
+                fbos.reset();
+            }
         } else if (numBytesRead <= 0) {
             LOGGER.trace("Retry reading inputstream");
             LOGGER.trace(
@@ -186,7 +238,9 @@ public int read(byte b[], int off, int len) throws IOException {
                     break;
                 } else if (isFbosCompletelyRead(numBytesRead, fbosCount)) {
                     LOGGER.debug("Got EOF - resetting FBOS");
-                    fbos.reset();
+                    if (release()) {
+                        fbos.reset();
+                    }
                     break;
                 } else {
                     try {
@@ -224,6 +278,25 @@ public DownloadManagerState getDownloadState() {
         return downloadState;
     }
 
+    /**
+     * Stops this InputStream from reading the @FileBackedOutputStream.
+     *
+     * @return true if no other ReliableResourceInputStream is reading from it any more
+     */
+    private synchronized boolean release() {
+        if (released) {
+            return false;
+        }
+        released = true;
+        if (openReaders.decrementAndGet() > 0) {
+            return false;
+        }
+        if (releaseListener != null) {
+            releaseListener.run();
+        }
+        return true;
+    }
+
     private boolean isFbosCompletelyRead(int numBytesRead, long fbosCount) {
         return (numBytesRead == -1 && fbosCount == fbosBytesRead && (
                 downloadState.getDownloadState() == DownloadManagerState.DownloadState.COMPLETED
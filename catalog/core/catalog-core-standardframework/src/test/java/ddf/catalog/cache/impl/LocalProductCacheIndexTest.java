@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import javax.activation.MimeType;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.resource.data.ReliableResource;
+
+public class LocalProductCacheIndexTest {
+
+    private static final String PRODUCT_KEY =
+            "ddf.distribution-0123456789abcdef0123456789abcdef";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path productCacheDirectory;
+
+    private LocalProductCacheIndex index;
+
+    @Before
+    public void setUp() {
+        productCacheDirectory = temporaryFolder.getRoot()
+                .toPath();
+        index = createIndex(30);
+    }
+
+    @After
+    public void tearDown() {
+        index.close();
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedForFrequentProduct() throws Exception {
+        ReliableResource rr1 = cache("rr1", 10);
+        ReliableResource rr2 = cache("rr2", 10);
+        ReliableResource rr3 = cache("rr3", 10);
+
+        request("rr4", 2);
+        ReliableResource rr4 = cache("rr4", 10);
+
+        assertRemoved(rr1);
+        assertCached(rr2);
+        assertCached(rr3);
+        assertCached(rr4);
+        assertThat(index.getSizeBytes(), is(30L));
+        assertThat(index.getEvictionCount(), is(1L));
+        assertThat(index.getEvictedBytes(), is(10L));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyRead() throws Exception {
+        ReliableResource rr1 = cache("rr1", 10);
+        ReliableResource rr2 = cache("rr2", 10);
+        ReliableResource rr3 = cache("rr3", 10);
+        index.get("rr1");
+
+        request("rr4", 2);
+        ReliableResource rr4 = cache("rr4", 10);
+
+        assertCached(rr1);
+        assertRemoved(rr2);
+        assertCached(rr3);
+        assertCached(rr4);
+    }
+
+    @Test
+    public void testRejectsProductRequestedLessOften() throws Exception {
+        request("rr1", 3);
+        ReliableResource rr1 = cache("rr1", 10);
+        request("rr2", 3);
+        ReliableResource rr2 = cache("rr2", 10);
+
+        request("large", 1);
+        ReliableResource large = cache("large", 25);
+
+        assertCached(rr1);
+        assertCached(rr2);
+        assertRemoved(large);
+        assertThat(index.getSizeBytes(), is(20L));
+        assertThat(index.getRejectionCount(), is(1L));
+        assertThat(index.getEvictionCount(), is(0L));
+    }
+
+    @Test
+    public void testRejectsProductLargerThanMaximumSize() throws Exception {
+        request("large", 10);
+        ReliableResource large = cache("large", 40);
+
+        assertRemoved(large);
+        assertThat(index.size(), is(0));
+        assertThat(index.getRejectionCount(), is(1L));
+    }
+
+    @Test
+    public void testEvictsWhenMaximumSizeIsReduced() throws Exception {
+        ReliableResource rr1 = cache("rr1", 10);
+        ReliableResource rr2 = cache("rr2", 10);
+
+        index.setMaxSizeBytes(15);
+
+        assertRemoved(rr1);
+        assertCached(rr2);
+    }
+
+    @Test
+    public void testNoMaximumSize() throws Exception {
+        index.setMaxSizeBytes(0);
+        for (int i = 0; i < 10; i++) {
+            cache("rr" + i, 10);
+        }
+
+        assertThat(index.size(), is(10));
+        assertThat(index.getSizeBytes(), is(100L));
+    }
+
+    @Test
+    public void testReloadsEntriesFromIndexFile() throws Exception {
+        ReliableResource rr1 = cache("rr1", 10);
+        cache("rr2", 5);
+        cache("rr3", 5);
+        index.remove("rr2");
+        index.close();
+
+        index = createIndex(30);
+
+        assertThat(index.size(), is(2));
+        assertThat(index.getSizeBytes(), is(15L));
+        assertThat(index.get("rr1")
+                .getFilePath(), is(rr1.getFilePath()));
+        assertThat(index.get("rr1")
+                .getSize(), is(10L));
+        assertThat(index.get("rr2"), nullValue());
+        assertThat(index.get("rr3"), notNullValue());
+    }
+
+    @Test
+    public void testReloadIgnoresDeletedProducts() throws Exception {
+        ReliableResource rr1 = cache("rr1", 10);
+        cache("rr2", 10);
+        index.close();
+        FileUtils.forceDelete(new File(rr1.getFilePath()));
+
+        index = createIndex(30);
+
+        assertThat(index.get("rr1"), nullValue());
+        assertThat(index.get("rr2"), notNullValue());
+        assertThat(index.getSizeBytes(), is(10L));
+    }
+
+    @Test
+    public void testReloadIgnoresIncompleteRecord() throws Exception {
+        cache("rr1", 10);
+        cache("rr2", 10);
+        index.close();
+        try (RandomAccessFile file = new RandomAccessFile(getIndexFile(), "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        index = createIndex(30);
+
+        assertThat(index.get("rr1"), notNullValue());
+        assertThat(index.get("rr2"), nullValue());
+
+        cache("rr3", 10);
+        index.close();
+        index = createIndex(30);
+
+        assertThat(index.get("rr1"), notNullValue());
+        assertThat(index.get("rr3"), notNullValue());
+    }
+
+    @Test
+    public void testReloadIgnoresInvalidIndexFile() throws Exception {
+        index.close();
+        FileUtils.writeStringToFile(getIndexFile(), "not an index");
+
+        index = createIndex(30);
+        cache("rr1", 10);
+        index.close();
+        index = createIndex(30);
+
+        assertThat(index.size(), is(1));
+    }
+
+    @Test
+    public void testReloadDeletesProductsNotInIndex() throws Exception {
+        ReliableResource rr1 = cache("rr1", 10);
+        index.close();
+        File unknownProduct = productCacheDirectory.resolve(PRODUCT_KEY)
+                .toFile();
+        FileUtils.writeByteArrayToFile(unknownProduct, new byte[20]);
+
+        index = createIndex(30);
+
+        assertThat(index.get("rr1"), notNullValue());
+        assertThat(new File(rr1.getFilePath()).exists(), is(true));
+        assertThat(unknownProduct.exists(), is(false));
+        assertThat(getIndexFile().exists(), is(true));
+        assertThat(index.getSizeBytes(), is(10L));
+    }
+
+    @Test
+    public void testReloadWithoutIndexFileDeletesProducts() throws Exception {
+        ReliableResource product = cache(PRODUCT_KEY, 10);
+        index.close();
+        FileUtils.forceDelete(getIndexFile());
+
+        index = createIndex(30);
+
+        assertThat(index.size(), is(0));
+        assertThat(index.getSizeBytes(), is(0L));
+        assertThat(new File(product.getFilePath()).exists(), is(false));
+    }
+
+    @Test
+    public void testReloadKeepsFilesThatAreNotProducts() throws Exception {
+        index.close();
+        FileUtils.forceDelete(getIndexFile());
+        File[] foreignFiles = {productCacheDirectory.resolve("notes.txt")
+                .toFile(), productCacheDirectory.resolve("ddf.distribution-report")
+                .toFile(), productCacheDirectory.resolve("0123456789abcdef0123456789abcdef")
+                .toFile()};
+        for (File foreignFile : foreignFiles) {
+            FileUtils.writeByteArrayToFile(foreignFile, new byte[20]);
+        }
+
+        index = createIndex(30);
+
+        for (File foreignFile : foreignFiles) {
+            assertThat(foreignFile.getName(), foreignFile.exists(), is(true));
+        }
+    }
+
+    @Test
+    public void testReloadWithInvalidIndexFileKeepsProducts() throws Exception {
+        ReliableResource product = cache(PRODUCT_KEY, 10);
+        index.close();
+        FileUtils.writeStringToFile(getIndexFile(), "not an index");
+
+        index = createIndex(30);
+
+        assertThat(index.size(), is(0));
+        assertThat(new File(product.getFilePath()).exists(), is(true));
+    }
+
+    @Test
+    public void testCompactsIndexFile() throws Exception {
+        index.setMaxSizeBytes(0);
+        cache("rr1", 10);
+        for (int i = 0; i < 50; i++) {
+            cache("rr2", 10);
+            index.remove("rr2");
+        }
+        File indexFile = getIndexFile();
+        long length = indexFile.length();
+
+        index.evict();
+
+        assertThat(indexFile.length() < length, is(true));
+        index.close();
+        index = createIndex(0);
+        assertThat(index.size(), is(1));
+        assertThat(index.get("rr1"), notNullValue());
+    }
+
+    private LocalProductCacheIndex createIndex(long maxSizeBytes) {
+        return new LocalProductCacheIndex(productCacheDirectory, maxSizeBytes, Runnable::run);
+    }
+
+    private File getIndexFile() {
+        return productCacheDirectory.resolve(LocalProductCacheIndex.INDEX_FILE_NAME)
+                .toFile();
+    }
+
+    private void request(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            index.recordAccess(key);
+        }
+    }
+
+    private ReliableResource cache(String key, int size) throws IOException {
+        File product = productCacheDirectory.resolve(key)
+                .toFile();
+        FileUtils.writeByteArrayToFile(product, new byte[size]);
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(key);
+        ReliableResource reliableResource = new ReliableResource(key,
+                product.getAbsolutePath(),
+                new MimeType(),
+                key,
+                metacard);
+        reliableResource.setSize(size);
+        index.put(reliableResource);
+        return reliableResource;
+    }
+
+    private void assertCached(ReliableResource reliableResource) {
+        assertThat(index.get(reliableResource.getKey()), notNullValue());
+        assertThat(new File(reliableResource.getFilePath()).exists(), is(true));
+    }
+
+    private void assertRemoved(ReliableResource reliableResource) {
+        assertThat(index.get(reliableResource.getKey()), nullValue());
+        assertThat(new File(reliableResource.getFilePath()).exists(), is(false));
+    }
+}
@@ -34,12 +34,18 @@
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.data.ReliableResource;
@@ -53,6 +59,9 @@ public class ResourceCacheTest {
 
     public ResourceCache resourceCache;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private String defaultProductCacheDirectory;
 
     @Before
@@ -167,6 +176,81 @@ public void testPutThenGetNotPending() {
                 resourceCache.getValid(key, metacard)));
     }
 
+    @Test
+    public void testLocalCacheStatistics() throws Exception {
+        File productCacheDirectory = temporaryFolder.newFolder();
+        ResourceCache localCache = new ResourceCache();
+        localCache.setProductCacheDirectory(productCacheDirectory.getAbsolutePath());
+        localCache.setupCache();
+        try {
+            MetacardImpl metacard = generateMetacard();
+            String key = "ddf-1-abc123";
+            ReliableResource reliableResource = addProduct(productCacheDirectory,
+                    key,
+                    "15bytes.txt",
+                    metacard);
+
+            assertFalse(localCache.containsValid(key, metacard));
+            localCache.put(reliableResource);
+            assertTrue(localCache.containsValid(key, metacard));
+            assertTrue(assertReliableResourceEquals(reliableResource,
+                    localCache.getValid(key, metacard)));
+
+            assertEquals(1, localCache.getHitCount());
+            assertEquals(1, localCache.getMissCount());
+            assertEquals(15, localCache.getHitBytes());
+            assertEquals(1, localCache.getEntryCount());
+            assertEquals(15, localCache.getSizeBytes());
+        } finally {
+            localCache.teardownCache();
+        }
+    }
+
+    @Test
+    public void testLocalIndexFollowsProductCacheDirectory() throws Exception {
+        File firstDirectory = temporaryFolder.newFolder();
+        File secondDirectory = temporaryFolder.newFolder();
+        ResourceCache localCache = new ResourceCache();
+        localCache.setProductCacheDirectory(firstDirectory.getAbsolutePath());
+        localCache.setupCache();
+        try {
+            MetacardImpl metacard = generateMetacard();
+            localCache.put(addProduct(firstDirectory, "first", "15bytes.txt", metacard));
+
+            localCache.setProductCacheDirectory(secondDirectory.getAbsolutePath());
+            assertEquals(0, localCache.getEntryCount());
+            assertNull(localCache.getValid("first", metacard));
+            localCache.put(addProduct(secondDirectory, "second", "10bytes.txt", metacard));
+            assertTrue(new File(secondDirectory,
+                    LocalProductCacheIndex.INDEX_FILE_NAME).isFile());
+
+            localCache.setProductCacheDirectory(firstDirectory.getAbsolutePath());
+            assertEquals(1, localCache.getEntryCount());
+            assertTrue(localCache.containsValid("first", metacard));
+            assertFalse(localCache.containsValid("second", metacard));
+        } finally {
+            localCache.teardownCache();
+        }
+    }
+
+    @Test
+    public void testTeardownKeepsInjectedHazelcastInstance() throws Exception {
+        HazelcastInstance instance = Hazelcast.newHazelcastInstance(new Config());
+        try {
+            ResourceCache clusteredCache = new ResourceCache();
+            clusteredCache.setProductCacheDirectory(temporaryFolder.newFolder()
+                    .getAbsolutePath());
+            clusteredCache.setCache(instance);
+
+            clusteredCache.teardownCache();
+
+            assertTrue(instance.getLifecycleService()
+                    .isRunning());
+        } finally {
+            instance.shutdown();
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testGetWhenNullKey() {
         resourceCache.getValid(null, new MetacardImpl());
@@ -307,6 +391,20 @@ private void simulateAddFileToCacheDir(String fileName) throws IOException {
         FileUtils.copyFile(new File(originalFilePath), new File(destinationFilePath));
     }
 
+    private ReliableResource addProduct(File productCacheDirectory, String key, String fileName,
+            MetacardImpl metacard) throws IOException {
+        File product = new File(productCacheDirectory, fileName);
+        FileUtils.copyFile(new File(System.getProperty("user.dir") + File.separator + "src"
+                + File.separator + "test" + File.separator + "resources", fileName), product);
+        ReliableResource reliableResource = new ReliableResource(key,
+                product.getAbsolutePath(),
+                new MimeType(),
+                fileName,
+                metacard);
+        reliableResource.setSize(product.length());
+        return reliableResource;
+    }
+
     private MetacardImpl generateMetacard() throws URISyntaxException {
         MetacardImpl metacard = new MetacardImpl();
         metacard.setSourceId("source1");
@@ -0,0 +1,365 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.solr.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortOrder;
+
+import ddf.catalog.Constants;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.Source;
+import ddf.catalog.util.impl.BoundedResultMerger;
+import ddf.catalog.util.impl.RelevanceResultComparator;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+
+public class FederatedPagingSessionsTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    private final FederatedPagingSessions sessions = new FederatedPagingSessions(10);
+
+    private final Source sourceA = source("A");
+
+    private final Source sourceB = source("B");
+
+    private final List<Source> sources = Arrays.asList(sourceA, sourceB);
+
+    // Source A does not support cursors, source B does
+    private final List<Result> resultsA = results("a", 0.9, 0.5, 0.4, 0.1);
+
+    private final List<Result> resultsB = results("b", 0.8, 0.7, 0.6, 0.3);
+
+    @Test
+    public void testContinuedPagesOnlyFetchTheirResults() {
+        FederatedPagingSessions.Page page = sessions.plan(request("session", 1), sources, 100);
+        assertThat(page.isContinued()).isFalse();
+
+        QueryRequest requestA = page.getSourceRequest(sourceA, request("session", 1));
+        QueryRequest requestB = page.getSourceRequest(sourceB, request("session", 1));
+        assertThat(requestA.getQuery()
+                .getStartIndex()).isEqualTo(1);
+        assertThat(requestB.getPropertyValue(Constants.QUERY_CURSOR_KEY)).isEqualTo(
+                Constants.QUERY_INITIAL_CURSOR);
+        assertThat(ids(merge(page, requestA, requestB))).containsExactly("a1", "b1");
+
+        page = sessions.plan(request("session", 3), sources, 100);
+        assertThat(page.isContinued()).isTrue();
+
+        requestA = page.getSourceRequest(sourceA, request("session", 3));
+        requestB = page.getSourceRequest(sourceB, request("session", 3));
+        // Source A resumes after its single served result
+        assertThat(requestA.getQuery()
+                .getStartIndex()).isEqualTo(2);
+        assertThat(requestA.getQuery()
+                .getPageSize()).isEqualTo(PAGE_SIZE);
+        // Source B resumes from its next cursor and only fetches what its unserved result leaves
+        assertThat(requestB.getPropertyValue(Constants.QUERY_CURSOR_KEY)).isEqualTo("b3");
+        assertThat(requestB.getQuery()
+                .getPageSize()).isEqualTo(PAGE_SIZE - 1);
+        assertThat(ids(merge(page, requestA, requestB))).containsExactly("b2", "b3");
+
+        page = sessions.plan(request("session", 5), sources, 100);
+        requestA = page.getSourceRequest(sourceA, request("session", 5));
+        requestB = page.getSourceRequest(sourceB, request("session", 5));
+        // Every result fetched from source B was served, so a whole page is fetched
+        assertThat(requestB.getPropertyValue(Constants.QUERY_CURSOR_KEY)).isEqualTo("b4");
+        assertThat(requestB.getQuery()
+                .getPageSize()).isEqualTo(PAGE_SIZE);
+        assertThat(ids(merge(page, requestA, requestB))).containsExactly("a2", "a3");
+    }
+
+    @Test
+    public void testInterleavedCursorSourcesFetchAtMostAPagePerPage() {
+        Source sourceC = source("C");
+        Source sourceD = source("D");
+        List<Result> resultsC = results("c", 0.95, 0.85, 0.75, 0.65, 0.55, 0.45, 0.35);
+        List<Result> resultsD = results("d", 0.9, 0.8, 0.7, 0.6, 0.5, 0.4, 0.3);
+        List<Source> cursorSources = Arrays.asList(sourceC, sourceD);
+
+        List<String> served = new ArrayList<>();
+        for (int startIndex = 1; startIndex < 12; startIndex += PAGE_SIZE) {
+            FederatedPagingSessions.Page page = sessions.plan(request("session", startIndex),
+                    cursorSources,
+                    100);
+            assertThat(page.isContinued()).isEqualTo(startIndex > 1);
+
+            QueryRequest requestC = page.getSourceRequest(sourceC,
+                    request("session", startIndex));
+            QueryRequest requestD = page.getSourceRequest(sourceD,
+                    request("session", startIndex));
+            SourceResponse responseC = response(requestC, resultsC, true);
+            SourceResponse responseD = response(requestD, resultsD, true);
+            // After the first page, each source served one result per page and only that result
+            // is fetched again, from the cursor the source returned last
+            int expectedFetched = startIndex == 1 ? PAGE_SIZE : 1;
+            assertThat(responseC.getResults()).hasSize(expectedFetched);
+            assertThat(responseD.getResults()).hasSize(expectedFetched);
+            assertThat(requestC.getPropertyValue(Constants.QUERY_CURSOR_KEY)).isEqualTo(
+                    startIndex == 1 ? Constants.QUERY_INITIAL_CURSOR : "c" + (startIndex / 2 + 2));
+
+            BoundedResultMerger merger =
+                    new BoundedResultMerger(new RelevanceResultComparator(SortOrder.DESCENDING),
+                            PAGE_SIZE);
+            merger.addAll(page.addResponse("C", responseC));
+            merger.addAll(page.addResponse("D", responseD));
+            List<Result> merged = merger.drain();
+            page.complete(merged);
+            served.addAll(ids(merged));
+        }
+
+        assertThat(served).containsExactly("c1",
+                "d1",
+                "c2",
+                "d2",
+                "c3",
+                "d3",
+                "c4",
+                "d4",
+                "c5",
+                "d5",
+                "c6",
+                "d6");
+    }
+
+    @Test
+    public void testSourceWithAPageOfUnservedResultsIsNotQueried() {
+        Source sourceC = source("C");
+        Source sourceD = source("D");
+        List<Result> resultsC = results("c", 0.9, 0.8, 0.7, 0.6);
+        List<Result> resultsD = results("d", 0.5, 0.4, 0.3, 0.2);
+        List<Source> cursorSources = Arrays.asList(sourceC, sourceD);
+
+        FederatedPagingSessions.Page page = sessions.plan(request("session", 1),
+                cursorSources,
+                100);
+        QueryRequest requestC = page.getSourceRequest(sourceC, request("session", 1));
+        QueryRequest requestD = page.getSourceRequest(sourceD, request("session", 1));
+        assertThat(page.getSessionResponse(sourceD, requestD)).isNull();
+        BoundedResultMerger merger =
+                new BoundedResultMerger(new RelevanceResultComparator(SortOrder.DESCENDING),
+                        PAGE_SIZE);
+        merger.addAll(page.addResponse("C", response(requestC, resultsC, true)));
+        merger.addAll(page.addResponse("D", response(requestD, resultsD, true)));
+        page.complete(merger.drain());
+
+        page = sessions.plan(request("session", 3), cursorSources, 100);
+        requestC = page.getSourceRequest(sourceC, request("session", 3));
+        requestD = page.getSourceRequest(sourceD, request("session", 3));
+        // None of the results fetched from source D were served, so they still make a page
+        SourceResponse sessionResponse = page.getSessionResponse(sourceD, requestD);
+        assertThat(sessionResponse).isNotNull();
+        assertThat(sessionResponse.getHits()).isEqualTo(resultsD.size());
+        assertThat(page.getSessionResponse(sourceC, requestC)).isNull();
+
+        merger = new BoundedResultMerger(new RelevanceResultComparator(SortOrder.DESCENDING),
+                PAGE_SIZE);
+        merger.addAll(page.addResponse("C", response(requestC, resultsC, true)));
+        merger.addAll(page.addResponse("D", sessionResponse));
+        List<Result> merged = merger.drain();
+        page.complete(merged);
+        assertThat(ids(merged)).containsExactly("c3", "c4");
+
+        page = sessions.plan(request("session", 5), cursorSources, 100);
+        requestC = page.getSourceRequest(sourceC, request("session", 5));
+        requestD = page.getSourceRequest(sourceD, request("session", 5));
+        merger = new BoundedResultMerger(new RelevanceResultComparator(SortOrder.DESCENDING),
+                PAGE_SIZE);
+        merger.addAll(page.addResponse("C", response(requestC, resultsC, true)));
+        merger.addAll(page.addResponse("D", page.getSessionResponse(sourceD, requestD)));
+        assertThat(ids(merger.drain())).containsExactly("d1", "d2");
+    }
+
+    @Test
+    public void testChangingTheMaximumSessionsKeepsTheSessions() {
+        FederatedPagingSessions.Page page = sessions.plan(request("session", 1), sources, 100);
+        merge(page,
+                page.getSourceRequest(sourceA, request("session", 1)),
+                page.getSourceRequest(sourceB, request("session", 1)));
+
+        sessions.setMaximumSessions(5);
+
+        assertThat(sessions.size()).isEqualTo(1);
+        assertThat(sessions.plan(request("session", 3), sources, 100)
+                .isContinued()).isTrue();
+    }
+
+    @Test
+    public void testJumpingToAnotherPageRestartsTheSession() {
+        FederatedPagingSessions.Page page = sessions.plan(request("session", 1), sources, 100);
+        merge(page,
+                page.getSourceRequest(sourceA, request("session", 1)),
+                page.getSourceRequest(sourceB, request("session", 1)));
+
+        page = sessions.plan(request("session", 7), sources, 100);
+        assertThat(page.isContinued()).isFalse();
+
+        page = sessions.plan(request("other", 3), sources, 100);
+        assertThat(page.isContinued()).isFalse();
+    }
+
+    @Test
+    public void testSessionsAreKeptApartForEachUser() {
+        FederatedPagingSessions.Page page = sessions.plan(request("session", 1, "alice"),
+                sources,
+                100);
+        merge(page,
+                page.getSourceRequest(sourceA, request("session", 1, "alice")),
+                page.getSourceRequest(sourceB, request("session", 1, "alice")));
+
+        // Another user with the same session id does not continue the session
+        assertThat(sessions.plan(request("session", 3, "bob"), sources, 100)
+                .isContinued()).isFalse();
+
+        assertThat(sessions.plan(request("session", 3, "alice"), sources, 100)
+                .isContinued()).isTrue();
+    }
+
+    @Test
+    public void testRestartedSessionIsLimitedToMaxStartIndex() {
+        FederatedPagingSessions.Page page = sessions.plan(request("session", 101), sources, 50);
+        assertThat(page.getStartIndex()).isEqualTo(50);
+    }
+
+    @Test
+    public void testMissingSourceResponseRestartsTheSession() {
+        FederatedPagingSessions.Page page = sessions.plan(request("session", 1), sources, 100);
+        page.getSourceRequest(sourceA, request("session", 1));
+        QueryRequest requestB = page.getSourceRequest(sourceB, request("session", 1));
+        page.complete(page.addResponse("B", response(requestB, resultsB, true)));
+
+        page = sessions.plan(request("session", 3), sources, 100);
+        assertThat(page.isContinued()).isFalse();
+    }
+
+    @Test
+    public void testRequestsWithoutSessionAreNotPlanned() {
+        assertThat(sessions.plan(request(null, 1), sources, 100)).isNull();
+    }
+
+    private List<Result> merge(FederatedPagingSessions.Page page, QueryRequest requestA,
+            QueryRequest requestB) {
+        BoundedResultMerger merger =
+                new BoundedResultMerger(new RelevanceResultComparator(SortOrder.DESCENDING),
+                        requestA.getQuery()
+                                .getStartIndex() == 1 && !page.isContinued() ?
+                                page.getStartIndex() + PAGE_SIZE - 1 :
+                                PAGE_SIZE);
+        merger.addAll(page.addResponse("A", response(requestA, resultsA, false)));
+        merger.addAll(page.addResponse("B", response(requestB, resultsB, true)));
+        List<Result> merged = merger.drain();
+        page.complete(merged);
+        return merged;
+    }
+
+    /**
+     * Answers a query like a source would, from its sorted results. Sources that support cursors
+     * name them after the result that starts the page.
+     */
+    private static SourceResponse response(QueryRequest request, List<Result> results,
+            boolean cursors) {
+        int start = request.getQuery()
+                .getStartIndex() - 1;
+        Map<String, Serializable> properties = new HashMap<>();
+        Serializable cursor = request.getPropertyValue(Constants.QUERY_CURSOR_KEY);
+        if (cursors && cursor != null) {
+            start = Constants.QUERY_INITIAL_CURSOR.equals(cursor) ?
+                    0 :
+                    Integer.parseInt(cursor.toString()
+                            .substring(1)) - 1;
+        }
+
+        int end = Math.min(start + request.getQuery()
+                .getPageSize(), results.size());
+        if (cursors && cursor != null) {
+            String prefix = results.get(0)
+                    .getMetacard()
+                    .getId()
+                    .substring(0, 1);
+            properties.put(Constants.QUERY_NEXT_CURSOR_KEY, prefix + (end + 1));
+        }
+        SourceResponseImpl response = new SourceResponseImpl(request,
+                properties,
+                new ArrayList<>(results.subList(start, end)));
+        response.setHits(results.size());
+        return response;
+    }
+
+    private static QueryRequest request(String sessionId, int startIndex) {
+        return request(sessionId, startIndex, null);
+    }
+
+    private static QueryRequest request(String sessionId, int startIndex, String user) {
+        QueryImpl query = new QueryImpl(Filter.INCLUDE);
+        query.setStartIndex(startIndex);
+        query.setPageSize(PAGE_SIZE);
+        Map<String, Serializable> properties = new HashMap<>();
+        if (sessionId != null) {
+            properties.put(Constants.QUERY_SESSION_ID_KEY, sessionId);
+        }
+        if (user != null) {
+            Subject subject = mock(Subject.class);
+            when(subject.getPrincipals()).thenReturn(new SimplePrincipalCollection(user, "test"));
+            properties.put(SecurityConstants.SECURITY_SUBJECT, subject);
+        }
+        return new QueryRequestImpl(query, properties);
+    }
+
+    private static Source source(String id) {
+        Source source = mock(Source.class);
+        when(source.getId()).thenReturn(id);
+        return source;
+    }
+
+    private static List<Result> results(String prefix, double... scores) {
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            MetacardImpl metacard = new MetacardImpl();
+            metacard.setId(prefix + (i + 1));
+            ResultImpl result = new ResultImpl(metacard);
+            result.setRelevanceScore(scores[i]);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static List<String> ids(List<Result> results) {
+        List<String> ids = new ArrayList<>();
+        for (Result result : results) {
+            ids.add(result.getMetacard()
+                    .getId());
+        }
+        return ids;
+    }
+}
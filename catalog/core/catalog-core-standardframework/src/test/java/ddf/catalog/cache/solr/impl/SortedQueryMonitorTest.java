@@ -142,6 +142,32 @@ public Future answer(InvocationOnMock invocationOnMock) throws Throwable {
                 .contains("Source-0");
     }
 
+    @Test
+    public void pageSizeLimitsMergedResults() throws Exception {
+        when(query.getTimeoutMillis()).thenReturn(0L);
+        when(query.getPageSize()).thenReturn(2);
+        when(queryRequest.getQuery()).thenReturn(query);
+
+        SortedQueryMonitor queryMonitor = new SortedQueryMonitor(cachingFederationStrategy,
+                completionService,
+                futures,
+                queryResponse,
+                queryRequest);
+
+        final Iterator<Future<SourceResponse>> futureIter = getFutureIterator();
+        when(completionService.take()).thenAnswer(new Answer<Future>() {
+            @Override
+            public Future answer(InvocationOnMock invocationOnMock) throws Throwable {
+                return futureIter.next();
+            }
+        });
+        queryMonitor.run();
+
+        assertThat(queryResponse.getHits()).isEqualTo(4);
+        assertThat(queryResponse.getResults()
+                .size()).isEqualTo(2);
+    }
+
     @Test
     public void shortQueryTimeout() throws Exception {
         when(query.getTimeoutMillis()).thenReturn(5000L);
@@ -16,16 +16,24 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.geotools.filter.FilterFactoryImpl;
 import org.geotools.temporal.object.DefaultInstant;
@@ -33,16 +41,24 @@
 import org.geotools.temporal.object.DefaultPosition;
 import org.junit.Before;
 import org.junit.Test;
+import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
 import org.opengis.temporal.Instant;
 import org.opengis.temporal.Period;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ddf.catalog.Constants;
+import ddf.catalog.cache.solr.impl.CachingFederationStrategy;
+import ddf.catalog.cache.solr.impl.SolrCache;
+import ddf.catalog.cache.solr.impl.ValidationQueryFactory;
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.QueryRequest;
@@ -50,8 +66,10 @@
 import ddf.catalog.operation.impl.CreateRequestImpl;
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.plugin.PostIngestPlugin;
 import ddf.catalog.source.CatalogProvider;
+import ddf.catalog.source.FederatedSource;
 import ddf.catalog.source.IngestException;
 import ddf.catalog.source.Source;
 import ddf.catalog.source.SourceUnavailableException;
@@ -510,4 +528,111 @@ public void testDuringQuery() {
         }
     }
 
+    /**
+     * Verify that the pages of a federated query sent through the framework with a paging session
+     * id only request from each source the results that can make the page.
+     */
+    @Test
+    public void testFederatedQueryPagingSession() throws Exception {
+        List<QueryRequest> requestsA = new CopyOnWriteArrayList<>();
+        Map<String, FederatedSource> federatedSources = new HashMap<>();
+        federatedSources.put("A", federatedSource("A", requestsA, 0.9, 0.5, 0.4, 0.1));
+        federatedSources.put("B",
+                federatedSource("B", new CopyOnWriteArrayList<>(), 0.8, 0.7, 0.6, 0.3));
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CachingFederationStrategy strategy = new CachingFederationStrategy(executor,
+                new ArrayList<>(),
+                new ArrayList<>(),
+                mock(SolrCache.class),
+                executor,
+                mock(FilterAdapter.class),
+                new GeotoolsFilterBuilder(),
+                mock(ValidationQueryFactory.class));
+        SourcePoller mockPoller = mock(SourcePoller.class);
+        FrameworkProperties props = new FrameworkProperties();
+        props.setFederatedSources(federatedSources);
+        props.setFederationStrategy(strategy);
+        props.setQueryResponsePostProcessor(mock(QueryResponsePostProcessor.class));
+        props.setSourcePoller(mockPoller);
+        props.setFilterBuilder(new GeotoolsFilterBuilder());
+        CatalogFrameworkImpl federatingFramework = new CatalogFrameworkImpl(props);
+
+        try {
+            QueryResponse response = federatingFramework.query(pageRequest(1));
+            assertEquals(Arrays.asList("a1", "b1"), ids(response.getResults()));
+
+            response = federatingFramework.query(pageRequest(3));
+            assertEquals(Arrays.asList("b2", "b3"), ids(response.getResults()));
+
+            // Source A served one result, so the second page only requests a page after it
+            // instead of the first two pages
+            assertEquals(2, requestsA.size());
+            assertEquals(2,
+                    requestsA.get(1)
+                            .getQuery()
+                            .getStartIndex());
+            assertEquals(2,
+                    requestsA.get(1)
+                            .getQuery()
+                            .getPageSize());
+        } finally {
+            strategy.shutdown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static QueryRequest pageRequest(int startIndex) {
+        QueryImpl query = new QueryImpl(Filter.INCLUDE);
+        query.setStartIndex(startIndex);
+        query.setPageSize(2);
+        Map<String, Serializable> properties = new HashMap<>();
+        properties.put(Constants.QUERY_SESSION_ID_KEY, "session");
+        return new QueryRequestImpl(query,
+                false,
+                new HashSet<>(Arrays.asList("A", "B")),
+                properties);
+    }
+
+    /**
+     * Creates a source that answers queries by start index from results with the given relevance
+     * scores, recording the requests it receives.
+     */
+    private static FederatedSource federatedSource(String id, List<QueryRequest> requests,
+            double... scores) throws UnsupportedQueryException {
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            MetacardImpl metacard = new MetacardImpl();
+            metacard.setId(id.toLowerCase() + (i + 1));
+            ResultImpl result = new ResultImpl(metacard);
+            result.setRelevanceScore(scores[i]);
+            results.add(result);
+        }
+
+        FederatedSource source = mock(FederatedSource.class);
+        when(source.getId()).thenReturn(id);
+        when(source.isAvailable()).thenReturn(true);
+        when(source.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = (QueryRequest) invocation.getArguments()[0];
+            requests.add(request);
+            int start = Math.min(request.getQuery()
+                    .getStartIndex() - 1, results.size());
+            int end = Math.min(start + request.getQuery()
+                    .getPageSize(), results.size());
+            SourceResponseImpl response = new SourceResponseImpl(request,
+                    new ArrayList<>(results.subList(start, end)));
+            response.setHits(results.size());
+            return response;
+        });
+        return source;
+    }
+
+    private static List<String> ids(List<Result> results) {
+        List<String> ids = new ArrayList<>();
+        for (Result result : results) {
+            ids.add(result.getMetacard()
+                    .getId());
+        }
+        return ids;
+    }
 }
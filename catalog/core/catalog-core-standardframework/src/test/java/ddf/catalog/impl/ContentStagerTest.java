@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.Adler32;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.io.ByteSource;
+
+import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentItemImpl;
+
+public class ContentStagerTest {
+
+    private final List<ContentStager.StagedContent> stagedContents = new ArrayList<>();
+
+    private ContentStager contentStager = new ContentStager();
+
+    @After
+    public void tearDown() throws IOException {
+        contentStager.destroy();
+        for (ContentStager.StagedContent stagedContent : stagedContents) {
+            Files.deleteIfExists(stagedContent.getPath());
+        }
+    }
+
+    @Test
+    public void testStageSmallContent() throws Exception {
+        byte[] content = "<metacard/>".getBytes(StandardCharsets.UTF_8);
+
+        ContentStager.StagedContent stagedContent = stage(content);
+
+        assertThat(stagedContent.getSize(), is((long) content.length));
+        assertThat(stagedContent.getChecksum(), is(adler32(content)));
+        assertThat(Files.readAllBytes(stagedContent.getPath()), is(content));
+        assertThat(read(stagedContent.openStream()), is(content));
+        assertThat(read(stagedContent.openSniffStream()), is(content));
+    }
+
+    @Test
+    public void testStageLargeContent() throws Exception {
+        byte[] content = new byte[200 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        ContentStager.StagedContent stagedContent = stage(content);
+
+        assertThat(stagedContent.getSize(), is((long) content.length));
+        assertThat(stagedContent.getChecksum(), is(adler32(content)));
+        assertThat(read(stagedContent.openStream()), is(content));
+        assertThat(read(stagedContent.openSniffStream()),
+                is(Arrays.copyOf(content, 64 * 1024)));
+    }
+
+    @Test
+    public void testStageFailureDeletesFile() throws Exception {
+        ContentItem contentItem = new ContentItemImpl(new ByteSource() {
+            @Override
+            public InputStream openStream() throws IOException {
+                throw new IOException("unreadable");
+            }
+        }, "text/plain", "test.txt", null);
+
+        try {
+            contentStager.stage(contentItem);
+            fail("Staging should have failed.");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("unreadable"));
+        }
+    }
+
+    @Test
+    public void testInvokeAllInParallel() throws Exception {
+        contentStager = new ContentStager(4);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            tasks.add(() -> {
+                Thread.sleep(10 - value);
+                return value;
+            });
+        }
+
+        assertThat(contentStager.invokeAll(tasks), contains(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+    }
+
+    @Test
+    public void testInvokeAllFailure() throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        tasks.add(() -> 1);
+        tasks.add(() -> {
+            throw new IllegalStateException("failed");
+        });
+
+        try {
+            contentStager.invokeAll(tasks);
+            fail("Tasks should have failed.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+
+    private ContentStager.StagedContent stage(byte[] content) throws IOException {
+        ContentItem contentItem = new ContentItemImpl(ByteSource.wrap(content),
+                "application/octet-stream",
+                "test.bin",
+                null);
+        ContentStager.StagedContent stagedContent = contentStager.stage(contentItem);
+        stagedContents.add(stagedContent);
+        return stagedContent;
+    }
+
+    private static byte[] read(InputStream inputStream) throws IOException {
+        try (InputStream stream = inputStream) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+
+    private static String adler32(byte[] content) {
+        Adler32 adler32 = new Adler32();
+        adler32.update(content, 0, content.length);
+        return Long.toHexString(adler32.getValue());
+    }
+}
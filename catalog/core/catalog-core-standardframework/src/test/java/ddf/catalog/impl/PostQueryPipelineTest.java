@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.DeleteRequest;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.ResourceRequest;
+import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.operation.UpdateRequest;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.plugin.AccessPlugin;
+import ddf.catalog.plugin.ConcurrentPolicyPlugin;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PolicyPlugin;
+import ddf.catalog.plugin.PolicyResponse;
+import ddf.catalog.plugin.PostQueryPlugin;
+import ddf.catalog.plugin.StopProcessingException;
+import ddf.catalog.plugin.impl.PolicyResponseImpl;
+
+public class PostQueryPipelineTest {
+
+    private static final int RESULT_COUNT = 100;
+
+    private final PostQueryPipeline pipeline = new PostQueryPipeline(4);
+
+    private final Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+
+    @After
+    public void tearDown() {
+        pipeline.destroy();
+    }
+
+    @Test
+    public void testConcurrentPluginsProcessResultsInOrder() throws Exception {
+        pipeline.setChunkSize(7);
+        PolicyPlugin plugin = policyPlugin(ConcurrentPolicyPlugin.class);
+        QueryResponseImpl response = new QueryResponseImpl(null);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < RESULT_COUNT; i++) {
+                response.addResult(result(i), false);
+            }
+            response.closeResultQueue();
+        });
+        producer.start();
+
+        QueryResponse processed = pipeline.process(response,
+                null,
+                Collections.singletonList(plugin),
+                Collections.emptyList(),
+                Collections.emptyList());
+        producer.join();
+
+        List<Result> results = processed.getResults();
+        assertThat(results.size(), is(RESULT_COUNT));
+        for (int i = 0; i < RESULT_COUNT; i++) {
+            Metacard metacard = results.get(i)
+                    .getMetacard();
+            assertThat(metacard.getId(), is(String.valueOf(i)));
+            assertThat(metacard.getAttribute(Metacard.SECURITY)
+                    .getValue(), is(Collections.singletonMap("id", Collections.singleton(
+                    String.valueOf(i)))));
+        }
+        assertThat(operationPolicy(processed).get("id")
+                .size(), is(RESULT_COUNT));
+        assertThat(threads, not(hasItem(Thread.currentThread()
+                .getName())));
+    }
+
+    @Test
+    public void testPluginsRunInCallingThreadUnlessAllAreConcurrent() throws Exception {
+        List<PolicyPlugin> plugins = new ArrayList<>();
+        plugins.add(policyPlugin(ConcurrentPolicyPlugin.class));
+        plugins.add(policyPlugin(PolicyPlugin.class));
+
+        QueryResponse processed = pipeline.process(response(),
+                null,
+                plugins,
+                Collections.emptyList(),
+                Collections.emptyList());
+
+        assertThat(processed.getResults()
+                .size(), is(RESULT_COUNT));
+        assertThat(threads,
+                contains(Thread.currentThread()
+                        .getName()));
+    }
+
+    @Test
+    public void testSeveralConcurrentPolicyPluginsProcessResultsConcurrently() throws Exception {
+        List<PolicyPlugin> policyPlugins = Arrays.asList(new StubPolicyPlugin("a"),
+                new StubPolicyPlugin("b"),
+                new StubPolicyPlugin("c"));
+        StubAccessPlugin accessPlugin = new StubAccessPlugin();
+
+        QueryResponse processed = pipeline.process(response(),
+                null,
+                policyPlugins,
+                Collections.singletonList(accessPlugin),
+                Collections.emptyList());
+
+        assertThat(processed.getResults()
+                .size(), is(RESULT_COUNT));
+        assertThat(threads, not(hasItem(Thread.currentThread()
+                .getName())));
+        assertThat(operationPolicy(processed).keySet(), containsInAnyOrder("a", "b", "c"));
+        assertThat(accessPlugin.responses, is(1));
+    }
+
+    @Test(expected = StopProcessingException.class)
+    public void testStopProcessingFromConcurrentPlugin() throws Exception {
+        PolicyPlugin plugin = mock(ConcurrentPolicyPlugin.class);
+        when(plugin.processPostQuery(any(Result.class),
+                anyMapOf(String.class, Serializable.class))).thenThrow(new StopProcessingException(
+                "stop"));
+
+        pipeline.process(response(),
+                null,
+                Collections.singletonList(plugin),
+                Collections.emptyList(),
+                Collections.emptyList());
+    }
+
+    @Test
+    public void testPluginStatistics() throws Exception {
+        AccessPlugin accessPlugin = mock(AccessPlugin.class);
+        when(accessPlugin.processPostQuery(any(QueryResponse.class))).thenAnswer(invocation ->
+                invocation.getArguments()[0]);
+        PostQueryPlugin postQueryPlugin = mock(PostQueryPlugin.class);
+        when(postQueryPlugin.process(any(QueryResponse.class))).thenThrow(new PluginExecutionException(
+                "failed"));
+        PolicyPlugin policyPlugin = policyPlugin(ConcurrentPolicyPlugin.class);
+
+        QueryResponse response = response();
+        QueryResponse processed = pipeline.process(response,
+                null,
+                Collections.singletonList(policyPlugin),
+                Collections.singletonList(accessPlugin),
+                Collections.singletonList(postQueryPlugin));
+
+        assertSame(response, processed);
+        Map<String, Long> counts = pipeline.getInvocationCounts();
+        assertThat(counts.get(policyPlugin.getClass()
+                .getName()), is((long) RESULT_COUNT));
+        assertThat(counts.get(accessPlugin.getClass()
+                .getName()), is(1L));
+        assertThat(counts.get(postQueryPlugin.getClass()
+                .getName()), is(1L));
+        assertThat(pipeline.getAverageMillis(), hasKey(policyPlugin.getClass()
+                .getName()));
+
+        pipeline.resetStatistics();
+        assertThat(pipeline.getInvocationCounts()
+                .isEmpty(), is(true));
+    }
+
+    private PolicyPlugin policyPlugin(Class<? extends PolicyPlugin> type)
+            throws StopProcessingException {
+        PolicyPlugin plugin = mock(type);
+        when(plugin.processPostQuery(any(Result.class),
+                anyMapOf(String.class, Serializable.class))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread()
+                    .getName());
+            Result result = (Result) invocation.getArguments()[0];
+            Set<String> id = Collections.singleton(result.getMetacard()
+                    .getId());
+            return new PolicyResponseImpl(Collections.singletonMap("id", id),
+                    Collections.singletonMap("id", id));
+        });
+        return plugin;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Set<String>> operationPolicy(QueryResponse response) {
+        return (Map<String, Set<String>>) response.getProperties()
+                .get(PolicyPlugin.OPERATION_SECURITY);
+    }
+
+    private static QueryResponse response() {
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < RESULT_COUNT; i++) {
+            results.add(result(i));
+        }
+        return new QueryResponseImpl(null, results, true, RESULT_COUNT, null);
+    }
+
+    private static Result result(int id) {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(String.valueOf(id));
+        return new ResultImpl(metacard);
+    }
+
+    /**
+     * Policy plugin that only reads the result it is given, adding its own operation policy.
+     */
+    private class StubPolicyPlugin implements ConcurrentPolicyPlugin {
+
+        private final String policy;
+
+        StubPolicyPlugin(String policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public PolicyResponse processPreCreate(Metacard input,
+                Map<String, Serializable> properties) {
+            return new PolicyResponseImpl();
+        }
+
+        @Override
+        public PolicyResponse processPreUpdate(Metacard newMetacard,
+                Map<String, Serializable> properties) {
+            return new PolicyResponseImpl();
+        }
+
+        @Override
+        public PolicyResponse processPreDelete(List<Metacard> metacards,
+                Map<String, Serializable> properties) {
+            return new PolicyResponseImpl();
+        }
+
+        @Override
+        public PolicyResponse processPostDelete(Metacard input,
+                Map<String, Serializable> properties) {
+            return new PolicyResponseImpl();
+        }
+
+        @Override
+        public PolicyResponse processPreQuery(Query query, Map<String, Serializable> properties) {
+            return new PolicyResponseImpl();
+        }
+
+        @Override
+        public PolicyResponse processPostQuery(Result input,
+                Map<String, Serializable> properties) {
+            threads.add(Thread.currentThread()
+                    .getName());
+            Set<String> id = Collections.singleton(input.getMetacard()
+                    .getId());
+            return new PolicyResponseImpl(Collections.singletonMap(policy, id),
+                    Collections.singletonMap(policy, id));
+        }
+
+        @Override
+        public PolicyResponse processPreResource(ResourceRequest resourceRequest) {
+            return new PolicyResponseImpl();
+        }
+
+        @Override
+        public PolicyResponse processPostResource(ResourceResponse resourceResponse,
+                Metacard metacard) {
+            return new PolicyResponseImpl();
+        }
+    }
+
+    /**
+     * Access plugin that passes every request and response through, counting the query responses.
+     */
+    private static class StubAccessPlugin implements AccessPlugin {
+
+        private int responses;
+
+        @Override
+        public CreateRequest processPreCreate(CreateRequest input) {
+            return input;
+        }
+
+        @Override
+        public UpdateRequest processPreUpdate(UpdateRequest input,
+                Map<String, Metacard> existingMetacards) {
+            return input;
+        }
+
+        @Override
+        public DeleteRequest processPreDelete(DeleteRequest input) {
+            return input;
+        }
+
+        @Override
+        public DeleteResponse processPostDelete(DeleteResponse input) {
+            return input;
+        }
+
+        @Override
+        public QueryRequest processPreQuery(QueryRequest input) {
+            return input;
+        }
+
+        @Override
+        public QueryResponse processPostQuery(QueryResponse input) {
+            responses++;
+            return input;
+        }
+
+        @Override
+        public ResourceRequest processPreResource(ResourceRequest input) {
+            return input;
+        }
+
+        @Override
+        public ResourceResponse processPostResource(ResourceResponse input, Metacard metacard) {
+            return input;
+        }
+    }
+}
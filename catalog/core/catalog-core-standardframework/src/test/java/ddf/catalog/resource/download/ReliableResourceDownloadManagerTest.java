@@ -24,9 +24,11 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -88,6 +90,8 @@ public class ReliableResourceDownloadManagerTest {
     private static final Logger LOGGER =
             LoggerFactory.getLogger(ReliableResourceDownloadManagerTest.class);
 
+    private static final long RANGE_BYTES_TO_SKIP = 10;
+
     private static String productCacheDirectory;
 
     private static String productInputFilename;
@@ -280,6 +284,141 @@ public void testDownloadWithCaching() throws Exception {
         cleanup();
     }
 
+    @Test
+    public void testConcurrentDownloadsShareRetrieval() throws Exception {
+        mis = new MockInputStream(productInputFilename);
+        Metacard metacard = getMockMetacard(EXPECTED_METACARD_ID, EXPECTED_METACARD_SOURCE_ID);
+        resourceResponse = getMockResourceResponse();
+
+        ResourceRetriever retriever = mock(ResourceRetriever.class);
+        when(retriever.retrieveResource()).thenReturn(resourceResponse);
+
+        int chunkSize = 50;
+        startDownload(true, chunkSize, false, metacard, retriever);
+        InputStream firstClientStream = productInputStream;
+
+        ResourceResponse secondResourceResponse = downloadMgr.download(resourceRequest,
+                metacard,
+                retriever);
+        InputStream secondClientStream = secondResourceResponse.getResource()
+                .getInputStream();
+        assertThat(secondClientStream, is(instanceOf(ReliableResourceInputStream.class)));
+
+        ByteArrayOutputStream secondClientBytesRead = clientRead(chunkSize, secondClientStream);
+        ByteArrayOutputStream firstClientBytesRead = clientRead(chunkSize, firstClientStream);
+
+        verify(retriever, times(1)).retrieveResource();
+        ArgumentCaptor<ReliableResource> argument = ArgumentCaptor.forClass(ReliableResource.class);
+        verify(resourceCache, times(1)).put(argument.capture());
+        verifyCaching(argument.getValue(), EXPECTED_CACHE_KEY);
+
+        verifyClientBytesRead(firstClientBytesRead);
+        verifyClientBytesRead(secondClientBytesRead);
+
+        cleanup();
+    }
+
+    @Test
+    public void testClientCancelsSharedDownload() throws Exception {
+        mis = new MockInputStream(productInputFilename);
+        Metacard metacard = getMockMetacard(EXPECTED_METACARD_ID, EXPECTED_METACARD_SOURCE_ID);
+        resourceResponse = getMockResourceResponse();
+
+        ResourceRetriever retriever = mock(ResourceRetriever.class);
+        when(retriever.retrieveResource()).thenReturn(resourceResponse);
+
+        int chunkSize = 50;
+        startDownload(true, chunkSize, false, metacard, retriever);
+        InputStream firstClientStream = productInputStream;
+
+        InputStream secondClientStream = downloadMgr.download(resourceRequest,
+                metacard,
+                retriever)
+                .getResource()
+                .getInputStream();
+
+        // First client cancels after its first chunk while the second one keeps reading
+        int simulatedCancelChunkCount = 1;
+        ByteArrayOutputStream firstClientBytesRead = clientRead(chunkSize,
+                firstClientStream,
+                simulatedCancelChunkCount);
+        ByteArrayOutputStream secondClientBytesRead = clientRead(chunkSize, secondClientStream);
+
+        assertTrue(firstClientBytesRead.size() < expectedFileSize);
+        verifyClientBytesRead(secondClientBytesRead);
+
+        verify(retriever, times(1)).retrieveResource();
+        ArgumentCaptor<ReliableResource> argument = ArgumentCaptor.forClass(ReliableResource.class);
+        verify(resourceCache, timeout(3000)).put(argument.capture());
+        verifyCaching(argument.getValue(), EXPECTED_CACHE_KEY);
+
+        cleanup();
+    }
+
+    @Test
+    public void testRangeRequestDoesNotShareFullDownload() throws Exception {
+        mis = new MockInputStream(productInputFilename);
+        Metacard metacard = getMockMetacard(EXPECTED_METACARD_ID, EXPECTED_METACARD_SOURCE_ID);
+        resourceResponse = getMockResourceResponse();
+
+        ResourceRetriever retriever = mock(ResourceRetriever.class);
+        when(retriever.retrieveResource()).thenReturn(resourceResponse);
+
+        int chunkSize = 50;
+        startDownload(false, chunkSize, false, metacard, retriever);
+        InputStream fullClientStream = productInputStream;
+
+        ResourceRequest rangeRequest = getMockRangeRequest();
+        ResourceRetriever rangeRetriever = getMockRangeRetriever(rangeRequest);
+        InputStream rangeClientStream = downloadMgr.download(rangeRequest,
+                metacard,
+                rangeRetriever)
+                .getResource()
+                .getInputStream();
+
+        ByteArrayOutputStream fullClientBytesRead = clientRead(chunkSize, fullClientStream);
+        ByteArrayOutputStream rangeClientBytesRead = clientRead(chunkSize, rangeClientStream);
+
+        verify(retriever, times(1)).retrieveResource();
+        verify(rangeRetriever, times(1)).retrieveResource();
+        verifyClientBytesRead(fullClientBytesRead);
+        verifyRangeClientBytesRead(rangeClientBytesRead);
+
+        cleanup();
+    }
+
+    @Test
+    public void testFullRequestDoesNotShareRangeDownload() throws Exception {
+        mis = new MockInputStream(productInputFilename);
+        Metacard metacard = getMockMetacard(EXPECTED_METACARD_ID, EXPECTED_METACARD_SOURCE_ID);
+        resourceResponse = getMockResourceResponse();
+        ResourceRequest fullRequest = resourceRequest;
+
+        ResourceRetriever retriever = mock(ResourceRetriever.class);
+        when(retriever.retrieveResource()).thenReturn(resourceResponse);
+
+        resourceRequest = getMockRangeRequest();
+        ResourceRetriever rangeRetriever = getMockRangeRetriever(resourceRequest);
+
+        int chunkSize = 50;
+        startDownload(false, chunkSize, false, metacard, rangeRetriever);
+        InputStream rangeClientStream = productInputStream;
+
+        InputStream fullClientStream = downloadMgr.download(fullRequest, metacard, retriever)
+                .getResource()
+                .getInputStream();
+
+        ByteArrayOutputStream rangeClientBytesRead = clientRead(chunkSize, rangeClientStream);
+        ByteArrayOutputStream fullClientBytesRead = clientRead(chunkSize, fullClientStream);
+
+        verify(rangeRetriever, times(1)).retrieveResource();
+        verify(retriever, times(1)).retrieveResource();
+        verifyRangeClientBytesRead(rangeClientBytesRead);
+        verifyClientBytesRead(fullClientBytesRead);
+
+        cleanup();
+    }
+
     /**
      * Verifies that if client is reading from @ReliableResourceInputStream slower than
      * {@link ReliableResourceCallable} is reading from product InputStream and writing to FileBackedOutputStream,
@@ -707,6 +846,11 @@ private void verifyClientBytesRead(ByteArrayOutputStream clientBytesRead) {
         }
     }
 
+    private void verifyRangeClientBytesRead(ByteArrayOutputStream clientBytesRead) {
+        assertEquals(expectedFileContents.substring((int) RANGE_BYTES_TO_SKIP),
+                new String(clientBytesRead.toByteArray()));
+    }
+
     private Metacard getMockMetacard(String id, String source) {
 
         Metacard metacard = mock(Metacard.class);
@@ -739,6 +883,38 @@ private ResourceResponse getMockResourceResponse() throws Exception {
         return resourceResponse;
     }
 
+    private ResourceRequest getMockRangeRequest() {
+        ResourceRequest rangeRequest = mock(ResourceRequest.class);
+        Map<String, Serializable> requestProperties = new HashMap<>();
+        requestProperties.put(ResourceRetriever.BYTES_TO_SKIP, RANGE_BYTES_TO_SKIP);
+        when(rangeRequest.getPropertyNames()).thenReturn(requestProperties.keySet());
+        when(rangeRequest.getProperties()).thenReturn(requestProperties);
+        when(rangeRequest.getPropertyValue(ResourceRetriever.BYTES_TO_SKIP)).thenReturn(
+                RANGE_BYTES_TO_SKIP);
+        return rangeRequest;
+    }
+
+    private ResourceRetriever getMockRangeRetriever(ResourceRequest rangeRequest)
+            throws Exception {
+        Resource rangeResource = mock(Resource.class);
+        when(rangeResource.getInputStream()).thenReturn(new ByteArrayInputStream(
+                expectedFileContents.substring((int) RANGE_BYTES_TO_SKIP)
+                        .getBytes()));
+        when(rangeResource.getName()).thenReturn("test-resource");
+        when(rangeResource.getMimeType()).thenReturn(new MimeType("text/plain"));
+
+        ResourceResponse rangeResponse = mock(ResourceResponse.class);
+        when(rangeResponse.getRequest()).thenReturn(rangeRequest);
+        when(rangeResponse.getResource()).thenReturn(rangeResource);
+        Map<String, Serializable> responseProperties = new HashMap<>();
+        responseProperties.put("BytesSkipped", true);
+        when(rangeResponse.getProperties()).thenReturn(responseProperties);
+
+        ResourceRetriever rangeRetriever = mock(ResourceRetriever.class);
+        when(rangeRetriever.retrieveResource()).thenReturn(rangeResponse);
+        return rangeRetriever;
+    }
+
     private ResourceRetriever getMockResourceRetrieverWithRetryCapability(final RetryType retryType)
             throws Exception {
         return getMockResourceRetrieverWithRetryCapability(retryType, false);
@@ -17,7 +17,10 @@
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
@@ -27,6 +30,7 @@
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.log4j.Appender;
 import org.apache.log4j.Layout;
@@ -206,6 +210,42 @@ public Integer call() {
         is.close();
     }
 
+    /**
+     * Verifies that a client closing its ReliableResourceInputStream does not cancel the download
+     * while another client is still reading it, and that both read from the first byte.
+     */
+    @Test
+    public void testCloseWithOtherClientReading() throws Exception {
+        when(downloadState.getDownloadState()).thenReturn(DownloadManagerState.DownloadState.IN_PROGRESS);
+        AtomicInteger openReaders = new AtomicInteger(2);
+        ReliableResourceInputStream is = new ReliableResourceInputStream(fbos,
+                countingFbos,
+                downloadState,
+                downloadIdentifier,
+                resourceResponse,
+                openReaders);
+        is.setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
+        ReliableResourceInputStream otherIs = new ReliableResourceInputStream(fbos,
+                countingFbos,
+                downloadState,
+                downloadIdentifier,
+                resourceResponse,
+                openReaders);
+        otherIs.setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
+        byte[] bytes = new String("Hello World").getBytes();
+        countingFbos.write(bytes, 0, bytes.length);
+
+        assertThat((char) is.read(), is('H'));
+        is.close();
+        verify(downloadFuture, never()).cancel(anyBoolean());
+
+        byte[] buffer = new byte[50];
+        assertThat(otherIs.read(buffer, 0, buffer.length), is(bytes.length));
+        assertThat(new String(buffer, 0, bytes.length), is("Hello World"));
+        otherIs.close();
+        verify(downloadFuture).cancel(true);
+    }
+
     @Test(expected = NullPointerException.class)
     public void testReadByteBufferWithNullBuffer() throws Exception {
         ReliableResourceInputStream is = new ReliableResourceInputStream(fbos,
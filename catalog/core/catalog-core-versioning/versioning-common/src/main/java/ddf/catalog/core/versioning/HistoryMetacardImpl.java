@@ -15,13 +15,19 @@
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+import java.io.Serializable;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
@@ -34,6 +40,7 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
@@ -110,8 +117,31 @@ public static Action fromKey(String key) {
 
     public static final String TAGS_HISTORY = prefix.apply("tags");
 
+    /**
+     * {@link ddf.catalog.data.Attribute} name for the ID of the history item of the previous
+     * revision, on a history item that only holds the attributes changed since that revision.
+     * History items without it are snapshots holding every attribute of the {@link Metacard}.
+     *
+     * @since DDF-2.10.0
+     */
+    public static final String PREVIOUS_HISTORY = prefix.apply("previous");
+
+    /**
+     * {@link ddf.catalog.data.Attribute} name for the names of the attributes removed since the
+     * previous revision, on a history item that only holds the changed attributes.
+     *
+     * @since DDF-2.10.0
+     */
+    public static final String REMOVED_ATTRIBUTES = prefix.apply("removed-attributes");
+
     private static MetacardType versionHistoryMetacard;
 
+    /**
+     * Attributes recorded by the revisions that only hold the changed attributes. The ID and tags
+     * of the {@link Metacard} are recorded by {@link #ID_HISTORY} and {@link #TAGS_HISTORY}.
+     */
+    private static Set<String> versionedAttributes;
+
     static {
         HashSet<AttributeDescriptor> historyDescriptors =
                 new HashSet<>(BasicTypes.BASIC_METACARD.getAttributeDescriptors());
@@ -145,8 +175,26 @@ public static Action fromKey(String key) {
                 false /* tokenized */,
                 true /* multivalued */,
                 BasicTypes.STRING_TYPE));
+        historyDescriptors.add(new AttributeDescriptorImpl(PREVIOUS_HISTORY,
+                true /* indexed */,
+                true /* stored */,
+                false /* tokenized */,
+                false /* multivalued */,
+                BasicTypes.STRING_TYPE));
+        historyDescriptors.add(new AttributeDescriptorImpl(REMOVED_ATTRIBUTES,
+                false /* indexed */,
+                true /* stored */,
+                false /* tokenized */,
+                true /* multivalued */,
+                BasicTypes.STRING_TYPE));
 
         versionHistoryMetacard = new MetacardTypeImpl(HISTORY_PREFIX, historyDescriptors);
+
+        versionedAttributes = BasicTypes.BASIC_METACARD.getAttributeDescriptors()
+                .stream()
+                .map(AttributeDescriptor::getName)
+                .filter(name -> !Metacard.ID.equals(name) && !Metacard.TAGS.equals(name))
+                .collect(Collectors.toSet());
     }
 
     /**
@@ -160,6 +208,46 @@ public static Action fromKey(String key) {
      */
     public HistoryMetacardImpl(Metacard sourceMetacard, Action action, Subject subject) {
         super(sourceMetacard, versionHistoryMetacard);
+        initialize(sourceMetacard, action, subject);
+    }
+
+    /**
+     * Will create a {@link HistoryMetacardImpl} of the given {@link Metacard} that only holds the
+     * attributes that changed since the previous revision, along with the current subject, time,
+     * and a random UUID. Cannot take a {@link HistoryMetacardImpl} as the sourceMetacard.
+     * <p>
+     * The revision can be rebuilt with {@link #reconstruct(String, Collection)}.
+     *
+     * @param sourceMetacard    Metacard to create a history item from
+     * @param previousMetacard  the Metacard as it was at the previous revision
+     * @param previousHistoryId the ID of the history item of the previous revision
+     * @param action            Which action was done to modify the metacard
+     * @throws IllegalArgumentException
+     */
+    public HistoryMetacardImpl(Metacard sourceMetacard, Metacard previousMetacard,
+            String previousHistoryId, Action action, Subject subject) {
+        super(versionHistoryMetacard);
+
+        List<Serializable> removedAttributes = new ArrayList<>();
+        for (String name : versionedAttributes) {
+            Attribute attribute = sourceMetacard.getAttribute(name);
+            if (!hasSameValues(attribute, previousMetacard.getAttribute(name))) {
+                if (attribute == null || attribute.getValue() == null) {
+                    removedAttributes.add(name);
+                } else {
+                    setAttribute(attribute);
+                }
+            }
+        }
+
+        setAttribute(PREVIOUS_HISTORY, previousHistoryId);
+        if (!removedAttributes.isEmpty()) {
+            setAttribute(new AttributeImpl(REMOVED_ATTRIBUTES, removedAttributes));
+        }
+        initialize(sourceMetacard, action, subject);
+    }
+
+    private void initialize(Metacard sourceMetacard, Action action, Subject subject) {
         if (sourceMetacard instanceof HistoryMetacardImpl) {
             throw new IllegalArgumentException(
                     "Cannot create a history item from a history metacard.");
@@ -167,7 +255,14 @@ public HistoryMetacardImpl(Metacard sourceMetacard, Action action, Subject subje
 
         this.setAction(action);
         this.setIdHistory(sourceMetacard.getId());
-        this.setTagsHistory(sourceMetacard.getTags());
+
+        // Keeps the tags in their order, so that the revision can be rebuilt exactly
+        Attribute tags = sourceMetacard.getAttribute(Metacard.TAGS);
+        if (tags == null || tags.getValue() == null) {
+            this.setTagsHistory(Collections.emptySet());
+        } else {
+            setAttribute(new AttributeImpl(TAGS_HISTORY, tags.getValues()));
+        }
 
         String editedBy = SubjectUtils.getEmailAddress(subject);
         if (isNullOrEmpty(editedBy)) {
@@ -206,6 +301,85 @@ public static Metacard toBasicMetacard(Metacard source) {
         return result;
     }
 
+    /**
+     * Rebuilds a {@link BasicTypes#BASIC_METACARD} version of a {@link Metacard} as it was at a
+     * revision, by applying the revisions that only hold changed attributes onto the nearest
+     * snapshot before it.
+     *
+     * @param historyId the ID of the history item of the revision
+     * @param history   history items of the Metacard, including the revision, the nearest
+     *                  snapshot before it and every revision in between
+     * @return the Metacard as it was at the revision
+     * @throws IllegalArgumentException if a history item needed to rebuild the revision is missing
+     */
+    public static Metacard reconstruct(String historyId, Collection<? extends Metacard> history) {
+        Map<String, Metacard> historyById = new HashMap<>();
+        for (Metacard historyItem : history) {
+            historyById.put(historyItem.getId(), historyItem);
+        }
+
+        Deque<Metacard> revisions = new ArrayDeque<>();
+        String revisionId = historyId;
+        while (revisionId != null) {
+            Metacard revision = historyById.get(revisionId);
+            if (revision == null || revisions.size() == historyById.size()) {
+                throw new IllegalArgumentException(
+                        "Cannot rebuild revision " + historyId + " without history item "
+                                + revisionId);
+            }
+            revisions.push(revision);
+            Attribute previous = revision.getAttribute(PREVIOUS_HISTORY);
+            revisionId = previous == null ? null : (String) previous.getValue();
+        }
+
+        MetacardImpl result = new MetacardImpl(BasicTypes.BASIC_METACARD);
+        for (Metacard revision : revisions) {
+            for (String name : versionedAttributes) {
+                Attribute attribute = revision.getAttribute(name);
+                if (attribute != null) {
+                    result.setAttribute(attribute);
+                }
+            }
+
+            Attribute removedAttributes = revision.getAttribute(REMOVED_ATTRIBUTES);
+            if (removedAttributes != null && removedAttributes.getValues() != null) {
+                for (Serializable name : removedAttributes.getValues()) {
+                    result.setAttribute(String.valueOf(name), null);
+                }
+            }
+
+            Attribute tags = revision.getAttribute(TAGS_HISTORY);
+            if (tags == null || tags.getValue() == null) {
+                result.setAttribute(Metacard.TAGS, null);
+            } else {
+                result.setAttribute(new AttributeImpl(Metacard.TAGS, tags.getValues()));
+            }
+        }
+
+        Metacard revision = revisions.peekLast();
+        String id = (String) revision.getAttribute(ID_HISTORY)
+                .getValue();
+        result.setId(id);
+        return result;
+    }
+
+    private static boolean hasSameValues(Attribute attribute, Attribute other) {
+        List<Serializable> values = attribute == null ? null : attribute.getValues();
+        List<Serializable> otherValues = other == null ? null : other.getValues();
+        if (values == null || otherValues == null) {
+            return values == otherValues;
+        }
+        if (values.size() != otherValues.size()) {
+            return false;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (!Objects.deepEquals(values.get(i), otherValues.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static Set<String> getTagsHistory(Metacard source) {
         Attribute attribute = source.getAttribute(TAGS_HISTORY);
         if (attribute == null || attribute.getValue() == null) {
@@ -14,6 +14,7 @@
 package ddf.catalog.core.versioning
 
 import ddf.catalog.data.Metacard
+import ddf.catalog.data.impl.AttributeImpl
 import ddf.catalog.data.impl.BasicTypes
 import ddf.catalog.data.impl.MetacardImpl
 import org.apache.shiro.SecurityUtils
@@ -86,6 +87,107 @@ class HistoryMetacardImplSpecTest extends Specification {
         !metacard.tags.contains(HistoryMetacardImpl.HISTORY_TAG)
     }
 
+    def "Delta History Metacard only holds changed attributes"() {
+        setup:
+        def meta = defaultMetacard()
+        HistoryMetacardImpl snapshot = new HistoryMetacardImpl(
+                meta.metacard,
+                Action.CREATED,
+                SecurityUtils.subject)
+        MetacardImpl updated = copy(meta.metacard)
+        updated.title = "Updated Title"
+        updated.setAttribute(Metacard.METADATA, null)
+
+        when:
+        HistoryMetacardImpl delta = new HistoryMetacardImpl(
+                updated,
+                meta.metacard,
+                snapshot.id,
+                Action.UPDATED,
+                SecurityUtils.subject)
+
+        then:
+        delta.title.equals("Updated Title")
+        delta.getAttribute(Metacard.METADATA) == null
+        delta.getAttribute(HistoryMetacardImpl.REMOVED_ATTRIBUTES).values == [Metacard.METADATA]
+        delta.getAttribute(HistoryMetacardImpl.PREVIOUS_HISTORY).value.equals(snapshot.id)
+        delta.idHistory.equals(meta.id)
+        delta.tagsHistory.containsAll(meta.tags)
+        delta.action.equals(Action.UPDATED)
+    }
+
+    def "Reconstruct revisions from a snapshot and deltas"() {
+        setup:
+        def meta = defaultMetacard()
+        List<Metacard> revisions = [copy(meta.metacard)]
+        List<HistoryMetacardImpl> history = [new HistoryMetacardImpl(
+                meta.metacard,
+                Action.CREATED,
+                SecurityUtils.subject)]
+
+        (1..5).each {
+            MetacardImpl updated = copy(revisions.last())
+            updated.title = "Title ${it}"
+            updated.description = it % 2 ? "Description ${it}" : null
+            if (it == 3) {
+                updated.setAttribute(new AttributeImpl(Metacard.TAGS,
+                        ["other", Metacard.DEFAULT_TAG, "other"]))
+            }
+            history << new HistoryMetacardImpl(
+                    updated,
+                    revisions.last(),
+                    history.last().id,
+                    Action.UPDATED,
+                    SecurityUtils.subject)
+            revisions << updated
+        }
+
+        expect:
+        history.eachWithIndex { historyItem, i ->
+            assert basicAttributes(HistoryMetacardImpl.reconstruct(historyItem.id,
+                    history.reverse())) == basicAttributes(revisions[i])
+        }
+    }
+
+    def "Reconstruct fails without the previous revision"() {
+        setup:
+        def meta = defaultMetacard()
+        HistoryMetacardImpl snapshot = new HistoryMetacardImpl(
+                meta.metacard,
+                Action.CREATED,
+                SecurityUtils.subject)
+        HistoryMetacardImpl delta = new HistoryMetacardImpl(
+                meta.metacard,
+                meta.metacard,
+                snapshot.id,
+                Action.DELETED,
+                SecurityUtils.subject)
+
+        when:
+        HistoryMetacardImpl.reconstruct(delta.id, [delta])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def copy(Metacard metacard) {
+        MetacardImpl copy = new MetacardImpl(BasicTypes.BASIC_METACARD)
+        BasicTypes.BASIC_METACARD.attributeDescriptors.each {
+            if (metacard.getAttribute(it.name) != null) {
+                copy.setAttribute(metacard.getAttribute(it.name))
+            }
+        }
+        return copy
+    }
+
+    def basicAttributes(Metacard metacard) {
+        BasicTypes.BASIC_METACARD.attributeDescriptors.findAll {
+            metacard.getAttribute(it.name)?.value != null
+        }.collectEntries {
+            [(it.name): metacard.getAttribute(it.name).values]
+        }
+    }
+
     def defaultMetacard() {
         def res = [:]
         res.id = "OriginalMetacardId"
@@ -87,6 +87,11 @@ public OpenSearchEndpoint(CatalogFramework framework, FilterBuilder filterBuilde
     }
 
     /**
+     * Every request parameter is also added to the properties of the query request. A client
+     * paging through a query federated to several sources can send the same
+     * {@code query-session-id} parameter with each page, requested in order, so that each page
+     * only fetches from each source the results that can make it.
+     *
      * @param searchTerms Space delimited list of search terms.
      * @param maxResults  Maximum # of results to return. If count is also specified, the count value will
      *                    take precedence over the maxResults value
@@ -15,11 +15,15 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.codice.ddf.checksum.ChecksumProvider;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
@@ -42,7 +46,7 @@ public CreateStorageRequest process(CreateStorageRequest input)
         if (input == null) {
             throw new IllegalArgumentException("CreateStorageRequest cannot be null");
         }
-        runChecksum(input.getContentItems());
+        runChecksum(input.getContentItems(), input.getProperties());
 
         return input;
     }
@@ -53,16 +57,25 @@ public UpdateStorageRequest process(UpdateStorageRequest input)
         if (input == null) {
             throw new IllegalArgumentException("UpdateStorageRequest cannot be null");
         }
-        runChecksum(input.getContentItems());
+        runChecksum(input.getContentItems(), input.getProperties());
 
         return input;
     }
 
-    private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionException {
+    private void runChecksum(List<ContentItem> contentItems, Map<String, Serializable> properties)
+            throws PluginExecutionException {
+        String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
+        Map<String, String> stagedChecksums = getStagedChecksums(properties, checksumAlgorithm);
         for (ContentItem contentItem : contentItems) {
+            //reuse the checksum computed by the framework while staging the content, if any
+            String stagedChecksum = stagedChecksums.get(contentItem.getId());
+            if (stagedChecksum != null) {
+                addChecksumAttributes(contentItem.getMetacard(), checksumAlgorithm, stagedChecksum);
+                continue;
+            }
+
             try (InputStream inputStream = contentItem.getInputStream()) {
                 //calculate checksum so that it can be added as an attribute on metacard
-                String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
                 String checksumValue;
 
                 try {
@@ -82,6 +95,19 @@ private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionE
         }
     }
 
+    private Map<String, String> getStagedChecksums(Map<String, Serializable> properties,
+            String checksumAlgorithm) {
+        if (properties != null && checksumAlgorithm != null && checksumAlgorithm.equalsIgnoreCase(
+                (String) properties.get(Constants.CONTENT_CHECKSUM_ALGORITHM))) {
+            Map<String, String> checksums =
+                    (Map<String, String>) properties.get(Constants.CONTENT_CHECKSUMS);
+            if (checksums != null) {
+                return checksums;
+            }
+        }
+        return Collections.emptyMap();
+    }
+
     private void addChecksumAttributes(Metacard metacard, final String checksumAlgorithm,
             final String checksumValue) {
         metacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM_ALGORITHM,
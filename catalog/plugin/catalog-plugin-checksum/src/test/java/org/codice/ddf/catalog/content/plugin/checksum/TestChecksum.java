@@ -21,18 +21,24 @@
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.codice.ddf.checksum.ChecksumProvider;
 import org.junit.Before;
 import org.junit.Test;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
@@ -67,6 +73,7 @@ public void initialize() throws IOException, NoSuchAlgorithmException {
 
         List<ContentItem> mockContentItems = new ArrayList<>();
         ContentItem mockContentItem = mock(ContentItem.class);
+        when(mockContentItem.getId()).thenReturn("id");
         when(mockContentItem.getInputStream()).thenReturn(inputStream);
         when(mockContentItem.getMetacard()).thenReturn(new MetacardImpl());
         mockContentItems.add(mockContentItem);
@@ -113,6 +120,43 @@ public void testProcessUpdateWithValidInput() throws PluginExecutionException {
         assertThat(checksumAlgorithm, is(SAMPLE_CHECKSUM_ALGORITHM));
     }
 
+    @Test
+    public void testProcessCreateWithStagedChecksum() throws Exception {
+        HashMap<String, String> checksums = new HashMap<>();
+        checksums.put("id", "1a2b3c");
+        Map<String, Serializable> properties = new HashMap<>();
+        properties.put(Constants.CONTENT_CHECKSUMS, checksums);
+        properties.put(Constants.CONTENT_CHECKSUM_ALGORITHM, "md5");
+        when(mockCreateRequest.getProperties()).thenReturn(properties);
+
+        CreateStorageRequest request = checksum.process(mockCreateRequest);
+
+        assertThat(request.getContentItems()
+                .get(0)
+                .getMetacard()
+                .getAttribute(Metacard.CHECKSUM)
+                .getValue(), is("1a2b3c"));
+        verify(mockChecksumProvider, never()).calculateChecksum(any(InputStream.class));
+    }
+
+    @Test
+    public void testProcessCreateWithStagedChecksumOfOtherAlgorithm() throws Exception {
+        HashMap<String, String> checksums = new HashMap<>();
+        checksums.put("id", "1a2b3c");
+        Map<String, Serializable> properties = new HashMap<>();
+        properties.put(Constants.CONTENT_CHECKSUMS, checksums);
+        properties.put(Constants.CONTENT_CHECKSUM_ALGORITHM, "Adler32");
+        when(mockCreateRequest.getProperties()).thenReturn(properties);
+
+        CreateStorageRequest request = checksum.process(mockCreateRequest);
+
+        assertThat(request.getContentItems()
+                .get(0)
+                .getMetacard()
+                .getAttribute(Metacard.CHECKSUM)
+                .getValue(), is(SAMPLE_CHECKSUM_VALUE));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testProcessCreateWithNullInput() throws PluginExecutionException {
         checksum.process((CreateStorageRequest)null);
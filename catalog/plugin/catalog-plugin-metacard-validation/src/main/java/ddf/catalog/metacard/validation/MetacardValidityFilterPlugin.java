@@ -32,12 +32,12 @@
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
-import ddf.catalog.plugin.PolicyPlugin;
+import ddf.catalog.plugin.ConcurrentPolicyPlugin;
 import ddf.catalog.plugin.PolicyResponse;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.plugin.impl.PolicyResponseImpl;
 
-public class MetacardValidityFilterPlugin implements PolicyPlugin {
+public class MetacardValidityFilterPlugin implements ConcurrentPolicyPlugin {
 
     private static Map<String, List<String>> attributeMap = new HashMap<>();
 
@@ -26,12 +26,12 @@
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
-import ddf.catalog.plugin.PolicyPlugin;
+import ddf.catalog.plugin.ConcurrentPolicyPlugin;
 import ddf.catalog.plugin.PolicyResponse;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.plugin.impl.PolicyResponseImpl;
 
-public class HistorianBouncerPolicyPlugin implements PolicyPlugin {
+public class HistorianBouncerPolicyPlugin implements ConcurrentPolicyPlugin {
 
     public static final String HISTORY_ROLE = "system-history";
 
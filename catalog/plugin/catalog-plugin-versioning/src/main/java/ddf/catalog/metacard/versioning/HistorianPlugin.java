@@ -17,8 +17,6 @@
 import java.util.stream.Collectors;
 
 import org.apache.shiro.SecurityUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.core.versioning.HistoryMetacardImpl;
@@ -27,7 +25,6 @@
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteRequest;
 import ddf.catalog.operation.DeleteResponse;
-import ddf.catalog.operation.Update;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.UpdateResponse;
 import ddf.catalog.operation.impl.CreateRequestImpl;
@@ -35,72 +32,82 @@
 import ddf.catalog.plugin.PostIngestPlugin;
 import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
-import ddf.catalog.source.IngestException;
-import ddf.catalog.source.SourceUnavailableException;
-import ddf.security.Subject;
-import ddf.security.common.util.Security;
 
 public class HistorianPlugin implements PostIngestPlugin, PreIngestPlugin {
-    private static final Logger LOGGER = LoggerFactory.getLogger(HistorianPlugin.class);
 
-    private final CatalogFramework catalogFramework;
+    private final HistoryWriter historyWriter;
 
     public HistorianPlugin(CatalogFramework catalogFramework) {
-        this.catalogFramework = catalogFramework;
+        this(new HistoryWriter(catalogFramework));
+        historyWriter.setAsynchronous(true);
+    }
+
+    HistorianPlugin(HistoryWriter historyWriter) {
+        this.historyWriter = historyWriter;
+    }
+
+    /**
+     * @param asynchronous whether the history of updates and deletes is written in the background
+     *                     rather than before the operation returns
+     */
+    public void setAsynchronous(boolean asynchronous) {
+        historyWriter.setAsynchronous(asynchronous);
+    }
+
+    /**
+     * @param snapshotInterval the number of revisions of a metacard between history items holding
+     *                         all of its attributes, the others only holding its changes
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        historyWriter.setSnapshotInterval(snapshotInterval);
+    }
+
+    public void destroy() {
+        historyWriter.destroy();
     }
 
     @Override
     public CreateResponse process(CreateResponse input) throws PluginExecutionException {
+        historyWriter.recordCreated(input.getCreatedMetacards());
         return input;
     }
 
     @Override
     public UpdateResponse process(UpdateResponse input) throws PluginExecutionException {
-        List<Metacard> inputMetacards = input.getUpdatedMetacards()
+        List<HistoryWriter.Revision> revisions = input.getUpdatedMetacards()
                 .stream()
-                .map(Update::getNewMetacard)
+                .filter(update -> isVersioned(update.getNewMetacard()))
+                .map(update -> new HistoryWriter.Revision(update.getNewMetacard(),
+                        update.getOldMetacard(),
+                        HistoryMetacardImpl.Action.UPDATED,
+                        SecurityUtils.getSubject()))
                 .collect(Collectors.toList());
-        getVersionedMetacards(inputMetacards, HistoryMetacardImpl.Action.UPDATED);
+        record(revisions);
         return input;
     }
 
     @Override
     public DeleteResponse process(DeleteResponse input) throws PluginExecutionException {
-        getVersionedMetacards(input.getDeletedMetacards(), HistoryMetacardImpl.Action.DELETED);
-        return input;
-    }
-
-    private void getVersionedMetacards(List<Metacard> metacards,
-            final HistoryMetacardImpl.Action action) throws PluginExecutionException {
-        final List<Metacard> versionedMetacards = metacards.stream()
-                .filter(metacard -> !metacard.getMetacardType()
-                        .equals(HistoryMetacardImpl.getVersionHistoryMetacardType()))
-                .map(metacard -> new HistoryMetacardImpl(metacard,
-                        action,
+        List<HistoryWriter.Revision> revisions = input.getDeletedMetacards()
+                .stream()
+                .filter(this::isVersioned)
+                .map(metacard -> new HistoryWriter.Revision(metacard,
+                        metacard,
+                        HistoryMetacardImpl.Action.DELETED,
                         SecurityUtils.getSubject()))
                 .collect(Collectors.toList());
+        record(revisions);
+        return input;
+    }
 
-        if (versionedMetacards.isEmpty()) {
-            return;
-        }
-
-        Subject system = Security.getSystemSubject();
-        if (system == null) {
-            LOGGER.warn("Could not get system subject to create versioned metacards.");
-            return;
-        }
-
-        system.execute(() -> {
-            this.store(versionedMetacards);
-            return true;
-        });
+    private boolean isVersioned(Metacard metacard) {
+        return !metacard.getMetacardType()
+                .equals(HistoryMetacardImpl.getVersionHistoryMetacardType());
     }
 
-    private void store(List<Metacard> metacards) throws PluginExecutionException {
-        try {
-            catalogFramework.create(new CreateRequestImpl(metacards));
-        } catch (SourceUnavailableException | IngestException e) {
-            throw new PluginExecutionException(e);
+    private void record(List<HistoryWriter.Revision> revisions) throws PluginExecutionException {
+        if (!revisions.isEmpty()) {
+            historyWriter.record(revisions);
         }
     }
 
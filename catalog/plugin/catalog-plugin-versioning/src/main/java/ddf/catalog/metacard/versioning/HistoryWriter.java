@@ -0,0 +1,410 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * </p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.metacard.versioning;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.shiro.subject.Subject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.core.versioning.HistoryMetacardImpl;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.security.common.util.Security;
+
+/**
+ * Writes the history items of the revisions recorded by the {@link HistorianPlugin}.
+ * <p>
+ * A revision is written as a {@link HistoryMetacardImpl} that only holds the attributes changed
+ * since the previous revision of the {@link Metacard}. A snapshot holding every attribute is
+ * written instead every {@code snapshotInterval} revisions, and whenever the metacard the revision
+ * was made to is not the one recorded by the latest history item written by this writer, so that
+ * any revision can be rebuilt from a bounded number of history items with
+ * {@link HistoryMetacardImpl#reconstruct}. Such revisions include the first one written since this
+ * writer was started, revisions written out of order and revisions following changes made on
+ * another node.
+ * <p>
+ * When asynchronous, revisions are queued and written in batches by a single background thread,
+ * so writing history does not add to the latency of the ingest operations. The queue is bounded:
+ * when it is full, recording a revision waits until there is room for it.
+ */
+class HistoryWriter {
+
+    static final int DEFAULT_SNAPSHOT_INTERVAL = 10;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryWriter.class);
+
+    private static final int QUEUE_CAPACITY = 1000;
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private static final int MAX_TRACKED_METACARDS = 10000;
+
+    private static final long POLL_INTERVAL_MILLIS = 500;
+
+    private static final long DESTROY_TIMEOUT_SECONDS = 30;
+
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    /**
+     * The attributes history items can hold changes of, sorted by name
+     */
+    private static final List<String> FINGERPRINTED_ATTRIBUTES =
+            BasicTypes.BASIC_METACARD.getAttributeDescriptors()
+                    .stream()
+                    .map(AttributeDescriptor::getName)
+                    .filter(name -> !Metacard.ID.equals(name) && !Metacard.TAGS.equals(name))
+                    .sorted()
+                    .collect(Collectors.toList());
+
+    private final CatalogFramework catalogFramework;
+
+    /**
+     * The latest revision written for each {@link Metacard} ID
+     */
+    private final Cache<String, LatestRevision> latestRevisions = CacheBuilder.newBuilder()
+            .maximumSize(MAX_TRACKED_METACARDS)
+            .build();
+
+    private final BlockingQueue<Revision> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private ExecutorService writerExecutor;
+
+    private volatile boolean asynchronous = true;
+
+    private volatile int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+    private volatile boolean stopped = false;
+
+    HistoryWriter(CatalogFramework catalogFramework) {
+        this.catalogFramework = catalogFramework;
+    }
+
+    synchronized void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+        if (asynchronous && writerExecutor == null) {
+            writerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metacard-history-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            writerExecutor.execute(this::writeQueuedRevisions);
+        }
+    }
+
+    /**
+     * @param snapshotInterval the number of revisions between snapshots; 1 writes every revision
+     *                         as a snapshot
+     */
+    void setSnapshotInterval(int snapshotInterval) {
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    /**
+     * Records revisions of metacards, writing their history items now or, when asynchronous, once
+     * the revisions queued before them are written.
+     */
+    void record(List<Revision> revisions) throws PluginExecutionException {
+        if (!asynchronous || stopped) {
+            write(revisions);
+            return;
+        }
+
+        try {
+            for (Revision revision : revisions) {
+                queue.put(revision);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new PluginExecutionException(e);
+        }
+    }
+
+    /**
+     * Records the history items created along with new metacards, so that the following revisions
+     * of those metacards only hold their changes.
+     */
+    void recordCreated(List<Metacard> createdMetacards) {
+        for (Metacard metacard : createdMetacards) {
+            Attribute action = metacard.getAttribute(HistoryMetacardImpl.ACTION);
+            Attribute id = metacard.getAttribute(HistoryMetacardImpl.ID_HISTORY);
+            if (action != null && HistoryMetacardImpl.Action.CREATED.getKey()
+                    .equals(action.getValue()) && id != null && id.getValue() != null) {
+                latestRevisions.put((String) id.getValue(),
+                        new LatestRevision(metacard.getId(), 0, fingerprint(metacard)));
+            }
+        }
+    }
+
+    /**
+     * Stops the background writer once it has written the revisions still queued, waiting for it
+     * for a bounded time. Revisions recorded afterwards are written before they are recorded.
+     */
+    void destroy() {
+        // The writer needs this lock to write the queued revisions, so it is not held while waiting
+        ExecutorService executor;
+        synchronized (this) {
+            stopped = true;
+            executor = writerExecutor;
+            writerExecutor = null;
+        }
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(DESTROY_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread()
+                    .interrupt();
+        }
+
+        List<Revision> revisions = new ArrayList<>();
+        queue.drainTo(revisions);
+        if (!revisions.isEmpty()) {
+            LOGGER.warn("Timed out writing history, the history of {} queued revisions was lost.",
+                    revisions.size());
+        }
+    }
+
+    /**
+     * @return the subject history items are written as
+     */
+    ddf.security.Subject getSystemSubject() {
+        return Security.getSystemSubject();
+    }
+
+    private void writeQueuedRevisions() {
+        List<Revision> revisions = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            try {
+                Revision revision = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (revision == null) {
+                    if (stopped) {
+                        return;
+                    }
+                    continue;
+                }
+                revisions.add(revision);
+                queue.drainTo(revisions, MAX_BATCH_SIZE - 1);
+                write(revisions);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+                return;
+            } catch (PluginExecutionException | RuntimeException e) {
+                LOGGER.warn("Could not write the history of {} revisions.", revisions.size(), e);
+            } finally {
+                revisions.clear();
+            }
+        }
+    }
+
+    private void write(List<Revision> revisions) throws PluginExecutionException {
+        List<Metacard> historyItems = createHistoryItems(revisions);
+
+        ddf.security.Subject system = getSystemSubject();
+        if (system == null) {
+            forgetLatestRevisions(revisions);
+            LOGGER.warn("Could not get system subject to create versioned metacards.");
+            return;
+        }
+
+        try {
+            system.execute(() -> {
+                catalogFramework.create(new CreateRequestImpl(historyItems));
+                return true;
+            });
+        } catch (RuntimeException e) {
+            forgetLatestRevisions(revisions);
+            if (e.getCause() instanceof SourceUnavailableException
+                    || e.getCause() instanceof IngestException) {
+                throw new PluginExecutionException(e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    private synchronized List<Metacard> createHistoryItems(List<Revision> revisions) {
+        List<Metacard> historyItems = new ArrayList<>(revisions.size());
+        for (Revision revision : revisions) {
+            String id = revision.metacard.getId();
+            LatestRevision latest = id == null ? null : latestRevisions.getIfPresent(id);
+
+            HistoryMetacardImpl historyItem;
+            int deltas;
+            // A delta can only follow the history item that recorded the metacard it was made to
+            if (latest == null || revision.previousMetacard == null
+                    || latest.deltas + 1 >= snapshotInterval
+                    || !MessageDigest.isEqual(latest.fingerprint,
+                    fingerprint(revision.previousMetacard))) {
+                historyItem = new HistoryMetacardImpl(revision.metacard,
+                        revision.action,
+                        revision.subject);
+                deltas = 0;
+            } else {
+                historyItem = new HistoryMetacardImpl(revision.metacard,
+                        revision.previousMetacard,
+                        latest.historyId,
+                        revision.action,
+                        revision.subject);
+                deltas = latest.deltas + 1;
+            }
+            historyItem.setVersioned(revision.versioned);
+            historyItems.add(historyItem);
+
+            if (id != null) {
+                if (revision.action == HistoryMetacardImpl.Action.DELETED) {
+                    latestRevisions.invalidate(id);
+                } else {
+                    latestRevisions.put(id,
+                            new LatestRevision(historyItem.getId(),
+                                    deltas,
+                                    fingerprint(revision.metacard)));
+                }
+            }
+        }
+        return historyItems;
+    }
+
+    /**
+     * Digests the values of the attributes of a metacard that history items can hold changes of.
+     */
+    private static byte[] fingerprint(Metacard metacard) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (String name : FINGERPRINTED_ATTRIBUTES) {
+            Attribute attribute = metacard.getAttribute(name);
+            List<Serializable> values = attribute == null ? null : attribute.getValues();
+            if (values == null) {
+                continue;
+            }
+
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            for (Serializable value : values) {
+                digest.update((byte) 0);
+                if (value == null) {
+                    continue;
+                }
+                digest.update(value.getClass()
+                        .getName()
+                        .getBytes(StandardCharsets.UTF_8));
+                if (value instanceof byte[]) {
+                    digest.update((byte[]) value);
+                } else if (value instanceof Date) {
+                    digest.update(Long.toString(((Date) value).getTime())
+                            .getBytes(StandardCharsets.UTF_8));
+                } else {
+                    digest.update(value.toString()
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            digest.update((byte) 1);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Makes the next revisions of metacards whose history could not be written snapshots, since
+     * they cannot refer to a history item that does not exist.
+     */
+    private void forgetLatestRevisions(List<Revision> revisions) {
+        for (Revision revision : revisions) {
+            if (revision.metacard.getId() != null) {
+                latestRevisions.invalidate(revision.metacard.getId());
+            }
+        }
+    }
+
+    /**
+     * A change made to a {@link Metacard}, recorded when the change was made.
+     */
+    static class Revision {
+
+        private final Metacard metacard;
+
+        private final Metacard previousMetacard;
+
+        private final HistoryMetacardImpl.Action action;
+
+        private final Subject subject;
+
+        private final Date versioned = new Date();
+
+        /**
+         * @param metacard         the metacard after the change
+         * @param previousMetacard the metacard before the change, or {@code null} if unknown
+         * @param action           the change made to the metacard
+         * @param subject          the subject that made the change
+         */
+        Revision(Metacard metacard, Metacard previousMetacard, HistoryMetacardImpl.Action action,
+                Subject subject) {
+            this.metacard = metacard;
+            this.previousMetacard = previousMetacard;
+            this.action = action;
+            this.subject = subject;
+        }
+    }
+
+    private static class LatestRevision {
+
+        private final String historyId;
+
+        private final int deltas;
+
+        /**
+         * The fingerprint of the metacard as recorded by the history item
+         */
+        private final byte[] fingerprint;
+
+        LatestRevision(String historyId, int deltas, byte[] fingerprint) {
+            this.historyId = historyId;
+            this.deltas = deltas;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
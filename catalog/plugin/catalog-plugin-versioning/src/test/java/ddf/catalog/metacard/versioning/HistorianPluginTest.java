@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.metacard.versioning;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import ddf.catalog.core.versioning.HistoryMetacardImpl;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.operation.impl.CreateResponseImpl;
+import ddf.catalog.operation.impl.DeleteResponseImpl;
+import ddf.catalog.operation.impl.UpdateImpl;
+import ddf.catalog.operation.impl.UpdateResponseImpl;
+
+public class HistorianPluginTest {
+
+    private HistoryWriter historyWriter;
+
+    private HistorianPlugin historian;
+
+    @Before
+    public void setUp() {
+        ThreadContext.bind(mock(Subject.class));
+        historyWriter = mock(HistoryWriter.class);
+        historian = new HistorianPlugin(historyWriter);
+    }
+
+    @After
+    public void tearDown() {
+        ThreadContext.unbindSubject();
+    }
+
+    @Test
+    public void testCreateRequestAddsHistoryItems() throws Exception {
+        Metacard metacard = getMetacard("id1");
+
+        CreateRequest request = historian.process(new CreateRequestImpl(metacard));
+
+        assertThat(request.getMetacards(), hasSize(2));
+        assertThat(request.getMetacards()
+                .get(0), is(instanceOf(HistoryMetacardImpl.class)));
+        assertThat(request.getMetacards()
+                .get(1), is(metacard));
+    }
+
+    @Test
+    public void testCreateResponseRecordsCreatedHistory() throws Exception {
+        CreateRequest request = historian.process(new CreateRequestImpl(getMetacard("id1")));
+        CreateResponse response = new CreateResponseImpl(request, null, request.getMetacards());
+
+        historian.process(response);
+
+        verify(historyWriter).recordCreated(request.getMetacards());
+    }
+
+    @Test
+    public void testUpdateResponseRecordsRevisions() throws Exception {
+        Metacard historyItem = new HistoryMetacardImpl(getMetacard("id2"),
+                HistoryMetacardImpl.Action.CREATED,
+                null);
+
+        historian.process(new UpdateResponseImpl(null,
+                null,
+                Arrays.asList(new UpdateImpl(getMetacard("id1"), getMetacard("id1")),
+                        new UpdateImpl(historyItem, historyItem))));
+
+        ArgumentCaptor<List> revisions = ArgumentCaptor.forClass(List.class);
+        verify(historyWriter).record(revisions.capture());
+        assertThat(revisions.getValue()
+                .size(), is(1));
+    }
+
+    @Test
+    public void testDeleteResponseRecordsRevisions() throws Exception {
+        historian.process(new DeleteResponseImpl(null,
+                null,
+                Arrays.asList(getMetacard("id1"), getMetacard("id2"))));
+
+        ArgumentCaptor<List> revisions = ArgumentCaptor.forClass(List.class);
+        verify(historyWriter).record(revisions.capture());
+        assertThat(revisions.getValue()
+                .size(), is(2));
+    }
+
+    @Test
+    public void testNothingRecordedWithoutRevisions() throws Exception {
+        historian.process(new DeleteResponseImpl(null, null, Collections.emptyList()));
+
+        verify(historyWriter, never()).record(anyListOf(HistoryWriter.Revision.class));
+    }
+
+    @Test
+    public void testDestroy() {
+        historian.destroy();
+
+        verify(historyWriter).destroy();
+    }
+
+    private Metacard getMetacard(String id) {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(id);
+        metacard.setTitle("Title " + id);
+        return metacard;
+    }
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.metacard.versioning;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.shiro.subject.ExecutionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.core.versioning.HistoryMetacardImpl;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.source.IngestException;
+import ddf.security.Subject;
+
+public class HistoryWriterTest {
+
+    private static final String METACARD_ID = "metacardId";
+
+    private CatalogFramework catalogFramework;
+
+    private List<CreateRequest> createRequests;
+
+    private HistoryWriter historyWriter;
+
+    private MetacardImpl metacard;
+
+    private int revisionCount;
+
+    @Before
+    public void setUp() throws Exception {
+        catalogFramework = mock(CatalogFramework.class);
+        createRequests = Collections.synchronizedList(new ArrayList<>());
+        when(catalogFramework.create(any(CreateRequest.class))).thenAnswer(invocation -> {
+            createRequests.add((CreateRequest) invocation.getArguments()[0]);
+            return null;
+        });
+
+        Subject systemSubject = mock(Subject.class);
+        when(systemSubject.execute(any(Callable.class))).thenAnswer(invocation -> {
+            try {
+                return ((Callable) invocation.getArguments()[0]).call();
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+        });
+
+        historyWriter = new HistoryWriter(catalogFramework) {
+            @Override
+            Subject getSystemSubject() {
+                return systemSubject;
+            }
+        };
+
+        metacard = new MetacardImpl();
+        metacard.setId(METACARD_ID);
+        metacard.setTitle("Title 0");
+    }
+
+    @After
+    public void tearDown() {
+        historyWriter.destroy();
+    }
+
+    @Test
+    public void testSnapshotInterval() throws Exception {
+        historyWriter.setAsynchronous(false);
+        historyWriter.setSnapshotInterval(3);
+
+        for (int i = 1; i <= 7; i++) {
+            historyWriter.record(Collections.singletonList(nextRevision()));
+        }
+
+        List<Metacard> historyItems = getHistoryItems();
+        assertThat(historyItems, hasSize(7));
+        List<Boolean> snapshots = historyItems.stream()
+                .map(this::isSnapshot)
+                .collect(Collectors.toList());
+        assertThat(snapshots, contains(true, false, false, true, false, false, true));
+
+        for (int i = 1; i < historyItems.size(); i++) {
+            if (!snapshots.get(i)) {
+                assertThat(historyItems.get(i)
+                        .getAttribute(HistoryMetacardImpl.PREVIOUS_HISTORY)
+                        .getValue(), is(historyItems.get(i - 1)
+                        .getId()));
+            }
+        }
+    }
+
+    @Test
+    public void testRevisionsRecordedOutOfOrderAreSnapshots() throws Exception {
+        historyWriter.setAsynchronous(false);
+        historyWriter.record(Collections.singletonList(nextRevision()));
+        MetacardImpl first = metacard;
+
+        MetacardImpl second = new MetacardImpl(first, first.getMetacardType());
+        second.setTitle("Second title");
+        MetacardImpl third = new MetacardImpl(second, second.getMetacardType());
+        third.setDescription("Third description");
+
+        // The later update is written before the one its metacard came from
+        historyWriter.record(Collections.singletonList(new HistoryWriter.Revision(third,
+                second,
+                HistoryMetacardImpl.Action.UPDATED,
+                null)));
+        historyWriter.record(Collections.singletonList(new HistoryWriter.Revision(second,
+                first,
+                HistoryMetacardImpl.Action.UPDATED,
+                null)));
+        historyWriter.record(Collections.singletonList(new HistoryWriter.Revision(third,
+                second,
+                HistoryMetacardImpl.Action.UPDATED,
+                null)));
+
+        List<Metacard> historyItems = getHistoryItems();
+        assertThat(historyItems, hasSize(4));
+        assertThat(isSnapshot(historyItems.get(1)), is(true));
+        assertThat(historyItems.get(1)
+                .getTitle(), is("Second title"));
+        assertThat(historyItems.get(1)
+                .getAttribute(Metacard.DESCRIPTION)
+                .getValue(), is("Third description"));
+        assertThat(isSnapshot(historyItems.get(2)), is(true));
+        assertThat(historyItems.get(2)
+                .getTitle(), is("Second title"));
+        // Follows the history item that recorded the metacard it was made to
+        assertThat(isSnapshot(historyItems.get(3)), is(false));
+        assertThat(historyItems.get(3)
+                .getAttribute(HistoryMetacardImpl.PREVIOUS_HISTORY)
+                .getValue(), is(historyItems.get(2)
+                .getId()));
+        Metacard reconstructed = HistoryMetacardImpl.reconstruct(historyItems.get(3)
+                .getId(), historyItems);
+        assertThat(reconstructed.getTitle(), is("Second title"));
+        assertThat(reconstructed.getAttribute(Metacard.DESCRIPTION)
+                .getValue(), is("Third description"));
+    }
+
+    @Test
+    public void testQueuedWritesAreBatched() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstWrite(writing, release);
+        historyWriter.setAsynchronous(true);
+
+        historyWriter.record(Collections.singletonList(nextRevision()));
+        assertThat(writing.await(5, TimeUnit.SECONDS), is(true));
+
+        // Queued while the first revision is being written
+        for (int i = 0; i < 5; i++) {
+            historyWriter.record(Collections.singletonList(nextRevision()));
+        }
+        release.countDown();
+
+        verify(catalogFramework, timeout(5000).times(2)).create(any(CreateRequest.class));
+        historyWriter.destroy();
+        assertThat(createRequests.get(0)
+                .getMetacards(), hasSize(1));
+        assertThat(createRequests.get(1)
+                .getMetacards(), hasSize(5));
+    }
+
+    @Test
+    public void testFailedDeltaWriteFallsBackToSnapshot() throws Exception {
+        historyWriter.setAsynchronous(false);
+        historyWriter.record(Collections.singletonList(nextRevision()));
+
+        doThrow(new IngestException("Could not write history")).doAnswer(invocation -> {
+            createRequests.add((CreateRequest) invocation.getArguments()[0]);
+            return null;
+        })
+                .when(catalogFramework)
+                .create(any(CreateRequest.class));
+
+        try {
+            historyWriter.record(Collections.singletonList(nextRevision()));
+            fail("Expected the failed history write to be reported");
+        } catch (PluginExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(IngestException.class)));
+        }
+
+        historyWriter.record(Collections.singletonList(nextRevision()));
+
+        List<Metacard> historyItems = getHistoryItems();
+        assertThat(historyItems, hasSize(2));
+        assertThat(isSnapshot(historyItems.get(0)), is(true));
+        assertThat(isSnapshot(historyItems.get(1)), is(true));
+    }
+
+    @Test
+    public void testDestroyDrainsQueue() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstWrite(writing, release);
+        historyWriter.setAsynchronous(true);
+
+        historyWriter.record(Collections.singletonList(nextRevision()));
+        assertThat(writing.await(5, TimeUnit.SECONDS), is(true));
+        for (int i = 0; i < 3; i++) {
+            historyWriter.record(Collections.singletonList(nextRevision()));
+        }
+
+        // The batch being written when the writer is destroyed must not be interrupted
+        Thread releaser = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        historyWriter.destroy();
+
+        verify(catalogFramework, times(2)).create(any(CreateRequest.class));
+        assertThat(getHistoryItems(), hasSize(4));
+    }
+
+    private void blockFirstWrite(CountDownLatch writing, CountDownLatch release)
+            throws Exception {
+        doAnswer(invocation -> {
+            writing.countDown();
+            if (!release.await(5, TimeUnit.SECONDS)) {
+                throw new IngestException("Write was not released");
+            }
+            createRequests.add((CreateRequest) invocation.getArguments()[0]);
+            return null;
+        }).doAnswer(invocation -> {
+            createRequests.add((CreateRequest) invocation.getArguments()[0]);
+            return null;
+        })
+                .when(catalogFramework)
+                .create(any(CreateRequest.class));
+    }
+
+    private HistoryWriter.Revision nextRevision() {
+        MetacardImpl previous = metacard;
+        metacard = new MetacardImpl(previous, previous.getMetacardType());
+        metacard.setTitle("Title " + ++revisionCount);
+        return new HistoryWriter.Revision(metacard,
+                previous,
+                HistoryMetacardImpl.Action.UPDATED,
+                null);
+    }
+
+    private List<Metacard> getHistoryItems() {
+        synchronized (createRequests) {
+            return createRequests.stream()
+                    .flatMap(request -> request.getMetacards()
+                            .stream())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private boolean isSnapshot(Metacard historyItem) {
+        Attribute previous = historyItem.getAttribute(HistoryMetacardImpl.PREVIOUS_HISTORY);
+        return previous == null || previous.getValue() == null;
+    }
+}
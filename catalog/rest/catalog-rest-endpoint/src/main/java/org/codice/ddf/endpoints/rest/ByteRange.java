@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.endpoints.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * A range of bytes of a resource, as requested by a Range header.
+ */
+final class ByteRange {
+
+    private static final String BYTES_EQUAL = "bytes=";
+
+    private final long start;
+
+    private final long end;
+
+    ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Parses the byte ranges of a Range header, such as {@code bytes=0-499}, {@code bytes=500-},
+     * {@code bytes=-500} or {@code bytes=0-0,-1}.
+     *
+     * @param rangeHeader the value of the Range header, may be null
+     * @param length      the length of the resource in bytes
+     * @return the ranges within the resource, in the order they were requested; an empty list if
+     * none of them is satisfiable; or null if there is no Range header or it is not valid, in which
+     * case the whole resource should be returned
+     */
+    static List<ByteRange> parse(String rangeHeader, long length) {
+        if (rangeHeader == null || !StringUtils.startsWithIgnoreCase(rangeHeader.trim(),
+                BYTES_EQUAL)) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>();
+        for (String spec : rangeHeader.trim()
+                .substring(BYTES_EQUAL.length())
+                .split(",")) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+
+            String first = spec.substring(0, dash)
+                    .trim();
+            String last = spec.substring(dash + 1)
+                    .trim();
+            if (!isDigits(first) && !isDigits(last)) {
+                return null;
+            }
+
+            if (first.isEmpty()) {
+                // Suffix range of the last bytes of the resource
+                long suffixLength = parseLong(last);
+                if (suffixLength < 0) {
+                    return null;
+                }
+                if (suffixLength > 0 && length > 0) {
+                    ranges.add(new ByteRange(Math.max(0, length - suffixLength), length - 1));
+                }
+            } else {
+                long start = parseLong(first);
+                long end = last.isEmpty() ? length - 1 : parseLong(last);
+                if (start < 0 || (!last.isEmpty() && (end < 0 || end < start))) {
+                    return null;
+                }
+                if (start < length) {
+                    ranges.add(new ByteRange(start, Math.min(end, length - 1)));
+                }
+            }
+        }
+
+        return ranges;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    long getEnd() {
+        return end;
+    }
+
+    long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * @return the value of the Content-Range header for this range
+     */
+    String getContentRange(long resourceLength) {
+        return String.format("bytes %d-%d/%d", start, end, resourceLength);
+    }
+
+    private static boolean isDigits(String value) {
+        return !value.isEmpty() && StringUtils.isNumeric(value);
+    }
+
+    private static long parseLong(String value) {
+        if (!isDigits(value)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
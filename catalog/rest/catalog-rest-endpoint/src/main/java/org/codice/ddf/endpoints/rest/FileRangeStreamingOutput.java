@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.endpoints.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * Writes ranges of a file to the response with {@link FileChannel#transferTo}, so that the bytes
+ * of the file are not copied through the heap and the file is never read from its first byte to
+ * reach a range.
+ * <p>
+ * A single range is written as is. Several ranges are written as the parts of a
+ * {@code multipart/byteranges} entity.
+ */
+class FileRangeStreamingOutput implements StreamingOutput {
+
+    static final String MULTIPART_BYTERANGES = "multipart/byteranges; boundary=";
+
+    private static final String CRLF = "\r\n";
+
+    private final Path path;
+
+    private final List<ByteRange> ranges;
+
+    private final long length;
+
+    private final String contentType;
+
+    private final String boundary;
+
+    /**
+     * @param path        the file to write
+     * @param ranges      the ranges of the file to write
+     * @param length      the length of the file
+     * @param contentType the content type of the file, written in each part of a multipart entity
+     * @param boundary    the boundary between the parts of a multipart entity
+     */
+    FileRangeStreamingOutput(Path path, List<ByteRange> ranges, long length, String contentType,
+            String boundary) {
+        this.path = path;
+        this.ranges = ranges;
+        this.length = length;
+        this.contentType = contentType;
+        this.boundary = boundary;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        // The channel is not closed since closing it would close the response stream
+        WritableByteChannel target = output instanceof WritableByteChannel ?
+                (WritableByteChannel) output :
+                Channels.newChannel(output);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ranges.size() == 1) {
+                transfer(channel, ranges.get(0), target);
+            } else {
+                for (ByteRange range : ranges) {
+                    output.write(getPartHeaders(range).getBytes(StandardCharsets.US_ASCII));
+                    transfer(channel, range, target);
+                }
+                String closeDelimiter = CRLF + "--" + boundary + "--" + CRLF;
+                output.write(closeDelimiter.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * @return the length of the entity written, or -1 if it is a multipart entity
+     */
+    long getContentLength() {
+        return ranges.size() == 1 ?
+                ranges.get(0)
+                        .getLength() :
+                -1;
+    }
+
+    private String getPartHeaders(ByteRange range) {
+        StringBuilder headers = new StringBuilder(CRLF).append("--")
+                .append(boundary)
+                .append(CRLF);
+        if (contentType != null) {
+            headers.append("Content-Type: ")
+                    .append(contentType)
+                    .append(CRLF);
+        }
+        return headers.append("Content-Range: ")
+                .append(range.getContentRange(length))
+                .append(CRLF)
+                .append(CRLF)
+                .toString();
+    }
+
+    private void transfer(FileChannel channel, ByteRange range, WritableByteChannel target)
+            throws IOException {
+        long position = range.getStart();
+        long remaining = range.getLength();
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                throw new IOException(String.format(
+                        "Unable to read bytes %d-%d of %s, which may have been modified",
+                        position,
+                        range.getEnd(),
+                        path));
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+}
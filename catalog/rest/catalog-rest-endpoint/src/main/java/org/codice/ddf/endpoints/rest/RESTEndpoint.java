@@ -17,10 +17,10 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -29,6 +29,7 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
@@ -67,11 +68,13 @@
 
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.Constants;
+import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
 import ddf.catalog.content.operation.impl.CreateStorageRequestImpl;
 import ddf.catalog.content.operation.impl.UpdateStorageRequestImpl;
+import ddf.catalog.data.Attribute;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
@@ -92,6 +95,7 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.SourceInfoRequestEnterprise;
 import ddf.catalog.operation.impl.UpdateRequestImpl;
+import ddf.catalog.resource.FileResource;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.source.IngestException;
 import ddf.catalog.source.InternalIngestException;
@@ -128,6 +132,12 @@ public class RESTEndpoint implements RESTService {
 
     private static final String HEADER_CONTENT_LENGTH = "Content-Length";
 
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+
+    private static final String HEADER_IF_RANGE = "If-Range";
+
+    private static final String HEADER_ETAG = "ETag";
+
     private static final String HEADER_CONTENT_DISPOSITION = "Content-Disposition";
 
     private static final String FILE_ATTACHMENT_CONTENT_ID = "file";
@@ -504,7 +514,24 @@ public Response getDocument(@Encoded @PathParam("sourceid") String encodedSource
                         convertedMap);
                 LOGGER.debug("Read and transform complete, preparing response.");
 
-                responseBuilder = Response.ok(content.getInputStream(), content.getMimeTypeValue());
+                java.nio.file.Path path = content instanceof FileResource ?
+                        ((FileResource) content).getPath() :
+                        null;
+                if (path != null && Files.isRegularFile(path)) {
+                    responseBuilder = getFileResponseBuilder((FileResource) content,
+                            path,
+                            card,
+                            convertedMap,
+                            httpRequest);
+                } else {
+                    responseBuilder = Response.ok(content.getInputStream(),
+                            content.getMimeTypeValue());
+
+                    long size = content.getSize();
+                    if (size > 0) {
+                        responseBuilder.header(HEADER_CONTENT_LENGTH, size);
+                    }
+                }
 
                 // Add the Accept-ranges header to let the client know that we accept ranges in bytes
                 responseBuilder.header(HEADER_ACCEPT_RANGES, BYTES);
@@ -527,11 +554,6 @@ public Response getDocument(@Encoded @PathParam("sourceid") String encodedSource
                             "inline; filename=\"" + filename + "\"");
                 }
 
-                long size = content.getSize();
-                if (size > 0) {
-                    responseBuilder.header(HEADER_CONTENT_LENGTH, size);
-                }
-
                 response = responseBuilder.build();
             } catch (FederationException e) {
                 String exceptionMessage = "READ failed due to unexpected exception: ";
@@ -558,7 +580,7 @@ public Response getDocument(@Encoded @PathParam("sourceid") String encodedSource
                 // here or else execution will return to CXF and we'll lose this message and end up with
                 // a huge stack trace
                 // in a GUI or whatever else is connected to this endpoint
-            } catch (RuntimeException | UnsupportedEncodingException e) {
+            } catch (RuntimeException | IOException e) {
                 String exceptionMessage = "Unknown error occurred while processing request: ";
                 LOGGER.warn(exceptionMessage, e);
                 throw new ServerErrorException(exceptionMessage, Status.INTERNAL_SERVER_ERROR);
@@ -1095,7 +1117,13 @@ private long getRangeStart(HttpServletRequest httpRequest) throws UnsupportedQue
                 String range = getRange(rangeHeader);
 
                 if (range != null) {
-                    response = Long.parseLong(range);
+                    try {
+                        response = Long.parseLong(range);
+                    } catch (NumberFormatException e) {
+                        // Suffix and multiple ranges can only be served from a FileResource
+                        LOGGER.debug("Unable to skip to range {}, reading from the first byte",
+                                rangeHeader);
+                    }
                 }
             }
         }
@@ -1123,6 +1151,86 @@ private String getRange(String rangeHeader) throws UnsupportedQueryException {
         return response;
     }
 
+    /**
+     * Builds the response for a resource held in a local file, such as a product in the product
+     * cache. The ranges of the Range header, if any, are written directly from the file.
+     */
+    private ResponseBuilder getFileResponseBuilder(FileResource resource, java.nio.file.Path path,
+            Metacard card, Map<String, Serializable> properties, HttpServletRequest httpRequest)
+            throws IOException {
+        long length = Files.size(path);
+        String mimeType = resource.getMimeTypeValue();
+        String entityTag = getEntityTag(card, properties);
+
+        List<ByteRange> ranges = null;
+        if (httpRequest != null) {
+            String ifRange = httpRequest.getHeader(HEADER_IF_RANGE);
+            // Only send part of the resource if the client has the same version of the rest of it
+            if (ifRange == null || ifRange.trim()
+                    .equals(entityTag)) {
+                ranges = ByteRange.parse(httpRequest.getHeader(HEADER_RANGE), length);
+            }
+        }
+
+        ResponseBuilder responseBuilder;
+        if (ranges == null) {
+            responseBuilder = Response.ok(new FileRangeStreamingOutput(path,
+                    Collections.singletonList(new ByteRange(0, length - 1)),
+                    length,
+                    mimeType,
+                    null), mimeType)
+                    .header(HEADER_CONTENT_LENGTH, length);
+        } else if (ranges.isEmpty()) {
+            LOGGER.debug("Range {} is not satisfiable", httpRequest.getHeader(HEADER_RANGE));
+            responseBuilder = Response.status(Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HEADER_CONTENT_RANGE, BYTES + " */" + length);
+        } else {
+            String boundary = UUID.randomUUID()
+                    .toString();
+            FileRangeStreamingOutput output = new FileRangeStreamingOutput(path,
+                    ranges,
+                    length,
+                    mimeType,
+                    boundary);
+            responseBuilder = Response.status(Status.PARTIAL_CONTENT)
+                    .entity(output);
+            if (ranges.size() == 1) {
+                responseBuilder.type(mimeType)
+                        .header(HEADER_CONTENT_RANGE,
+                                ranges.get(0)
+                                        .getContentRange(length))
+                        .header(HEADER_CONTENT_LENGTH, output.getContentLength());
+            } else {
+                responseBuilder.type(FileRangeStreamingOutput.MULTIPART_BYTERANGES + boundary);
+            }
+        }
+
+        if (entityTag != null) {
+            responseBuilder.header(HEADER_ETAG, entityTag);
+        }
+        return responseBuilder;
+    }
+
+    /**
+     * Returns the entity tag of the resource of a metacard, based on the checksum of the resource,
+     * or null if the metacard has no checksum.
+     */
+    private String getEntityTag(Metacard card, Map<String, Serializable> properties) {
+        Attribute checksum = card.getAttribute(Metacard.CHECKSUM);
+        if (checksum == null || checksum.getValue() == null) {
+            return null;
+        }
+
+        StringBuilder entityTag = new StringBuilder("\"").append(checksum.getValue());
+        Serializable qualifier = properties.get(ContentItem.QUALIFIER);
+        if (qualifier != null) {
+            entityTag.append('-')
+                    .append(qualifier);
+        }
+        return entityTag.append('"')
+                .toString();
+    }
+
     public MimeTypeToTransformerMapper getMimeTypeToTransformerMapper() {
         return mimeTypeToTransformerMapper;
     }
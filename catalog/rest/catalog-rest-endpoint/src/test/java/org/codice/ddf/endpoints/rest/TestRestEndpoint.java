@@ -13,9 +13,11 @@
  */
 package org.codice.ddf.endpoints.rest;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -27,11 +29,15 @@
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -45,6 +51,7 @@
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
@@ -54,7 +61,9 @@
 import org.apache.cxf.jaxrs.ext.multipart.MultipartBody;
 import org.apache.tika.io.IOUtils;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
@@ -79,6 +88,7 @@
 import ddf.catalog.operation.impl.CreateResponseImpl;
 import ddf.catalog.operation.impl.SourceInfoRequestEnterprise;
 import ddf.catalog.operation.impl.SourceInfoResponseImpl;
+import ddf.catalog.resource.FileResource;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.ResourceNotFoundException;
 import ddf.catalog.resource.ResourceNotSupportedException;
@@ -108,6 +118,10 @@ public class TestRestEndpoint {
 
     private static final int BAD_REQUEST = 400;
 
+    private static final int PARTIAL_CONTENT = 206;
+
+    private static final int REQUESTED_RANGE_NOT_SATISFIABLE = 416;
+
     private static final String SAMPLE_ID = "12345678900987654321abcdeffedcba";
 
     private static final String ENDPOINT_ADDRESS = "http://localhost:8181/services/catalog";
@@ -145,6 +159,14 @@ public class TestRestEndpoint {
 
     private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
 
+    private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+
+    private static final String HEADER_IF_RANGE = "If-Range";
+
+    private static final String HEADER_ETAG = "ETag";
+
     private static final String ACCEPT_RANGES_VALUE = "bytes";
 
     private static final String HEADER_CONTENT_DISPOSITION = "Content-Disposition";
@@ -152,6 +174,15 @@ public class TestRestEndpoint {
     private static final String CONTENT_DISPOSITION_VALUE =
             "inline; filename=\"" + GET_FILENAME + "\"";
 
+    private static final String FILE_CONTENT = "0123456789abcdefghij";
+
+    private static final String FILE_CHECKSUM = "ab12cd34";
+
+    private static final String FILE_ETAG = "\"" + FILE_CHECKSUM + "\"";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @BeforeClass
     public static void initialize() throws Exception {
     }
@@ -533,6 +564,76 @@ public void testGetDocumentResourceFedSuccess()
                 .toString());
     }
 
+    /**
+     * Tests retrieving a single range of a resource held in a local file
+     */
+    @Test
+    public void testGetDocumentFileResourceRange() throws Exception {
+        Response response = executeFileResourceTest("bytes=2-5", null);
+
+        assertEquals(PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 2-5/20", response.getHeaderString(HEADER_CONTENT_RANGE));
+        assertEquals("4", response.getHeaderString(HEADER_CONTENT_LENGTH));
+        assertEquals(FILE_ETAG, response.getHeaderString(HEADER_ETAG));
+        assertEquals("2345", getEntity(response));
+    }
+
+    @Test
+    public void testGetDocumentFileResourceSuffixRange() throws Exception {
+        Response response = executeFileResourceTest("bytes=-3", null);
+
+        assertEquals(PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 17-19/20", response.getHeaderString(HEADER_CONTENT_RANGE));
+        assertEquals("hij", getEntity(response));
+    }
+
+    @Test
+    public void testGetDocumentFileResourceMultipleRanges() throws Exception {
+        Response response = executeFileResourceTest("bytes=0-1,-2", null);
+
+        assertEquals(PARTIAL_CONTENT, response.getStatus());
+        assertThat(response.getMediaType()
+                .toString(), startsWith("multipart/byteranges"));
+
+        String entity = getEntity(response);
+        assertThat(entity, containsString("Content-Range: bytes 0-1/20\r\n\r\n01\r\n"));
+        assertThat(entity, containsString("Content-Range: bytes 18-19/20\r\n\r\nij\r\n"));
+    }
+
+    @Test
+    public void testGetDocumentFileResourceIfRangeMismatch() throws Exception {
+        Response response = executeFileResourceTest("bytes=2-5", "\"00000000\"");
+
+        assertEquals(OK, response.getStatus());
+        assertEquals(FILE_CONTENT, getEntity(response));
+    }
+
+    @Test
+    public void testGetDocumentFileResourceIfRangeMatch() throws Exception {
+        Response response = executeFileResourceTest("bytes=2-5", FILE_ETAG);
+
+        assertEquals(PARTIAL_CONTENT, response.getStatus());
+        assertEquals("2345", getEntity(response));
+    }
+
+    @Test
+    public void testGetDocumentFileResourceRangeNotSatisfiable() throws Exception {
+        Response response = executeFileResourceTest("bytes=30-", null);
+
+        assertEquals(REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */20", response.getHeaderString(HEADER_CONTENT_RANGE));
+    }
+
+    @Test
+    public void testGetDocumentFileResourceWithoutRange() throws Exception {
+        Response response = executeFileResourceTest(null, null);
+
+        assertEquals(OK, response.getStatus());
+        assertEquals("20", response.getHeaderString(HEADER_CONTENT_LENGTH));
+        assertEquals(ACCEPT_RANGES_VALUE, response.getHeaderString(HEADER_ACCEPT_RANGES));
+        assertEquals(FILE_CONTENT, getEntity(response));
+    }
+
     /**
      * Tests that a geojson input has its InputTransformer invoked by the REST endpoint to create
      * a metacard that is then converted to XML and returned from the REST endpoint.
@@ -833,6 +934,43 @@ protected String mockTestSetup(CatalogFramework framework, TestType testType)
         return transformer;
     }
 
+    private Response executeFileResourceTest(String range, String ifRange) throws Exception {
+        CatalogFramework framework = givenCatalogFramework(SAMPLE_ID);
+        mockTestSetup(framework, TestType.RESOURCE_TEST);
+
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setSourceId(GET_SITENAME);
+        metacard.setAttribute(Metacard.CHECKSUM, FILE_CHECKSUM);
+        Result result = mock(Result.class);
+        when(result.getMetacard()).thenReturn(metacard);
+        QueryResponse queryResponse = mock(QueryResponse.class);
+        when(queryResponse.getResults()).thenReturn(Arrays.asList(result));
+        when(framework.query(isA(QueryRequest.class), isNull(FederationStrategy.class))).thenReturn(
+                queryResponse);
+
+        Path path = temporaryFolder.newFile()
+                .toPath();
+        Files.write(path, FILE_CONTENT.getBytes(StandardCharsets.UTF_8));
+        FileResource resource = mock(FileResource.class);
+        when(resource.getPath()).thenReturn(path);
+        when(resource.getMimeTypeValue()).thenReturn("text/plain");
+        when(resource.getName()).thenReturn(GET_FILENAME);
+        when(framework.transform(isA(Metacard.class), anyString(), isA(Map.class))).thenReturn(
+                resource);
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader(HEADER_RANGE)).thenReturn(range);
+        when(request.getHeader(HEADER_IF_RANGE)).thenReturn(ifRange);
+
+        return executeTest(framework, "resource", false, request);
+    }
+
+    private String getEntity(Response response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     private Response executeTest(CatalogFramework framework, String transformer, boolean local,
             HttpServletRequest request) throws URISyntaxException {
 
@@ -21,6 +21,14 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.ErrorListener;
@@ -31,6 +39,7 @@
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.codice.ddf.platform.util.XMLUtils;
@@ -43,6 +52,8 @@
 import ddf.catalog.validation.ValidationException;
 import net.sf.saxon.Configuration;
 import net.sf.saxon.TransformerFactoryImpl;
+import net.sf.saxon.om.NodeInfo;
+import net.sf.saxon.trans.XPathException;
 
 /**
  * This pre-ingest service provides validation of an ingested XML document against a Schematron
@@ -65,6 +76,11 @@
  * <p>
  * This service is using the SVRL script, hence the output of the validation will be an
  * SVRL-formatted XML document.
+ * <p>
+ * The metadata of a metacard is parsed once, and every compiled Schematron schema is run against
+ * the same tree. When several schemas are configured, they are run in parallel on a pool bounded
+ * by the number of processors. Validations do not share any state, so metacards can be validated
+ * concurrently.
  *
  * @author rodgersh
  * @see <a href="http://www.schematron.com">Schematron</a>
@@ -77,15 +93,22 @@ public class SchematronValidationService implements MetacardValidator, Describab
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SchematronValidationService.class);
 
+    private static final int VALIDATION_THREADS = Runtime.getRuntime()
+            .availableProcessors();
+
+    private static final long VALIDATION_THREAD_KEEP_ALIVE_SECONDS = 60;
+
     private TransformerFactory transformerFactory;
 
-    private List<Templates> validators;
+    private volatile List<Templates> validators;
+
+    private ThreadPoolExecutor validationExecutor;
 
     private Vector<String> warnings;
 
     private int priority = 10;
 
-    private SchematronReport schematronReport;
+    private volatile SchematronReport schematronReport;
 
     private List<String> schematronFileNames;
 
@@ -108,14 +131,31 @@ public void init() throws SchematronInitializationException {
         config.setErrorListener(new SaxonErrorListener(schematronFileNames));
 
         updateValidators();
+
+        if (validationExecutor == null) {
+            validationExecutor = new ThreadPoolExecutor(VALIDATION_THREADS,
+                    VALIDATION_THREADS,
+                    VALIDATION_THREAD_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ValidationThreadFactory());
+            validationExecutor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    public void destroy() {
+        if (validationExecutor != null) {
+            validationExecutor.shutdownNow();
+        }
     }
 
     private void updateValidators() throws SchematronInitializationException {
-        validators = new ArrayList<>(schematronFileNames.size());
+        List<Templates> compiledValidators = new ArrayList<>(schematronFileNames.size());
         for (String schematronFileName : schematronFileNames) {
             Templates template = compileSchematronRules(schematronFileName);
-            validators.add(template);
+            compiledValidators.add(template);
         }
+        validators = compiledValidators;
     }
 
     private Templates compileSchematronRules(String schematronFileName)
@@ -224,41 +264,99 @@ public void setPriority(int priority) {
         }
     }
 
+    /**
+     * @return the report of the most recent validation; when metacards are validated concurrently,
+     * this may be the report of any of them
+     */
     public SchematronReport getSchematronReport() {
         return schematronReport;
     }
 
     @Override
     public void validate(Metacard metacard) throws ValidationException {
-        for (Templates validator : validators) {
-            String metadata = metacard.getMetadata();
-            if (metadata == null) {
-                throw new SchematronValidationException(
-                        "The Metacard.METADATA attribute must not be null to run schematron validation against the Metacard");
-            }
-            if (namespace != null && !namespace.equals(XMLUtils.getRootNamespace(metadata))) {
-                return;
+        List<Templates> currentValidators = validators;
+        if (currentValidators.isEmpty()) {
+            return;
+        }
+
+        String metadata = metacard.getMetadata();
+        if (metadata == null) {
+            throw new SchematronValidationException(
+                    "The Metacard.METADATA attribute must not be null to run schematron validation against the Metacard");
+        }
+        if (namespace != null && !namespace.equals(XMLUtils.getRootNamespace(metadata))) {
+            return;
+        }
+
+        NodeInfo document = parseMetadata(metadata);
+
+        // The first schema is run on the calling thread while the pool runs the others
+        List<Future<SchematronReport>> futureReports = new ArrayList<>();
+        for (Templates validator : currentValidators.subList(1, currentValidators.size())) {
+            futureReports.add(validationExecutor.submit(() -> generateReport(document,
+                    validator)));
+        }
+
+        try {
+            checkReport(generateReport(document, currentValidators.get(0)));
+            for (Future<SchematronReport> futureReport : futureReports) {
+                checkReport(getReport(futureReport));
             }
-            schematronReport = generateReport(metadata, validator);
-            if (!schematronReport.isValid(suppressWarnings)) {
-                throw new SchematronValidationException("Schematron validation failed.",
-                        schematronReport.getErrors(),
-                        schematronReport.getWarnings());
+        } finally {
+            for (Future<SchematronReport> futureReport : futureReports) {
+                futureReport.cancel(true);
             }
         }
     }
 
-    private SchematronReport generateReport(String metadata, Templates validator)
+    private void checkReport(SchematronReport report) throws SchematronValidationException {
+        schematronReport = report;
+        if (!report.isValid(suppressWarnings)) {
+            throw new SchematronValidationException("Schematron validation failed.",
+                    report.getErrors(),
+                    report.getWarnings());
+        }
+    }
+
+    private SchematronReport getReport(Future<SchematronReport> futureReport)
             throws SchematronValidationException {
-        StringReader metadataReader = new StringReader(metadata);
+        try {
+            return futureReport.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new SchematronValidationException("Interrupted while validating metacard.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SchematronValidationException) {
+                throw (SchematronValidationException) e.getCause();
+            }
+            throw new SchematronValidationException(
+                    "Could not setup validator to perform validation.",
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Parses metadata into a tree that all the compiled schemas can be run against concurrently.
+     */
+    private NodeInfo parseMetadata(String metadata) throws SchematronValidationException {
+        Configuration config = ((TransformerFactoryImpl) transformerFactory).getConfiguration();
+        try {
+            return config.buildDocument(new StreamSource(new StringReader(metadata)));
+        } catch (XPathException e) {
+            throw new SchematronValidationException("Could not parse metadata for validation.", e);
+        }
+    }
 
+    private SchematronReport generateReport(NodeInfo document, Templates validator)
+            throws SchematronValidationException {
         SchematronReport report;
         try {
             Transformer transformer = validator.newTransformer();
-            DOMResult schematronResult = new DOMResult();
-            transformer.transform(new StreamSource(metadataReader), schematronResult);
-            report = new SvrlReport(schematronResult);
-        } catch (TransformerException e) {
+            SvrlReport.Builder reportBuilder = new SvrlReport.Builder();
+            transformer.transform(document, new SAXResult(reportBuilder));
+            report = reportBuilder.build();
+        } catch (TransformerException | IllegalStateException e) {
             throw new SchematronValidationException(
                     "Could not setup validator to perform validation.",
                     e);
@@ -331,6 +429,19 @@ public void fatalError(TransformerException e) throws TransformerException {
         }
     }
 
+    private static class ValidationThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable,
+                    "schematron-validation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     /**
      * The Listener class which catches xsl:messages during the transformation/stages of the
      * Schematron schema.
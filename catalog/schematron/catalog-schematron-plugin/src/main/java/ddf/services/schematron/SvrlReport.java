@@ -17,10 +17,14 @@
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Properties;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -30,14 +34,21 @@
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Schematron Validation Report Language (SVRL) formatted report of output from Schematron
  * validation.
+ * <p>
+ * Reports created by a {@link Builder} only keep the failed assertions and reports of the SVRL
+ * output, so the rules fired on a large document do not have to be held in memory.
  *
  * @author rodgersh
  *
@@ -71,30 +82,42 @@ public class SvrlReport implements SchematronReport {
      */
     private static final String ERROR_FLAG_ATTR_TEXT = "error";
 
+    /** Namespace of the SVRL elements */
+    private static final String SVRL_NAMESPACE = "http://purl.oclc.org/dsdl/svrl";
+
+    private static final String ASSERT_FAIL_ELEMENT = "failed-assert";
+
+    private static final String REPORT_FAIL_ELEMENT = "failed-report";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(SvrlReport.class);
 
-    /** Schematron report in DOM format */
-    private DOMResult report;
+    private static final DOMImplementation DOM_IMPLEMENTATION = getDomImplementation();
 
     /** The root element of the report's DOM tree. */
     private Element root = null;
 
-    /**
-     * Private default constructor to prevent instantiating SvrlReport without required DOMResult
-     * argument.
-     */
-    private SvrlReport() {
-
-    }
-
     /**
      * @param result
      *            DOM-formatted results from Schematron validation
      */
     public SvrlReport(DOMResult result) {
-        this.report = result;
-        this.root = (Element) report.getNode()
-                .getFirstChild();
+        this((Element) result.getNode()
+                .getFirstChild());
+    }
+
+    private SvrlReport(Element root) {
+        this.root = root;
+    }
+
+    private static DOMImplementation getDomImplementation() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try {
+            return factory.newDocumentBuilder()
+                    .getDOMImplementation();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to create SVRL report documents.", e);
+        }
     }
 
     /**
@@ -271,4 +294,89 @@ public String getReportAsText() throws TransformerException {
         return sw.toString();
     }
 
-};
+    /**
+     * Builds a {@link SvrlReport} from the SAX events of SVRL output, such as the output of a
+     * Schematron transformation into a {@link javax.xml.transform.sax.SAXResult}.
+     * <p>
+     * A builder creates a single report and must only receive the events of one transformation.
+     */
+    static class Builder extends DefaultHandler {
+
+        private final Document document = DOM_IMPLEMENTATION.createDocument(null, null, null);
+
+        private final Deque<Node> parents = new ArrayDeque<>();
+
+        private Node current = document;
+
+        private Element root;
+
+        private int failureDepth = 0;
+
+        /**
+         * @return the report of the SVRL output received by this builder
+         * @throws IllegalStateException if no SVRL output has been received
+         */
+        SvrlReport build() {
+            if (root == null) {
+                throw new IllegalStateException("No SVRL output was received.");
+            }
+            return new SvrlReport(root);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) {
+            parents.push(current);
+
+            if (root == null) {
+                root = createElement(uri, localName, qName, attributes);
+                document.appendChild(root);
+                current = root;
+            } else if (failureDepth > 0 || isFailure(uri, localName)) {
+                Element element = createElement(uri, localName, qName, attributes);
+                current.appendChild(element);
+                current = element;
+                failureDepth++;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            Node parent = parents.pop();
+            if (parent != current && failureDepth > 0) {
+                failureDepth--;
+            }
+            current = parent;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (failureDepth > 0) {
+                current.appendChild(document.createTextNode(new String(ch, start, length)));
+            }
+        }
+
+        private boolean isFailure(String uri, String localName) {
+            return SVRL_NAMESPACE.equals(uri) && (ASSERT_FAIL_ELEMENT.equals(localName)
+                    || REPORT_FAIL_ELEMENT.equals(localName));
+        }
+
+        private Element createElement(String uri, String localName, String qName,
+                Attributes attributes) {
+            Element element = document.createElementNS(emptyToNull(uri),
+                    qName.isEmpty() ? localName : qName);
+            for (int i = 0; i < attributes.getLength(); i++) {
+                String attributeName = attributes.getQName(i)
+                        .isEmpty() ? attributes.getLocalName(i) : attributes.getQName(i);
+                element.setAttributeNS(emptyToNull(attributes.getURI(i)),
+                        attributeName,
+                        attributes.getValue(i));
+            }
+            return element;
+        }
+
+        private String emptyToNull(String uri) {
+            return uri == null || uri.isEmpty() ? null : uri;
+        }
+    }
+}
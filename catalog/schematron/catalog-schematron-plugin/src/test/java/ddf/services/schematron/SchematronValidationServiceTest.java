@@ -14,7 +14,10 @@
 
 package ddf.services.schematron;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
@@ -25,6 +28,11 @@
 import java.net.URL;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -166,6 +174,63 @@ public void testWithSpacesInPathToSchematronFile()
                 "dog_3leg_3paw.xml"));
     }
 
+    @Test
+    public void testFailedAssertionMessages()
+            throws IOException, SchematronInitializationException {
+        SchematronValidationService service = getService("dog_legs.sch", "dog_paws.sch");
+        try {
+            service.validate(getMetacard("dog_3leg_3paw.xml"));
+            fail("Expected the dog to fail validation.");
+        } catch (ValidationException e) {
+            assertThat(e.getErrors()
+                    .size(), is(1));
+            assertThat(e.getErrors()
+                    .get(0), containsString("Oh no! Your dog doesn't have all 4 limbs!"));
+        }
+        assertThat(service.getSchematronReport()
+                .getAllAssertMessages()
+                .getLength(), is(1));
+    }
+
+    @Test
+    public void testConcurrentValidation() throws Exception {
+        SchematronValidationService service = getService(true,
+                null,
+                true,
+                "dog_legs.sch",
+                "dog_paws.sch");
+        MetacardImpl[] metacards = {getMetacard("dog_4leg_4paw.xml"),
+                getMetacard("dog_3leg_3paw.xml"), getMetacard("dog_4leg_3paw.xml")};
+        boolean[] valid = {true, false, true};
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<Boolean>> validations = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                MetacardImpl metacard = metacards[i % metacards.length];
+                boolean expected = valid[i % metacards.length];
+                validations.add(() -> {
+                    try {
+                        service.validate(metacard);
+                        return expected;
+                    } catch (ValidationException e) {
+                        return !expected && e.getErrors()
+                                .size() == 1;
+                    }
+                });
+            }
+
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> result : executor.invokeAll(validations)) {
+                results.add(result.get());
+            }
+            assertThat(results, not(hasItem(false)));
+        } finally {
+            executor.shutdownNow();
+            service.destroy();
+        }
+    }
+
     private MetacardImpl getMetacard(String filename) throws IOException {
         String metadata = IOUtils.toString(getClass().getClassLoader()
                 .getResourceAsStream(filename));
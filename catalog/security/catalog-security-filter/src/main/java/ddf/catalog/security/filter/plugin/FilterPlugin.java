@@ -16,6 +16,7 @@
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -187,11 +188,12 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
         List<Metacard> newResults = new ArrayList<>(results.size());
         KeyValueCollectionPermission securityPermission = new KeyValueCollectionPermission(
                 CollectionPermission.READ_ACTION);
+        Map<Map<String, Set<String>>, Boolean> decisions = new HashMap<>();
         int filteredMetacards = 0;
         for (Metacard metacard : results) {
             Attribute attr = metacard.getAttribute(Metacard.SECURITY);
             if (!checkPermissions(attr, securityPermission, subject,
-                    CollectionPermission.READ_ACTION)) {
+                    CollectionPermission.READ_ACTION, decisions)) {
                 for (FilterStrategy filterStrategy : filterStrategies.values()) {
                     FilterResult filterResult = filterStrategy.process(input, metacard);
                     if (filterResult.processed()) {
@@ -240,12 +242,13 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
         Metacard metacard;
         KeyValueCollectionPermission securityPermission = new KeyValueCollectionPermission(
                 CollectionPermission.READ_ACTION);
+        Map<Map<String, Set<String>>, Boolean> decisions = new HashMap<>();
         int filteredMetacards = 0;
         for (Result result : results) {
             metacard = result.getMetacard();
             Attribute attr = metacard.getAttribute(Metacard.SECURITY);
             if (!checkPermissions(attr, securityPermission, subject,
-                    CollectionPermission.READ_ACTION)) {
+                    CollectionPermission.READ_ACTION, decisions)) {
                 for (FilterStrategy filterStrategy : filterStrategies.values()) {
                     FilterResult filterResult = filterStrategy.process(input, metacard);
                     if (filterResult.processed()) {
@@ -339,6 +342,27 @@ private Subject getSubject(Request input) throws StopProcessingException {
         return subject;
     }
 
+    /**
+     * Checks the permissions of a metacard, reusing the decision made for any previous metacard of
+     * the same response with the same security markings. Most results share one of a few
+     * combinations of markings, so this avoids asking the realms about every single result.
+     */
+    private boolean checkPermissions(Attribute attr,
+            KeyValueCollectionPermission securityPermission, Subject subject, String action,
+            Map<Map<String, Set<String>>, Boolean> decisions) {
+        Map<String, Set<String>> map = null;
+
+        if (attr != null) {
+            map = (Map<String, Set<String>>) attr.getValue();
+        }
+        Boolean decision = decisions.get(map);
+        if (decision == null) {
+            decision = checkPermissions(attr, securityPermission, subject, action);
+            decisions.put(map, decision);
+        }
+        return decision;
+    }
+
     private boolean checkPermissions(Attribute attr,
             KeyValueCollectionPermission securityPermission, Subject subject, String action) {
         Map<String, Set<String>> map = null;
@@ -18,6 +18,8 @@
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.Serializable;
@@ -85,6 +87,8 @@ public class FilterPluginTest {
 
     FilterPlugin plugin;
 
+    AuthorizingRealm realm;
+
     QueryResponseImpl incomingResponse;
 
     ResourceResponseImpl resourceResponse;
@@ -101,7 +105,7 @@ public class FilterPluginTest {
 
     @Before
     public void setup() {
-        AuthorizingRealm realm = mock(AuthorizingRealm.class);
+        realm = mock(AuthorizingRealm.class);
 
         when(realm.getName()).thenReturn("mockRealm");
         when(realm.isPermitted(any(PrincipalCollection.class), any(Permission.class))).then(
@@ -313,6 +317,31 @@ public void testPreUpdate() throws Exception {
         plugin.processPreUpdate(updateRequest, metacardMap);
     }
 
+    @Test
+    public void testPostQueryChecksEachSecurityMarkingOnce() throws StopProcessingException {
+        QueryResponseImpl response = new QueryResponseImpl(incomingResponse.getRequest());
+        for (int i = 0; i < 1000; i++) {
+            switch (i % 3) {
+            case 0:
+                response.addResult(new ResultImpl(getExactRolesMetacard()), false);
+                break;
+            case 1:
+                response.addResult(new ResultImpl(getMoreRolesMetacard()), false);
+                break;
+            default:
+                response.addResult(new ResultImpl(getNoSecurityAttributeMetacard()), false);
+            }
+        }
+        response.closeResultQueue();
+
+        plugin.processPostQuery(response);
+
+        assertThat(response.getResults()
+                .size(), is(667));
+        verify(realm, times(3)).isPermitted(any(PrincipalCollection.class),
+                any(Permission.class));
+    }
+
     @Test
     public void testUnusedMethods() throws StopProcessingException {
         QueryRequest queryRequest = plugin.processPreQuery(mock(QueryRequest.class));
@@ -27,7 +27,7 @@
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
-import ddf.catalog.plugin.PolicyPlugin;
+import ddf.catalog.plugin.ConcurrentPolicyPlugin;
 import ddf.catalog.plugin.PolicyResponse;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.plugin.impl.PolicyResponseImpl;
@@ -35,7 +35,7 @@
 /**
  * Plugin that parses Metacard attributes for security policy information
  */
-public class MetacardAttributeSecurityPolicyPlugin implements PolicyPlugin {
+public class MetacardAttributeSecurityPolicyPlugin implements ConcurrentPolicyPlugin {
 
     List<String> metacardAttributes = new ArrayList<>();
 
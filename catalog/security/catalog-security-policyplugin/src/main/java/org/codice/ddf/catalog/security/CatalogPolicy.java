@@ -26,7 +26,7 @@
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
-import ddf.catalog.plugin.PolicyPlugin;
+import ddf.catalog.plugin.ConcurrentPolicyPlugin;
 import ddf.catalog.plugin.PolicyResponse;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.plugin.impl.PolicyResponseImpl;
@@ -37,7 +37,7 @@
  * IngestPlugin is a PreIngestPlugin that restricts the create/update/delete operations
  * on the catalog to a group defined by a set of configurable user attributes.
  */
-public class CatalogPolicy implements PolicyPlugin {
+public class CatalogPolicy implements ConcurrentPolicyPlugin {
 
     private String[] createPermissions;
 
@@ -38,7 +38,7 @@
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
-import ddf.catalog.plugin.PolicyPlugin;
+import ddf.catalog.plugin.ConcurrentPolicyPlugin;
 import ddf.catalog.plugin.PolicyResponse;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.plugin.impl.PolicyResponseImpl;
@@ -46,7 +46,7 @@
 /**
  * Plugin that parses XML metadata for elements that contain attributes with security policy information
  */
-public class XmlAttributeSecurityPolicyPlugin implements PolicyPlugin {
+public class XmlAttributeSecurityPolicyPlugin implements ConcurrentPolicyPlugin {
     /**
      * Logger
      */
@@ -14,7 +14,11 @@
 package org.codice.ddf.spatial.ogc.csw.catalog.common.transaction;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+
+import ddf.catalog.data.Metacard;
 
 /**
  * Represents a single CSW transaction request that can contain multiple insert, update, and delete
@@ -34,6 +38,8 @@ public class CswTransactionRequest {
 
     private final List<UpdateAction> updateActions = new ArrayList<>();
 
+    private Iterator<CswAction> actions;
+
     public String getVersion() {
         return version;
     }
@@ -59,14 +65,84 @@ public void setVerbose(boolean verbose) {
     }
 
     public List<InsertAction> getInsertActions() {
+        readActions();
         return insertActions;
     }
 
     public List<DeleteAction> getDeleteActions() {
+        readActions();
         return deleteActions;
     }
 
     public List<UpdateAction> getUpdateActions() {
+        readActions();
         return updateActions;
     }
+
+    /**
+     * Returns the actions of this request in the order they are to be performed.
+     * <p>
+     * The actions of a request read as a stream are read as they are iterated, in the order they
+     * appear in the request, and can only be iterated once. Otherwise, the insert actions are
+     * returned, followed by the update and delete actions.
+     *
+     * @return the actions of this request
+     */
+    public Iterator<CswAction> getActions() {
+        if (actions != null) {
+            Iterator<CswAction> streamedActions = actions;
+            actions = null;
+            return streamedActions;
+        }
+
+        return Stream.<CswAction>concat(Stream.concat(insertActions.stream(),
+                updateActions.stream()), deleteActions.stream())
+                .iterator();
+    }
+
+    /**
+     * Sets the actions of a request read as a stream, which are read as they are iterated.
+     * <p>
+     * The inserts of such a request may be read in parts, each following part being an
+     * {@link InsertAction#isContinuation() continuation} of the previous one. Getting the insert,
+     * update or delete actions reads the remaining actions and joins those parts back together.
+     *
+     * @param actions the actions of the request
+     */
+    public void setActions(Iterator<CswAction> actions) {
+        this.actions = actions;
+    }
+
+    private void readActions() {
+        if (actions == null) {
+            return;
+        }
+
+        Iterator<CswAction> remainingActions = actions;
+        actions = null;
+        while (remainingActions.hasNext()) {
+            CswAction action = remainingActions.next();
+            if (action instanceof InsertAction) {
+                addInsertAction((InsertAction) action);
+            } else if (action instanceof UpdateAction) {
+                updateActions.add((UpdateAction) action);
+            } else if (action instanceof DeleteAction) {
+                deleteActions.add((DeleteAction) action);
+            }
+        }
+    }
+
+    private void addInsertAction(InsertAction insertAction) {
+        if (!insertAction.isContinuation() || insertActions.isEmpty()) {
+            insertActions.add(insertAction);
+            return;
+        }
+
+        InsertAction previousAction = insertActions.remove(insertActions.size() - 1);
+        List<Metacard> records = new ArrayList<>(previousAction.getRecords());
+        records.addAll(insertAction.getRecords());
+        insertActions.add(new InsertAction(previousAction.getTypeName(),
+                previousAction.getHandle(),
+                records));
+    }
 }
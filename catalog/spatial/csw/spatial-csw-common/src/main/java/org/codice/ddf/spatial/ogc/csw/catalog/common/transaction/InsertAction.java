@@ -23,6 +23,8 @@
 public class InsertAction extends CswAction {
     private List<Metacard> records;
 
+    private boolean continuation;
+
     /**
      * Constructs an InsertAction with the specified typeName, handle, and list of records to
      * insert.
@@ -36,11 +38,34 @@ public class InsertAction extends CswAction {
      * @param records  the records to insert
      */
     public InsertAction(String typeName, String handle, List<Metacard> records) {
+        this(typeName, handle, records, false);
+    }
+
+    /**
+     * Constructs an InsertAction holding some of the records of an insert that is read in parts.
+     *
+     * @param typeName     the type of record being inserted, such as csw:Record
+     * @param handle       the name to associate with this insert action
+     * @param records      the records to insert
+     * @param continuation whether the records follow the records of the previous action within
+     *                     the same insert
+     */
+    public InsertAction(String typeName, String handle, List<Metacard> records,
+            boolean continuation) {
         super(typeName, handle);
         this.records = records;
+        this.continuation = continuation;
     }
 
     public List<Metacard> getRecords() {
         return records;
     }
+
+    /**
+     * @return whether the records of this action follow the records of the previous action within
+     * the same insert
+     */
+    public boolean isContinuation() {
+        return continuation;
+    }
 }
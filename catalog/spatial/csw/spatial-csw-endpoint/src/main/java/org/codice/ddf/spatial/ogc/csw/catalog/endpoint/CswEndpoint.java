@@ -19,11 +19,15 @@
 import java.io.Writer;
 import java.math.BigInteger;
 import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +66,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordByIdRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordsRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GmdMetacardType;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.DeleteAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertAction;
@@ -76,6 +81,7 @@
 import org.xml.sax.SAXException;
 
 import com.google.common.base.Splitter;
+import com.thoughtworks.xstream.XStreamException;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.io.ParseException;
@@ -207,6 +213,8 @@ public class CswEndpoint implements Csw {
 
     private static final String DEFAULT_OUTPUT_FORMAT = MediaType.APPLICATION_XML;
 
+    private static final int DEFAULT_TRANSACTION_BATCH_SIZE = 500;
+
     private static final String OCTET_STREAM_OUTPUT_SCHEMA =
             "http://www.iana.org/assignments/media-types/application/octet-stream";
 
@@ -240,6 +248,8 @@ public class CswEndpoint implements Csw {
 
     private CswQueryFactory queryFactory;
 
+    private int transactionBatchSize = DEFAULT_TRANSACTION_BATCH_SIZE;
+
     @Context
     private UriInfo uri;
 
@@ -259,6 +269,16 @@ public CswEndpoint(CatalogFramework ddf, TransformerManager mimeTypeManager,
         LOGGER.trace("Exiting: CSW Endpoint constructor.");
     }
 
+    /**
+     * Sets the maximum number of records created by each create request made for the consecutive
+     * inserts of a transaction.
+     *
+     * @param transactionBatchSize the maximum number of records per create request, at least 1
+     */
+    public void setTransactionBatchSize(int transactionBatchSize) {
+        this.transactionBatchSize = Math.max(1, transactionBatchSize);
+    }
+
     @Override
     @GET
     @Consumes({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
@@ -535,66 +555,36 @@ public TransactionResponseType transaction(CswTransactionRequest request) throws
         response.setTransactionSummary(summary);
         response.setVersion(CswConstants.VERSION_2_0_2);
 
-        int numInserted = 0;
-        for (InsertAction insertAction : request.getInsertActions()) {
-            CreateRequest createRequest = new CreateRequestImpl(insertAction.getRecords());
-            try {
-                CreateResponse createResponse = framework.create(createRequest);
-                if (request.isVerbose()) {
-                    response.getInsertResult()
-                            .add(getInsertResultFromResponse(createResponse));
-                }
-
-                numInserted += createResponse.getCreatedMetacards()
-                        .size();
-            } catch (IngestException | SourceUnavailableException e) {
-                throw new CswException("Unable to insert record(s).",
-                        CswConstants.TRANSACTION_FAILED,
-                        insertAction.getHandle());
+        BatchedTransaction transaction = new BatchedTransaction(request.isVerbose(), response);
+        Iterator<CswAction> actions = request.getActions();
+        CswAction action;
+        while ((action = transaction.next(actions)) != null) {
+            if (action instanceof InsertAction) {
+                transaction.insert((InsertAction) action);
+            } else if (action instanceof DeleteAction) {
+                transaction.delete((DeleteAction) action);
+            } else if (action instanceof UpdateAction) {
+                transaction.update((UpdateAction) action);
             }
         }
-        LOGGER.debug("{} records inserted.", numInserted);
-        response.getTransactionSummary()
-                .setTotalInserted(BigInteger.valueOf(numInserted));
+        transaction.flush();
 
-        int numUpdated = 0;
-        for (UpdateAction updateAction : request.getUpdateActions()) {
-            try {
-                numUpdated += updateRecords(updateAction);
-            } catch (CswException | FederationException | IngestException |
-                    SourceUnavailableException | UnsupportedQueryException e) {
-                throw new CswException("Unable to update record(s).",
-                        CswConstants.TRANSACTION_FAILED,
-                        updateAction.getHandle());
-            }
-        }
-        LOGGER.debug("{} records inserted.", numInserted);
+        LOGGER.debug("{} records inserted.", transaction.numInserted);
         response.getTransactionSummary()
-                .setTotalUpdated(BigInteger.valueOf(numUpdated));
-
-        int numDeleted = 0;
-        for (DeleteAction deleteAction : request.getDeleteActions()) {
-            try {
-                numDeleted += deleteRecords(deleteAction);
-            } catch (CswException | FederationException | IngestException |
-                    SourceUnavailableException | UnsupportedQueryException e) {
-                throw new CswException("Unable to delete record(s).",
-                        CswConstants.TRANSACTION_FAILED,
-                        deleteAction.getHandle());
-            }
-        }
-        LOGGER.debug("{} records deleted.", numDeleted);
+                .setTotalInserted(BigInteger.valueOf(transaction.numInserted));
+        LOGGER.debug("{} records updated.", transaction.numUpdated);
+        response.getTransactionSummary()
+                .setTotalUpdated(BigInteger.valueOf(transaction.numUpdated));
+        LOGGER.debug("{} records deleted.", transaction.numDeleted);
         response.getTransactionSummary()
-                .setTotalDeleted(BigInteger.valueOf(numDeleted));
+                .setTotalDeleted(BigInteger.valueOf(transaction.numDeleted));
 
         return response;
     }
 
-    private InsertResultType getInsertResultFromResponse(CreateResponse createResponse)
-            throws CswException {
-        InsertResultType result = new InsertResultType();
+    private void addInsertResults(InsertResultType result, List<Metacard> createdMetacards) {
         WKTReader reader = new WKTReader();
-        for (Metacard metacard : createResponse.getCreatedMetacards()) {
+        for (Metacard metacard : createdMetacards) {
             BoundingBoxType boundingBox = new BoundingBoxType();
             Geometry geometry = null;
             String bbox = null;
@@ -644,11 +634,10 @@ private InsertResultType getInsertResultFromResponse(CreateResponse createRespon
             result.getBriefRecord()
                     .add(briefRecordType);
         }
-        return result;
     }
 
-    private int deleteRecords(DeleteAction deleteAction)
-            throws CswException, FederationException, IngestException, SourceUnavailableException,
+    private List<String> getRecordIds(DeleteAction deleteAction)
+            throws CswException, FederationException, SourceUnavailableException,
             UnsupportedQueryException {
 
         QueryRequest queryRequest = queryFactory.getQuery(deleteAction.getConstraint());
@@ -667,18 +656,7 @@ private int deleteRecords(DeleteAction deleteAction)
             }
         }
 
-        if (ids.size() > 0) {
-            DeleteRequestImpl deleteRequest =
-                    new DeleteRequestImpl(ids.toArray(new String[ids.size()]));
-
-            LOGGER.debug("Attempting to delete {} metacards. ", ids.size());
-            DeleteResponse deleteResponse = framework.delete(deleteRequest);
-
-            return deleteResponse.getDeletedMetacards()
-                    .size();
-        }
-
-        return 0;
+        return ids;
     }
 
     private int updateRecords(UpdateAction updateAction)
@@ -1402,4 +1380,201 @@ void setUri(UriInfo uri) {
     Bundle getBundle() {
         return FrameworkUtil.getBundle(this.getClass());
     }
+
+    /**
+     * Performs the actions of a transaction in order. The records of consecutive inserts are
+     * created {@link #transactionBatchSize} at a time and the records matched by consecutive
+     * deletes are deleted with a single request. When verbose results are requested, a batch
+     * never spans several inserts, since the framework may create fewer records than it was given
+     * and the created records could then not be matched to the insert they came from.
+     */
+    private class BatchedTransaction {
+        private final boolean verbose;
+
+        private final TransactionResponseType response;
+
+        private final List<Metacard> insertRecords = new ArrayList<>();
+
+        private final Deque<PendingInsert> pendingInserts = new ArrayDeque<>();
+
+        private final Set<String> deleteIds = new LinkedHashSet<>();
+
+        private String deleteHandle;
+
+        private InsertResultType insertResult;
+
+        private int numInserted;
+
+        private int numUpdated;
+
+        private int numDeleted;
+
+        BatchedTransaction(boolean verbose, TransactionResponseType response) {
+            this.verbose = verbose;
+            this.response = response;
+        }
+
+        void insert(InsertAction insertAction) throws CswException {
+            flushDeletes();
+
+            // The parts of an insert that was read in parts share a single insert result.
+            if (!insertAction.isContinuation() || insertResult == null) {
+                if (verbose && !insertRecords.isEmpty()) {
+                    createRecords(insertRecords.size());
+                }
+                insertResult = new InsertResultType();
+                if (verbose) {
+                    response.getInsertResult()
+                            .add(insertResult);
+                }
+            }
+
+            List<Metacard> records = insertAction.getRecords();
+            if (records.isEmpty()) {
+                return;
+            }
+
+            insertRecords.addAll(records);
+            pendingInserts.add(new PendingInsert(insertAction.getHandle(),
+                    insertResult,
+                    records.size()));
+            while (insertRecords.size() >= transactionBatchSize) {
+                createRecords(transactionBatchSize);
+            }
+        }
+
+        void delete(DeleteAction deleteAction) throws CswException {
+            flushInserts();
+
+            try {
+                deleteIds.addAll(getRecordIds(deleteAction));
+            } catch (CswException | FederationException | SourceUnavailableException |
+                    UnsupportedQueryException e) {
+                throw new CswException("Unable to delete record(s).",
+                        CswConstants.TRANSACTION_FAILED,
+                        deleteAction.getHandle());
+            }
+
+            if (deleteHandle == null) {
+                deleteHandle = deleteAction.getHandle();
+            }
+        }
+
+        void update(UpdateAction updateAction) throws CswException {
+            flush();
+
+            try {
+                numUpdated += updateRecords(updateAction);
+            } catch (CswException | FederationException | IngestException |
+                    SourceUnavailableException | UnsupportedQueryException e) {
+                throw new CswException("Unable to update record(s).",
+                        CswConstants.TRANSACTION_FAILED,
+                        updateAction.getHandle());
+            }
+        }
+
+        /**
+         * Reads the next action of the request, which may still be parsed from the request body.
+         *
+         * @return the next action, or {@code null} once all actions have been read
+         * @throws CswException if the action is malformed, stating which records of the earlier
+         *                      actions were already inserted, updated and deleted
+         */
+        CswAction next(Iterator<CswAction> actions) throws CswException {
+            try {
+                return actions.hasNext() ? actions.next() : null;
+            } catch (XStreamException e) {
+                LOGGER.debug("Unable to read transaction action.", e);
+                throw new CswException(String.format(
+                        "Unable to read the next transaction action. %d record(s) were already "
+                                + "inserted, %d updated and %d deleted by the actions before it.",
+                        numInserted,
+                        numUpdated,
+                        numDeleted), e, CswConstants.TRANSACTION_FAILED, null);
+            }
+        }
+
+        void flush() throws CswException {
+            flushInserts();
+            flushDeletes();
+        }
+
+        private void flushInserts() throws CswException {
+            if (!insertRecords.isEmpty()) {
+                createRecords(insertRecords.size());
+            }
+            insertResult = null;
+        }
+
+        private void flushDeletes() throws CswException {
+            if (deleteIds.isEmpty()) {
+                deleteHandle = null;
+                return;
+            }
+
+            DeleteRequestImpl deleteRequest =
+                    new DeleteRequestImpl(deleteIds.toArray(new String[deleteIds.size()]));
+
+            LOGGER.debug("Attempting to delete {} metacards. ", deleteIds.size());
+            try {
+                DeleteResponse deleteResponse = framework.delete(deleteRequest);
+                numDeleted += deleteResponse.getDeletedMetacards()
+                        .size();
+            } catch (IngestException | SourceUnavailableException e) {
+                throw new CswException("Unable to delete record(s).",
+                        CswConstants.TRANSACTION_FAILED,
+                        deleteHandle);
+            }
+
+            deleteIds.clear();
+            deleteHandle = null;
+        }
+
+        private void createRecords(int count) throws CswException {
+            List<Metacard> batch = insertRecords.subList(0, count);
+            CreateRequest createRequest = new CreateRequestImpl(new ArrayList<>(batch));
+            batch.clear();
+
+            List<Metacard> createdMetacards;
+            try {
+                CreateResponse createResponse = framework.create(createRequest);
+                createdMetacards = createResponse.getCreatedMetacards();
+            } catch (IngestException | SourceUnavailableException e) {
+                throw new CswException("Unable to insert record(s).",
+                        CswConstants.TRANSACTION_FAILED,
+                        pendingInserts.peek().handle);
+            }
+            numInserted += createdMetacards.size();
+
+            // Verbose batches only hold the records of a single insert
+            if (verbose) {
+                addInsertResults(pendingInserts.peek().result, createdMetacards);
+            }
+
+            int offset = 0;
+            while (offset < count) {
+                PendingInsert pendingInsert = pendingInserts.peek();
+                int recordCount = Math.min(pendingInsert.remaining, count - offset);
+                offset += recordCount;
+                pendingInsert.remaining -= recordCount;
+                if (pendingInsert.remaining == 0) {
+                    pendingInserts.remove();
+                }
+            }
+        }
+    }
+
+    private static class PendingInsert {
+        private final String handle;
+
+        private final InsertResultType result;
+
+        private int remaining;
+
+        PendingInsert(String handle, InsertResultType result, int remaining) {
+            this.handle = handle;
+            this.result = result;
+            this.remaining = remaining;
+        }
+    }
 }
@@ -21,6 +21,7 @@
 import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -106,6 +107,16 @@ public class CswSubscriptionEndpoint implements CswSubscribe, Subscriber {
     private Map<String, ServiceRegistration<Subscription>> registeredSubscriptions =
             new HashMap<>();
 
+    private int eventBatchSize = 1;
+
+    private long eventBatchWindow = 1000;
+
+    private int eventMaxRetries = 5;
+
+    private long eventRetryDelay = 1000;
+
+    private int eventDeadLetterCapacity = 100;
+
     public CswSubscriptionEndpoint(EventProcessor eventProcessor,
             TransformerManager mimeTypeTransformerManager,
             TransformerManager schemaTransformerManager, TransformerManager inputTransformerManager,
@@ -124,6 +135,45 @@ public CswSubscriptionEndpoint(EventProcessor eventProcessor,
         }
     }
 
+    /**
+     * @param eventBatchSize the maximum number of records delivered to a subscriber at once. Events
+     *                       carry a single record unless this is more than 1, which subscribers
+     *                       must be able to handle.
+     */
+    public void setEventBatchSize(int eventBatchSize) {
+        this.eventBatchSize = eventBatchSize;
+    }
+
+    /**
+     * @param eventBatchWindow how long to wait for more events to deliver along with an event, in
+     *                         milliseconds
+     */
+    public void setEventBatchWindow(long eventBatchWindow) {
+        this.eventBatchWindow = eventBatchWindow;
+    }
+
+    /**
+     * @param eventMaxRetries how many times to retry a delivery that fails
+     */
+    public void setEventMaxRetries(int eventMaxRetries) {
+        this.eventMaxRetries = eventMaxRetries;
+    }
+
+    /**
+     * @param eventRetryDelay how long to wait before retrying a delivery that failed for the first
+     *                        time, in milliseconds, doubled for each further retry
+     */
+    public void setEventRetryDelay(long eventRetryDelay) {
+        this.eventRetryDelay = eventRetryDelay;
+    }
+
+    /**
+     * @param eventDeadLetterCapacity how many failed deliveries to keep for each subscriber
+     */
+    public void setEventDeadLetterCapacity(int eventDeadLetterCapacity) {
+        this.eventDeadLetterCapacity = eventDeadLetterCapacity;
+    }
+
     /**
      * Deletes an active subscription
      *
@@ -310,7 +360,9 @@ public Response createOrUpdateSubscription(GetRecordsType request, String reques
     public Response createEvent(GetRecordsResponseType recordsResponse) throws CswException {
         validateResponseSchema(recordsResponse);
         List<Metacard> metacards = getMetacards(recordsResponse);
-        eventProcessor.notifyCreated(metacards.get(0));
+        for (Metacard metacard : metacards) {
+            eventProcessor.notifyCreated(metacard);
+        }
         return Response.ok()
                 .build();
 
@@ -338,7 +390,9 @@ public Response updateEvent(GetRecordsResponseType recordsResponse) throws CswEx
     public Response deleteEvent(GetRecordsResponseType recordsResponse) throws CswException {
         validateResponseSchema(recordsResponse);
         List<Metacard> metacards = getMetacards(recordsResponse);
-        eventProcessor.notifyDeleted(metacards.get(0));
+        for (Metacard metacard : metacards) {
+            eventProcessor.notifyDeleted(metacard);
+        }
         return Response.ok()
                 .build();
 
@@ -357,8 +411,49 @@ public void pingSubscriptionResponseHandlers() {
         for (String subscriptionId : registeredSubscriptions.keySet()) {
             CswSubscription cswSubscription = getSubscription(subscriptionId);
             cswSubscription.ping();
+            LOGGER.debug("Event delivery for subscription {}: {}",
+                    subscriptionId,
+                    cswSubscription.getDeliveryCounters());
+        }
+    }
+
+    /**
+     * Stops delivering the events of every subscription, which are restored from their persisted
+     * configuration when the endpoint is started again.
+     */
+    public synchronized void destroy() {
+        for (Map.Entry<String, ServiceRegistration<Subscription>> entry :
+                registeredSubscriptions.entrySet()) {
+            try {
+                CswSubscription subscription = getSubscription(entry.getKey());
+                if (subscription != null) {
+                    subscription.close();
+                }
+                entry.getValue()
+                        .unregister();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Unable to stop subscription {}.", entry.getKey(), e);
+            }
+        }
+        registeredSubscriptions.clear();
+    }
 
+    /**
+     * Returns how far behind the delivery of events to each subscriber is and how often it has
+     * failed.
+     *
+     * @return the {@link org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.EventDeliveryQueue}
+     * counters of each subscription, keyed by subscription ID
+     */
+    public synchronized Map<String, Map<String, Long>> getEventDeliveryCounters() {
+        Map<String, Map<String, Long>> counters = new LinkedHashMap<>();
+        for (String subscriptionId : registeredSubscriptions.keySet()) {
+            CswSubscription cswSubscription = getSubscription(subscriptionId);
+            if (cswSubscription != null) {
+                counters.put(subscriptionId, cswSubscription.getDeliveryCounters());
+            }
         }
+        return counters;
     }
 
     private void validateResponseSchema(GetRecordsResponseType recordsResponse)
@@ -475,6 +570,11 @@ public synchronized String addOrUpdateSubscription(GetRecordsType request,
             deleteCswSubscription(subscriptionUuid);
         }
         CswSubscription sub = createSubscription(request);
+        sub.startEventDelivery(eventBatchSize,
+                eventBatchWindow,
+                eventMaxRetries,
+                eventRetryDelay,
+                eventDeadLetterCapacity);
 
         Dictionary<String, String> props = new Hashtable<>();
         props.put("subscription-id", subscriptionUuid);
@@ -501,6 +601,7 @@ public synchronized String addOrUpdateSubscription(GetRecordsType request,
             }
         } else {
             LOGGER.debug("Subscription registration failed");
+            sub.close();
         }
 
         LOGGER.trace("EXITING: {}", methodName);
@@ -529,6 +630,9 @@ private synchronized CswSubscription deleteCswSubscription(String subscriptionId
         }
 
         CswSubscription subscription = getSubscription(subscriptionId);
+        if (subscription != null) {
+            subscription.close();
+        }
         try {
             LOGGER.debug("Removing (unregistering) subscription: {}", subscriptionId);
             ServiceRegistration sr = (ServiceRegistration) registeredSubscriptions.remove(
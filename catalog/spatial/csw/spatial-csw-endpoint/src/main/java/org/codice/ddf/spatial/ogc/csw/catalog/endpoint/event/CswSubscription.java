@@ -13,6 +13,8 @@
  */
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
@@ -62,4 +64,34 @@ public GetRecordsType getOriginalRequest() {
     public boolean ping() {
         return sendEvent.ping();
     }
+
+    /**
+     * Starts delivering the events of this subscription from a queue of their own.
+     *
+     * @see EventDeliveryQueue
+     */
+    public void startEventDelivery(int maxBatchSize, long batchWindowMillis, int maxRetries,
+            long retryDelayMillis, int deadLetterCapacity) {
+        sendEvent.startEventDelivery(maxBatchSize,
+                batchWindowMillis,
+                maxRetries,
+                retryDelayMillis,
+                deadLetterCapacity);
+    }
+
+    /**
+     * @return the lag and delivery counters of this subscription, or an empty map if its events
+     * are not queued
+     */
+    public Map<String, Long> getDeliveryCounters() {
+        EventDeliveryQueue deliveryQueue = sendEvent.getDeliveryQueue();
+        if (deliveryQueue == null) {
+            return Collections.emptyMap();
+        }
+        return deliveryQueue.getCounters();
+    }
+
+    public void close() {
+        sendEvent.close();
+    }
 }
@@ -0,0 +1,382 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Metacard;
+
+/**
+ * Delivers the events of a single subscriber on a thread of its own, so that a slow or unavailable
+ * subscriber does not hold up the delivery of events to the others.
+ * <p>
+ * Consecutive batchable events of the same operation are combined into a single delivery of up to
+ * {@code maxBatchSize} records, waiting at most {@code batchWindowMillis} after the first of them
+ * was queued. A delivery that fails is retried up to {@code maxRetries} times, doubling the delay
+ * between attempts, before it is moved to a bounded dead letter queue.
+ */
+public class EventDeliveryQueue {
+
+    public static final String PENDING_EVENTS = "pendingEvents";
+
+    public static final String LAG_MILLIS = "lagMillis";
+
+    public static final String DELIVERED_EVENTS = "deliveredEvents";
+
+    public static final String DISCARDED_EVENTS = "discardedEvents";
+
+    public static final String FAILED_DELIVERIES = "failedDeliveries";
+
+    public static final String DEAD_LETTERS = "deadLetters";
+
+    static final int MAX_PENDING_EVENTS = 10000;
+
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventDeliveryQueue.class);
+
+    private final String name;
+
+    private final Delivery delivery;
+
+    private final int maxBatchSize;
+
+    private final long batchWindowMillis;
+
+    private final int maxRetries;
+
+    private final long retryDelayMillis;
+
+    private final int deadLetterCapacity;
+
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>(MAX_PENDING_EVENTS);
+
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+
+    private final AtomicLong deliveredEvents = new AtomicLong();
+
+    private final AtomicLong discardedEvents = new AtomicLong();
+
+    private final AtomicLong failedDeliveries = new AtomicLong();
+
+    private final AtomicLong deadLetterCount = new AtomicLong();
+
+    private final Thread deliveryThread;
+
+    private volatile long inFlightSince;
+
+    private volatile Event heldEvent;
+
+    private volatile boolean closed;
+
+    /**
+     * The outcome of an attempt to deliver a batch of records.
+     */
+    public enum Outcome {
+        /**
+         * The records were delivered.
+         */
+        DELIVERED,
+
+        /**
+         * The records are not to be delivered, for instance because the subscriber may not see
+         * them or rejected them, and retrying would not change that.
+         */
+        DISCARDED,
+
+        /**
+         * The subscriber could not be reached or could not take the records yet, and the
+         * delivery should be retried.
+         */
+        FAILED
+    }
+
+    /**
+     * Delivers a batch of records to a subscriber.
+     */
+    @FunctionalInterface
+    public interface Delivery {
+        /**
+         * @param operation the HTTP method of the event
+         * @param metacards the records of the event
+         * @return the outcome of the delivery
+         */
+        Outcome deliver(String operation, List<Metacard> metacards);
+    }
+
+    /**
+     * A delivery that could not be made.
+     */
+    public static class DeadLetter {
+        private final String operation;
+
+        private final List<Metacard> metacards;
+
+        DeadLetter(String operation, List<Metacard> metacards) {
+            this.operation = operation;
+            this.metacards = metacards;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public List<Metacard> getMetacards() {
+            return metacards;
+        }
+    }
+
+    public EventDeliveryQueue(String name, Delivery delivery, int maxBatchSize,
+            long batchWindowMillis, int maxRetries, long retryDelayMillis,
+            int deadLetterCapacity) {
+        this.name = name;
+        this.delivery = delivery;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchWindowMillis = Math.max(0, batchWindowMillis);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryDelayMillis = Math.max(1, retryDelayMillis);
+        this.deadLetterCapacity = Math.max(0, deadLetterCapacity);
+
+        deliveryThread = new Thread(this::deliverEvents, "csw-event-delivery-" + name);
+        deliveryThread.setDaemon(true);
+        deliveryThread.start();
+    }
+
+    /**
+     * Queues an event for delivery. If the subscriber has fallen too far behind, the event is moved
+     * straight to the dead letter queue rather than holding up the caller.
+     *
+     * @param operation the HTTP method of the event
+     * @param batchable whether the event may be delivered together with the events around it
+     * @param metacards the records of the event
+     */
+    public void add(String operation, boolean batchable, List<Metacard> metacards) {
+        if (closed) {
+            return;
+        }
+
+        pendingEvents.incrementAndGet();
+        if (!events.offer(new Event(operation, batchable, metacards))) {
+            LOGGER.debug("Too many events pending for {}, dropping {} event.", name, operation);
+            pendingEvents.decrementAndGet();
+            deadLetter(operation, metacards);
+        }
+    }
+
+    /**
+     * Stops delivering events, discarding any that are still pending.
+     */
+    public void close() {
+        closed = true;
+        deliveryThread.interrupt();
+        LOGGER.debug("Closed event delivery for {} with {} events pending.",
+                name,
+                pendingEvents.get());
+    }
+
+    /**
+     * @return the number of events queued or being delivered
+     */
+    public long getPendingEvents() {
+        return pendingEvents.get();
+    }
+
+    /**
+     * @return how long the oldest event that has not been delivered has been waiting, in
+     * milliseconds
+     */
+    public long getLagMillis() {
+        long since = inFlightSince;
+        if (since == 0) {
+            Event next = heldEvent;
+            if (next == null) {
+                next = events.peek();
+            }
+            since = next == null ? 0 : next.time;
+        }
+        return since == 0 ? 0 : System.currentTimeMillis() - since;
+    }
+
+    /**
+     * @return the number of events delivered
+     */
+    public long getDeliveredEvents() {
+        return deliveredEvents.get();
+    }
+
+    /**
+     * @return the number of events that were not delivered because they were not to be delivered
+     * to the subscriber
+     */
+    public long getDiscardedEvents() {
+        return discardedEvents.get();
+    }
+
+    /**
+     * @return the number of delivery attempts that failed, including those that were retried
+     */
+    public long getFailedDeliveries() {
+        return failedDeliveries.get();
+    }
+
+    /**
+     * @return the number of deliveries moved to the dead letter queue
+     */
+    public long getDeadLetterCount() {
+        return deadLetterCount.get();
+    }
+
+    /**
+     * @return the most recent deliveries that could not be made, oldest first
+     */
+    public List<DeadLetter> getDeadLetters() {
+        synchronized (deadLetters) {
+            return Collections.unmodifiableList(new ArrayList<>(deadLetters));
+        }
+    }
+
+    /**
+     * @return the lag and delivery counters of this subscriber
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put(PENDING_EVENTS, getPendingEvents());
+        counters.put(LAG_MILLIS, getLagMillis());
+        counters.put(DELIVERED_EVENTS, getDeliveredEvents());
+        counters.put(DISCARDED_EVENTS, getDiscardedEvents());
+        counters.put(FAILED_DELIVERIES, getFailedDeliveries());
+        counters.put(DEAD_LETTERS, getDeadLetterCount());
+        return counters;
+    }
+
+    private void deliverEvents() {
+        try {
+            while (!closed) {
+                Event first = heldEvent != null ? heldEvent : events.take();
+                inFlightSince = first.time;
+                heldEvent = null;
+
+                List<Metacard> metacards = new ArrayList<>(first.metacards);
+                int eventCount = 1;
+                long deadline = first.time + batchWindowMillis;
+                while (first.batchable && metacards.size() < maxBatchSize) {
+                    long wait = deadline - System.currentTimeMillis();
+                    Event next = wait > 0 ?
+                            events.poll(wait, TimeUnit.MILLISECONDS) :
+                            events.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (!next.batchable || !next.operation.equals(first.operation)) {
+                        // Keep events in order by starting the next batch with this one.
+                        heldEvent = next;
+                        break;
+                    }
+                    metacards.addAll(next.metacards);
+                    eventCount++;
+                }
+
+                deliver(first.operation, metacards, eventCount);
+                inFlightSince = 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+
+    private void deliver(String operation, List<Metacard> metacards, int eventCount)
+            throws InterruptedException {
+        long delay = retryDelayMillis;
+        for (int attempt = 0; ; attempt++) {
+            Outcome outcome;
+            try {
+                outcome = delivery.deliver(operation, metacards);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Unable to deliver {} event to {}.", operation, name, e);
+                outcome = Outcome.FAILED;
+            }
+
+            if (outcome == Outcome.DELIVERED) {
+                deliveredEvents.addAndGet(eventCount);
+                pendingEvents.addAndGet(-eventCount);
+                return;
+            }
+            if (outcome == Outcome.DISCARDED) {
+                discardedEvents.addAndGet(eventCount);
+                pendingEvents.addAndGet(-eventCount);
+                return;
+            }
+
+            failedDeliveries.incrementAndGet();
+            if (attempt >= maxRetries) {
+                LOGGER.warn("Unable to deliver {} event to {} after {} attempts.",
+                        operation,
+                        name,
+                        attempt + 1);
+                pendingEvents.addAndGet(-eventCount);
+                deadLetter(operation, metacards);
+                return;
+            }
+
+            TimeUnit.MILLISECONDS.sleep(delay);
+            delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private void deadLetter(String operation, List<Metacard> metacards) {
+        deadLetterCount.incrementAndGet();
+        if (deadLetterCapacity == 0) {
+            return;
+        }
+
+        synchronized (deadLetters) {
+            if (deadLetters.size() >= deadLetterCapacity) {
+                deadLetters.removeFirst();
+            }
+            deadLetters.addLast(new DeadLetter(operation, metacards));
+        }
+    }
+
+    private static class Event {
+        private final String operation;
+
+        private final boolean batchable;
+
+        private final List<Metacard> metacards;
+
+        private final long time = System.currentTimeMillis();
+
+        Event(String operation, boolean batchable, List<Metacard> metacards) {
+            this.operation = operation;
+            this.batchable = batchable;
+            this.metacards = metacards;
+        }
+    }
+}
@@ -15,6 +15,7 @@
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -66,6 +67,10 @@ public class SendEvent implements DeliveryMethod {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SendEvent.class);
 
+    private static final int HTTP_REQUEST_TIMEOUT = 408;
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
     private static final List<String> XML_MIME_TYPES = Collections.unmodifiableList(Arrays.asList(
             MediaType.APPLICATION_XML,
             MediaType.TEXT_XML));
@@ -90,6 +95,8 @@ public class SendEvent implements DeliveryMethod {
 
     private volatile Subject subject;
 
+    private EventDeliveryQueue deliveryQueue;
+
     SecureCxfClientFactory<CswSubscribe> cxfClientFactory;
 
     public SendEvent(TransformerManager transformerManager, GetRecordsType request,
@@ -143,17 +150,79 @@ public SendEvent(TransformerManager transformerManager, GetRecordsType request,
         cxfClientFactory.addOutInterceptors(new OutgoingSubjectRetrievalInterceptor());
     }
 
-    private Response sendEvent(String operation, Metacard... metacards) {
+    /**
+     * Starts delivering events from a queue of their own rather than on the thread that reports
+     * them.
+     *
+     * @see EventDeliveryQueue
+     */
+    public synchronized void startEventDelivery(int maxBatchSize, long batchWindowMillis,
+            int maxRetries, long retryDelayMillis, int deadLetterCapacity) {
+        if (deliveryQueue == null) {
+            deliveryQueue = new EventDeliveryQueue(callbackUrl.toString(),
+                    this::deliver,
+                    maxBatchSize,
+                    batchWindowMillis,
+                    maxRetries,
+                    retryDelayMillis,
+                    deadLetterCapacity);
+        }
+    }
+
+    /**
+     * Stops delivering queued events.
+     */
+    public synchronized void close() {
+        if (deliveryQueue != null) {
+            deliveryQueue.close();
+        }
+    }
+
+    /**
+     * @return the queue events are delivered from, or {@code null} if events are delivered as they
+     * are reported
+     */
+    public synchronized EventDeliveryQueue getDeliveryQueue() {
+        return deliveryQueue;
+    }
+
+    /**
+     * Update events are not batchable, since their records are a new and an old metacard that
+     * subscribers take as a pair.
+     */
+    private void sendEvent(String operation, boolean batchable, Metacard... metacards) {
+        EventDeliveryQueue queue = getDeliveryQueue();
+        if (queue != null) {
+            queue.add(operation, batchable, Arrays.asList(metacards));
+        } else {
+            deliver(operation, Arrays.asList(metacards));
+        }
+    }
+
+    EventDeliveryQueue.Outcome deliver(String operation, List<Metacard> metacards) {
         try {
-            List<Result> results = Arrays.asList(metacards)
-                    .stream()
-                    .map(ResultImpl::new)
-                    .collect(Collectors.toList());
+            if (subject == null && !ping()) {
+                return EventDeliveryQueue.Outcome.FAILED;
+            }
+
+            List<Result> results = new ArrayList<>();
+            if (HttpMethod.PUT.equals(operation)) {
+                results.addAll(processPostQuery(metacards));
+            } else {
+                // A record the subscriber may not see is dropped from its batch on its own,
+                // rather than taking the records batched with it along
+                for (Metacard metacard : metacards) {
+                    results.addAll(processPostQuery(Collections.singletonList(metacard)));
+                }
+            }
 
+            if (results.isEmpty()) {
+                return EventDeliveryQueue.Outcome.DISCARDED;
+            }
             QueryResponse queryResponse = new QueryResponseImpl(query,
                     results,
                     true,
-                    metacards.length);
+                    results.size());
             CswRecordCollection recordCollection = new CswRecordCollection();
 
             recordCollection.setElementName(elementName);
@@ -164,30 +233,63 @@ private Response sendEvent(String operation, Metacard... metacards) {
             recordCollection.setDoWriteNamespaces(false);
             recordCollection.setMimeType(mimeType);
             recordCollection.setOutputSchema(outputSchema);
+            recordCollection.setSourceResponse(queryResponse);
 
-            if (subject == null && !ping()) {
-                return null;
-            }
-            queryResponse.getRequest()
-                    .getProperties()
-                    .put(SecurityConstants.SECURITY_SUBJECT, subject);
+            Response response = send(operation, recordCollection);
+            return getOutcome(operation, response.getStatus());
+        } catch (InvalidSyntaxException e) {
+            LOGGER.debug("Unable to send event error getting AccessPlugins. ", e);
+        }
+        // Retrying won't get the event past the access plugins.
+        return EventDeliveryQueue.Outcome.DISCARDED;
+    }
+
+    /**
+     * A client error other than a timeout or too many requests means the subscriber rejected the
+     * event, and retrying would only be rejected again.
+     */
+    private EventDeliveryQueue.Outcome getOutcome(String operation, int status) {
+        if (status < Response.Status.BAD_REQUEST.getStatusCode()) {
+            return EventDeliveryQueue.Outcome.DELIVERED;
+        }
+        if (status >= Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()
+                || status == HTTP_REQUEST_TIMEOUT || status == HTTP_TOO_MANY_REQUESTS) {
+            return EventDeliveryQueue.Outcome.FAILED;
+        }
+        LOGGER.debug("Subscriber {} rejected {} event with status {}.",
+                callbackUrl,
+                operation,
+                status);
+        return EventDeliveryQueue.Outcome.DISCARDED;
+    }
 
+    /**
+     * @return the results of the metacards that get past the access plugins, or none if an access
+     * plugin stops processing them
+     */
+    private List<Result> processPostQuery(List<Metacard> metacards)
+            throws InvalidSyntaxException {
+        List<Result> results = metacards.stream()
+                .map(ResultImpl::new)
+                .collect(Collectors.toList());
+        QueryResponse queryResponse = new QueryResponseImpl(query,
+                results,
+                true,
+                metacards.size());
+        queryResponse.getRequest()
+                .getProperties()
+                .put(SecurityConstants.SECURITY_SUBJECT, subject);
+
+        try {
             for (AccessPlugin plugin : getAccessPlugins()) {
 
                 queryResponse = plugin.processPostQuery(queryResponse);
             }
-
-            if (queryResponse.getResults()
-                    .isEmpty()) {
-                return null;
-            }
-            recordCollection.setSourceResponse(queryResponse);
-
-            return send(operation, recordCollection);
-        } catch (StopProcessingException | InvalidSyntaxException e) {
+        } catch (StopProcessingException e) {
             LOGGER.debug("Unable to send event error running AccessPlugin processPostQuery. ", e);
+            return Collections.emptyList();
         }
-        return null;
+        return queryResponse.getResults();
     }
 
     private Response send(String operation, CswRecordCollection recordCollection) {
@@ -202,25 +304,25 @@ private Response send(String operation, CswRecordCollection recordCollection) {
     public void created(Metacard newMetacard) {
 
         LOGGER.debug("Created {}", newMetacard);
-        sendEvent(HttpMethod.POST, newMetacard);
+        sendEvent(HttpMethod.POST, true, newMetacard);
     }
 
     @Override
     public void updatedHit(Metacard newMetacard, Metacard oldMetacard) {
         LOGGER.debug("Updated Hit {} {}", newMetacard, oldMetacard);
-        sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+        sendEvent(HttpMethod.PUT, false, newMetacard, oldMetacard);
     }
 
     @Override
     public void updatedMiss(Metacard newMetacard, Metacard oldMetacard) {
         LOGGER.debug("Updated Miss {} {}", newMetacard, oldMetacard);
-        sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+        sendEvent(HttpMethod.PUT, false, newMetacard, oldMetacard);
     }
 
     @Override
     public void deleted(Metacard oldMetacard) {
         LOGGER.debug("Deleted {}", oldMetacard);
-        sendEvent(HttpMethod.DELETE, oldMetacard);
+        sendEvent(HttpMethod.DELETE, true, oldMetacard);
 
     }
 
@@ -33,9 +33,14 @@
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.DataHolder;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
 import com.thoughtworks.xstream.io.xml.Xpp3Driver;
 
 /**
+ * Reads CSW transaction requests. The actions of a request are read from the request body as the
+ * request is performed, with the records of large inserts read {@value #STREAMED_INSERT_SIZE} at a
+ * time, so that a request does not have to be held in memory all at once.
  */
 @Provider
 @Consumes({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
@@ -44,6 +49,8 @@ public class TransactionMessageBodyReader implements MessageBodyReader<CswTransa
     private static final Logger LOGGER =
             LoggerFactory.getLogger(TransactionMessageBodyReader.class);
 
+    static final int STREAMED_INSERT_SIZE = 100;
+
     private Converter cswRecordConverter;
 
     public TransactionMessageBodyReader(Converter converter) {
@@ -61,10 +68,18 @@ public CswTransactionRequest readFrom(Class<CswTransactionRequest> aClass, Type
             Annotation[] annotations, MediaType mediaType,
             MultivaluedMap<String, String> multivaluedMap, InputStream inputStream)
             throws IOException, WebApplicationException {
-        XStream xStream = new XStream(new Xpp3Driver());
+        HierarchicalStreamDriver driver = new Xpp3Driver();
+        XStream xStream = new XStream(driver);
+        // Keeping track of references would hold on to every record read.
+        xStream.setMode(XStream.NO_REFERENCES);
         xStream.registerConverter(new TransactionRequestConverter(cswRecordConverter));
         xStream.alias("csw:" + CswConstants.TRANSACTION, CswTransactionRequest.class);
         xStream.alias(CswConstants.TRANSACTION, CswTransactionRequest.class);
-        return (CswTransactionRequest) xStream.fromXML(inputStream);
+
+        DataHolder dataHolder = xStream.newDataHolder();
+        dataHolder.put(TransactionRequestConverter.STREAMED_INSERT_SIZE, STREAMED_INSERT_SIZE);
+        return (CswTransactionRequest) xStream.unmarshal(driver.createReader(inputStream),
+                null,
+                dataHolder);
     }
 }
@@ -15,6 +15,7 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
@@ -136,7 +137,9 @@ public void writeTo(CswRecordCollection recordCollection, Class<?> type, Type ge
         }
 
         if (content != null) {
-            IOUtils.copy(content.getInputStream(), outStream);
+            try (InputStream inputStream = content.getInputStream()) {
+                IOUtils.copy(inputStream, outStream);
+            }
         } else {
             throw new WebApplicationException(new CatalogTransformerException(
                     "Transformer returned null."));
@@ -15,12 +15,15 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +33,7 @@
 import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.core.Response;
 import javax.xml.bind.JAXBElement;
@@ -39,6 +43,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordsRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.CswSubscription;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.EventDeliveryQueue;
 import org.junit.Before;
 import org.junit.Test;
 import org.osgi.framework.Bundle;
@@ -354,6 +359,12 @@ public void testCreateEvent() throws Exception {
         verify(eventProcessor).notifyCreated(any(Metacard.class));
     }
 
+    @Test
+    public void testCreateEventWithBatchedRecords() throws Exception {
+        cswSubscriptionEndpoint.createEvent(getRecordsResponse(3));
+        verify(eventProcessor, times(3)).notifyCreated(any(Metacard.class));
+    }
+
     @Test
     public void testUpdateEvent() throws Exception {
 
@@ -368,6 +379,48 @@ public void testDeleteEvent() throws Exception {
         verify(eventProcessor).notifyDeleted(any(Metacard.class));
     }
 
+    @Test
+    public void testDeleteEventWithBatchedRecords() throws Exception {
+        cswSubscriptionEndpoint.deleteEvent(getRecordsResponse(3));
+        verify(eventProcessor, times(3)).notifyDeleted(any(Metacard.class));
+    }
+
+    @Test
+    public void testEventDeliveryCounters() throws Exception {
+        cswSubscriptionEndpoint.addOrUpdateSubscription(defaultRequest.get202RecordsType(), false);
+        subscription.startEventDelivery(10, 0, 0, 1, 10);
+
+        Map<String, Map<String, Long>> counters =
+                cswSubscriptionEndpoint.getEventDeliveryCounters();
+        assertEquals(1, counters.size());
+        Map<String, Long> subscriptionCounters = counters.get(subscriptionId);
+        assertEquals(Long.valueOf(0), subscriptionCounters.get(EventDeliveryQueue.PENDING_EVENTS));
+        assertEquals(Long.valueOf(0),
+                subscriptionCounters.get(EventDeliveryQueue.DELIVERED_EVENTS));
+        assertEquals(Long.valueOf(0),
+                subscriptionCounters.get(EventDeliveryQueue.DISCARDED_EVENTS));
+        assertEquals(Long.valueOf(0),
+                subscriptionCounters.get(EventDeliveryQueue.FAILED_DELIVERIES));
+
+        cswSubscriptionEndpoint.deleteSubscription(subscriptionId);
+    }
+
+    @Test
+    public void testDestroyStopsEventDelivery() throws Exception {
+        CswSubscription spySubscription = spy(subscription);
+        when(mockContext.getService(eq(subscriptionReference))).thenReturn(spySubscription);
+        cswSubscriptionEndpoint.addOrUpdateSubscription(defaultRequest.get202RecordsType(), false);
+
+        cswSubscriptionEndpoint.destroy();
+
+        verify(spySubscription).close();
+        verify(serviceRegistration).unregister();
+        // the subscription is kept, to be restored when the endpoint is started again
+        verify(config, never()).delete();
+        assertTrue(cswSubscriptionEndpoint.getEventDeliveryCounters()
+                .isEmpty());
+    }
+
     @Test(expected = CswException.class)
     public void testCreateEventInvalidSchema() throws Exception {
         GetRecordsResponseType getRecordsResponse = new GetRecordsResponseType();
@@ -14,9 +14,12 @@
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
@@ -24,6 +27,7 @@
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -41,9 +45,12 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.activation.MimeType;
 import javax.ws.rs.core.MediaType;
@@ -65,6 +72,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordsRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GmdMetacardType;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.converter.DefaultCswRecordMap;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.DeleteAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertAction;
@@ -72,11 +80,13 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.thoughtworks.xstream.converters.ConversionException;
 import com.vividsolutions.jts.io.ParseException;
 
 import ddf.catalog.CatalogFramework;
@@ -109,6 +119,7 @@
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.transform.QueryResponseTransformer;
 
+import net.opengis.cat.csw.v_2_0_2.BriefRecordType;
 import net.opengis.cat.csw.v_2_0_2.CapabilitiesType;
 import net.opengis.cat.csw.v_2_0_2.DeleteType;
 import net.opengis.cat.csw.v_2_0_2.DescribeRecordResponseType;
@@ -118,6 +129,7 @@
 import net.opengis.cat.csw.v_2_0_2.GetCapabilitiesType;
 import net.opengis.cat.csw.v_2_0_2.GetRecordByIdType;
 import net.opengis.cat.csw.v_2_0_2.GetRecordsType;
+import net.opengis.cat.csw.v_2_0_2.InsertResultType;
 import net.opengis.cat.csw.v_2_0_2.QueryConstraintType;
 import net.opengis.cat.csw.v_2_0_2.QueryType;
 import net.opengis.cat.csw.v_2_0_2.ResultType;
@@ -149,6 +161,8 @@ public class TestCswEndpoint {
 
     private static final String VALID_PREFIX = "csw";
 
+    private static final int STREAMED_INSERT_PART_SIZE = 100;
+
     private static final String VALID_PREFIX_LOCAL_TYPE = VALID_PREFIX + ":" + VALID_TYPE;
 
     private static final String CONTEXTUAL_TEST_ATTRIBUTE = "csw:title";
@@ -1613,6 +1627,228 @@ public void testIngestVerboseTransaction()
                 CswConstants.TRANSACTION));
     }
 
+    @Test
+    public void testIngestTransactionCreatesRecordsInBatches()
+            throws CswException, SourceUnavailableException, IngestException {
+        int count = 300;
+        int batchSize = 30;
+        csw.setTransactionBatchSize(batchSize);
+        AtomicInteger readRecords = new AtomicInteger();
+        AtomicInteger createdRecords = new AtomicInteger();
+        when(catalogFramework.create(any(CreateRequest.class))).thenAnswer(invocation -> {
+            CreateRequest createRequest = (CreateRequest) invocation.getArguments()[0];
+            createdRecords.addAndGet(createRequest.getMetacards()
+                    .size());
+            // Only the records of the batch and of the part being read are held at once.
+            assertThat(readRecords.get() - createdRecords.get(),
+                    lessThanOrEqualTo(STREAMED_INSERT_PART_SIZE));
+            return new CreateResponseImpl(createRequest, null, createRequest.getMetacards());
+        });
+
+        CswTransactionRequest request = new CswTransactionRequest();
+        request.setVerbose(true);
+        request.setActions(getStreamedInsertActions(count, readRecords));
+
+        TransactionResponseType response = csw.transaction(request);
+
+        ArgumentCaptor<CreateRequest> createRequests = ArgumentCaptor.forClass(CreateRequest.class);
+        verify(catalogFramework, times(count / batchSize)).create(createRequests.capture());
+        for (CreateRequest createRequest : createRequests.getAllValues()) {
+            assertThat(createRequest.getMetacards()
+                    .size(), is(batchSize));
+        }
+
+        assertThat(response.getTransactionSummary()
+                .getTotalInserted()
+                .intValue(), is(count));
+        assertThat(response.getInsertResult()
+                .size(), is(1));
+        assertThat(response.getInsertResult()
+                .get(0)
+                .getBriefRecord()
+                .size(), is(count));
+    }
+
+    @Test
+    public void testBatchedIngestTransactionMatchesSequentialIngest()
+            throws CswException, SourceUnavailableException, IngestException {
+        int count = 300;
+        int batchSize = 30;
+        when(catalogFramework.create(any(CreateRequest.class))).thenAnswer(invocation -> {
+            CreateRequest createRequest = (CreateRequest) invocation.getArguments()[0];
+            return new CreateResponseImpl(createRequest, null, createRequest.getMetacards());
+        });
+
+        csw.setTransactionBatchSize(batchSize);
+        CswTransactionRequest batchedRequest = new CswTransactionRequest();
+        batchedRequest.setVerbose(true);
+        batchedRequest.setActions(getStreamedInsertActions(count, new AtomicInteger()));
+        TransactionResponseType batchedResponse = csw.transaction(batchedRequest);
+
+        CswTransactionRequest sequentialRequest = new CswTransactionRequest();
+        sequentialRequest.setVerbose(true);
+        sequentialRequest.setActions(getStreamedInsertActions(count, new AtomicInteger()));
+        csw.setTransactionBatchSize(1);
+        TransactionResponseType sequentialResponse = csw.transaction(sequentialRequest);
+
+        verify(catalogFramework, times(count / batchSize + count)).create(any(CreateRequest.class));
+        assertThat(batchedResponse.getTransactionSummary()
+                .getTotalInserted(), is(sequentialResponse.getTransactionSummary()
+                .getTotalInserted()));
+        assertThat(batchedResponse.getInsertResult()
+                .size(), is(sequentialResponse.getInsertResult()
+                .size()));
+        assertThat(getInsertedIds(batchedResponse), is(getInsertedIds(sequentialResponse)));
+    }
+
+    @Test
+    public void testVerboseInsertResultsWhenRecordsAreNotCreated()
+            throws CswException, SourceUnavailableException, IngestException {
+        // The framework does not create the first record it is given, as when a validator rejects
+        // it
+        when(catalogFramework.create(any(CreateRequest.class))).thenAnswer(invocation -> {
+            CreateRequest createRequest = (CreateRequest) invocation.getArguments()[0];
+            List<Metacard> metacards = createRequest.getMetacards();
+            return new CreateResponseImpl(createRequest,
+                    null,
+                    new ArrayList<>(metacards.subList(1, metacards.size())));
+        });
+
+        CswTransactionRequest request = new CswTransactionRequest();
+        request.setVerbose(true);
+        request.setActions(Arrays.<CswAction>asList(new InsertAction(CswConstants.CSW_TYPE,
+                        "insert1",
+                        Arrays.asList(getMetacard("a1"), getMetacard("a2"))),
+                new InsertAction(CswConstants.CSW_TYPE,
+                        "insert2",
+                        Arrays.asList(getMetacard("b1"), getMetacard("b2"), getMetacard("b3"))))
+                .iterator());
+
+        TransactionResponseType response = csw.transaction(request);
+
+        verify(catalogFramework, times(2)).create(any(CreateRequest.class));
+        assertThat(response.getTransactionSummary()
+                .getTotalInserted()
+                .intValue(), is(3));
+        assertThat(response.getInsertResult()
+                .size(), is(2));
+        assertThat(getInsertedIds(response.getInsertResult()
+                .get(0)), is(Collections.<Object>singletonList("a2")));
+        assertThat(getInsertedIds(response.getInsertResult()
+                .get(1)), is(Arrays.<Object>asList("b2", "b3")));
+    }
+
+    @Test
+    public void testDeleteTransactionCombinesConsecutiveDeletes()
+            throws CswException, UnsupportedQueryException, SourceUnavailableException,
+            FederationException, IngestException {
+        MetacardImpl first = new MetacardImpl();
+        first.setId("first");
+        MetacardImpl second = new MetacardImpl();
+        second.setId("second");
+        when(catalogFramework.query(any(QueryRequest.class))).thenReturn(new QueryResponseImpl(
+                        null,
+                        Collections.singletonList(new ResultImpl(first)),
+                        1),
+                new QueryResponseImpl(null,
+                        Arrays.asList(new ResultImpl(first), new ResultImpl(second)),
+                        2));
+        ArgumentCaptor<DeleteRequest> deleteRequest = ArgumentCaptor.forClass(DeleteRequest.class);
+        when(catalogFramework.delete(deleteRequest.capture())).thenReturn(new DeleteResponseImpl(
+                null,
+                null,
+                Arrays.asList(first, second)));
+
+        CswTransactionRequest request = new CswTransactionRequest();
+        request.getDeleteActions()
+                .add(getDeleteAction("delete1"));
+        request.getDeleteActions()
+                .add(getDeleteAction("delete2"));
+
+        TransactionResponseType response = csw.transaction(request);
+
+        verify(catalogFramework, times(2)).query(any(QueryRequest.class));
+        verify(catalogFramework).delete(any(DeleteRequest.class));
+        assertThat(new ArrayList<Serializable>(deleteRequest.getValue()
+                .getAttributeValues()), is(Arrays.<Serializable>asList("first", "second")));
+        assertThat(response.getTransactionSummary()
+                .getTotalDeleted()
+                .intValue(), is(2));
+    }
+
+    @Test
+    public void testTransactionActionsPerformedInOrder()
+            throws CswException, UnsupportedQueryException, SourceUnavailableException,
+            FederationException, IngestException {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId("id");
+        when(catalogFramework.query(any(QueryRequest.class))).thenReturn(new QueryResponseImpl(
+                null,
+                Collections.singletonList(new ResultImpl(metacard)),
+                1));
+        when(catalogFramework.delete(any(DeleteRequest.class))).thenReturn(new DeleteResponseImpl(
+                null,
+                null,
+                Collections.singletonList(metacard)));
+
+        CswTransactionRequest request = new CswTransactionRequest();
+        request.setActions(Arrays.<CswAction>asList(new InsertAction(CswConstants.CSW_TYPE,
+                        null,
+                        Collections.<Metacard>singletonList(new MetacardImpl())),
+                getDeleteAction("delete"),
+                new InsertAction(CswConstants.CSW_TYPE,
+                        null,
+                        Collections.<Metacard>singletonList(new MetacardImpl())))
+                .iterator());
+
+        TransactionResponseType response = csw.transaction(request);
+
+        InOrder inOrder = inOrder(catalogFramework);
+        inOrder.verify(catalogFramework)
+                .create(any(CreateRequest.class));
+        inOrder.verify(catalogFramework)
+                .delete(any(DeleteRequest.class));
+        inOrder.verify(catalogFramework)
+                .create(any(CreateRequest.class));
+        assertThat(response.getTransactionSummary()
+                .getTotalInserted()
+                .intValue(), is(2));
+        assertThat(response.getTransactionSummary()
+                .getTotalDeleted()
+                .intValue(), is(1));
+    }
+
+    @Test
+    public void testTransactionWithMalformedLaterAction()
+            throws CswException, SourceUnavailableException, IngestException {
+        csw.setTransactionBatchSize(1);
+        when(catalogFramework.create(any(CreateRequest.class))).thenAnswer(invocation -> {
+            CreateRequest createRequest = (CreateRequest) invocation.getArguments()[0];
+            return new CreateResponseImpl(createRequest, null, createRequest.getMetacards());
+        });
+
+        Iterator<CswAction> actions = mock(Iterator.class);
+        when(actions.hasNext()).thenReturn(true);
+        when(actions.next()).thenReturn(new InsertAction(CswConstants.CSW_TYPE,
+                "insert",
+                Collections.<Metacard>singletonList(new MetacardImpl())))
+                .thenThrow(new ConversionException("Malformed action"));
+        CswTransactionRequest request = new CswTransactionRequest();
+        request.setActions(actions);
+
+        try {
+            csw.transaction(request);
+            fail("Expected the malformed action to fail the transaction");
+        } catch (CswException e) {
+            assertThat(e.getExceptionCode(), is(CswConstants.TRANSACTION_FAILED));
+            assertThat(e.getMessage(),
+                    containsString("1 record(s) were already inserted, 0 updated and 0 deleted"));
+            assertThat(e.getCause(), is(instanceOf(ConversionException.class)));
+        }
+
+        verify(catalogFramework).create(any(CreateRequest.class));
+    }
+
     @Test
     public void testDeleteTransaction()
             throws CswException, UnsupportedQueryException, SourceUnavailableException,
@@ -1675,6 +1911,74 @@ public void testDeleteTransaction()
                 cswQnameOutPutSchema);
     }
 
+    private Iterator<CswAction> getStreamedInsertActions(int count, AtomicInteger readRecords) {
+        return new Iterator<CswAction>() {
+            @Override
+            public boolean hasNext() {
+                return readRecords.get() < count;
+            }
+
+            @Override
+            public CswAction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                boolean continuation = readRecords.get() > 0;
+                List<Metacard> records = new ArrayList<>();
+                while (records.size() < STREAMED_INSERT_PART_SIZE && hasNext()) {
+                    MetacardImpl metacard = new MetacardImpl();
+                    metacard.setId("record-" + readRecords.getAndIncrement());
+                    metacard.setTitle("title");
+                    records.add(metacard);
+                }
+                return new InsertAction(CswConstants.CSW_TYPE, "insert", records, continuation);
+            }
+        };
+    }
+
+    private List<Object> getInsertedIds(TransactionResponseType response) {
+        List<Object> ids = new ArrayList<>();
+        for (InsertResultType insertResult : response.getInsertResult()) {
+            ids.addAll(getInsertedIds(insertResult));
+        }
+        return ids;
+    }
+
+    private List<Object> getInsertedIds(InsertResultType insertResult) {
+        List<Object> ids = new ArrayList<>();
+        for (BriefRecordType briefRecord : insertResult.getBriefRecord()) {
+            ids.addAll(briefRecord.getIdentifier()
+                    .get(0)
+                    .getValue()
+                    .getContent());
+        }
+        return ids;
+    }
+
+    private Metacard getMetacard(String id) {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(id);
+        metacard.setTitle("title");
+        return metacard;
+    }
+
+    private DeleteAction getDeleteAction(String handle) {
+        DeleteType deleteType = mock(DeleteType.class);
+        doReturn(CswConstants.CSW_RECORD).when(deleteType)
+                .getTypeName();
+        doReturn(handle).when(deleteType)
+                .getHandle();
+        QueryConstraintType queryConstraintType = new QueryConstraintType();
+        queryConstraintType.setCqlText("title = \"foo\"");
+        doReturn(queryConstraintType).when(deleteType)
+                .getConstraint();
+
+        return new DeleteAction(deleteType,
+                DefaultCswRecordMap.getDefaultCswRecordMap()
+                        .getPrefixToUriMapping());
+    }
+
     @Test
     public void testUpdateTransactionWithNewRecord()
             throws CswException, FederationException, IngestException, SourceUnavailableException,
@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.HttpMethod;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.codice.ddf.cxf.SecureCxfClientFactory;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswSubscribe;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.writer.CswRecordCollectionMessageBodyWriter;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.plugin.AccessPlugin;
+import ddf.catalog.transform.QueryResponseTransformer;
+import ddf.security.Subject;
+import net.opengis.cat.csw.v_2_0_2.ElementSetNameType;
+import net.opengis.cat.csw.v_2_0_2.ElementSetType;
+import net.opengis.cat.csw.v_2_0_2.GetRecordsType;
+import net.opengis.cat.csw.v_2_0_2.ObjectFactory;
+import net.opengis.cat.csw.v_2_0_2.QueryType;
+import net.opengis.cat.csw.v_2_0_2.ResultType;
+
+/**
+ * Tests the delivery of events over HTTP to a subscriber running in process.
+ */
+public class SendEventSubscriberTest {
+
+    private static final String EVENT_PATH = "/services/csw/subscription/event";
+
+    private Server server;
+
+    private Subscriber subscriber;
+
+    private SendEvent sendEvent;
+
+    private Metacard metacard;
+
+    @Before
+    public void setUp() throws Exception {
+        subscriber = new Subscriber();
+        server = new Server(0);
+        server.setHandler(subscriber);
+        server.start();
+        int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+
+        GetRecordsType request = new GetRecordsType();
+        request.setOutputSchema(CswConstants.CSW_OUTPUT_SCHEMA);
+        request.setResultType(ResultType.RESULTS);
+        request.getResponseHandler()
+                .add("https://localhost:" + port + EVENT_PATH);
+        QueryType queryType = new QueryType();
+        ElementSetNameType elementSetNameType = new ElementSetNameType();
+        elementSetNameType.setValue(ElementSetType.BRIEF);
+        queryType.setElementSetName(elementSetNameType);
+        request.setAbstractQuery(new ObjectFactory().createAbstractQuery(queryType));
+
+        // Writes the number of records of an event as its body.
+        QueryResponseTransformer transformer = mock(QueryResponseTransformer.class);
+        when(transformer.transform(any(SourceResponse.class), anyMap())).thenAnswer(
+                invocation -> {
+                    SourceResponse response = (SourceResponse) invocation.getArguments()[0];
+                    String body = "records " + response.getResults()
+                            .size();
+                    return new BinaryContentImpl(new ByteArrayInputStream(body.getBytes(
+                            StandardCharsets.UTF_8)));
+                });
+        TransformerManager transformerManager = mock(TransformerManager.class);
+        when(transformerManager.getTransformerBySchema(Matchers.contains(
+                CswConstants.CSW_OUTPUT_SCHEMA))).thenReturn(transformer);
+
+        metacard = mock(Metacard.class);
+
+        // The subscription requires https, but its events are sent to the subscriber over http.
+        SecureCxfClientFactory<CswSubscribe> cxfClientFactory = new SecureCxfClientFactory<>(
+                new URL("http", "localhost", port, EVENT_PATH).toString(),
+                CswSubscribe.class,
+                Collections.singletonList(new CswRecordCollectionMessageBodyWriter(
+                        transformerManager)),
+                new SubjectInterceptor(mock(Subject.class)),
+                false,
+                false);
+
+        sendEvent = new SendEventExtension(transformerManager,
+                request,
+                mock(QueryRequest.class),
+                cxfClientFactory);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sendEvent.close();
+        server.stop();
+    }
+
+    @Test
+    public void testEventsAreDeliveredToSubscriber() throws Exception {
+        sendEvent.startEventDelivery(10, 500, 0, 1, 10);
+
+        sendEvent.created(metacard);
+        sendEvent.created(metacard);
+        sendEvent.created(metacard);
+        sendEvent.updatedHit(metacard, metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 4);
+        assertThat(subscriber.requests,
+                contains(HttpMethod.HEAD + " ",
+                        HttpMethod.POST + " records 3",
+                        HttpMethod.PUT + " records 2"));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getPendingEvents(), is(0L));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getFailedDeliveries(), is(0L));
+    }
+
+    @Test
+    public void testUnavailableSubscriberIsRetried() throws Exception {
+        subscriber.unavailableRequests.set(2);
+        sendEvent.startEventDelivery(10, 0, 3, 10, 10);
+
+        sendEvent.created(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 1);
+        assertThat(subscriber.requests,
+                contains(HttpMethod.HEAD + " ",
+                        HttpMethod.POST + " records 1",
+                        HttpMethod.POST + " records 1",
+                        HttpMethod.POST + " records 1"));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getFailedDeliveries(), is(2L));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getDeadLetterCount(), is(0L));
+    }
+
+    private void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Timed out waiting for event delivery", condition.getAsBoolean());
+    }
+
+    /**
+     * Records the method and body of each request, answering the events with an error while
+     * {@code unavailableRequests} is positive.
+     */
+    private static class Subscriber extends AbstractHandler {
+        private final List<String> requests = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger unavailableRequests = new AtomicInteger();
+
+        @Override
+        public void handle(String target, Request baseRequest, HttpServletRequest request,
+                HttpServletResponse response) throws IOException {
+            requests.add(request.getMethod() + " " + IOUtils.toString(request.getInputStream(),
+                    StandardCharsets.UTF_8));
+            if (!HttpMethod.HEAD.equals(request.getMethod())
+                    && unavailableRequests.getAndDecrement() > 0) {
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            } else {
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+            baseRequest.setHandled(true);
+        }
+    }
+
+    /**
+     * Stands in for the subject of the subscriber, which is read from its certificate over https.
+     */
+    private static class SubjectInterceptor extends AbstractPhaseInterceptor<Message> {
+        private final Subject subject;
+
+        SubjectInterceptor(Subject subject) {
+            super(Phase.RECEIVE);
+            this.subject = subject;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void handleMessage(Message message) {
+            Map<String, List<Object>> headers =
+                    (Map<String, List<Object>>) message.get(Message.PROTOCOL_HEADERS);
+            if (headers == null) {
+                headers = new HashMap<>();
+                message.put(Message.PROTOCOL_HEADERS, headers);
+            }
+            headers.put(Subject.class.toString(), Collections.singletonList(subject));
+        }
+    }
+
+    private static class SendEventExtension extends SendEvent {
+
+        SendEventExtension(TransformerManager transformerManager, GetRecordsType request,
+                QueryRequest query, SecureCxfClientFactory<CswSubscribe> cxfClientFactory)
+                throws CswException {
+            super(transformerManager, request, query);
+            this.cxfClientFactory = cxfClientFactory;
+        }
+
+        @Override
+        List<AccessPlugin> getAccessPlugins() {
+            return new ArrayList<>();
+        }
+    }
+}
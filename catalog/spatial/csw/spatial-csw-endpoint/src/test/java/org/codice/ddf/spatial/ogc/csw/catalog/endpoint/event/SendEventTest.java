@@ -13,11 +13,17 @@
  */
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -26,6 +32,12 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.HttpMethod;
 
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
@@ -35,10 +47,13 @@
 import org.codice.ddf.cxf.SecureCxfClientFactory;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswSubscribe;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -50,6 +65,7 @@
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.plugin.AccessPlugin;
+import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.security.Subject;
 import net.opengis.cat.csw.v_2_0_2.ElementSetNameType;
@@ -136,6 +152,242 @@ public QueryResponse answer(InvocationOnMock invocationOnMock) throws Throwable
 
     }
 
+    @Test
+    public void testQueuedEventsAreBatched() throws Exception {
+        sendEvent.startEventDelivery(10, 500, 0, 1, 10);
+
+        for (int i = 0; i < 25; i++) {
+            sendEvent.created(metacard);
+        }
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 25);
+        assertThat(getDeliveredRecordCounts(HttpMethod.POST, 3), contains(10, 10, 5));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getPendingEvents(), is(0L));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getFailedDeliveries(), is(0L));
+    }
+
+    @Test
+    public void testQueuedUpdatesAreNotBatched() throws Exception {
+        sendEvent.startEventDelivery(10, 500, 0, 1, 10);
+
+        sendEvent.updatedHit(metacard, metacard);
+        sendEvent.updatedMiss(metacard, metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 2);
+        assertThat(getDeliveredRecordCounts(HttpMethod.PUT, 2), contains(2, 2));
+    }
+
+    @Test
+    public void testQueuedEventsKeepTheirOrder() throws Exception {
+        sendEvent.startEventDelivery(10, 500, 0, 1, 10);
+
+        sendEvent.created(metacard);
+        sendEvent.created(metacard);
+        sendEvent.deleted(metacard);
+        sendEvent.created(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 4);
+        ArgumentCaptor<String> operations = ArgumentCaptor.forClass(String.class);
+        verify(webclient, times(4)).invoke(operations.capture(), any(CswRecordCollection.class));
+        assertThat(operations.getAllValues(),
+                contains(HttpMethod.HEAD, HttpMethod.POST, HttpMethod.DELETE, HttpMethod.POST));
+    }
+
+    @Test
+    public void testFailedDeliveryIsRetried() throws Exception {
+        Response failure = mock(Response.class);
+        when(failure.getStatus()).thenReturn(Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        when(failure.getHeaders()).thenReturn(headers);
+        when(webclient.invoke(eq(HttpMethod.POST), anyObject())).thenReturn(failure,
+                failure,
+                response);
+        sendEvent.startEventDelivery(10, 0, 3, 10, 10);
+
+        sendEvent.created(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 1);
+        assertThat(sendEvent.getDeliveryQueue()
+                .getFailedDeliveries(), is(2L));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getDeadLetterCount(), is(0L));
+    }
+
+    @Test
+    public void testRejectedDeliveryIsNotRetried() throws Exception {
+        Response rejection = mock(Response.class);
+        when(rejection.getStatus()).thenReturn(Response.Status.BAD_REQUEST.getStatusCode());
+        when(rejection.getHeaders()).thenReturn(headers);
+        when(webclient.invoke(eq(HttpMethod.POST), anyObject())).thenReturn(rejection);
+        sendEvent.startEventDelivery(10, 0, 3, 10, 10);
+
+        sendEvent.created(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDiscardedEvents() == 1);
+        assertThat(sendEvent.getDeliveryQueue()
+                .getFailedDeliveries(), is(0L));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getDeadLetterCount(), is(0L));
+        verify(webclient, times(1)).invoke(eq(HttpMethod.POST), anyObject());
+    }
+
+    @Test
+    public void testTooManyRequestsIsRetried() throws Exception {
+        Response tooManyRequests = mock(Response.class);
+        when(tooManyRequests.getStatus()).thenReturn(429);
+        when(tooManyRequests.getHeaders()).thenReturn(headers);
+        when(webclient.invoke(eq(HttpMethod.POST), anyObject())).thenReturn(tooManyRequests,
+                response);
+        sendEvent.startEventDelivery(10, 0, 3, 10, 10);
+
+        sendEvent.created(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 1);
+        assertThat(sendEvent.getDeliveryQueue()
+                .getFailedDeliveries(), is(1L));
+    }
+
+    @Test
+    public void testUndeliverableEventIsDeadLettered() throws Exception {
+        when(webclient.invoke(anyString(), anyObject())).thenThrow(new RuntimeException(
+                "Connection refused"));
+        sendEvent.startEventDelivery(10, 0, 2, 1, 1);
+
+        sendEvent.created(metacard);
+        sendEvent.deleted(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeadLetterCount() == 2);
+        assertThat(sendEvent.getDeliveryQueue()
+                .getFailedDeliveries(), is(6L));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getPendingEvents(), is(0L));
+        // Only the most recent dead letter is kept.
+        assertThat(sendEvent.getDeliveryQueue()
+                .getDeadLetters()
+                .size(), is(1));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getDeadLetters()
+                .get(0)
+                .getOperation(), is(HttpMethod.DELETE));
+    }
+
+    @Test
+    public void testEventStoppedByAccessPluginIsDiscarded() throws Exception {
+        when(accessPlugins.get(0)
+                .processPostQuery(any(QueryResponse.class))).thenThrow(new StopProcessingException(
+                "Not authorized"));
+        sendEvent.startEventDelivery(10, 0, 2, 1, 10);
+
+        sendEvent.created(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDiscardedEvents() == 1);
+        assertThat(sendEvent.getDeliveryQueue()
+                .getDeliveredEvents(), is(0L));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getPendingEvents(), is(0L));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getFailedDeliveries(), is(0L));
+        verify(webclient, never()).invoke(eq(HttpMethod.POST), anyObject());
+    }
+
+    @Test
+    public void testRecordStoppedByAccessPluginIsDroppedFromItsBatch() throws Exception {
+        Metacard stopped = mock(Metacard.class);
+        when(accessPlugins.get(0)
+                .processPostQuery(any(QueryResponse.class))).thenAnswer(invocation -> {
+            QueryResponse queryResponse = (QueryResponse) invocation.getArguments()[0];
+            if (queryResponse.getResults()
+                    .get(0)
+                    .getMetacard() == stopped) {
+                throw new StopProcessingException("Not authorized");
+            }
+            return queryResponse;
+        });
+        sendEvent.startEventDelivery(10, 500, 0, 1, 10);
+
+        sendEvent.created(metacard);
+        sendEvent.created(stopped);
+        sendEvent.created(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 3);
+        assertThat(getDeliveredRecordCounts(HttpMethod.POST, 1), contains(2));
+        assertThat(sendEvent.getDeliveryQueue()
+                .getDiscardedEvents(), is(0L));
+    }
+
+    @Test
+    public void testSlowSubscriberDoesNotDelayOthers() throws Exception {
+        CountDownLatch slowSubscriberReleased = new CountDownLatch(1);
+        WebClient slowWebClient = mock(WebClient.class);
+        SecureCxfClientFactory<CswSubscribe> slowClientFactory = mock(SecureCxfClientFactory.class);
+        when(slowClientFactory.getWebClient()).thenReturn(slowWebClient);
+        when(slowWebClient.invoke(anyString(), anyObject())).thenReturn(response);
+        when(slowWebClient.invoke(eq(HttpMethod.POST), anyObject())).thenAnswer(invocation -> {
+            slowSubscriberReleased.await(10, TimeUnit.SECONDS);
+            return response;
+        });
+        SendEvent slowSendEvent = new SendEventExtension(transformerManager,
+                request,
+                query,
+                slowClientFactory);
+        slowSendEvent.startEventDelivery(10, 0, 0, 1, 10);
+        sendEvent.startEventDelivery(10, 0, 0, 1, 10);
+
+        slowSendEvent.created(metacard);
+        sendEvent.created(metacard);
+
+        waitFor(() -> sendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 1);
+        assertThat(slowSendEvent.getDeliveryQueue()
+                .getDeliveredEvents(), is(0L));
+        assertThat(slowSendEvent.getDeliveryQueue()
+                .getPendingEvents(), is(1L));
+        waitFor(() -> slowSendEvent.getDeliveryQueue()
+                .getLagMillis() > 0);
+
+        slowSubscriberReleased.countDown();
+        waitFor(() -> slowSendEvent.getDeliveryQueue()
+                .getDeliveredEvents() == 1);
+        waitFor(() -> slowSendEvent.getDeliveryQueue()
+                .getLagMillis() == 0);
+        slowSendEvent.close();
+    }
+
+    private List<Integer> getDeliveredRecordCounts(String operation, int deliveries) {
+        ArgumentCaptor<CswRecordCollection> recordCollections =
+                ArgumentCaptor.forClass(CswRecordCollection.class);
+        verify(webclient, times(deliveries)).invoke(eq(operation), recordCollections.capture());
+        return recordCollections.getAllValues()
+                .stream()
+                .map(recordCollection -> recordCollection.getSourceResponse()
+                        .getResults()
+                        .size())
+                .collect(Collectors.toList());
+    }
+
+    private void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Timed out waiting for event delivery", condition.getAsBoolean());
+    }
+
+    @After
+    public void tearDown() {
+        sendEvent.close();
+    }
+
     public void verifyResults() throws Exception {
         verify(webclient, times(2)).invoke(anyString(), anyObject());
     }
@@ -13,7 +13,9 @@
  **/
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.reader;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
@@ -22,14 +24,21 @@
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.IOUtils;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.DeleteAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertAction;
@@ -256,6 +265,73 @@ public void testReadInsertFrom() throws Exception {
         assertThat(request.isVerbose(), is(true));
     }
 
+    @Test
+    public void testReadLargeInsertInParts() throws Exception {
+        int count = 20000;
+        AtomicInteger convertedRecords = new AtomicInteger();
+        Converter mockConverter = mock(Converter.class);
+        when(mockConverter.canConvert(any(Metacard.class.getClass()))).thenReturn(true);
+        when(mockConverter.unmarshal(any(HierarchicalStreamReader.class),
+                any(UnmarshallingContext.class))).thenAnswer(invocation -> {
+            convertedRecords.incrementAndGet();
+            return mock(Metacard.class);
+        });
+        TransactionMessageBodyReader reader = new TransactionMessageBodyReader(mockConverter);
+        CswTransactionRequest request = reader.readFrom(CswTransactionRequest.class,
+                null,
+                null,
+                null,
+                null,
+                getInsertRequestStream(count));
+        assertThat(request, notNullValue());
+
+        Iterator<CswAction> actions = request.getActions();
+        int actionCount = 0;
+        int recordCount = 0;
+        while (actions.hasNext()) {
+            CswAction action = actions.next();
+            assertThat(action, instanceOf(InsertAction.class));
+            InsertAction insertAction = (InsertAction) action;
+            assertThat(insertAction.isContinuation(), is(actionCount > 0));
+            assertThat(insertAction.getRecords()
+                    .size(), is(TransactionMessageBodyReader.STREAMED_INSERT_SIZE));
+            actionCount++;
+            recordCount += insertAction.getRecords()
+                    .size();
+
+            // Records are only read one part ahead of the actions taken from the request.
+            assertThat(convertedRecords.get(),
+                    lessThanOrEqualTo(recordCount
+                            + TransactionMessageBodyReader.STREAMED_INSERT_SIZE));
+        }
+        assertThat(actionCount, is(count / TransactionMessageBodyReader.STREAMED_INSERT_SIZE));
+        assertThat(recordCount, is(count));
+    }
+
+    @Test
+    public void testReadInsertPartsJoined() throws Exception {
+        int count = TransactionMessageBodyReader.STREAMED_INSERT_SIZE * 2 + 1;
+        Converter mockConverter = mock(Converter.class);
+        when(mockConverter.canConvert(any(Metacard.class.getClass()))).thenReturn(true);
+        when(mockConverter.unmarshal(any(HierarchicalStreamReader.class),
+                any(UnmarshallingContext.class))).thenReturn(mock(Metacard.class));
+        TransactionMessageBodyReader reader = new TransactionMessageBodyReader(mockConverter);
+        CswTransactionRequest request = reader.readFrom(CswTransactionRequest.class,
+                null,
+                null,
+                null,
+                null,
+                getInsertRequestStream(count));
+
+        assertThat(request.getInsertActions()
+                .size(), is(1));
+        InsertAction insertAction = request.getInsertActions()
+                .get(0);
+        assertThat(insertAction.isContinuation(), is(false));
+        assertThat(insertAction.getRecords()
+                .size(), is(count));
+    }
+
     @Test
     public void testReadDeleteWithFilterFrom() throws IOException {
         TransactionMessageBodyReader reader =
@@ -363,6 +439,28 @@ public void testReadInsertAndDeleteFrom() throws IOException {
         assertThat(request.isVerbose(), is(true));
     }
 
+    @Test
+    public void testReadActionsInDocumentOrder() throws IOException {
+        Converter mockConverter = mock(Converter.class);
+        when(mockConverter.canConvert(any(Metacard.class.getClass()))).thenReturn(true);
+        when(mockConverter.unmarshal(any(HierarchicalStreamReader.class),
+                any(UnmarshallingContext.class))).thenReturn(mock(Metacard.class));
+
+        TransactionMessageBodyReader reader = new TransactionMessageBodyReader(mockConverter);
+
+        CswTransactionRequest request = reader.readFrom(CswTransactionRequest.class,
+                null,
+                null,
+                null,
+                null,
+                IOUtils.toInputStream(INSERT_AND_DELETE_REQUEST_XML));
+
+        Iterator<CswAction> actions = request.getActions();
+        assertThat(actions.next(), instanceOf(InsertAction.class));
+        assertThat(actions.next(), instanceOf(DeleteAction.class));
+        assertThat(actions.hasNext(), is(false));
+    }
+
     @Test
     public void testReadUpdateByNewRecordFrom() throws IOException, ParseException {
         TransactionMessageBodyReader reader =
@@ -573,4 +671,23 @@ private String getInsertRequest(int count) {
         builder.append(INSERT_REQUEST_END);
         return builder.toString();
     }
+
+    private InputStream getInsertRequestStream(int count) {
+        Iterator<String> parts = Stream.concat(Stream.concat(Stream.of(INSERT_REQUEST_START),
+                Stream.generate(() -> RECORD_XML)
+                        .limit(count)), Stream.of(INSERT_REQUEST_END))
+                .iterator();
+
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return parts.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return IOUtils.toInputStream(parts.next());
+            }
+        });
+    }
 }
\ No newline at end of file
@@ -21,9 +21,11 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -36,6 +38,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordMetacardType;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.converter.DefaultCswRecordMap;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.DeleteAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertAction;
@@ -60,6 +63,13 @@ public class TransactionRequestConverter implements Converter {
     private static final CswRecordMetacardType CSW_RECORD_METACARD_TYPE =
             new CswRecordMetacardType();
 
+    /**
+     * {@link UnmarshallingContext} key of the maximum number of records to read into each
+     * {@link InsertAction}. When set, the actions of the request are read as they are performed
+     * rather than up front, and larger inserts are read in parts.
+     */
+    public static final String STREAMED_INSERT_SIZE = "streamedInsertSize";
+
     private static JAXBContext jaxBContext;
 
     private Converter delegatingTransformer;
@@ -130,64 +140,75 @@ public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext co
 
         XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
 
-        while (reader.hasMoreChildren()) {
-            reader.moveDown();
-
-            if (reader.getNodeName()
-                    .contains("Insert")) {
-                String typeName =
-                        StringUtils.defaultIfEmpty(reader.getAttribute(CswConstants.TYPE_NAME_PARAMETER),
-                                CswConstants.CSW_RECORD);
-                String handle =
-                        StringUtils.defaultIfEmpty(reader.getAttribute(CswConstants.HANDLE_PARAMETER),
-                                "");
-                context.put(CswConstants.TRANSFORMER_LOOKUP_KEY, TransformerManager.ID);
-                context.put(CswConstants.TRANSFORMER_LOOKUP_VALUE, typeName);
-                List<Metacard> metacards = new ArrayList<>();
-                // Loop through the individual records to be inserted, converting each into a Metacard
-                while (reader.hasMoreChildren()) {
-                    reader.moveDown(); // move down to the record's tag
-                    Metacard metacard = (Metacard) context.convertAnother(null,
-                            MetacardImpl.class,
-                            delegatingTransformer);
-                    if (metacard != null) {
-                        metacards.add(metacard);
-                    }
+        Object streamedInsertSize = context.get(STREAMED_INSERT_SIZE);
+        if (streamedInsertSize instanceof Integer) {
+            // Leave the actions to be read from the stream as the request is performed.
+            cswTransactionRequest.setActions(new ActionIterator(reader,
+                    context,
+                    Math.max(1, (Integer) streamedInsertSize)));
+            return cswTransactionRequest;
+        }
 
-                    // move back up to the <SearchResults> parent of the <csw:Record> tags
-                    reader.moveUp();
-                }
+        ActionIterator actions = new ActionIterator(reader, context, Integer.MAX_VALUE);
+        while (actions.hasNext()) {
+            CswAction action = actions.next();
+            if (action instanceof InsertAction) {
                 cswTransactionRequest.getInsertActions()
-                        .add(new InsertAction(typeName, handle, metacards));
-            } else if (reader.getNodeName()
-                    .contains("Delete")) {
-                XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
-
-                Map<String, String> xmlnsAttributeToUriMappings =
-                        getXmlnsAttributeToUriMappingsFromContext(context);
-                Map<String, String> prefixToUriMappings = getPrefixToUriMappingsFromXmlnsAttributes(
-                        xmlnsAttributeToUriMappings);
-
-                StringWriter writer = new StringWriter();
-                XStreamAttributeCopier.copyXml(reader, writer, xmlnsAttributeToUriMappings);
-
-                DeleteType deleteType = getElementFromXml(writer.toString(), DeleteType.class);
-
+                        .add((InsertAction) action);
+            } else if (action instanceof DeleteAction) {
                 cswTransactionRequest.getDeleteActions()
-                        .add(new DeleteAction(deleteType, prefixToUriMappings));
-            } else if (reader.getNodeName()
-                    .contains("Update")) {
-                XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
-                UpdateAction updateAction = parseUpdateAction(reader, context);
+                        .add((DeleteAction) action);
+            } else if (action instanceof UpdateAction) {
                 cswTransactionRequest.getUpdateActions()
-                        .add(updateAction);
+                        .add((UpdateAction) action);
             }
-            reader.moveUp();
         }
 
         return cswTransactionRequest;
     }
 
+    private InsertAction parseInsertRecords(HierarchicalStreamReader reader,
+            UnmarshallingContext context, String typeName, String handle, int maxRecords,
+            boolean continuation) {
+        context.put(CswConstants.TRANSFORMER_LOOKUP_KEY, TransformerManager.ID);
+        context.put(CswConstants.TRANSFORMER_LOOKUP_VALUE, typeName);
+        List<Metacard> metacards = new ArrayList<>();
+        int recordCount = 0;
+        // Loop through the individual records to be inserted, converting each into a Metacard
+        while (recordCount < maxRecords && reader.hasMoreChildren()) {
+            reader.moveDown(); // move down to the record's tag
+            Metacard metacard = (Metacard) context.convertAnother(null,
+                    MetacardImpl.class,
+                    delegatingTransformer);
+            if (metacard != null) {
+                metacards.add(metacard);
+            }
+            recordCount++;
+
+            // move back up to the <Insert> parent of the <csw:Record> tags
+            reader.moveUp();
+        }
+
+        return new InsertAction(typeName, handle, metacards, continuation);
+    }
+
+    private DeleteAction parseDeleteAction(HierarchicalStreamReader reader,
+            UnmarshallingContext context) {
+        XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
+
+        Map<String, String> xmlnsAttributeToUriMappings =
+                getXmlnsAttributeToUriMappingsFromContext(context);
+        Map<String, String> prefixToUriMappings = getPrefixToUriMappingsFromXmlnsAttributes(
+                xmlnsAttributeToUriMappings);
+
+        StringWriter writer = new StringWriter();
+        XStreamAttributeCopier.copyXml(reader, writer, xmlnsAttributeToUriMappings);
+
+        DeleteType deleteType = getElementFromXml(writer.toString(), DeleteType.class);
+
+        return new DeleteAction(deleteType, prefixToUriMappings);
+    }
+
     private UpdateAction parseUpdateAction(HierarchicalStreamReader reader,
             UnmarshallingContext context) {
         Map<String, String> xmlnsAttributeToUriMappings = getXmlnsAttributeToUriMappingsFromContext(
@@ -423,6 +444,102 @@ private Map<String, String> getPrefixToUriMappingsFromXmlnsAttributes(
                 .getPrefixToUriMapping();
     }
 
+    /**
+     * Reads the actions of a transaction one at a time, in document order. The next action is read
+     * ahead so that a malformed action is reported before the action preceding it is performed.
+     */
+    private class ActionIterator implements Iterator<CswAction> {
+        private final HierarchicalStreamReader reader;
+
+        private final UnmarshallingContext context;
+
+        private final int maxInsertRecords;
+
+        private String insertTypeName;
+
+        private String insertHandle;
+
+        private boolean inInsert;
+
+        private CswAction nextAction;
+
+        ActionIterator(HierarchicalStreamReader reader, UnmarshallingContext context,
+                int maxInsertRecords) {
+            this.reader = reader;
+            this.context = context;
+            this.maxInsertRecords = maxInsertRecords;
+            this.nextAction = readAction();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextAction != null;
+        }
+
+        @Override
+        public CswAction next() {
+            if (nextAction == null) {
+                throw new NoSuchElementException();
+            }
+
+            CswAction action = nextAction;
+            nextAction = readAction();
+            return action;
+        }
+
+        private CswAction readAction() {
+            if (inInsert) {
+                if (reader.hasMoreChildren()) {
+                    return parseInsertRecords(reader,
+                            context,
+                            insertTypeName,
+                            insertHandle,
+                            maxInsertRecords,
+                            true);
+                }
+
+                // Back to the <Transaction>.
+                inInsert = false;
+                reader.moveUp();
+            }
+
+            while (reader.hasMoreChildren()) {
+                reader.moveDown();
+
+                CswAction action = null;
+                if (reader.getNodeName()
+                        .contains("Insert")) {
+                    insertTypeName = StringUtils.defaultIfEmpty(reader.getAttribute(
+                            CswConstants.TYPE_NAME_PARAMETER), CswConstants.CSW_RECORD);
+                    insertHandle = StringUtils.defaultIfEmpty(reader.getAttribute(
+                            CswConstants.HANDLE_PARAMETER), "");
+                    // Stay within the <Insert> until all of its records have been read.
+                    inInsert = true;
+                    return parseInsertRecords(reader,
+                            context,
+                            insertTypeName,
+                            insertHandle,
+                            maxInsertRecords,
+                            false);
+                } else if (reader.getNodeName()
+                        .contains("Delete")) {
+                    action = parseDeleteAction(reader, context);
+                } else if (reader.getNodeName()
+                        .contains("Update")) {
+                    XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
+                    action = parseUpdateAction(reader, context);
+                }
+                reader.moveUp();
+
+                if (action != null) {
+                    return action;
+                }
+            }
+
+            return null;
+        }
+    }
+
     @Override
     public boolean canConvert(Class aClass) {
         return CswTransactionRequest.class.isAssignableFrom(aClass);
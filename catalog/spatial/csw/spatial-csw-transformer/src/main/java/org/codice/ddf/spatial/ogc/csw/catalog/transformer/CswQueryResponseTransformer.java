@@ -15,19 +15,13 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.CharArrayWriter;
-import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -44,7 +38,6 @@
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.namespace.QName;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
@@ -106,6 +99,12 @@ public class CswQueryResponseTransformer implements QueryResponseTransformer {
 
     private static final String XML_DECL = "<?xml version=\'1.0\' encoding=\'UTF-8\'?>\n";
 
+    /**
+     * Marks where the records are streamed into the response. Cannot appear anywhere else in the
+     * response since the {@link PrintWriter} escapes '<' in values.
+     */
+    private static final String RECORDS_PLACEHOLDER = "<!--records-->";
+
     public static final String RECORDS_RESPONSE_QNAME =
             CSW_PREFIX + CswConstants.GET_RECORDS_RESPONSE;
 
@@ -130,8 +129,6 @@ public class CswQueryResponseTransformer implements QueryResponseTransformer {
 
     private static final int BLOCKING_Q_INITIAL_SIZE = 1024;
 
-    private static final int ACCUM_INITIAL_SIZE = 4096;
-
     public CswQueryResponseTransformer(TransformerManager metacardTransformerManager,
             PrintWriterProvider writerProvider) {
         this.metacardTransformerManager = metacardTransformerManager;
@@ -146,23 +143,22 @@ public BinaryContent transform(SourceResponse sourceResponse,
 
         CswRecordCollection recordCollection = buildCollection(sourceResponse, arguments);
 
-        ByteArrayInputStream bais;
+        InputStream inputStream;
 
         if (ResultType.VALIDATE.equals(recordCollection.getResultType())) {
             ByteArrayOutputStream baos = writeAcknowledgement(recordCollection.getRequest());
-            bais = new ByteArrayInputStream(baos.toByteArray());
+            inputStream = new ByteArrayInputStream(baos.toByteArray());
         } else {
             // "catches" recordCollection.getResultType() == null
             List<Result> results = sourceResponse.getResults();
-            String xmlString = convert(recordCollection, results, arguments);
-            bais = new ByteArrayInputStream(xmlString.getBytes(StandardCharsets.UTF_8));
+            inputStream = convert(recordCollection, results, arguments);
         }
 
-        BinaryContent transformedContent = new BinaryContentImpl(bais, new MimeType());
+        BinaryContent transformedContent = new BinaryContentImpl(inputStream, new MimeType());
         return transformedContent;
     }
 
-    private String convert(CswRecordCollection cswRecordCollection, List<Result> results,
+    private InputStream convert(CswRecordCollection cswRecordCollection, List<Result> results,
             Map<String, Serializable> arguments) throws CatalogTransformerException {
 
         PrintWriter writer = writerProvider.build(Metacard.class);
@@ -229,13 +225,12 @@ private String convert(CswRecordCollection cswRecordCollection, List<Result> res
             }
         }
 
+        boolean writeRecords = !ResultType.HITS.equals(cswRecordCollection.getResultType())
+                && !results.isEmpty();
+
         if (!ResultType.HITS.equals(cswRecordCollection.getResultType())) {
             arguments.put(CswConstants.OMIT_XML_DECLARATION, Boolean.TRUE);
-
-            String metacardsString = multiThreadedMarshal(results,
-                    cswRecordCollection.getOutputSchema(),
-                    arguments);
-            writer.setRawValue(metacardsString);
+            writer.setRawValue(writeRecords ? RECORDS_PLACEHOLDER : "");
         }
 
         if (!cswRecordCollection.isById()) {
@@ -244,59 +239,47 @@ private String convert(CswRecordCollection cswRecordCollection, List<Result> res
 
         writer.endNode(); // RECORDS_RESPONSE_QNAME
 
-        return writer.makeString();
+        String response = writer.makeString();
+        if (!writeRecords) {
+            return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return multiThreadedMarshal(response,
+                results,
+                cswRecordCollection.getOutputSchema(),
+                arguments);
     }
 
     /*
         Multi-threaded marshal of metacard assumes:
         - cpu-bound => optimum utilization from availableProcessors()+1 thread pool.
         - query size is unbounded => guard against resource exhaustion with fixed thread-pool,
-          fixed work-queue.
+          fixed work-queue, and by marshalling the records in chunks while the response is read
+          instead of holding all of them in memory.
      */
-    //private void multiThreadedMarshal(PrintWriter writer, List<Result> results,
-    private String multiThreadedMarshal(List<Result> results, String recordSchema,
-            final Map<String, Serializable> arguments) throws CatalogTransformerException {
-
-        CompletionService<BinaryContent> completionService = new ExecutorCompletionService<>(
-                queryExecutor);
-
-        try {
-            for (Result result : results) {
-                final Metacard mc = result.getMetacard();
-
-                final MetacardTransformer transformer =
-                        metacardTransformerManager.getTransformerBySchema(recordSchema);
-
-                if (transformer == null) {
-                    throw new CatalogTransformerException(
-                            "Cannot find transformer for schema: " + recordSchema);
-                }
-
-                // the "current" thread will run submitted task when queueSize exceeded; effectively
-                // blocking enqueue of more tasks.
-                completionService.submit(new Callable<BinaryContent>() {
-                    @Override
-                    public BinaryContent call() throws Exception {
-                        BinaryContent content = transformer.transform(mc, arguments);
-                        return content;
-                    }
-                });
-            }
+    private InputStream multiThreadedMarshal(String response, List<Result> results,
+            String recordSchema, final Map<String, Serializable> arguments)
+            throws CatalogTransformerException {
 
-            int metacardCount = results.size();
-            CharArrayWriter accum = new CharArrayWriter(ACCUM_INITIAL_SIZE);
-            for (int i = 0; i < metacardCount; i++) {
-                Future<BinaryContent> binaryContentFuture = completionService.take(); // blocks
-                BinaryContent binaryContent = binaryContentFuture.get();
-                IOUtils.copy(binaryContent.getInputStream(), accum);
-            }
+        final MetacardTransformer transformer =
+                metacardTransformerManager.getTransformerBySchema(recordSchema);
 
-            return accum.toString();
+        if (transformer == null) {
+            throw new CatalogTransformerException(
+                    "Cannot find transformer for schema: " + recordSchema);
+        }
 
-        } catch (IOException | InterruptedException | ExecutionException xe) {
-            throw new CatalogTransformerException(xe);
+        int recordsIndex = response.lastIndexOf(RECORDS_PLACEHOLDER);
+        if (recordsIndex == -1) {
+            throw new CatalogTransformerException("Cannot find where to write the records.");
         }
 
+        return new CswResponseInputStream(response.substring(0, recordsIndex),
+                response.substring(recordsIndex + RECORDS_PLACEHOLDER.length()),
+                results,
+                transformer,
+                arguments,
+                queryExecutor);
     } // end multiThreadedMarshal()
 
     private boolean isByIdQuery(Map<String, Serializable> arguments) {
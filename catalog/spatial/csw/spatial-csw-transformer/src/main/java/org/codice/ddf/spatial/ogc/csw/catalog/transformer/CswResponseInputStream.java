@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.spatial.ogc.csw.catalog.transformer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+
+import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.transform.MetacardTransformer;
+
+/**
+ * {@link InputStream} of a CSW response that marshals its records while it is read, rather than
+ * holding the whole response in memory.
+ * <p>
+ * Records are transformed on the given executor in chunks and read back in the order of the
+ * results. The next chunk is transformed while the current one is read, so at most
+ * {@code 2 * CHUNK_SIZE} transformed records are held at once however many records the response
+ * has.
+ */
+class CswResponseInputStream extends InputStream {
+
+    static final int CHUNK_SIZE = 64;
+
+    private static final int CHUNK_INITIAL_SIZE = 64 * 1024;
+
+    private final Iterator<Result> results;
+
+    private final MetacardTransformer transformer;
+
+    private final Map<String, Serializable> arguments;
+
+    private final ExecutorService executor;
+
+    private final Deque<Future<BinaryContent>> pending = new ArrayDeque<>(CHUNK_SIZE);
+
+    private byte[] tail;
+
+    private byte[] buffer;
+
+    private int position;
+
+    private boolean closed;
+
+    /**
+     * @param head        the response up to where the records are written
+     * @param tail        the response after the records
+     * @param results     the results whose records are written
+     * @param transformer the transformer of the records
+     * @param arguments   the arguments of the transformer
+     * @param executor    the executor transforming the records
+     */
+    CswResponseInputStream(String head, String tail, List<Result> results,
+            MetacardTransformer transformer, Map<String, Serializable> arguments,
+            ExecutorService executor) {
+        this.buffer = head.getBytes(StandardCharsets.UTF_8);
+        this.tail = tail.getBytes(StandardCharsets.UTF_8);
+        this.results = results.iterator();
+        this.transformer = transformer;
+        this.arguments = arguments;
+        this.executor = executor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        while (position == buffer.length) {
+            if (!nextBuffer()) {
+                return -1;
+            }
+        }
+
+        int count = Math.min(length, buffer.length - position);
+        System.arraycopy(buffer, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.length - position;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Future<BinaryContent> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        tail = null;
+        buffer = new byte[0];
+        position = 0;
+    }
+
+    private boolean nextBuffer() throws IOException {
+        if (closed) {
+            return false;
+        }
+
+        submitRecords();
+        if (pending.isEmpty()) {
+            if (tail == null) {
+                return false;
+            }
+            buffer = tail;
+            tail = null;
+        } else {
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_INITIAL_SIZE);
+            while (!pending.isEmpty()) {
+                writeRecord(pending.remove(), chunk);
+            }
+            // transform the next chunk while this one is read
+            submitRecords();
+            buffer = chunk.toByteArray();
+        }
+        position = 0;
+        return true;
+    }
+
+    private void submitRecords() {
+        while (pending.size() < CHUNK_SIZE && results.hasNext()) {
+            final Metacard metacard = results.next()
+                    .getMetacard();
+
+            // the "current" thread will run submitted task when the executor's queue is full
+            pending.add(executor.submit(() -> transformer.transform(metacard, arguments)));
+        }
+    }
+
+    private void writeRecord(Future<BinaryContent> record, ByteArrayOutputStream chunk)
+            throws IOException {
+        try (InputStream content = record.get()
+                .getInputStream()) {
+            IOUtils.copy(content, chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            close();
+            throw new InterruptedIOException("Interrupted while transforming records.");
+        } catch (ExecutionException e) {
+            close();
+            throw new IOException("Failed to transform record.", e.getCause());
+        }
+    }
+}
@@ -13,9 +13,13 @@
  **/
 package org.codice.ddf.spatial.ogc.csw.catalog.transformer;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.notNull;
 import static org.mockito.Mockito.mock;
@@ -27,13 +31,21 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.ws.rs.WebApplicationException;
 import javax.xml.bind.JAXBContext;
@@ -57,6 +69,7 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.BinaryContentImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.operation.Query;
@@ -69,6 +82,7 @@
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
 
 import net.opengis.cat.csw.v_2_0_2.AcknowledgementType;
 import net.opengis.cat.csw.v_2_0_2.GetRecordsType;
@@ -349,6 +363,130 @@ public void testMarshalAcknowledgement()
         assertThat(jaxB.getValue(), is(instanceOf(GetRecordsType.class)));
     }
 
+    @Test
+    public void testStreamedRecordsMatchBufferedRecords()
+            throws CatalogTransformerException, IOException {
+        GetRecordsType query = new GetRecordsType();
+        query.setResultType(ResultType.RESULTS);
+        query.setMaxRecords(BigInteger.valueOf(300));
+        query.setStartPosition(BigInteger.valueOf(1));
+        SourceResponse sourceResponse = createSourceResponse(query, 500);
+
+        MetacardTransformer metacardTransformer =
+                (metacard, arguments) -> toBinaryContent(toRecord(metacard));
+        when(mockTransformerManager.getTransformerBySchema(CswConstants.CSW_OUTPUT_SCHEMA))
+                .thenReturn(metacardTransformer);
+        RecordingPrintWriterProvider printWriterProvider = new RecordingPrintWriterProvider();
+        transformer = new CswQueryResponseTransformer(mockTransformerManager,
+                printWriterProvider);
+
+        Map<String, Serializable> args = new HashMap<>();
+        args.put(CswConstants.RESULT_TYPE_PARAMETER, ResultType.RESULTS);
+        args.put(CswConstants.GET_RECORDS, query);
+
+        transformer.init();
+        BinaryContent content = transformer.transform(sourceResponse, args);
+        String xml = new String(content.getByteArray(), StandardCharsets.UTF_8);
+        transformer.destroy();
+
+        StringBuilder records = new StringBuilder();
+        for (Result result : sourceResponse.getResults()) {
+            records.append(toRecord(result.getMetacard()));
+        }
+        assertThat(xml, is(printWriterProvider.replay(records.toString())));
+    }
+
+    @Test
+    public void testStreamedRecordsAreBounded() throws CatalogTransformerException, IOException {
+        final int resultCount = 50000;
+        final int recordSize = 2048;
+        GetRecordsType query = new GetRecordsType();
+        query.setResultType(ResultType.RESULTS);
+        query.setMaxRecords(BigInteger.valueOf(resultCount));
+        query.setStartPosition(BigInteger.valueOf(1));
+        SourceResponse sourceResponse = createSourceResponse(query, resultCount);
+
+        char[] padding = new char[recordSize - "<csw:Record></csw:Record>".length()];
+        Arrays.fill(padding, 'x');
+        byte[] record = ("<csw:Record>" + new String(padding) + "</csw:Record>").getBytes(
+                StandardCharsets.UTF_8);
+        AtomicLong transformed = new AtomicLong();
+        MetacardTransformer metacardTransformer = (metacard, arguments) -> {
+            transformed.incrementAndGet();
+            return new BinaryContentImpl(new ByteArrayInputStream(record));
+        };
+        when(mockTransformerManager.getTransformerBySchema(CswConstants.CSW_OUTPUT_SCHEMA))
+                .thenReturn(metacardTransformer);
+        transformer = new CswQueryResponseTransformer(mockTransformerManager,
+                new PrintWriterProviderImpl());
+
+        Map<String, Serializable> args = new HashMap<>();
+        args.put(CswConstants.RESULT_TYPE_PARAMETER, ResultType.RESULTS);
+        args.put(CswConstants.GET_RECORDS, query);
+
+        transformer.init();
+        BinaryContent content = transformer.transform(sourceResponse, args);
+
+        long bytesRead = 0;
+        long maxBuffered = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream inputStream = content.getInputStream()) {
+            int count;
+            while ((count = inputStream.read(buffer)) != -1) {
+                bytesRead += count;
+                // the envelope written before the records is shorter than a record
+                maxBuffered = Math.max(maxBuffered,
+                        transformed.get() - (bytesRead / recordSize - 1));
+            }
+        }
+        transformer.destroy();
+
+        assertThat(transformed.get(), is((long) resultCount));
+        assertThat(bytesRead, greaterThan((long) resultCount * recordSize));
+        assertThat(maxBuffered,
+                lessThanOrEqualTo((long) (2 * CswResponseInputStream.CHUNK_SIZE + 1)));
+    }
+
+    @Test
+    public void testStreamedRecordTransformFails() throws CatalogTransformerException, IOException {
+        thrown.expect(IOException.class);
+
+        GetRecordsType query = new GetRecordsType();
+        query.setResultType(ResultType.RESULTS);
+        query.setMaxRecords(BigInteger.valueOf(10));
+        query.setStartPosition(BigInteger.valueOf(1));
+        SourceResponse sourceResponse = createSourceResponse(query, 10);
+
+        when(mockTransformerManager.getTransformerBySchema(CswConstants.CSW_OUTPUT_SCHEMA))
+                .thenReturn(mockMetacardTransformer);
+        when(mockMetacardTransformer.transform(any(Metacard.class), anyMap())).thenThrow(
+                new CatalogTransformerException("Failed to transform."));
+        transformer = new CswQueryResponseTransformer(mockTransformerManager,
+                new PrintWriterProviderImpl());
+
+        Map<String, Serializable> args = new HashMap<>();
+        args.put(CswConstants.RESULT_TYPE_PARAMETER, ResultType.RESULTS);
+        args.put(CswConstants.GET_RECORDS, query);
+
+        transformer.init();
+        try {
+            transformer.transform(sourceResponse, args)
+                    .getByteArray();
+        } finally {
+            transformer.destroy();
+        }
+    }
+
+    private String toRecord(Metacard metacard) {
+        return "<csw:Record><dc:identifier>" + metacard.getId()
+                + "</dc:identifier><dc:title>" + metacard.getTitle() + "</dc:title></csw:Record>";
+    }
+
+    private BinaryContent toBinaryContent(String record) {
+        return new BinaryContentImpl(new ByteArrayInputStream(record.getBytes(
+                StandardCharsets.UTF_8)));
+    }
+
     private SourceResponse createSourceResponse(GetRecordsType request, int resultCount) {
         int first = 1;
         int last = 2;
@@ -391,6 +529,50 @@ private List<Result> createResults(int start, int finish) {
         return list;
     }
 
+    /**
+     * Records the {@link PrintWriter} calls made for a response, so that the response can be
+     * written again with all of its records written at once.
+     */
+    private static class RecordingPrintWriterProvider implements PrintWriterProvider {
+
+        private final List<Method> methods = new ArrayList<>();
+
+        private final List<Object[]> arguments = new ArrayList<>();
+
+        @Override
+        public <T> PrintWriter build(Class<T> klass) {
+            PrintWriter writer = new PrintWriterProviderImpl().build(klass);
+            return (PrintWriter) Proxy.newProxyInstance(PrintWriter.class.getClassLoader(),
+                    new Class[] {PrintWriter.class},
+                    (proxy, method, args) -> {
+                        methods.add(method);
+                        arguments.add(args);
+                        return invoke(writer, method, args);
+                    });
+        }
+
+        String replay(String records) {
+            PrintWriter writer = new PrintWriterProviderImpl().build(Metacard.class);
+            for (int i = 0; i < methods.size(); i++) {
+                Object[] args = arguments.get(i);
+                if ("setRawValue".equals(methods.get(i)
+                        .getName()) && !((String) args[0]).startsWith("<?xml")) {
+                    args = new Object[] {records};
+                }
+                invoke(writer, methods.get(i), args);
+            }
+            return writer.makeString();
+        }
+
+        private Object invoke(PrintWriter writer, Method method, Object[] args) {
+            try {
+                return method.invoke(writer, args);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
     private JAXBContext getJaxBContext() throws JAXBException {
         JAXBContext context = null;
         String contextPath = StringUtils.join(new String[] {CswConstants.OGC_CSW_PACKAGE,
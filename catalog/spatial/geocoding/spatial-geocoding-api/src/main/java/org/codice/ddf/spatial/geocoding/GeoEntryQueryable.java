@@ -36,6 +36,23 @@ public interface GeoEntryQueryable {
      */
     List<GeoEntry> query(String queryString, int maxResults) throws GeoEntryQueryException;
 
+    /**
+     * Retrieves the places whose names start with the given text, up to {@code maxResults}
+     * results, for suggesting places while the text is typed.
+     * <p>
+     * All the terms of {@code prefix} must appear in the name of a place, the last one only as the
+     * beginning of a term.
+     *
+     * @param prefix     the beginning of a place name, such as "new yo"
+     * @param maxResults the maximum number of results to return
+     * @return the matching places, most significant first, or an empty {@code List} if no results
+     * are found
+     * @throws IllegalArgumentException if {@code prefix} is null or empty, or if
+     *                                  {@code maxResults} is not a positive integer
+     * @throws GeoEntryQueryException   if an exception occurs while querying the GeoNames resource
+     */
+    List<GeoEntry> suggest(String prefix, int maxResults) throws GeoEntryQueryException;
+
     /**
      * Retrieves the cities within {@code radiusInKm} kilometers of {@code metacard}, sorted by
      * population in descending order.
@@ -13,6 +13,8 @@
  **/
 package org.codice.ddf.spatial.geocoder;
 
+import java.util.List;
+
 import org.codice.ddf.spatial.geocoding.GeoEntryQueryException;
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
 
@@ -26,6 +28,17 @@ public interface GeoCoder {
      */
     GeoResult getLocation(String location);
 
+    /**
+     * Takes the beginning of a place name, as it is being typed, and returns the places it could
+     * be completed to.
+     *
+     * @param prefix     the beginning of a place name, such as "New Yo"
+     * @param maxResults the maximum number of results to return
+     * @return the {@link GeoResult}s of the matching places, most relevant first, or an empty list
+     * if no places were found
+     */
+    List<GeoResult> getSuggestions(String prefix, int maxResults);
+
     /**
      * @param locationWKT - a WKT string describing the area to search
      * @return a description of the "nearest city"
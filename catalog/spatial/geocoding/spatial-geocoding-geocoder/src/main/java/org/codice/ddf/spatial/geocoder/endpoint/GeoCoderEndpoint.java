@@ -14,8 +14,10 @@
 
 package org.codice.ddf.spatial.geocoder.endpoint;
 
+import java.util.Collections;
 import java.util.List;
 
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -38,6 +40,8 @@
 @Path("/")
 public class GeoCoderEndpoint {
 
+    private static final String DEFAULT_MAX_SUGGESTIONS = "10";
+
     private ServiceSelector<GeoCoder> geoCoderFactory;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GeoCoderEndpoint.class);
@@ -73,6 +77,41 @@ JSONObject doQuery(String query) {
             geoResult = geoCoder.getLocation(query);
         }
 
+        if (geoResult != null) {
+            return createResourceSets(Collections.singletonList(geoResult));
+        }
+
+        return createResourceSets(Collections.emptyList());
+    }
+
+    @GET
+    @Path("suggest")
+    public Response getSuggestions(@QueryParam("jsonp") String jsonp,
+            @QueryParam("query") String query,
+            @QueryParam("maxResults") @DefaultValue(DEFAULT_MAX_SUGGESTIONS) int maxResults) {
+        if (JsonpValidator.isValidJsonp(jsonp) && maxResults > 0) {
+            JSONObject jsonObject = doSuggest(query, maxResults);
+            return Response.ok(jsonp + "(" + jsonObject.toJSONString() + ")")
+                    .build();
+        } else {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .build();
+        }
+    }
+
+    JSONObject doSuggest(String query, int maxResults) {
+        GeoCoder geoCoder = geoCoderFactory.getService();
+        List<GeoResult> geoResults = Collections.emptyList();
+
+        if (geoCoder != null && query != null && !query.trim()
+                .isEmpty()) {
+            geoResults = geoCoder.getSuggestions(query, maxResults);
+        }
+
+        return createResourceSets(geoResults);
+    }
+
+    private JSONObject createResourceSets(List<GeoResult> geoResults) {
         JSONObject jsonObject = new JSONObject();
         JSONArray resourceSets = new JSONArray();
         JSONObject resourceSet = new JSONObject();
@@ -81,7 +120,7 @@ JSONObject doQuery(String query) {
         JSONArray resources = new JSONArray();
         resourceSet.put("resources", resources);
 
-        if (geoResult != null) {
+        for (GeoResult geoResult : geoResults) {
             transformGeoResult(geoResult, resources);
         }
 
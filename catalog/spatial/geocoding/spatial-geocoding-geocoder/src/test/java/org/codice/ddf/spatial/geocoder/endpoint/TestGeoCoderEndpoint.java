@@ -17,10 +17,13 @@
 import static org.hamcrest.CoreMatchers.is;
 
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+
 import javax.ws.rs.core.Response;
 
 import org.codice.ddf.spatial.geocoder.GeoCoder;
@@ -101,6 +104,36 @@ public void testQuery() {
         assertThat(coordinates.size(), is(2));
     }
 
+    @Test
+    public void testSuggest() {
+        when(mockGeoCoder.getSuggestions(anyString(), anyInt())).thenReturn(Arrays.asList(
+                geoResult,
+                buildGeoResult("Phoenix Airport", 0.1, 0.4, "AIRP", 0)));
+
+        JSONObject jsonObject = this.geoCoderEndpoint.doSuggest("Phoe", 2);
+        JSONArray resourceSets = (JSONArray) jsonObject.get("resourceSets");
+        JSONObject resources = (JSONObject) resourceSets.get(0);
+        JSONArray resourceElements = (JSONArray) resources.get("resources");
+        assertThat(resourceElements.size(), is(2));
+
+        assertThat(((JSONObject) resourceElements.get(0)).get("name"), is("Phoenix"));
+        assertThat(((JSONObject) resourceElements.get(1)).get("name"), is("Phoenix Airport"));
+    }
+
+    @Test
+    public void testSuggestBlankQuery() {
+        JSONObject jsonObject = this.geoCoderEndpoint.doSuggest(" ", 2);
+        JSONArray resourceSets = (JSONArray) jsonObject.get("resourceSets");
+        JSONObject resources = (JSONObject) resourceSets.get(0);
+        assertThat(((JSONArray) resources.get("resources")).size(), is(0));
+    }
+
+    @Test
+    public void testSuggestInvalidMaxResults() {
+        Response response = geoCoderEndpoint.getSuggestions("callback", "Phoe", 0);
+        assertThat(response.getStatus(), is(Response.Status.BAD_REQUEST.getStatusCode()));
+    }
+
     @Test
     public void testNearbyLocation() throws ParseException {
         Response response = geoCoderEndpoint.getNearbyCities("POINT(10 30)");
@@ -15,6 +15,8 @@
 package org.codice.ddf.spatial.geocoder.geonames;
 
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.codice.ddf.spatial.geocoder.GeoCoder;
@@ -46,18 +48,7 @@ public GeoResult getLocation(final String location) {
             final List<GeoEntry> topResults = geoEntryQueryable.query(location, 1);
 
             if (topResults.size() > 0) {
-                final GeoEntry topResult = topResults.get(0);
-                final String name = topResult.getName();
-                final double latitude = topResult.getLatitude();
-                final double longitude = topResult.getLongitude();
-                final String featureCode = topResult.getFeatureCode();
-                final long population = topResult.getPopulation();
-
-                return GeoResultCreator.createGeoResult(name,
-                        latitude,
-                        longitude,
-                        featureCode,
-                        population);
+                return createGeoResult(topResults.get(0));
             }
         } catch (GeoEntryQueryException e) {
             LOGGER.error("Error querying the local GeoNames index", e);
@@ -66,6 +57,33 @@ public GeoResult getLocation(final String location) {
         return null;
     }
 
+    @Override
+    public List<GeoResult> getSuggestions(final String prefix, final int maxResults) {
+        try {
+            final List<GeoEntry> suggestions = geoEntryQueryable.suggest(prefix, maxResults);
+
+            final List<GeoResult> results = new ArrayList<>(suggestions.size());
+            for (GeoEntry suggestion : suggestions) {
+                results.add(createGeoResult(suggestion));
+            }
+            return results;
+        } catch (GeoEntryQueryException e) {
+            LOGGER.error("Error querying the local GeoNames index", e);
+        }
+
+        return Collections.emptyList();
+    }
+
+    private GeoResult createGeoResult(final GeoEntry geoEntry) {
+        final String name = geoEntry.getName();
+        final double latitude = geoEntry.getLatitude();
+        final double longitude = geoEntry.getLongitude();
+        final String featureCode = geoEntry.getFeatureCode();
+        final long population = geoEntry.getPopulation();
+
+        return GeoResultCreator.createGeoResult(name, latitude, longitude, featureCode, population);
+    }
+
     public NearbyLocation getNearbyCity(String location) throws GeoEntryQueryException {
 
         try {
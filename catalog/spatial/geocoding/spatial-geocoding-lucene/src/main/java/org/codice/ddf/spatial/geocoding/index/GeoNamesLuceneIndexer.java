@@ -60,10 +60,16 @@ public class GeoNamesLuceneIndexer implements GeoEntryIndexer {
 
     private String indexLocation;
 
+    private GeoNamesIndexListener indexListener;
+
     public void setIndexLocation(final String indexLocation) {
         this.indexLocation = indexLocation;
     }
 
+    public void setIndexListener(final GeoNamesIndexListener indexListener) {
+        this.indexListener = indexListener;
+    }
+
     private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
 
     public static final DefaultSimilarity SIMILARITY = new DefaultSimilarity() {
@@ -148,6 +154,14 @@ public void updateProgress(final int progress) {
         } catch (IOException e) {
             throw new GeoEntryIndexingException("Error writing to the index.", e);
         }
+
+        notifyIndexUpdated();
+    }
+
+    private void notifyIndexUpdated() {
+        if (indexListener != null) {
+            indexListener.indexUpdated();
+        }
     }
 
     IndexWriter createIndexWriter(final boolean create, final Directory directory)
@@ -189,6 +203,8 @@ private void buildIndex(final List<GeoEntry> geoEntryList, final boolean create,
         } catch (IOException e) {
             throw new GeoEntryIndexingException("Error writing to the index.", e);
         }
+
+        notifyIndexUpdated();
     }
 
     private void indexGeoEntries(final IndexWriter indexWriter, final List<GeoEntry> geoEntryList,
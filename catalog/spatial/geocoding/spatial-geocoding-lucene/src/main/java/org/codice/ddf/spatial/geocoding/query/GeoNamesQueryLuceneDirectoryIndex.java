@@ -18,15 +18,17 @@
 import java.nio.file.Paths;
 import java.text.ParseException;
 import java.util.List;
+import java.util.Objects;
 
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
 import org.codice.ddf.spatial.geocoding.GeoEntry;
 import org.codice.ddf.spatial.geocoding.GeoEntryQueryException;
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.index.GeoNamesIndexListener;
 import org.codice.ddf.spatial.geocoding.index.GeoNamesLuceneIndexer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,28 +36,42 @@
 import com.spatial4j.core.context.SpatialContext;
 import com.spatial4j.core.shape.Shape;
 
-public class GeoNamesQueryLuceneDirectoryIndex extends GeoNamesQueryLuceneIndex {
+/**
+ * Queries the GeoNames index in a directory on disk.
+ * <p>
+ * The directory is memory-mapped and opened once, and its searchers are shared by all the queries.
+ * They are only reopened when the {@link GeoNamesLuceneIndexer} reports that it has updated the
+ * index, or when the index location changes.
+ */
+public class GeoNamesQueryLuceneDirectoryIndex extends GeoNamesQueryLuceneIndex
+        implements GeoNamesIndexListener {
     private String indexLocation;
 
+    private Directory directory;
+
     private static final Logger LOGGER =
             LoggerFactory.getLogger(GeoNamesQueryLuceneDirectoryIndex.class);
 
-    public void setIndexLocation(final String indexLocation) {
+    public synchronized void setIndexLocation(final String indexLocation) {
+        if (!Objects.equals(this.indexLocation, indexLocation)) {
+            close();
+        }
         this.indexLocation = indexLocation;
     }
 
     @Override
     protected Directory openDirectory() throws IOException {
-        return FSDirectory.open(Paths.get(indexLocation));
+        return new MMapDirectory(Paths.get(indexLocation));
     }
 
-    private Directory openDirectoryAndCheckForIndex() throws GeoEntryQueryException {
-        Directory directory;
-
+    private synchronized Directory openDirectoryAndCheckForIndex() throws GeoEntryQueryException {
         try {
-            directory = openDirectory();
-            if (!indexExists(directory)) {
-                directory.close();
+            if (directory == null) {
+                directory = openDirectory();
+            }
+
+            // Once the index has been opened it is kept up to date by indexUpdated().
+            if (!hasSearcherManager() && !indexExists(directory)) {
                 LOGGER.warn("There is no index at " + indexLocation
                         + ". Load a Geonames file into the offline gazetteer");
                 return null;
@@ -69,7 +85,7 @@ private Directory openDirectoryAndCheckForIndex() throws GeoEntryQueryException
     }
 
     @Override
-    protected IndexReader createIndexReader(final Directory directory) throws IOException {
+    protected DirectoryReader createIndexReader(final Directory directory) throws IOException {
         return DirectoryReader.open(directory);
     }
 
@@ -80,6 +96,31 @@ protected IndexSearcher createIndexSearcher(final IndexReader indexReader) {
         return indexSearcher;
     }
 
+    @Override
+    public void indexUpdated() {
+        try {
+            refreshSearcherManager();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to reopen the index at " + indexLocation, e);
+        }
+    }
+
+    /**
+     * Closes the searchers and the directory of the index. They are reopened by the next query.
+     */
+    public synchronized void close() {
+        try {
+            closeSearcherManager();
+            if (directory != null) {
+                directory.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close the index at " + indexLocation, e);
+        } finally {
+            directory = null;
+        }
+    }
+
     @Override
     public List<GeoEntry> query(final String queryString, final int maxResults)
             throws GeoEntryQueryException {
@@ -88,6 +129,14 @@ public List<GeoEntry> query(final String queryString, final int maxResults)
         return doQuery(queryString, maxResults, directory);
     }
 
+    @Override
+    public List<GeoEntry> suggest(final String prefix, final int maxResults)
+            throws GeoEntryQueryException {
+        final Directory directory = openDirectoryAndCheckForIndex();
+
+        return doSuggest(prefix, maxResults, directory);
+    }
+
     @Override
     public List<NearbyLocation> getNearestCities(final String location, final int radiusInKm,
             final int maxResults) throws ParseException, GeoEntryQueryException {
@@ -21,6 +21,7 @@
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
@@ -33,11 +34,14 @@
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
@@ -45,7 +49,6 @@
 import org.apache.lucene.spatial.SpatialStrategy;
 import org.apache.lucene.spatial.prefix.RecursivePrefixTreeStrategy;
 import org.apache.lucene.spatial.prefix.tree.GeohashPrefixTree;
-import org.apache.lucene.spatial.prefix.tree.SpatialPrefixTree;
 import org.apache.lucene.spatial.query.SpatialArgs;
 import org.apache.lucene.spatial.query.SpatialOperation;
 import org.apache.lucene.store.Directory;
@@ -69,6 +72,17 @@ public abstract class GeoNamesQueryLuceneIndex implements GeoEntryQueryable {
 
     private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
 
+    // Analyzers are thread-safe, so the same one is used to parse every query.
+    private static final Analyzer ANALYZER = new StandardAnalyzer();
+
+    private static final SpatialStrategy STRATEGY = new RecursivePrefixTreeStrategy(
+            new GeohashPrefixTree(SPATIAL_CONTEXT, GeoNamesLuceneConstants.GEOHASH_LEVELS),
+            GeoNamesLuceneConstants.GEO_FIELD);
+
+    // This is the boost we calculated at index time, and it is applied in a CustomScoreQuery.
+    private static final FunctionQuery BOOST_QUERY = new FunctionQuery(new FloatFieldSource(
+            GeoNamesLuceneConstants.BOOST_FIELD));
+
     private static final Sort SORT =
             new Sort(new SortField(GeoNamesLuceneConstants.POPULATION_DOCVALUES_FIELD,
                     SortField.Type.LONG,
@@ -91,9 +105,20 @@ public abstract class GeoNamesQueryLuceneIndex implements GeoEntryQueryable {
         }
     }
 
+    private final SearcherFactory searcherFactory = new SearcherFactory() {
+        @Override
+        public IndexSearcher newSearcher(final IndexReader indexReader) {
+            return createIndexSearcher(indexReader);
+        }
+    };
+
+    private SearcherManager searcherManager;
+
+    private Directory searcherDirectory;
+
     protected abstract Directory openDirectory() throws IOException;
 
-    protected abstract IndexReader createIndexReader(Directory directory) throws IOException;
+    protected abstract DirectoryReader createIndexReader(Directory directory) throws IOException;
 
     protected abstract IndexSearcher createIndexSearcher(IndexReader indexReader);
 
@@ -101,6 +126,46 @@ protected boolean indexExists(final Directory directory) throws IOException {
         return DirectoryReader.indexExists(directory);
     }
 
+    /**
+     * Returns the {@link SearcherManager} of the index in {@code directory}, opening a reader the
+     * first time the directory is searched. Searchers are shared by all the queries until the
+     * index is refreshed with {@link #refreshSearcherManager()}.
+     */
+    protected synchronized SearcherManager getSearcherManager(final Directory directory)
+            throws IOException {
+        if (searcherManager == null || searcherDirectory != directory) {
+            closeSearcherManager();
+            searcherManager = new SearcherManager(createIndexReader(directory), searcherFactory);
+            searcherDirectory = directory;
+        }
+
+        return searcherManager;
+    }
+
+    protected synchronized boolean hasSearcherManager() {
+        return searcherManager != null;
+    }
+
+    /**
+     * Reopens the searchers if the index has changed since they were opened.
+     */
+    protected synchronized void refreshSearcherManager() throws IOException {
+        if (searcherManager != null) {
+            searcherManager.maybeRefresh();
+        }
+    }
+
+    protected synchronized void closeSearcherManager() throws IOException {
+        if (searcherManager != null) {
+            try {
+                searcherManager.close();
+            } finally {
+                searcherManager = null;
+                searcherDirectory = null;
+            }
+        }
+    }
+
     protected List<GeoEntry> doQuery(final String queryString, final int maxResults,
             final Directory directory) throws GeoEntryQueryException {
         if (StringUtils.isBlank(queryString)) {
@@ -115,11 +180,44 @@ protected List<GeoEntry> doQuery(final String queryString, final int maxResults,
             return Collections.emptyList();
         }
 
-        try (final IndexReader indexReader = createIndexReader(directory)) {
-            final IndexSearcher indexSearcher = createIndexSearcher(indexReader);
+        try {
+            return searchGeoEntries(createQuery(queryString), maxResults, directory);
+        } catch (IOException e) {
+            throw new GeoEntryQueryException("Error reading the index", e);
+        } catch (ParseException e) {
+            throw new GeoEntryQueryException("Error parsing query", e);
+        }
+    }
+
+    protected List<GeoEntry> doSuggest(final String prefix, final int maxResults,
+            final Directory directory) throws GeoEntryQueryException {
+        if (StringUtils.isBlank(prefix)) {
+            throw new IllegalArgumentException("The prefix cannot be null or empty.");
+        }
+
+        if (maxResults < 1) {
+            throw new IllegalArgumentException("maxResults must be positive.");
+        }
+
+        if (directory == null) {
+            return Collections.emptyList();
+        }
+
+        try {
+            return searchGeoEntries(createSuggestQuery(prefix), maxResults, directory);
+        } catch (IOException e) {
+            throw new GeoEntryQueryException("Error reading the index", e);
+        } catch (ParseException e) {
+            throw new GeoEntryQueryException("Error parsing query", e);
+        }
+    }
 
-            final Query query = createQuery(queryString);
+    private List<GeoEntry> searchGeoEntries(final Query query, final int maxResults,
+            final Directory directory) throws IOException {
+        final SearcherManager manager = getSearcherManager(directory);
+        final IndexSearcher indexSearcher = manager.acquire();
 
+        try {
             final TopDocs topDocs = indexSearcher.search(query, maxResults);
             if (topDocs.totalHits > 0) {
                 final List<GeoEntry> results = new ArrayList<>();
@@ -138,18 +236,34 @@ protected List<GeoEntry> doQuery(final String queryString, final int maxResults,
             } else {
                 return Collections.emptyList();
             }
-        } catch (IOException e) {
-            throw new GeoEntryQueryException("Error reading the index", e);
-        } catch (ParseException e) {
-            throw new GeoEntryQueryException("Error parsing query", e);
+        } finally {
+            manager.release(indexSearcher);
         }
     }
 
-    protected Query createQuery(final String queryString) throws ParseException {
-        final StandardAnalyzer standardAnalyzer = new StandardAnalyzer();
+    protected Query createSuggestQuery(final String prefix) throws ParseException {
+        final QueryParser nameQueryParser = new QueryParser(GeoNamesLuceneConstants.NAME_FIELD,
+                ANALYZER);
+        nameQueryParser.setDefaultOperator(QueryParser.AND_OPERATOR);
+
+        // Every term but the last must match a term of the name, and the last term, which may
+        // still be being typed, must be the prefix of a term of the name.
+        final String[] terms = StringUtils.split(prefix);
+        final StringBuilder queryString = new StringBuilder();
+        for (String term : terms) {
+            queryString.append(QueryParser.escape(term))
+                    .append(' ');
+        }
+        queryString.setCharAt(queryString.length() - 1, '*');
 
+        // Matching places are ranked by the boost calculated at index time alone.
+        final Query nameQuery = nameQueryParser.parse(queryString.toString());
+        return new CustomScoreQuery(new ConstantScoreQuery(nameQuery), BOOST_QUERY);
+    }
+
+    protected Query createQuery(final String queryString) throws ParseException {
         final QueryParser nameQueryParser = new QueryParser(GeoNamesLuceneConstants.NAME_FIELD,
-                standardAnalyzer);
+                ANALYZER);
         nameQueryParser.setEnablePositionIncrements(false);
 
         /* For the name, we construct a query searching for exactly the query string (the phrase
@@ -179,7 +293,7 @@ query searching for any of the terms in the query string (the OR query). We take
         final Query nameQuery = new DisjunctionMaxQuery(nameQueryList, 0);
 
         final QueryParser alternateNamesQueryParser =
-                new QueryParser(GeoNamesLuceneConstants.ALTERNATE_NAMES_FIELD, standardAnalyzer);
+                new QueryParser(GeoNamesLuceneConstants.ALTERNATE_NAMES_FIELD, ANALYZER);
 
         // For the alternate names, we perform an AND query and an OR query, both of which are
         // boosted less than the name query because the alternate names are generally not as
@@ -206,11 +320,7 @@ query searching for any of the terms in the query string (the OR query). We take
         // the final score than how well it matches the alternate names.
         final DisjunctionMaxQuery disjunctionMaxQuery = new DisjunctionMaxQuery(queryList, 1.0f);
 
-        // This is the boost we calculated at index time, and it is applied in the CustomScoreQuery.
-        final FunctionQuery boostQuery = new FunctionQuery(new FloatFieldSource(
-                GeoNamesLuceneConstants.BOOST_FIELD));
-
-        return new CustomScoreQuery(disjunctionMaxQuery, boostQuery);
+        return new CustomScoreQuery(disjunctionMaxQuery, BOOST_QUERY);
     }
 
     protected List<NearbyLocation> doGetNearestCities(final Shape shape, final int radiusInKm,
@@ -235,54 +345,57 @@ protected List<NearbyLocation> doGetNearestCities(final Shape shape, final int r
             return Collections.emptyList();
         }
 
-        try (final IndexReader indexReader = createIndexReader(directory)) {
-            final IndexSearcher indexSearcher = createIndexSearcher(indexReader);
-
-            final List<NearbyLocation> closestCities = new ArrayList<>();
-
-            final SpatialPrefixTree grid = new GeohashPrefixTree(SPATIAL_CONTEXT,
-                    GeoNamesLuceneConstants.GEOHASH_LEVELS);
-
-            final SpatialStrategy strategy = new RecursivePrefixTreeStrategy(grid,
-                    GeoNamesLuceneConstants.GEO_FIELD);
-
-            // Create a spatial filter that will select the documents that are in the specified
-            // search radius around the metacard's center.
-            final Point center = shape.getCenter();
-            final double searchRadiusDegrees = radiusInKm * DistanceUtils.KM_TO_DEG;
-            final SpatialArgs args = new SpatialArgs(SpatialOperation.Intersects,
-                    SPATIAL_CONTEXT.makeCircle(center, searchRadiusDegrees));
-            final Filter filter = strategy.makeFilter(args);
-
-            // Query for all the documents in the index that are cities, then filter those
-            // results for the ones that are in the search area.
-            final BooleanQuery booleanQuery = new BooleanQuery();
-            booleanQuery.add(PPL_QUERY, BooleanClause.Occur.MUST);
-            booleanQuery.add(filter, BooleanClause.Occur.FILTER);
-
-            final TopDocs topDocs = indexSearcher.search(booleanQuery, maxResults, SORT);
-
-            if (topDocs.totalHits > 0) {
-                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
-                    final double lat = Double.parseDouble(indexSearcher.doc(scoreDoc.doc)
-                            .get(GeoNamesLuceneConstants.LATITUDE_FIELD));
-                    final double lon = Double.parseDouble(indexSearcher.doc(scoreDoc.doc)
-                            .get(GeoNamesLuceneConstants.LONGITUDE_FIELD));
-
-                    final String name = indexSearcher.doc(scoreDoc.doc)
-                            .get(GeoNamesLuceneConstants.NAME_FIELD);
-
-                    final NearbyLocation city = new NearbyLocationImpl(center,
-                            new PointImpl(lon, lat, SPATIAL_CONTEXT),
-                            name);
-
-                    closestCities.add(city);
-                }
+        try {
+            final SearcherManager manager = getSearcherManager(directory);
+            final IndexSearcher indexSearcher = manager.acquire();
+            try {
+                return findNearestCities(indexSearcher, shape, radiusInKm, maxResults);
+            } finally {
+                manager.release(indexSearcher);
             }
-
-            return closestCities;
         } catch (IOException e) {
             throw new GeoEntryQueryException("Error reading the index", e);
         }
     }
+
+    private List<NearbyLocation> findNearestCities(final IndexSearcher indexSearcher,
+            final Shape shape, final int radiusInKm, final int maxResults) throws IOException {
+        final List<NearbyLocation> closestCities = new ArrayList<>();
+
+        // Create a spatial filter that will select the documents that are in the specified
+        // search radius around the metacard's center.
+        final Point center = shape.getCenter();
+        final double searchRadiusDegrees = radiusInKm * DistanceUtils.KM_TO_DEG;
+        final SpatialArgs args = new SpatialArgs(SpatialOperation.Intersects,
+                SPATIAL_CONTEXT.makeCircle(center, searchRadiusDegrees));
+        final Filter filter = STRATEGY.makeFilter(args);
+
+        // Query for all the documents in the index that are cities, then filter those
+        // results for the ones that are in the search area.
+        final BooleanQuery booleanQuery = new BooleanQuery();
+        booleanQuery.add(PPL_QUERY, BooleanClause.Occur.MUST);
+        booleanQuery.add(filter, BooleanClause.Occur.FILTER);
+
+        final TopDocs topDocs = indexSearcher.search(booleanQuery, maxResults, SORT);
+
+        if (topDocs.totalHits > 0) {
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                final double lat = Double.parseDouble(indexSearcher.doc(scoreDoc.doc)
+                        .get(GeoNamesLuceneConstants.LATITUDE_FIELD));
+                final double lon = Double.parseDouble(indexSearcher.doc(scoreDoc.doc)
+                        .get(GeoNamesLuceneConstants.LONGITUDE_FIELD));
+
+                final String name = indexSearcher.doc(scoreDoc.doc)
+                        .get(GeoNamesLuceneConstants.NAME_FIELD);
+
+                final NearbyLocation city = new NearbyLocationImpl(center,
+                        new PointImpl(lon, lat, SPATIAL_CONTEXT),
+                        name);
+
+                closestCities.add(city);
+            }
+        }
+
+        return closestCities;
+    }
 }
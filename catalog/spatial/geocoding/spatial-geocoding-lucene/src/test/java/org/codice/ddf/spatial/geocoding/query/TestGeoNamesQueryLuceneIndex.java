@@ -15,6 +15,7 @@
 package org.codice.ddf.spatial.geocoding.query;
 
 import static org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.Assert.assertThat;
@@ -28,6 +29,7 @@
 
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
@@ -240,6 +242,56 @@ public void testQueryWithNoResults()
         assertThat(results.size(), is(actualResults));
     }
 
+    @Test
+    public void testSuggest() throws GeoEntryQueryException {
+        assertThat(names(directoryIndex.suggest("Phoe", 5)), containsInAnyOrder(NAME_1, NAME_2));
+        assertThat(names(directoryIndex.suggest("phoenix ai", 5)), containsInAnyOrder(NAME_2));
+        assertThat(names(directoryIndex.suggest("glen", 5)), containsInAnyOrder(NAME_3));
+        assertThat(directoryIndex.suggest("phoe", 1)
+                .size(), is(1));
+        assertThat(directoryIndex.suggest("airport phoenix x", 5)
+                .size(), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBlankSuggest() throws GeoEntryQueryException {
+        directoryIndex.suggest(" ", 1);
+    }
+
+    @Test
+    public void testSearcherIsReopenedWhenIndexIsUpdated()
+            throws IOException, GeoEntryQueryException {
+        assertThat(directoryIndex.query("glendale", 5)
+                .size(), is(1));
+
+        final IndexWriterConfig indexWriterConfig = new IndexWriterConfig(new StandardAnalyzer());
+        indexWriterConfig.setOpenMode(OpenMode.APPEND);
+        try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+            indexWriter.addDocument(createDocumentFromGeoEntry(new GeoEntry.Builder().name(
+                    "Glendale Heights")
+                    .latitude(LAT_3)
+                    .longitude(LON_3)
+                    .featureCode(FEATURE_CODE_3)
+                    .population(POP_3)
+                    .alternateNames(ALT_NAMES_3)
+                    .build()));
+        }
+
+        // The searcher is kept until the indexer reports the update.
+        assertThat(directoryIndex.query("glendale", 5)
+                .size(), is(1));
+
+        directoryIndex.indexUpdated();
+        assertThat(directoryIndex.query("glendale", 5)
+                .size(), is(2));
+    }
+
+    private static List<String> names(final List<GeoEntry> geoEntries) {
+        return geoEntries.stream()
+                .map(GeoEntry::getName)
+                .collect(Collectors.toList());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testBlankQuery() throws GeoEntryQueryException {
         directoryIndex.query("", 1);
@@ -16,6 +16,9 @@
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import javax.ws.rs.WebApplicationException;
 
@@ -83,20 +86,57 @@ public GeoResult getLocation(String location) {
                 if (geonames != null && geonames.size() > 0) {
                     JSONObject firstResult = (JSONObject) geonames.get(0);
                     if (firstResult != null) {
-                        double lat = Double.valueOf((String) firstResult.get(LAT_KEY));
-                        double lon = Double.valueOf((String) firstResult.get(LON_KEY));
+                        return createGeoResult(firstResult);
+                    }
+                }
+            }
+        }
 
-                        Long population = (Long) firstResult.get(POPULATION_KEY);
-                        String adminCode = (String) firstResult.get(ADMIN_CODE_KEY);
+        return null;
+    }
 
-                        return GeoResultCreator.createGeoResult((String) firstResult.get(
-                                PLACENAME_KEY), lat, lon, adminCode, population);
+    @Override
+    public List<GeoResult> getSuggestions(String prefix, int maxResults) {
+
+        prefix = getUrlEncodedLocation(prefix);
+
+        String urlStr = String.format("%s://%s/searchJSON?name_startsWith=%s&maxRows=%d&username=%s",
+                GEONAMES_PROTOCOL,
+                GEONAMES_API_ADDRESS,
+                prefix,
+                maxResults,
+                USERNAME);
+
+        Object result = query(urlStr);
+
+        if (result instanceof JSONObject) {
+            JSONArray geonames = (JSONArray) ((JSONObject) result).get(GEONAMES_KEY);
+            if (geonames != null) {
+                List<GeoResult> suggestions = new ArrayList<>(geonames.size());
+                for (Object geoname : geonames) {
+                    if (geoname instanceof JSONObject) {
+                        suggestions.add(createGeoResult((JSONObject) geoname));
                     }
                 }
+                return suggestions;
             }
         }
 
-        return null;
+        return Collections.emptyList();
+    }
+
+    private GeoResult createGeoResult(JSONObject geoname) {
+        double lat = Double.valueOf((String) geoname.get(LAT_KEY));
+        double lon = Double.valueOf((String) geoname.get(LON_KEY));
+
+        Long population = (Long) geoname.get(POPULATION_KEY);
+        String adminCode = (String) geoname.get(ADMIN_CODE_KEY);
+
+        return GeoResultCreator.createGeoResult((String) geoname.get(PLACENAME_KEY),
+                lat,
+                lon,
+                adminCode,
+                population);
     }
 
     private Object query(String urlStr) {
@@ -23,11 +23,11 @@
 import java.util.concurrent.TimeoutException;
 
 import org.codice.ddf.ui.searchui.query.controller.search.CacheQueryRunnable;
-import org.codice.ddf.ui.searchui.query.controller.search.FilteringSolrIndexCallable;
+import org.codice.ddf.ui.searchui.query.controller.search.FilteringIndexCallable;
 import org.codice.ddf.ui.searchui.query.controller.search.SourceQueryRunnable;
+import org.codice.ddf.ui.searchui.query.index.FilteringIndex;
 import org.codice.ddf.ui.searchui.query.model.Search;
 import org.codice.ddf.ui.searchui.query.model.SearchRequest;
-import org.codice.ddf.ui.searchui.query.solr.FilteringSolrIndex;
 import org.cometd.bayeux.server.BayeuxServer;
 import org.cometd.bayeux.server.ConfigurableServerChannel;
 import org.cometd.bayeux.server.ServerMessage;
@@ -134,10 +134,10 @@ public void executeQuery(final SearchRequest request, final ServerSession sessio
         final Map<String, Result> results =
                 Collections.synchronizedMap(new HashMap<String, Result>());
 
-        final Future<FilteringSolrIndex> solrIndexFuture;
+        final Future<FilteringIndex> solrIndexFuture;
         if (shouldNormalizeRelevance(request)) {
-            // Create in memory Solr instance asynchronously
-            solrIndexFuture = executorService.submit(new FilteringSolrIndexCallable(request,
+            // Create in memory index asynchronously
+            solrIndexFuture = executorService.submit(new FilteringIndexCallable(request,
                     filterAdapter));
         } else {
             solrIndexFuture = Futures.immediateFuture(null);
@@ -21,9 +21,9 @@
 import java.util.concurrent.TimeoutException;
 
 import org.codice.ddf.ui.searchui.query.controller.SearchController;
+import org.codice.ddf.ui.searchui.query.index.FilteringIndex;
 import org.codice.ddf.ui.searchui.query.model.Search;
 import org.codice.ddf.ui.searchui.query.model.SearchRequest;
-import org.codice.ddf.ui.searchui.query.solr.FilteringSolrIndex;
 import org.cometd.bayeux.server.ServerSession;
 
 import ddf.catalog.data.Result;
@@ -34,11 +34,11 @@
 
 public class CacheQueryRunnable extends QueryRunnable {
 
-    private final Future<FilteringSolrIndex> solrIndexFuture;
+    private final Future<FilteringIndex> solrIndexFuture;
 
     public CacheQueryRunnable(SearchController searchController, SearchRequest request,
             Subject subject, Search search, ServerSession session, Map<String, Result> results,
-            Future<FilteringSolrIndex> solrIndexFuture) {
+            Future<FilteringIndex> solrIndexFuture) {
         super(searchController, request, subject, search, session, results);
         this.solrIndexFuture = solrIndexFuture;
     }
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.ui.searchui.query.controller.search;
+
+import java.util.concurrent.Callable;
+
+import org.codice.ddf.ui.searchui.query.index.FilteringIndex;
+import org.codice.ddf.ui.searchui.query.index.InMemoryFilteringIndex;
+import org.codice.ddf.ui.searchui.query.model.SearchRequest;
+import org.codice.ddf.ui.searchui.query.solr.FilteringSolrIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.source.UnsupportedQueryException;
+
+/**
+ * Creates the index used to normalize relevance across sources. An {@link InMemoryFilteringIndex}
+ * is used whenever it can evaluate the query, otherwise an embedded {@link FilteringSolrIndex} is
+ * created instead.
+ */
+public class FilteringIndexCallable implements Callable<FilteringIndex> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FilteringIndexCallable.class);
+
+    private final SearchRequest request;
+
+    private final FilterAdapter filterAdapter;
+
+    public FilteringIndexCallable(SearchRequest request, FilterAdapter filterAdapter) {
+        this.request = request;
+        this.filterAdapter = filterAdapter;
+    }
+
+    @Override
+    public FilteringIndex call() throws Exception {
+        QueryRequest queryRequest = new QueryRequestImpl(request.getQuery());
+        try {
+            return new InMemoryFilteringIndex(filterAdapter, queryRequest);
+        } catch (UnsupportedQueryException e) {
+            LOGGER.debug("Query {} is not supported by the in-memory index, using Solr instead.",
+                    request.getId(),
+                    e);
+            return new FilteringSolrIndex(request.getId(), filterAdapter, queryRequest);
+        }
+    }
+}
@@ -43,6 +43,7 @@
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 
+import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
@@ -157,10 +158,7 @@ protected void normalizeDistances(Filter query, Map<String, Result> results) {
 
     protected void normalizeRelevance(List<Result> indexResults, Map<String, Result> results) {
         for (Result indexResult : indexResults) {
-            String resultKey = indexResult.getMetacard()
-                    .getAttribute(FilteringDynamicSchemaResolver.SOURCE_ID)
-                    .getValue() + indexResult.getMetacard()
-                    .getId();
+            String resultKey = getIndexResultKey(indexResult.getMetacard());
 
             if (results.containsKey(resultKey)) {
                 MetacardImpl metacard = new MetacardImpl(results.get(resultKey)
@@ -197,6 +195,19 @@ protected String getResultKey(Metacard metacard) {
         return metacard.getSourceId() + ":" + metacard.getId();
     }
 
+    /**
+     * Results returned by the Solr index carry their original source id in the
+     * {@link FilteringDynamicSchemaResolver#SOURCE_ID} attribute, since the index replaces the
+     * metacard's source id with its own.
+     */
+    private String getIndexResultKey(Metacard metacard) {
+        Attribute sourceId = metacard.getAttribute(FilteringDynamicSchemaResolver.SOURCE_ID);
+        if (sourceId != null && sourceId.getValue() != null) {
+            return sourceId.getValue() + ":" + metacard.getId();
+        }
+        return getResultKey(metacard);
+    }
+
     protected Comparator<Result> getResultComparator(Query query) {
         Comparator<Result> sortComparator = new RelevanceResultComparator(SortOrder.DESCENDING);
         SortBy sortBy = query.getSortBy();
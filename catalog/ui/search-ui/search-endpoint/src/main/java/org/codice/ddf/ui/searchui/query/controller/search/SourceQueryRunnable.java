@@ -24,9 +24,9 @@
 import java.util.concurrent.TimeoutException;
 
 import org.codice.ddf.ui.searchui.query.controller.SearchController;
+import org.codice.ddf.ui.searchui.query.index.FilteringIndex;
 import org.codice.ddf.ui.searchui.query.model.Search;
 import org.codice.ddf.ui.searchui.query.model.SearchRequest;
-import org.codice.ddf.ui.searchui.query.solr.FilteringSolrIndex;
 import org.cometd.bayeux.server.ServerSession;
 
 import com.google.common.collect.Ordering;
@@ -48,7 +48,7 @@ public class SourceQueryRunnable extends QueryRunnable {
 
     private final Future cacheFuture;
 
-    private final Future<FilteringSolrIndex> solrIndexFuture;
+    private final Future<FilteringIndex> solrIndexFuture;
 
     private final Comparator<Result> sortComparator;
 
@@ -60,7 +60,7 @@ public class SourceQueryRunnable extends QueryRunnable {
 
     public SourceQueryRunnable(SearchController searchController, String sourceId,
             SearchRequest request, Subject subject, Map<String, Result> results, Search search,
-            ServerSession session, Future cacheFuture, Future<FilteringSolrIndex> solrIndexFuture) {
+            ServerSession session, Future cacheFuture, Future<FilteringIndex> solrIndexFuture) {
         super(searchController, request, subject, search, session, results);
         this.sourceId = sourceId;
         this.cacheFuture = cacheFuture;
@@ -132,7 +132,7 @@ private void sort(List<Result> responseResults) {
 
     private void normalize(Query query, List<Result> responseResults) {
         if (shouldNormalizeRelevance) {
-            FilteringSolrIndex index = null;
+            FilteringIndex index = null;
             try {
                 index = solrIndexFuture.get(FUTURE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
                 index.add(responseResults);
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.ui.searchui.query.index;
+
+import java.util.List;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.UnsupportedQueryException;
+
+/**
+ * Short-lived, per-search index used to re-filter and re-score the results returned by several
+ * sources so their relevance scores can be compared with each other.
+ */
+public interface FilteringIndex {
+
+    /**
+     * Adds the metacards of the given results to the index. Results without a metacard are
+     * ignored.
+     *
+     * @param results results to index
+     * @throws IngestException if the results could not be indexed
+     */
+    void add(List<Result> results) throws IngestException;
+
+    /**
+     * Queries the indexed metacards.
+     *
+     * @param request query to execute
+     * @return the matching results, scored and sorted according to the query
+     * @throws UnsupportedQueryException if the query is not supported by this index
+     */
+    SourceResponse query(QueryRequest request) throws UnsupportedQueryException;
+
+    /**
+     * Releases the resources held by this index. The index may not be used afterwards.
+     */
+    void shutdown();
+}
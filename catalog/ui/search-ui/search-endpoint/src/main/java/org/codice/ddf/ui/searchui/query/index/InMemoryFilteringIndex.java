@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.ui.searchui.query.index;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.io.WKTReader;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.UnsupportedQueryException;
+
+/**
+ * {@link FilteringIndex} that keeps the indexed metacards in memory and evaluates queries directly
+ * against them, instead of standing up an embedded Solr core for every search.
+ * <p>
+ * Queries are compiled once into a predicate by a {@link MetacardPredicateDelegate}. Matching
+ * documents are scored with Lucene's classic TF-IDF formula over the documents in this index, so
+ * that results from different sources get comparable relevance scores, and are then sorted on a
+ * single column of primitive sort keys. Relevance, date and numeric sorts are supported, documents
+ * are returned by descending relevance otherwise.
+ * <p>
+ * The text terms of the query the index is created for are counted when results are added, so
+ * each document is tokenized once no matter how many times the index is queried.
+ */
+public class InMemoryFilteringIndex implements FilteringIndex {
+
+    static final Logger LOGGER = LoggerFactory.getLogger(InMemoryFilteringIndex.class);
+
+    private static final String UNIQUE_KEY_SEPARATOR = ":";
+
+    private final FilterAdapter filterAdapter;
+
+    private final List<TextTerm> indexedTerms;
+
+    private final WKTReader wktReader = new WKTReader();
+
+    private final Map<String, IndexedDocument> documents = new LinkedHashMap<>();
+
+    /**
+     * Creates an index for the given query.
+     *
+     * @param filterAdapter adapter used to compile queries
+     * @param request       query the index is created for
+     * @throws UnsupportedQueryException if the query uses an operation this index cannot evaluate
+     */
+    public InMemoryFilteringIndex(FilterAdapter filterAdapter, QueryRequest request)
+            throws UnsupportedQueryException {
+        this.filterAdapter = filterAdapter;
+        this.indexedTerms = compile(request).scoringTerms;
+    }
+
+    @Override
+    public synchronized void add(List<Result> results) {
+        for (Result result : results) {
+            if (result != null && result.getMetacard() != null) {
+                Metacard metacard = result.getMetacard();
+                IndexedDocument document = new IndexedDocument(metacard);
+                document.index(indexedTerms);
+                documents.put(metacard.getSourceId() + UNIQUE_KEY_SEPARATOR + metacard.getId(),
+                        document);
+            }
+        }
+    }
+
+    @Override
+    public synchronized SourceResponse query(QueryRequest request)
+            throws UnsupportedQueryException {
+        CompiledQuery compiledQuery = compile(request);
+        Query query = request.getQuery();
+
+        IndexedDocument[] matches = documents.values()
+                .stream()
+                .filter(compiledQuery.predicate)
+                .toArray(IndexedDocument[]::new);
+
+        double[] scores = score(matches, compiledQuery.scoringTerms);
+        Integer[] order = sort(matches, scores, query.getSortBy());
+
+        int start = Math.max(query.getStartIndex(), 1) - 1;
+        int end = query.getPageSize() > 0 ?
+                Math.min(order.length, start + query.getPageSize()) :
+                order.length;
+
+        List<Result> results = new ArrayList<>(Math.max(end - start, 0));
+        for (int i = start; i < end; i++) {
+            ResultImpl result = new ResultImpl(matches[order[i]].getMetacard());
+            result.setRelevanceScore(scores[order[i]]);
+            results.add(result);
+        }
+
+        return new SourceResponseImpl(request, results, (long) matches.length);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        documents.clear();
+    }
+
+    synchronized int size() {
+        return documents.size();
+    }
+
+    private CompiledQuery compile(QueryRequest request) throws UnsupportedQueryException {
+        MetacardPredicateDelegate delegate = new MetacardPredicateDelegate(wktReader);
+        Predicate<IndexedDocument> predicate = filterAdapter.adapt(request.getQuery(), delegate);
+        return new CompiledQuery(predicate, delegate.getScoringTerms());
+    }
+
+    /**
+     * Scores documents with Lucene's classic similarity: for each term,
+     * {@code sqrt(tf) * idf^2 * 1/sqrt(fieldLength)} where {@code idf = 1 + ln(N / (df + 1))},
+     * multiplied by the fraction of query terms that matched. Documents of a query without text
+     * terms all score 1.
+     */
+    private double[] score(IndexedDocument[] matches, List<TextTerm> terms) {
+        double[] scores = new double[matches.length];
+        if (terms.isEmpty()) {
+            Arrays.fill(scores, 1.0);
+            return scores;
+        }
+
+        double[] idf = new double[terms.size()];
+        for (int t = 0; t < idf.length; t++) {
+            int documentFrequency = 0;
+            for (IndexedDocument document : documents.values()) {
+                if (document.termFrequency(terms.get(t)) > 0) {
+                    documentFrequency++;
+                }
+            }
+            idf[t] = 1 + Math.log(documents.size() / (double) (documentFrequency + 1));
+        }
+
+        for (int d = 0; d < matches.length; d++) {
+            double score = 0;
+            int matchedTerms = 0;
+            for (int t = 0; t < idf.length; t++) {
+                TextTerm term = terms.get(t);
+                int frequency = matches[d].termFrequency(term);
+                if (frequency > 0) {
+                    int fieldLength = Math.max(matches[d].fieldLength(term.getField()), 1);
+                    score += Math.sqrt(frequency) * idf[t] * idf[t] / Math.sqrt(fieldLength);
+                    matchedTerms++;
+                }
+            }
+            scores[d] = score * matchedTerms / idf.length;
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the indices of {@code matches} in sorted order. The sort keys of all matches are
+     * extracted once into a primitive column, documents without a value sort last.
+     */
+    private Integer[] sort(IndexedDocument[] matches, double[] scores, SortBy sortBy) {
+        Integer[] order = new Integer[matches.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        String sortProperty = sortBy == null || sortBy.getPropertyName() == null ?
+                Result.RELEVANCE :
+                sortBy.getPropertyName()
+                        .getPropertyName();
+        boolean ascending = sortBy != null && SortOrder.ASCENDING.equals(sortBy.getSortOrder());
+
+        double[] keys;
+        if (Result.RELEVANCE.equals(sortProperty)) {
+            keys = scores;
+        } else {
+            String attribute = Result.TEMPORAL.equals(sortProperty) ?
+                    Metacard.EFFECTIVE :
+                    sortProperty;
+            keys = new double[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                keys[i] = sortKey(matches[i], attribute);
+            }
+        }
+
+        Arrays.sort(order, (a, b) -> {
+            boolean aMissing = Double.isNaN(keys[a]);
+            boolean bMissing = Double.isNaN(keys[b]);
+            if (aMissing || bMissing) {
+                return Boolean.compare(aMissing, bMissing);
+            }
+            return ascending ?
+                    Double.compare(keys[a], keys[b]) :
+                    Double.compare(keys[b], keys[a]);
+        });
+        return order;
+    }
+
+    private static double sortKey(IndexedDocument document, String attribute) {
+        for (Serializable value : document.getValues(attribute)) {
+            if (value instanceof Date) {
+                return ((Date) value).getTime();
+            } else if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static class CompiledQuery {
+
+        private final Predicate<IndexedDocument> predicate;
+
+        private final List<TextTerm> scoringTerms;
+
+        CompiledQuery(Predicate<IndexedDocument> predicate, List<TextTerm> scoringTerms) {
+            this.predicate = predicate;
+            this.scoringTerms = scoringTerms;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.ui.searchui.query.index;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+
+/**
+ * A {@link Metacard} held by an {@link InMemoryFilteringIndex}, along with the term frequencies,
+ * field lengths and parsed geometries derived from it. Derived values are computed on first use
+ * and kept for the lifetime of the index; tokens themselves are not retained.
+ * <p>
+ * Instances are not thread-safe, access is serialized by the owning index.
+ */
+class IndexedDocument {
+
+    private final Metacard metacard;
+
+    private final Map<TextTerm, Integer> termFrequencies = new HashMap<>();
+
+    private final Map<String, Integer> fieldLengths = new HashMap<>();
+
+    private final Map<String, List<Geometry>> geometries = new HashMap<>();
+
+    IndexedDocument(Metacard metacard) {
+        this.metacard = metacard;
+    }
+
+    Metacard getMetacard() {
+        return metacard;
+    }
+
+    /**
+     * Returns the values of an attribute, or an empty list if the attribute is not set.
+     * {@link Metacard#ANY_DATE} resolves to the values of every date attribute of the metacard.
+     */
+    List<Serializable> getValues(String attributeName) {
+        if (Metacard.ANY_DATE.equals(attributeName)) {
+            List<Serializable> dates = new ArrayList<>();
+            for (AttributeDescriptor descriptor : getDescriptors()) {
+                if (AttributeType.AttributeFormat.DATE.equals(descriptor.getType()
+                        .getAttributeFormat())) {
+                    dates.addAll(getValues(descriptor.getName()));
+                }
+            }
+            return dates;
+        }
+
+        Attribute attribute = metacard.getAttribute(attributeName);
+        if (attribute == null || attribute.getValues() == null) {
+            return Collections.emptyList();
+        }
+        return attribute.getValues();
+    }
+
+    /**
+     * Computes the frequencies of all the given terms, tokenizing each field only once.
+     */
+    void index(Collection<TextTerm> terms) {
+        Map<String, List<TextTerm>> termsByField = new HashMap<>();
+        for (TextTerm term : terms) {
+            if (!termFrequencies.containsKey(term)) {
+                termsByField.computeIfAbsent(term.getField(), field -> new ArrayList<>())
+                        .add(term);
+            }
+        }
+
+        for (Map.Entry<String, List<TextTerm>> entry : termsByField.entrySet()) {
+            countTerms(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the number of tokens of the term's field that match the term.
+     */
+    int termFrequency(TextTerm term) {
+        Integer frequency = termFrequencies.get(term);
+        if (frequency == null) {
+            countTerms(term.getField(), Collections.singletonList(term));
+            frequency = termFrequencies.get(term);
+        }
+        return frequency;
+    }
+
+    /**
+     * Returns the number of tokens in {@code field}, or 0 if no term of that field has been
+     * counted yet.
+     */
+    int fieldLength(String field) {
+        Integer length = fieldLengths.get(field);
+        return length == null ? 0 : length;
+    }
+
+    /**
+     * Returns the geometries of an attribute. {@link Metacard#ANY_GEO} resolves to every geometry
+     * attribute of the metacard.
+     */
+    List<Geometry> getGeometries(String attributeName, WKTReader reader) {
+        List<Geometry> parsed = geometries.get(attributeName);
+        if (parsed == null) {
+            List<Serializable> wkts = new ArrayList<>();
+            if (Metacard.ANY_GEO.equals(attributeName)) {
+                for (AttributeDescriptor descriptor : getDescriptors()) {
+                    if (AttributeType.AttributeFormat.GEOMETRY.equals(descriptor.getType()
+                            .getAttributeFormat())) {
+                        wkts.addAll(getValues(descriptor.getName()));
+                    }
+                }
+                if (wkts.isEmpty() && StringUtils.isNotBlank(metacard.getLocation())) {
+                    wkts.add(metacard.getLocation());
+                }
+            } else {
+                wkts.addAll(getValues(attributeName));
+            }
+            parsed = parse(wkts, reader);
+            geometries.put(attributeName, parsed);
+        }
+        return parsed;
+    }
+
+    private void countTerms(String field, List<TextTerm> terms) {
+        int[] counts = new int[terms.size()];
+        List<String> tokens = TextTokenizer.tokenize(getText(field));
+        for (String token : tokens) {
+            for (int i = 0; i < counts.length; i++) {
+                if (terms.get(i)
+                        .matches(token)) {
+                    counts[i]++;
+                }
+            }
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            termFrequencies.put(terms.get(i), counts[i]);
+        }
+        fieldLengths.put(field, tokens.size());
+    }
+
+    private String getText(String field) {
+        StringBuilder text = new StringBuilder();
+        if (Metacard.ANY_TEXT.equals(field)) {
+            for (AttributeDescriptor descriptor : getDescriptors()) {
+                AttributeType.AttributeFormat format = descriptor.getType()
+                        .getAttributeFormat();
+                if (AttributeType.AttributeFormat.STRING.equals(format)
+                        || AttributeType.AttributeFormat.XML.equals(format)) {
+                    appendValues(text, descriptor.getName(), format);
+                }
+            }
+        } else {
+            AttributeDescriptor descriptor = metacard.getMetacardType() == null ?
+                    null :
+                    metacard.getMetacardType()
+                            .getAttributeDescriptor(field);
+            appendValues(text,
+                    field,
+                    descriptor == null ?
+                            null :
+                            descriptor.getType()
+                                    .getAttributeFormat());
+        }
+        return text.toString();
+    }
+
+    private void appendValues(StringBuilder text, String attributeName,
+            AttributeType.AttributeFormat format) {
+        for (Serializable value : getValues(attributeName)) {
+            if (value != null) {
+                String string = value.toString();
+                text.append(' ')
+                        .append(AttributeType.AttributeFormat.XML.equals(format) ?
+                                TextTokenizer.stripMarkup(string) :
+                                string);
+            }
+        }
+    }
+
+    private Collection<AttributeDescriptor> getDescriptors() {
+        if (metacard.getMetacardType() == null || metacard.getMetacardType()
+                .getAttributeDescriptors() == null) {
+            return Collections.emptySet();
+        }
+        return metacard.getMetacardType()
+                .getAttributeDescriptors();
+    }
+
+    private static List<Geometry> parse(List<Serializable> wkts, WKTReader reader) {
+        List<Geometry> parsed = new ArrayList<>(wkts.size());
+        for (Serializable wkt : wkts) {
+            if (wkt != null) {
+                try {
+                    parsed.add(reader.read(wkt.toString()));
+                } catch (ParseException e) {
+                    InMemoryFilteringIndex.LOGGER.debug("Unable to parse metacard WKT {}", wkt, e);
+                }
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,545 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.ui.searchui.query.index;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import org.locationtech.spatial4j.distance.DistanceUtils;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.filter.FilterDelegate;
+
+/**
+ * Compiles a {@link org.opengis.filter.Filter} into a {@link Predicate} that is evaluated directly
+ * against {@link IndexedDocument}s. The filter is only walked once per query, no matter how many
+ * documents are evaluated.
+ * <p>
+ * Operations that are not overridden here are rejected by {@link FilterDelegate} with an
+ * {@link UnsupportedOperationException}, which callers use to fall back to the embedded Solr
+ * index.
+ * <p>
+ * Every textual term encountered while compiling is recorded so that the index can score
+ * documents against them, see {@link #getScoringTerms()}.
+ */
+class MetacardPredicateDelegate extends FilterDelegate<Predicate<IndexedDocument>> {
+
+    private static final Predicate<IndexedDocument> MATCH_ALL = document -> true;
+
+    private static final Predicate<IndexedDocument> MATCH_NONE = document -> false;
+
+    private final WKTReader wktReader;
+
+    private final Set<TextTerm> scoringTerms = new LinkedHashSet<>();
+
+    MetacardPredicateDelegate(WKTReader wktReader) {
+        this.wktReader = wktReader;
+    }
+
+    /**
+     * @return the textual terms of the compiled filter, in the order they were encountered
+     */
+    List<TextTerm> getScoringTerms() {
+        return new ArrayList<>(scoringTerms);
+    }
+
+    // Logical operators
+
+    @Override
+    public Predicate<IndexedDocument> and(List<Predicate<IndexedDocument>> operands) {
+        return operands.stream()
+                .reduce(MATCH_ALL, Predicate::and);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> or(List<Predicate<IndexedDocument>> operands) {
+        return operands.stream()
+                .reduce(MATCH_NONE, Predicate::or);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> not(Predicate<IndexedDocument> operand) {
+        return operand.negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> include() {
+        return MATCH_ALL;
+    }
+
+    @Override
+    public Predicate<IndexedDocument> exclude() {
+        return MATCH_NONE;
+    }
+
+    // Textual operators
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLike(String propertyName, String pattern,
+            boolean isCaseSensitive) {
+        List<TextTerm> terms = new ArrayList<>();
+        for (TextTerm term : TextTerm.fromPattern(propertyName, pattern, isCaseSensitive)) {
+            if (!term.isMatchAll()) {
+                terms.add(term);
+            }
+        }
+
+        if (terms.isEmpty()) {
+            return Metacard.ANY_TEXT.equals(propertyName) ?
+                    MATCH_ALL :
+                    document -> !document.getValues(propertyName)
+                            .isEmpty();
+        }
+
+        scoringTerms.addAll(terms);
+        return document -> {
+            for (TextTerm term : terms) {
+                if (document.termFrequency(term) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsFuzzy(String propertyName, String literal) {
+        return propertyIsLike(propertyName, literal, false);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, String literal,
+            boolean isCaseSensitive) {
+        if (Metacard.ANY_TEXT.equals(propertyName)) {
+            return propertyIsLike(propertyName, literal, isCaseSensitive);
+        }
+        return anyValue(propertyName,
+                value -> isCaseSensitive ?
+                        literal.equals(value.toString()) :
+                        literal.equalsIgnoreCase(value.toString()));
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNotEqualTo(String propertyName, String literal,
+            boolean isCaseSensitive) {
+        return propertyIsEqualTo(propertyName, literal, isCaseSensitive).negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNull(String propertyName) {
+        return document -> document.getValues(propertyName)
+                .isEmpty();
+    }
+
+    // Comparison operators
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, Date literal) {
+        return compareDate(propertyName, literal, c -> c == 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, Date startDate,
+            Date endDate) {
+        return compareDate(propertyName, startDate, c -> c > 0).and(compareDate(propertyName,
+                endDate,
+                c -> c < 0));
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, int literal) {
+        return compareNumber(propertyName, literal, c -> c == 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, short literal) {
+        return compareNumber(propertyName, literal, c -> c == 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, long literal) {
+        return compareNumber(propertyName, literal, c -> c == 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, float literal) {
+        return compareNumber(propertyName, literal, c -> c == 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, double literal) {
+        return compareNumber(propertyName, literal, c -> c == 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsEqualTo(String propertyName, boolean literal) {
+        return anyValue(propertyName,
+                value -> value instanceof Boolean && (Boolean) value == literal);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNotEqualTo(String propertyName, Date literal) {
+        return propertyIsEqualTo(propertyName, literal).negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNotEqualTo(String propertyName, int literal) {
+        return propertyIsEqualTo(propertyName, literal).negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNotEqualTo(String propertyName, short literal) {
+        return propertyIsEqualTo(propertyName, literal).negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNotEqualTo(String propertyName, long literal) {
+        return propertyIsEqualTo(propertyName, literal).negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNotEqualTo(String propertyName, float literal) {
+        return propertyIsEqualTo(propertyName, literal).negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNotEqualTo(String propertyName, double literal) {
+        return propertyIsEqualTo(propertyName, literal).negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsNotEqualTo(String propertyName, boolean literal) {
+        return propertyIsEqualTo(propertyName, literal).negate();
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThan(String propertyName, Date literal) {
+        return compareDate(propertyName, literal, c -> c > 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThan(String propertyName, int literal) {
+        return compareNumber(propertyName, literal, c -> c > 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThan(String propertyName, short literal) {
+        return compareNumber(propertyName, literal, c -> c > 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThan(String propertyName, long literal) {
+        return compareNumber(propertyName, literal, c -> c > 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThan(String propertyName, float literal) {
+        return compareNumber(propertyName, literal, c -> c > 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThan(String propertyName, double literal) {
+        return compareNumber(propertyName, literal, c -> c > 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThanOrEqualTo(String propertyName,
+            Date literal) {
+        return compareDate(propertyName, literal, c -> c >= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThanOrEqualTo(String propertyName,
+            int literal) {
+        return compareNumber(propertyName, literal, c -> c >= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThanOrEqualTo(String propertyName,
+            short literal) {
+        return compareNumber(propertyName, literal, c -> c >= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThanOrEqualTo(String propertyName,
+            long literal) {
+        return compareNumber(propertyName, literal, c -> c >= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThanOrEqualTo(String propertyName,
+            float literal) {
+        return compareNumber(propertyName, literal, c -> c >= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsGreaterThanOrEqualTo(String propertyName,
+            double literal) {
+        return compareNumber(propertyName, literal, c -> c >= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThan(String propertyName, Date literal) {
+        return compareDate(propertyName, literal, c -> c < 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThan(String propertyName, int literal) {
+        return compareNumber(propertyName, literal, c -> c < 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThan(String propertyName, short literal) {
+        return compareNumber(propertyName, literal, c -> c < 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThan(String propertyName, long literal) {
+        return compareNumber(propertyName, literal, c -> c < 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThan(String propertyName, float literal) {
+        return compareNumber(propertyName, literal, c -> c < 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThan(String propertyName, double literal) {
+        return compareNumber(propertyName, literal, c -> c < 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThanOrEqualTo(String propertyName,
+            Date literal) {
+        return compareDate(propertyName, literal, c -> c <= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThanOrEqualTo(String propertyName,
+            int literal) {
+        return compareNumber(propertyName, literal, c -> c <= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThanOrEqualTo(String propertyName,
+            short literal) {
+        return compareNumber(propertyName, literal, c -> c <= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThanOrEqualTo(String propertyName,
+            long literal) {
+        return compareNumber(propertyName, literal, c -> c <= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThanOrEqualTo(String propertyName,
+            float literal) {
+        return compareNumber(propertyName, literal, c -> c <= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsLessThanOrEqualTo(String propertyName,
+            double literal) {
+        return compareNumber(propertyName, literal, c -> c <= 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsBetween(String propertyName, Date lowerBoundary,
+            Date upperBoundary) {
+        return during(propertyName, lowerBoundary, upperBoundary);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsBetween(String propertyName, int lowerBoundary,
+            int upperBoundary) {
+        return between(propertyName, lowerBoundary, upperBoundary);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsBetween(String propertyName, short lowerBoundary,
+            short upperBoundary) {
+        return between(propertyName, lowerBoundary, upperBoundary);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsBetween(String propertyName, long lowerBoundary,
+            long upperBoundary) {
+        return between(propertyName, lowerBoundary, upperBoundary);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsBetween(String propertyName, float lowerBoundary,
+            float upperBoundary) {
+        return between(propertyName, lowerBoundary, upperBoundary);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> propertyIsBetween(String propertyName, double lowerBoundary,
+            double upperBoundary) {
+        return between(propertyName, lowerBoundary, upperBoundary);
+    }
+
+    // Temporal operators
+
+    @Override
+    public Predicate<IndexedDocument> after(String propertyName, Date date) {
+        return compareDate(propertyName, date, c -> c > 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> before(String propertyName, Date date) {
+        return compareDate(propertyName, date, c -> c < 0);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> during(String propertyName, Date startDate, Date endDate) {
+        long start = startDate.getTime();
+        long end = endDate.getTime();
+        return anyValue(propertyName,
+                value -> value instanceof Date && ((Date) value).getTime() >= start
+                        && ((Date) value).getTime() <= end);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> relative(String propertyName, long duration) {
+        long end = System.currentTimeMillis();
+        return during(propertyName, new Date(end - duration), new Date(end));
+    }
+
+    // Spatial operators
+
+    @Override
+    public Predicate<IndexedDocument> intersects(String propertyName, String wkt) {
+        return spatial(propertyName, wkt, PreparedGeometry::intersects);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> contains(String propertyName, String wkt) {
+        return spatial(propertyName, wkt, PreparedGeometry::within);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> within(String propertyName, String wkt) {
+        return spatial(propertyName, wkt, PreparedGeometry::contains);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> disjoint(String propertyName, String wkt) {
+        return spatial(propertyName, wkt, PreparedGeometry::disjoint);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> crosses(String propertyName, String wkt) {
+        return spatial(propertyName, wkt, PreparedGeometry::crosses);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> overlaps(String propertyName, String wkt) {
+        return spatial(propertyName, wkt, PreparedGeometry::overlaps);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> touches(String propertyName, String wkt) {
+        return spatial(propertyName, wkt, PreparedGeometry::touches);
+    }
+
+    @Override
+    public Predicate<IndexedDocument> dwithin(String propertyName, String wkt, double distance) {
+        Geometry query = readWkt(wkt);
+        double degrees = toDegrees(distance);
+        return anyGeometry(propertyName, geometry -> geometry.isWithinDistance(query, degrees));
+    }
+
+    @Override
+    public Predicate<IndexedDocument> beyond(String propertyName, String wkt, double distance) {
+        return dwithin(propertyName, wkt, distance).negate();
+    }
+
+    private Predicate<IndexedDocument> spatial(String propertyName, String wkt,
+            BiPredicate<PreparedGeometry, Geometry> operation) {
+        PreparedGeometry query = PreparedGeometryFactory.prepare(readWkt(wkt));
+        return anyGeometry(propertyName, geometry -> operation.test(query, geometry));
+    }
+
+    private Predicate<IndexedDocument> anyGeometry(String propertyName,
+            Predicate<Geometry> test) {
+        return document -> document.getGeometries(propertyName, wktReader)
+                .stream()
+                .anyMatch(test);
+    }
+
+    private Geometry readWkt(String wkt) {
+        try {
+            return wktReader.read(wkt);
+        } catch (ParseException e) {
+            throw new UnsupportedOperationException("Unable to parse WKT " + wkt, e);
+        }
+    }
+
+    private static double toDegrees(double meters) {
+        return DistanceUtils.dist2Degrees(meters / 1000, DistanceUtils.EARTH_MEAN_RADIUS_KM);
+    }
+
+    private static Predicate<IndexedDocument> between(String propertyName, Number lowerBoundary,
+            Number upperBoundary) {
+        return compareNumber(propertyName, lowerBoundary, c -> c >= 0).and(compareNumber(
+                propertyName,
+                upperBoundary,
+                c -> c <= 0));
+    }
+
+    private static Predicate<IndexedDocument> compareNumber(String propertyName, Number literal,
+            IntPredicate comparison) {
+        double number = literal.doubleValue();
+        return anyValue(propertyName,
+                value -> value instanceof Number && comparison.test(Double.compare(
+                        ((Number) value).doubleValue(),
+                        number)));
+    }
+
+    private static Predicate<IndexedDocument> compareDate(String propertyName, Date literal,
+            IntPredicate comparison) {
+        long time = literal.getTime();
+        return anyValue(propertyName,
+                value -> value instanceof Date && comparison.test(Long.compare(
+                        ((Date) value).getTime(),
+                        time)));
+    }
+
+    private static Predicate<IndexedDocument> anyValue(String propertyName,
+            Predicate<Serializable> test) {
+        return document -> {
+            for (Serializable value : document.getValues(propertyName)) {
+                if (value != null && test.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.ui.searchui.query.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import ddf.catalog.filter.FilterDelegate;
+
+/**
+ * A single search term of a textual filter, for instance one word of a {@code PropertyIsLike}
+ * pattern. Terms may contain the {@link FilterDelegate#WILDCARD_CHAR} and
+ * {@link FilterDelegate#SINGLE_CHAR} wildcards, in which case they are matched against tokens as a
+ * precompiled regular expression.
+ */
+class TextTerm {
+
+    private final String field;
+
+    private final String term;
+
+    private final boolean caseSensitive;
+
+    private final Pattern pattern;
+
+    TextTerm(String field, String term, boolean caseSensitive) {
+        this.field = field;
+        this.term = term;
+        this.caseSensitive = caseSensitive;
+        this.pattern = hasWildcard(term) ? toPattern(term, caseSensitive) : null;
+    }
+
+    /**
+     * Splits a filter pattern into terms on the same boundaries used to tokenize documents.
+     * Wildcards are kept as part of the terms.
+     */
+    static List<TextTerm> fromPattern(String field, String pattern, boolean caseSensitive) {
+        List<TextTerm> terms = new ArrayList<>();
+        for (String token : TextTokenizer.tokenize(pattern, true)) {
+            terms.add(new TextTerm(field, token, caseSensitive));
+        }
+        return terms;
+    }
+
+    String getField() {
+        return field;
+    }
+
+    /**
+     * @return {@code true} if this term matches any token, for instance {@code *}
+     */
+    boolean isMatchAll() {
+        for (int i = 0; i < term.length(); i++) {
+            if (term.charAt(i) != '*') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean matches(String token) {
+        if (pattern != null) {
+            return pattern.matcher(token)
+                    .matches();
+        }
+        return caseSensitive ? term.equals(token) : term.equalsIgnoreCase(token);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TextTerm textTerm = (TextTerm) o;
+        return caseSensitive == textTerm.caseSensitive && field.equals(textTerm.field)
+                && term.equals(textTerm.term);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, term, caseSensitive);
+    }
+
+    @Override
+    public String toString() {
+        return field + ":" + term;
+    }
+
+    private static boolean hasWildcard(String term) {
+        return term.contains(FilterDelegate.WILDCARD_CHAR) || term.contains(
+                FilterDelegate.SINGLE_CHAR);
+    }
+
+    private static Pattern toPattern(String term, boolean caseSensitive) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return caseSensitive ?
+                Pattern.compile(regex.toString()) :
+                Pattern.compile(regex.toString(),
+                        Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.ui.searchui.query.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into tokens on every character that is neither a letter nor a digit, which is
+ * close to what the Solr catalog provider's standard tokenizer does for the text fields used by
+ * contextual searches.
+ */
+final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        return tokenize(text, false);
+    }
+
+    /**
+     * @param text          text to tokenize
+     * @param keepWildcards if {@code true}, {@code *} and {@code ?} are kept as part of tokens
+     * @return the tokens of {@code text}, in order
+     */
+    static List<String> tokenize(String text, boolean keepWildcards) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int start = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean tokenChar = Character.isLetterOrDigit(c) || (keepWildcards && (c == '*'
+                    || c == '?'));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(text.substring(start));
+        }
+        return tokens;
+    }
+
+    /**
+     * Replaces XML markup with whitespace so that only character data is tokenized.
+     */
+    static String stripMarkup(String xml) {
+        StringBuilder text = new StringBuilder(xml.length());
+        boolean inTag = false;
+        for (int i = 0; i < xml.length(); i++) {
+            char c = xml.charAt(i);
+            if (c == '<') {
+                inTag = true;
+                text.append(' ');
+            } else if (c == '>' && inTag) {
+                inTag = false;
+            } else if (!inTag) {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+}
@@ -43,6 +43,7 @@ public FilteringDynamicSchemaResolver(FilterAdapter filterAdapter,
 
         usedFields.add(Metacard.ID + SchemaFields.TEXT_SUFFIX);
         usedFields.add(SchemaFields.METACARD_TYPE_FIELD_NAME);
+        usedFields.add(SchemaFields.METACARD_TYPE_KEY_FIELD_NAME);
 
         SolrFilterDelegate solrFilterDelegate = filterDelegateFactory.newInstance(this);
         solrFilterDelegate.setSortPolicy(request.getQuery()
@@ -32,6 +32,7 @@
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.core.SolrResourceLoader;
 import org.apache.solr.schema.IndexSchema;
+import org.codice.ddf.ui.searchui.query.index.FilteringIndex;
 import org.codice.solr.factory.ConfigurationFileProxy;
 import org.codice.solr.factory.ConfigurationStore;
 import org.codice.solr.factory.EmbeddedSolrFactory;
@@ -42,7 +43,6 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.filter.FilterAdapter;
-import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.CreateRequestImpl;
@@ -52,7 +52,7 @@
 import ddf.catalog.source.solr.SolrFilterDelegateFactory;
 import ddf.catalog.source.solr.SolrFilterDelegateFactoryImpl;
 
-public class FilteringSolrIndex {
+public class FilteringSolrIndex implements FilteringIndex {
 
     private static volatile IndexSchema indexSchema;
 
@@ -139,14 +139,17 @@ private static EmbeddedSolrServer createSolrServer(String coreName,
      * Must be synchronized since force auto commit is enabled.  If too many commits happen at
      * the same time, performance is impacted and might log “too many warming searchers” warnings.
      */
-    public synchronized CreateResponse add(List<Result> results) throws IngestException {
-        return provider.create(new CreateRequestImpl(getMetacards(results)));
+    @Override
+    public synchronized void add(List<Result> results) throws IngestException {
+        provider.create(new CreateRequestImpl(getMetacards(results)));
     }
 
+    @Override
     public SourceResponse query(QueryRequest request) throws UnsupportedQueryException {
         return provider.query(request);
     }
 
+    @Override
     public void shutdown() {
         provider.shutdown();
     }
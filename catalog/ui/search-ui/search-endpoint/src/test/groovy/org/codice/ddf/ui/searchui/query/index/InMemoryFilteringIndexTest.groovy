@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ **/
+package org.codice.ddf.ui.searchui.query.index
+
+import ddf.catalog.data.Result
+import ddf.catalog.data.impl.MetacardImpl
+import ddf.catalog.data.impl.ResultImpl
+import ddf.catalog.filter.FilterAdapter
+import ddf.catalog.filter.impl.SortByImpl
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl
+import ddf.catalog.operation.impl.QueryImpl
+import ddf.catalog.operation.impl.QueryRequestImpl
+import ddf.catalog.source.UnsupportedQueryException
+import org.geotools.filter.text.ecql.ECQL
+import org.opengis.filter.sort.SortOrder
+import spock.lang.Specification
+
+class InMemoryFilteringIndexTest extends Specification {
+
+    def adapter = new GeotoolsFilterAdapterImpl()
+
+    def results = [
+            result("1", "source1", "Lake water levels", "POINT (1 1)", new Date(1000)),
+            result("2", "source1", "Water", "POINT (2 2)", new Date(3000)),
+            result("3", "source2", "Mountain trails", "POINT (20 20)", new Date(2000))
+    ]
+
+    def "Returns matching results by descending relevance"() {
+        setup:
+        def request = request("anyText ILIKE 'water'")
+        def index = new InMemoryFilteringIndex(adapter, request)
+        index.add(results)
+
+        when:
+        def response = index.query(request)
+
+        then:
+        response.hits == 2
+        response.results*.metacard*.id == ["2", "1"]
+        response.results[0].relevanceScore > response.results[1].relevanceScore
+    }
+
+    def "Can evaluate filters"() {
+        setup:
+        def request = request(cql)
+        def index = new InMemoryFilteringIndex(adapter, request)
+        index.add(results)
+
+        when:
+        def response = index.query(request)
+
+        then:
+        response.results*.metacard*.id as Set == ids as Set
+
+        where:
+        cql                                                        | ids
+        "anyText ILIKE 'lake*'"                                    | ["1"]
+        "anyText ILIKE 'water' AND anyText ILIKE 'lake'"           | ["1"]
+        "anyText ILIKE 'water' OR anyText ILIKE 'trails'"          | ["1", "2", "3"]
+        "NOT anyText ILIKE 'water'"                                | ["3"]
+        "INTERSECTS(location, POLYGON ((0 0, 5 0, 5 5, 0 5, 0 0)))" | ["1", "2"]
+        "modified AFTER 1970-01-01T00:00:01.500Z"                   | ["2", "3"]
+    }
+
+    def "Results from different sources with the same id are kept"() {
+        setup:
+        def request = request("anyText ILIKE 'water'")
+        def index = new InMemoryFilteringIndex(adapter, request)
+
+        when:
+        index.add([result("1", "source1", "water", null, null),
+                   result("1", "source2", "water", null, null)])
+
+        then:
+        index.size() == 2
+    }
+
+    def "Can page and sort results"() {
+        setup:
+        def request = request("anyText ILIKE '*'", 2, 2, new SortByImpl("modified",
+                SortOrder.ASCENDING))
+        def index = new InMemoryFilteringIndex(adapter, request)
+        index.add(results)
+
+        when:
+        def response = index.query(request)
+
+        then:
+        response.hits == 3
+        response.results*.metacard*.id == ["3", "2"]
+    }
+
+    def "Throws when the query cannot be evaluated"() {
+        setup:
+        def filterAdapter = Mock(FilterAdapter) {
+            adapt(_, _) >> { throw new UnsupportedQueryException() }
+        }
+
+        when:
+        new InMemoryFilteringIndex(filterAdapter, request("anyText ILIKE 'water'"))
+
+        then:
+        thrown(UnsupportedQueryException)
+    }
+
+    def "Can shutdown index"() {
+        setup:
+        def index = new InMemoryFilteringIndex(adapter, request("anyText ILIKE 'water'"))
+        index.add(results)
+
+        when:
+        index.shutdown()
+
+        then:
+        index.size() == 0
+    }
+
+    def request(String cql, int startIndex = 1, int pageSize = 10, sortBy = null) {
+        new QueryRequestImpl(new QueryImpl(ECQL.toFilter(cql), startIndex, pageSize, sortBy,
+                true, 0))
+    }
+
+    Result result(String id, String sourceId, String title, String location, Date modified) {
+        def metacard = new MetacardImpl()
+        metacard.id = id
+        metacard.sourceId = sourceId
+        metacard.title = title
+        metacard.location = location
+        metacard.modifiedDate = modified
+        new ResultImpl(metacard)
+    }
+}
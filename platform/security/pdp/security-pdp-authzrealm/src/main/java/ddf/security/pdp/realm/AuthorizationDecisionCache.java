@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.pdp.realm;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import ddf.security.permission.KeyValueCollectionPermission;
+import ddf.security.permission.KeyValuePermission;
+
+/**
+ * Caches the authorization decisions of the {@link AuthzRealm} for each subject.
+ * <p/>
+ * Decisions are cached per {@link PrincipalCollection} instance, along with the
+ * {@link AuthorizationInfo} built from it, and are keyed by the action and the canonical key/value
+ * set of a {@link KeyValueCollectionPermission}. Since most results of a query share one of a few
+ * combinations of security markings, most permission checks of a subject are answered without
+ * evaluating the policy extensions or calling the XACML PDP.
+ * <p/>
+ * The cache must be {@link #invalidate() invalidated} whenever anything the decisions depend on
+ * changes, such as the XACML policies or the attribute mappings.
+ */
+public class AuthorizationDecisionCache implements AuthorizationDecisionCacheMBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationDecisionCache.class);
+
+    private static final int DEFAULT_DECISIONS_PER_SUBJECT = 1000;
+
+    private static final int MAXIMUM_SUBJECTS = 1000;
+
+    private static final long SUBJECT_EXPIRATION_MINUTES = 10;
+
+    private final Cache<PrincipalCollection, Decisions> subjects = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(MAXIMUM_SUBJECTS)
+            .expireAfterAccess(SUBJECT_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile int decisionsPerSubject = DEFAULT_DECISIONS_PER_SUBJECT;
+
+    private ObjectName objectName;
+
+    /**
+     * Returns the cached decisions of a subject.
+     *
+     * @param principals the principals of the subject
+     * @return the decisions of the subject, or {@code null} if the cache is disabled
+     */
+    public Decisions getDecisions(PrincipalCollection principals) {
+        if (principals == null || decisionsPerSubject <= 0) {
+            return null;
+        }
+        try {
+            return subjects.get(principals, () -> new Decisions(decisionsPerSubject));
+        } catch (ExecutionException e) {
+            LOGGER.debug("Unable to create the authorization decisions of a subject.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Discards every cached decision.
+     */
+    public void invalidate() {
+        LOGGER.debug("Invalidating the cached authorization decisions.");
+        subjects.invalidateAll();
+    }
+
+    /**
+     * @param decisionsPerSubject the maximum number of decisions cached for each subject, or 0 to
+     *                            disable the cache
+     */
+    public void setDecisionsPerSubject(int decisionsPerSubject) {
+        this.decisionsPerSubject = decisionsPerSubject;
+        invalidate();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public long getSubjectCount() {
+        return subjects.size();
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+        hits.reset();
+        misses.reset();
+    }
+
+    public void registerMBean() {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            objectName = new ObjectName(AuthorizationDecisionCacheMBean.OBJECTNAME);
+            try {
+                mbeanServer.registerMBean(new StandardMBean(this,
+                        AuthorizationDecisionCacheMBean.class), objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                LOGGER.info("Re-registering Authorization Decision Cache MBean");
+                mbeanServer.unregisterMBean(objectName);
+                mbeanServer.registerMBean(new StandardMBean(this,
+                        AuthorizationDecisionCacheMBean.class), objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not register MBean.", e);
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            if (objectName != null) {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not unregister MBean.", e);
+        }
+    }
+
+    /**
+     * Returns the key of the decision on a permission.
+     *
+     * @param permission the permission being checked
+     * @return the key of the decision, or {@code null} if the permission has a {@code null} key
+     * or value and its decision cannot be cached
+     */
+    public static Object getKey(KeyValueCollectionPermission permission) {
+        List<KeyValuePermission> keyValuePermissions = permission.getKeyValuePermissionList();
+        List<List<String>> keyValues = new ArrayList<>(keyValuePermissions.size());
+        for (KeyValuePermission keyValuePermission : keyValuePermissions) {
+            Set<String> values = keyValuePermission.getValues();
+            if (keyValuePermission.getKey() == null || values.contains(null)) {
+                return null;
+            }
+            List<String> keyValue = new ArrayList<>(values.size() + 1);
+            keyValue.add(keyValuePermission.getKey());
+            keyValue.addAll(new TreeSet<>(values));
+            keyValues.add(keyValue);
+        }
+        keyValues.sort((first, second) -> first.toString()
+                .compareTo(second.toString()));
+        keyValues.add(0, Collections.singletonList(permission.getAction()));
+        return keyValues;
+    }
+
+    /**
+     * The cached {@link AuthorizationInfo} and decisions of a single subject.
+     */
+    public class Decisions {
+
+        private final Cache<Object, Boolean> decisions;
+
+        private volatile AuthorizationInfo authorizationInfo;
+
+        Decisions(int maximumSize) {
+            decisions = CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .build();
+        }
+
+        /**
+         * Returns the {@link AuthorizationInfo} of the subject, loading it the first time.
+         */
+        public AuthorizationInfo getAuthorizationInfo(Supplier<AuthorizationInfo> loader) {
+            AuthorizationInfo info = authorizationInfo;
+            if (info == null) {
+                info = loader.get();
+                authorizationInfo = info;
+            }
+            return info;
+        }
+
+        /**
+         * @param key the key returned by {@link AuthorizationDecisionCache#getKey}
+         * @return the cached decision, or {@code null} if there is none
+         */
+        public Boolean get(Object key) {
+            Boolean decision = decisions.getIfPresent(key);
+            if (decision == null) {
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            return decision;
+        }
+
+        public void put(Object key, boolean decision) {
+            decisions.put(key, decision);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.pdp.realm;
+
+/**
+ * Statistics of the {@link AuthorizationDecisionCache} of the {@link AuthzRealm}.
+ */
+public interface AuthorizationDecisionCacheMBean {
+
+    String OBJECTNAME = "ddf.security.pdp.realm.AuthorizationDecisionCache:service=authz-cache";
+
+    /**
+     * @return the number of permission checks answered from the cache
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of permission checks that had to be evaluated
+     */
+    long getMissCount();
+
+    /**
+     * @return the fraction of cacheable permission checks answered from the cache
+     */
+    double getHitRatio();
+
+    /**
+     * @return the number of subjects that have decisions in the cache
+     */
+    long getSubjectCount();
+
+    /**
+     * Discards every cached decision and resets the statistics.
+     */
+    void clear();
+}
@@ -31,10 +31,12 @@
 import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.util.CollectionUtils;
 import org.codice.ddf.parser.Parser;
+import org.osgi.framework.ServiceReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ddf.security.common.audit.SecurityLogger;
+import ddf.security.expansion.Expansion;
 import ddf.security.pdp.realm.xacml.XacmlPdp;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
 import ddf.security.permission.CollectionPermission;
@@ -69,9 +71,14 @@ public class AuthzRealm extends AbstractAuthorizingRealm {
 
     private XacmlPdp xacmlPdp;
 
+    private AuthorizationDecisionCache decisionCache = new AuthorizationDecisionCache();
+
     public AuthzRealm(String dirPath, Parser parser) throws PdpException {
         super();
-        xacmlPdp = new XacmlPdp(dirPath, parser, environmentAttributes);
+        xacmlPdp = new XacmlPdp(dirPath,
+                parser,
+                environmentAttributes,
+                () -> decisionCache.invalidate());
     }
 
     // this realm is for authorization only
@@ -176,16 +183,58 @@ public boolean isPermitted(PrincipalCollection subjectPrincipal, Permission perm
     public boolean[] isPermitted(PrincipalCollection subjectPrincipal,
             List<Permission> permissions) {
         boolean[] results = new boolean[permissions.size()];
-        AuthorizationInfo authorizationInfo = getAuthorizationInfo(subjectPrincipal);
+        AuthorizationDecisionCache.Decisions decisions =
+                decisionCache.getDecisions(subjectPrincipal);
+        AuthorizationInfo authorizationInfo = decisions == null ?
+                getAuthorizationInfo(subjectPrincipal) :
+                decisions.getAuthorizationInfo(() -> getAuthorizationInfo(subjectPrincipal));
         List<Permission> expandedPermissions = expandPermissions(permissions);
         int i = 0;
         for (Permission permission : expandedPermissions) {
-            results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
+            results[i++] = isPermitted(subjectPrincipal,
+                    permission,
+                    authorizationInfo,
+                    decisions);
         }
 
         return results;
     }
 
+    /**
+     * Checks a permission against the cached decisions of the subject, and caches the decision if
+     * there is none.
+     */
+    private boolean isPermitted(PrincipalCollection subjectPrincipal, Permission permission,
+            AuthorizationInfo authorizationInfo, AuthorizationDecisionCache.Decisions decisions) {
+        if (decisions == null || !(permission instanceof KeyValueCollectionPermission)) {
+            return isPermitted(subjectPrincipal, permission, authorizationInfo);
+        }
+
+        Object key = AuthorizationDecisionCache.getKey((KeyValueCollectionPermission) permission);
+        if (key == null) {
+            return isPermitted(subjectPrincipal, permission, authorizationInfo);
+        }
+
+        Boolean decision = decisions.get(key);
+        if (decision != null) {
+            String curUser = "<user>";
+            if (subjectPrincipal.getPrimaryPrincipal() != null) {
+                curUser = subjectPrincipal.getPrimaryPrincipal()
+                        .toString();
+            }
+            SecurityLogger.audit(
+                    PERMISSION_FINISH_1_MSG + curUser + PERMISSION_FINISH_2_MSG + permission + (
+                            decision ?
+                                    "] is implied (cached)." :
+                                    "] is not implied (cached)."));
+            return decision;
+        }
+
+        boolean permitted = isPermitted(subjectPrincipal, permission, authorizationInfo);
+        decisions.put(key, permitted);
+        return permitted;
+    }
+
     /**
      * Checks if the corresponding Subject/user contained within the AuthorizationInfo object
      * implies the given Permission.
@@ -435,20 +484,35 @@ private Collection<Permission> resolveRolePermissions(Collection<String> roleNam
      */
     public void setPolicyExtensions(List<PolicyExtension> policyExtensions) {
         this.policyExtensions = policyExtensions;
+        decisionCache.invalidate();
     }
 
     public void addPolicyExtension(PolicyExtension policyExtension) {
         if (policyExtensions != null) {
             policyExtensions.add(policyExtension);
+            decisionCache.invalidate();
         }
     }
 
     public void removePolicyExtension(PolicyExtension policyExtension) {
         if (policyExtensions != null) {
             policyExtensions.remove(policyExtension);
+            decisionCache.invalidate();
         }
     }
 
+    @Override
+    public void addExpansion(ServiceReference<Expansion> expansionServiceRef, Expansion expansion) {
+        super.addExpansion(expansionServiceRef, expansion);
+        decisionCache.invalidate();
+    }
+
+    @Override
+    public void removeExpansion(ServiceReference<Expansion> expansionServiceRef) {
+        super.removeExpansion(expansionServiceRef);
+        decisionCache.invalidate();
+    }
+
     /**
      * Sets the mappings used by the "match all" evaluation to determine if this user should be
      * authorized to access requested data.
@@ -481,6 +545,7 @@ public void setMatchAllMappings(List<String> list) {
                 }
             }
         }
+        decisionCache.invalidate();
     }
 
     /**
@@ -515,10 +580,30 @@ public void setMatchOneMappings(List<String> list) {
                 }
             }
         }
+        decisionCache.invalidate();
     }
 
     public void setEnvironmentAttributes(List<String> environmentAttributes) {
         this.environmentAttributes.clear();
         this.environmentAttributes.addAll(environmentAttributes);
+        decisionCache.invalidate();
+    }
+
+    /**
+     * Sets the cache of the authorization decisions of each subject. The cache is invalidated
+     * whenever the policies, mappings, policy extensions or expansions of this realm change.
+     *
+     * @param decisionCache the decision cache
+     */
+    public void setDecisionCache(AuthorizationDecisionCache decisionCache) {
+        this.decisionCache = decisionCache;
+    }
+
+    /**
+     * @param decisionCacheSize the maximum number of decisions cached for each subject, or 0 to
+     *                          disable the decision cache
+     */
+    public void setDecisionCacheSize(int decisionCacheSize) {
+        decisionCache.setDecisionsPerSubject(decisionCacheSize);
     }
 }
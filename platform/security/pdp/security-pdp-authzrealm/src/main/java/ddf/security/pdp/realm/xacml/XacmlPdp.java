@@ -52,8 +52,16 @@ public class XacmlPdp {
      */
     public XacmlPdp(String dirPath, Parser parser, List<String> environmentAttributes)
             throws PdpException {
+        this(dirPath, parser, environmentAttributes, null);
+    }
+
+    /**
+     * Creates a PDP that runs the given listener whenever its policies are reloaded.
+     */
+    public XacmlPdp(String dirPath, Parser parser, List<String> environmentAttributes,
+            Runnable policyListener) throws PdpException {
         super();
-        pdp = new XacmlClient(dirPath, parser);
+        pdp = new XacmlClient(dirPath, parser, policyListener);
         this.environmentAttributes = environmentAttributes;
         LOGGER.debug("Creating new PDP-backed Authorizing Realm");
     }
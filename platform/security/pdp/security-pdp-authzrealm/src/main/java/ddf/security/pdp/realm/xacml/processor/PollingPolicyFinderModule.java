@@ -48,13 +48,26 @@ public class PollingPolicyFinderModule extends FileBasedPolicyFinderModule
 
     private Set<String> xacmlPolicyDirectories;
 
+    private final Runnable policyListener;
+
     /**
      * @param xacmlPolicyDirectories - to search for policies
      * @param pollingInterval        - in seconds
      */
     public PollingPolicyFinderModule(Set<String> xacmlPolicyDirectories, long pollingInterval) {
+        this(xacmlPolicyDirectories, pollingInterval, null);
+    }
+
+    /**
+     * @param xacmlPolicyDirectories - to search for policies
+     * @param pollingInterval        - in seconds
+     * @param policyListener         - run after the policies have been reloaded, may be null
+     */
+    public PollingPolicyFinderModule(Set<String> xacmlPolicyDirectories, long pollingInterval,
+            Runnable policyListener) {
         super(xacmlPolicyDirectories);
         this.xacmlPolicyDirectories = xacmlPolicyDirectories;
+        this.policyListener = policyListener;
         initialize(pollingInterval);
     }
 
@@ -203,6 +216,9 @@ private FileFilter getXmlFileFilter() {
     public void reloadPolicies() {
         LOGGER.debug("Reloading XACML policies");
         this.loadPolicies();
+        if (policyListener != null) {
+            policyListener.run();
+        }
     }
 
 }
@@ -87,6 +87,8 @@ public class XacmlClient {
 
     private final Parser parser;
 
+    private final Runnable policyListener;
+
     /**
      * Creates the proxy to the real XACML PDP.
      *
@@ -96,7 +98,21 @@ public class XacmlClient {
      */
     public XacmlClient(String relativeXacmlPoliciesDirectoryPath, Parser parser)
             throws PdpException {
+        this(relativeXacmlPoliciesDirectoryPath, parser, null);
+    }
+
+    /**
+     * Creates the proxy to the real XACML PDP.
+     *
+     * @param relativeXacmlPoliciesDirectoryPath Relative directory path to the root of the DDF installation.
+     * @param parser                             for marshal and unmarshal
+     * @param policyListener                     run whenever the policies are reloaded, may be null
+     * @throws PdpException
+     */
+    public XacmlClient(String relativeXacmlPoliciesDirectoryPath, Parser parser,
+            Runnable policyListener) throws PdpException {
         this.parser = parser;
+        this.policyListener = policyListener;
         if (StringUtils.isEmpty(relativeXacmlPoliciesDirectoryPath)) {
             throw new PdpException(NULL_DIRECTORY_EXCEPTION_MSG);
         }
@@ -190,7 +206,8 @@ private PolicyFinder createPolicyFinder() {
         PolicyFinder policyFinder = new PolicyFinder();
         PollingPolicyFinderModule policyFinderModule = new PollingPolicyFinderModule(
                 xacmlPolicyDirectories,
-                defaultPollingIntervalInSeconds);
+                defaultPollingIntervalInSeconds,
+                policyListener);
         policyFinderModule.start();
         Set<PolicyFinderModule> policyFinderModules = new HashSet<>(1);
         policyFinderModules.add(policyFinderModule);
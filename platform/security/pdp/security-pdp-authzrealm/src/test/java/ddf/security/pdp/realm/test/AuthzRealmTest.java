@@ -32,6 +32,7 @@
 
 import junit.framework.Assert;
 
+import ddf.security.pdp.realm.AuthorizationDecisionCache;
 import ddf.security.pdp.realm.AuthzRealm;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
 import ddf.security.permission.CollectionPermission;
@@ -292,4 +293,71 @@ public KeyValueCollectionPermission isPermittedMatchOne(
 
         testRealm.setPolicyExtensions(Arrays.asList(policyExtension));
     }
+
+    @Test
+    public void testCachedDecisionsForPageOfResults() {
+        AuthorizationDecisionCache decisionCache = new AuthorizationDecisionCache();
+        testRealm.setDecisionCache(decisionCache);
+
+        HashMap<String, List<String>> notPermitted = new HashMap<>();
+        notPermitted.put("country", Arrays.asList("CAN", "GBR"));
+        notPermitted.put("rule", Arrays.asList("A"));
+        HashMap<String, List<String>> reordered = new HashMap<>();
+        reordered.put("rule", Arrays.asList("B", "A"));
+        reordered.put("country", Arrays.asList("GBR", "CAN", "AUS"));
+
+        permissionList.clear();
+        for (int i = 0; i < 1000; i++) {
+            switch (i % 3) {
+            case 0:
+                permissionList.add(new KeyValueCollectionPermission("action", security));
+                break;
+            case 1:
+                permissionList.add(new KeyValueCollectionPermission("action", notPermitted));
+                break;
+            default:
+                permissionList.add(new KeyValueCollectionPermission("action", reordered));
+            }
+        }
+
+        boolean[] permittedArray = testRealm.isPermitted(mockSubjectPrincipal, permissionList);
+
+        for (int i = 0; i < permittedArray.length; i++) {
+            Assert.assertEquals(i % 3 != 1, permittedArray[i]);
+        }
+        Assert.assertEquals(2, decisionCache.getMissCount());
+        Assert.assertEquals(998, decisionCache.getHitCount());
+    }
+
+    @Test
+    public void testCachedDecisionsInvalidatedByMappings() {
+        AuthorizationDecisionCache decisionCache = new AuthorizationDecisionCache();
+        testRealm.setDecisionCache(decisionCache);
+        permissionList.clear();
+        permissionList.add(new KeyValueCollectionPermission("action", security));
+
+        Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+        Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+        Assert.assertEquals(1, decisionCache.getHitCount());
+
+        testRealm.setMatchOneMappings(Arrays.asList("FineAccessControls=country"));
+
+        Assert.assertFalse(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+        Assert.assertEquals(1, decisionCache.getHitCount());
+        Assert.assertEquals(2, decisionCache.getMissCount());
+    }
+
+    @Test
+    public void testDecisionCacheDisabled() {
+        AuthorizationDecisionCache decisionCache = new AuthorizationDecisionCache();
+        testRealm.setDecisionCache(decisionCache);
+        testRealm.setDecisionCacheSize(0);
+        permissionList.clear();
+        permissionList.add(new KeyValueCollectionPermission("action", security));
+
+        Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+        Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+        Assert.assertEquals(0, decisionCache.getHitCount());
+        Assert.assertEquals(0, decisionCache.getMissCount());
+    }
 }